@@ -0,0 +1,128 @@
+package org.bsc.langgraph4j;
+
+import java.util.Optional;
+import java.util.function.IntFunction;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.Optional.ofNullable;
+
+/**
+ * Options of a batch invocation of a graph.
+ *
+ * @see CompiledGraph#batch(java.util.List, RunnableConfig, BatchOptions)
+ */
+public final class BatchOptions {
+
+    /**
+     * A builder for {@link BatchOptions}
+     */
+    public static class Builder {
+        private int maxConcurrency = Runtime.getRuntime().availableProcessors();
+        private IntFunction<String> threadId;
+        private boolean failFast = false;
+
+        private Builder() {}
+
+        /**
+         * Sets the maximum number of inputs processed at the same time (default: number of available processors).
+         *
+         * @param maxConcurrency the maximum number of in-flight executions
+         * @return this builder
+         */
+        public Builder maxConcurrency(int maxConcurrency) {
+            if (maxConcurrency <= 0) {
+                throw new IllegalArgumentException("maxConcurrency must be > 0!");
+            }
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        /**
+         * Sets the function that generates the thread id of each input, given its index.
+         * By default the thread id is the one of the template configuration ( or a random one ) suffixed by the index.
+         *
+         * @param threadId the thread id generator
+         * @return this builder
+         */
+        public Builder threadId(IntFunction<String> threadId) {
+            this.threadId = threadId;
+            return this;
+        }
+
+        /**
+         * Sets whether to skip the inputs not yet started as soon as an execution fails (default false).
+         * The skipped inputs result in a {@link java.util.concurrent.CancellationException}.
+         *
+         * @param failFast the flag
+         * @return this builder
+         */
+        public Builder failFast(boolean failFast) {
+            this.failFast = failFast;
+            return this;
+        }
+
+        public BatchOptions build() {
+            return new BatchOptions(this);
+        }
+    }
+
+    /**
+     * Creates a new builder
+     *
+     * @return a new {@link Builder} instance
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the default options
+     *
+     * @return a new {@link BatchOptions} instance with default values
+     */
+    public static BatchOptions defaults() {
+        return builder().build();
+    }
+
+    private final int maxConcurrency;
+    private final IntFunction<String> threadId;
+    private final boolean failFast;
+
+    private BatchOptions(Builder builder) {
+        this.maxConcurrency = builder.maxConcurrency;
+        this.threadId = builder.threadId;
+        this.failFast = builder.failFast;
+    }
+
+    public int maxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public Optional<IntFunction<String>> threadId() {
+        return ofNullable(threadId);
+    }
+
+    public boolean failFast() {
+        return failFast;
+    }
+
+    /**
+     * The outcome of the execution of a single input of a batch
+     *
+     * @param config the configuration used for the input
+     * @param state the final state, empty if the execution failed or produced no output
+     * @param error the error raised by the execution, {@code null} if it succeeded
+     * @param <State> the type of the state
+     */
+    public record Result<State>( RunnableConfig config, Optional<State> state, Throwable error ) {
+
+        public Result {
+            requireNonNull( config, "config cannot be null" );
+            requireNonNull( state, "state cannot be null" );
+        }
+
+        public boolean isError() {
+            return error != null;
+        }
+    }
+}
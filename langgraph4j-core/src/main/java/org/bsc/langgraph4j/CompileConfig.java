@@ -3,8 +3,10 @@ package org.bsc.langgraph4j;
 import org.bsc.langgraph4j.checkpoint.BaseCheckpointSaver;
 
 import java.util.Collection;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 import static java.util.Optional.ofNullable;
@@ -16,6 +18,22 @@ import static java.util.Optional.ofNullable;
  */
 public class CompileConfig {
 
+    /**
+     * The strategy used to take a snapshot of the state.
+     */
+    public enum SnapshotStrategy {
+        /**
+         * The whole state is cloned through the {@link org.bsc.langgraph4j.serializer.StateSerializer} of the graph.
+         */
+        SERIALIZER,
+        /**
+         * Values are copied through the {@link org.bsc.langgraph4j.state.Channel#getCopier()} of their channel, the
+         * {@link org.bsc.langgraph4j.state.OpaqueValue}s are cloned together through the
+         * {@link org.bsc.langgraph4j.serializer.StateSerializer} and all the other values are shared, so they must not
+         * be mutated in place.
+         */
+        STRUCTURAL
+    }
 
     /**
      * This class is a builder for {@link CompileConfig}. It allows for the configuration of various options
@@ -126,6 +144,85 @@ public class CompileConfig {
             return this;
         }
 
+        /**
+         * Sets the strategy used to take a snapshot of the state for node outputs, checkpoints and interruptions.
+         *
+         * @param snapshotStrategy the snapshot strategy, must not be null
+         * @return The current {@code Builder} instance for method chaining.
+         * @see SnapshotStrategy
+         */
+        public Builder snapshotStrategy(SnapshotStrategy snapshotStrategy) {
+            this.config.snapshotStrategy = Objects.requireNonNull(snapshotStrategy, "snapshotStrategy cannot be null");
+            return this;
+        }
+
+        /**
+         * Sets the executor that runs the graph executions started through
+         * {@link CompiledGraph#invokeAsync(GraphInput, RunnableConfig)}, together with their node actions,
+         * and the branches of the parallel nodes that don't have a dedicated executor.
+         * It can be overridden for a single execution through {@link RunnableConfig.Builder#executor(Executor)}.
+         *
+         * @param executor the executor, {@code null} to run the parallel branches on the calling thread
+         * @return The current {@code Builder} instance for method chaining.
+         * @see org.bsc.langgraph4j.utils.VirtualThreads
+         */
+        public Builder executor(Executor executor) {
+            this.config.executor = executor;
+            return this;
+        }
+
+        /**
+         * Sets whether the parallel nodes stream the outputs of their branches as they arrive (default false).
+         * <p>
+         * When enabled, the outputs of the branches that return a generator ( e.g. subgraphs or streaming LLM calls )
+         * are interleaved into the stream of the graph as {@link org.bsc.langgraph4j.streaming.BranchOutput},
+         * instead of being collected until all the branches are completed. The branches are started on the
+         * configured executor or on the {@link java.util.concurrent.ForkJoinPool#commonPool()}.
+         *
+         * @param streamParallelBranches the flag
+         * @return The current {@code Builder} instance for method chaining.
+         */
+        public Builder streamParallelBranches(boolean streamParallelBranches) {
+            this.config.streamParallelBranches = streamParallelBranches;
+            return this;
+        }
+
+        /**
+         * Sets whether the compiled subgraphs are inlined in the execution plan of the parent graph, as it happens
+         * for the {@link StateGraph} subgraphs. Their nodes are namespaced by the id of the subgraph node, and run
+         * within the parent execution, with a single checkpoint per step stored by the parent checkpoint saver.
+         * The interruptions of the compiled subgraphs are kept, the rest of their compile configuration is ignored.
+         * The compilation fails if a compiled subgraph has node timeouts, node or edge hooks, declared node channels
+         * or channels not shared with the parent graph, since they wouldn't be applied to the inlined nodes.
+         *
+         * @param inlineCompiledSubgraphs the flag
+         * @return The current {@code Builder} instance for method chaining.
+         */
+        public Builder inlineCompiledSubgraphs(boolean inlineCompiledSubgraphs) {
+            this.config.inlineCompiledSubgraphs = inlineCompiledSubgraphs;
+            return this;
+        }
+
+        /**
+         * Sets whether the consecutive nodes that declare their channels, and don't read the channels written by
+         * the previous ones, are run concurrently as a single step. Their results are reduced, in path order,
+         * through the channels of the graph, so the final state is the same as the sequential execution.
+         * <p>
+         * Each group runs as a parallel node whose id joins the ids of its nodes (e.g. {@code "__PARALLEL__(A,B)"},
+         * see {@link org.bsc.langgraph4j.internal.node.ParallelNode#formatNodeId(String)}), and the outputs and the
+         * checkpoints report the id of the group. The global node hooks are called once for the whole group, with
+         * its id, not once per node. The nodes with their own node or edge hooks are never grouped.
+         * </p>
+         *
+         * @param parallelizeIndependentNodes the flag
+         * @return The current {@code Builder} instance for method chaining.
+         * @see StateGraph#addNode(String, org.bsc.langgraph4j.action.AsyncNodeActionWithConfig, java.util.Set, java.util.Set)
+         */
+        public Builder parallelizeIndependentNodes(boolean parallelizeIndependentNodes) {
+            this.config.parallelizeIndependentNodes = parallelizeIndependentNodes;
+            return this;
+        }
+
         public Builder graphId(String graphId) {
             this.config.graphId = graphId;
             return this;
@@ -167,7 +264,60 @@ public class CompileConfig {
     private boolean releaseThread = false;
     private boolean interruptBeforeEdge = false;
     private int recursionLimit = 25;
+    private SnapshotStrategy snapshotStrategy = SnapshotStrategy.SERIALIZER;
+    private Executor executor;
+    private boolean streamParallelBranches = false;
+    private boolean inlineCompiledSubgraphs = false;
+    private boolean parallelizeIndependentNodes = false;
+
+    /**
+     * Returns the executor that runs the graph executions
+     *
+     * @return the executor, if any
+     * @see Builder#executor(Executor)
+     */
+    public Optional<Executor> executor() {
+        return ofNullable(executor);
+    }
 
+    /**
+     * Returns whether the parallel nodes stream the outputs of their branches as they arrive
+     *
+     * @return true if option is enabled, false otherwise
+     * @see Builder#streamParallelBranches(boolean)
+     */
+    public boolean streamParallelBranches() {
+        return streamParallelBranches;
+    }
+
+    /**
+     * Returns whether the compiled subgraphs are inlined in the execution plan of the parent graph
+     *
+     * @return true if option is enabled, false otherwise
+     * @see Builder#inlineCompiledSubgraphs(boolean)
+     */
+    public boolean inlineCompiledSubgraphs() {
+        return inlineCompiledSubgraphs;
+    }
+
+    /**
+     * Returns whether the independent nodes are run concurrently
+     *
+     * @return true if option is enabled, false otherwise
+     * @see Builder#parallelizeIndependentNodes(boolean)
+     */
+    public boolean parallelizeIndependentNodes() {
+        return parallelizeIndependentNodes;
+    }
+
+    /**
+     * Returns the strategy used to take a snapshot of the state.
+     *
+     * @return the snapshot strategy, {@link SnapshotStrategy#SERIALIZER} by default
+     */
+    public SnapshotStrategy snapshotStrategy() {
+        return snapshotStrategy;
+    }
 
     public int recursionLimit() {
         return recursionLimit;
@@ -244,6 +394,11 @@ public class CompileConfig {
         this.releaseThread = config.releaseThread;
         this.interruptBeforeEdge = config.interruptBeforeEdge;
         this.recursionLimit = config.recursionLimit;
+        this.snapshotStrategy = config.snapshotStrategy;
+        this.executor = config.executor;
+        this.streamParallelBranches = config.streamParallelBranches;
+        this.inlineCompiledSubgraphs = config.inlineCompiledSubgraphs;
+        this.parallelizeIndependentNodes = config.parallelizeIndependentNodes;
 
     }
 
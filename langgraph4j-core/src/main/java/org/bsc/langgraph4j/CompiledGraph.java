@@ -9,22 +9,45 @@ import org.bsc.langgraph4j.internal.edge.Edge;
 import org.bsc.langgraph4j.internal.edge.EdgeCondition;
 import org.bsc.langgraph4j.internal.edge.EdgeValue;
 import org.bsc.langgraph4j.internal.node.Node;
+import org.bsc.langgraph4j.internal.node.NodeTimeout;
 import org.bsc.langgraph4j.internal.node.ParallelNode;
+import org.bsc.langgraph4j.internal.node.SendNode;
 import org.bsc.langgraph4j.action.SubCompiledGraphNodeAction;
 import org.bsc.langgraph4j.internal.node.SubCompiledGraphNode;
+import org.bsc.langgraph4j.internal.node.SubStateGraphNode;
+import org.bsc.langgraph4j.internal.plan.ExecutionPlan;
+import org.bsc.langgraph4j.internal.state.StateSnapshots;
 import org.bsc.langgraph4j.state.AgentState;
 import org.bsc.langgraph4j.state.AgentStateFactory;
+import org.bsc.langgraph4j.state.Channel;
 import org.bsc.langgraph4j.state.StateSnapshot;
+import org.bsc.langgraph4j.streaming.NodeUpdate;
+import org.bsc.langgraph4j.utils.ExceptionUtils;
 import org.bsc.langgraph4j.utils.TryFunction;
+import org.bsc.langgraph4j.utils.TrySupplier;
 import org.bsc.langgraph4j.utils.TypeRef;
+import org.bsc.langgraph4j.utils.VirtualThreads;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static java.lang.String.format;
@@ -71,8 +94,19 @@ public final class CompiledGraph<State extends AgentState> implements GraphDefin
 
 
     public enum StreamMode {
+        /**
+         * each output carries a copy of the full state
+         */
         VALUES,
-        SNAPSHOTS
+        /**
+         * each output is a {@link StateSnapshot} of the checkpoint added by the step, if any
+         */
+        SNAPSHOTS,
+        /**
+         * each output is a {@link NodeUpdate} carrying only the values changed by the step, the full
+         * state is copied only on demand
+         */
+        UPDATES
     }
 
     public final StateGraph<State> stateGraph;
@@ -82,6 +116,10 @@ public final class CompiledGraph<State extends AgentState> implements GraphDefin
 
     private final ProcessedNodesEdgesAndConfig<State> processedData;
 
+    private final ExecutionPlan<State> plan;
+
+    private final ExecutionPlan.Target interruptAfterTarget;
+
     private int maxIterations;
 
     public final CompileConfig compileConfig;
@@ -119,11 +157,26 @@ public final class CompiledGraph<State extends AgentState> implements GraphDefin
 
         // EVALUATES NODES
         for (var n : processedData.nodes().elements ) {
+            if( n instanceof SendNode<State> sendNode ) {
+                nodes.put(n.id(), sendNode.action( this::sendTarget ));
+                continue;
+            }
             var factory = n.actionFactory();
             requireNonNull(factory, format("action factory for node id '%s' is null!", n.id()));
             nodes.put(n.id(), factory.apply(compileConfig));
         }
 
+        // CHECK THE WRITES OF THE NODES DECLARING THEIR CHANNELS
+        for( var channels : stateGraph.nodeChannels.values() ) {
+            nodes.computeIfPresent( channels.nodeId(), ( id, action ) -> channels.withDeclaredWrites( action ) );
+        }
+
+        // APPLY NODE TIMEOUTS
+        for( var nodeTimeout : stateGraph.nodeTimeouts.values() ) {
+            nodes.computeIfPresent( nodeTimeout.nodeId(), ( id, action ) ->
+                    NodeTimeout.withTimeout( id, action, nodeTimeout.timeout(), "its timeout of %s".formatted(nodeTimeout.timeout()) ) );
+        }
+
         // EVALUATE EDGES
         for( var e : processedData.edges().elements ) {
             var targets = e.targets();
@@ -158,12 +211,16 @@ public final class CompiledGraph<State extends AgentState> implements GraphDefin
                     throw StateGraph.Errors.illegalMultipleTargetsOnParallelNode.exception(e.sourceId(), parallelNodeTargets );
                 }
 
+                var branchIds = parallelNodeStream.get()
+                                    .map( EdgeValue::id )
+                                    .toList();
+
                 var actions = parallelNodeStream.get()
                                     //.map( target -> nodes.remove(target.id()) )
                                     .map( target -> nodes.get(target.id()) )
                                     .toList();
 
-                var parallelNode = new ParallelNode<>( e.sourceId(), actions, stateGraph.getChannels() );
+                var parallelNode = new ParallelNode<>( e.sourceId(), branchIds, actions, stateGraph.getChannels() );
 
                 nodes.put( parallelNode.id(), parallelNode.actionFactory().apply(compileConfig) );
 
@@ -174,6 +231,167 @@ public final class CompiledGraph<State extends AgentState> implements GraphDefin
             }
 
         }
+
+        // RUN THE INDEPENDENT NODES CONCURRENTLY
+        if( compileConfig.parallelizeIndependentNodes() ) {
+            parallelizeIndependentNodes();
+        }
+
+        // BUILD THE EXECUTION PLAN
+        this.plan = ExecutionPlan.of( nodes,
+                                    edges,
+                                    this.compileConfig.interruptsBefore(),
+                                    this.compileConfig.interruptsAfter(),
+                                    this.compileConfig.graphId() );
+        this.interruptAfterTarget = plan.target( INTERRUPT_AFTER );
+
+        // FUSE THE HOOKS OF EACH NODE AND EDGE
+        stateGraph.nodeHooks.compile( nodes.keySet() );
+        stateGraph.edgeHooks.compile( edges.keySet() );
+    }
+
+    /**
+     * Returns the action that runs the given node as target of a send, with the configuration and the hooks
+     * of the node. The plan is looked up at execution time, since the send nodes are evaluated before it is built.
+     *
+     * @param nodeId the id of the target node
+     * @return the action, {@code null} if the node doesn't exist
+     */
+    private AsyncNodeActionWithConfig<State> sendTarget( String nodeId ) {
+        if( !nodes.containsKey( nodeId ) ) {
+            return null;
+        }
+        return ( state, config ) -> {
+            final var step = plan.step( plan.target( nodeId ) ).orElseThrow();
+            // keeps the future of the node action, so the cancellation of the send reaches it through the hooks
+            final var running = new AtomicReference<CompletableFuture<Map<String,Object>>>();
+            final AsyncNodeActionWithConfig<State> action = ( actionState, actionConfig ) -> {
+                final var future = step.action().apply( actionState, actionConfig );
+                running.set( future );
+                return future;
+            };
+            final var result = stateGraph.nodeHooks.applyActionWithHooksHandlingInterruption( action,
+                            nodeId,
+                            state,
+                            step.config( config ),
+                            stateGraph.getStateFactory(),
+                            stateGraph.getChannels() )
+                    .thenCompose( hooksResult -> ( hooksResult.hasPartialState() ) ?
+                            hooksResult.partialState() :
+                            CompletableFuture.<Map<String,Object>>failedFuture( new IllegalStateException(
+                                    format( "node '%s' cannot be interrupted when it is the target of a send", nodeId ) ) ) );
+            result.whenComplete( ( value, ex ) -> {
+                final var future = running.get();
+                if( result.isCancelled() && future != null ) {
+                    future.cancel( true );
+                }
+            });
+            return result;
+        };
+    }
+
+    /**
+     * Groups the consecutive nodes that declare their channels, linked by a plain edge, as long as each one
+     * doesn't read the channels written by the previous ones of the group. Each group becomes a parallel node
+     * that takes the place of its first node in the incoming edges and continues with the edge of its last node.
+     * The nodes with timeouts, interruptions, own node hooks or own edge hooks are left out.
+     * <p>
+     * The group runs as a parallel node whose id joins the ids of its nodes (e.g. {@code "__PARALLEL__(A,B)"}):
+     * the global node hooks are called once for the group, and the outputs and the checkpoints report its id.
+     * </p>
+     */
+    private void parallelizeIndependentNodes() throws GraphStateException {
+        final var declared = stateGraph.nodeChannels;
+        if( declared.size() < 2 ) {
+            return;
+        }
+
+        final var fallbacks = stateGraph.nodeTimeouts.values().stream()
+                .flatMap( timeout -> timeout.fallback().stream() )
+                .collect( Collectors.toSet() );
+
+        final Predicate<String> candidate = id -> declared.containsKey( id )
+                && nodes.containsKey( id )
+                && !stateGraph.nodeTimeouts.containsKey( id )
+                && !fallbacks.contains( id )
+                && !compileConfig.interruptsBefore().contains( id )
+                && !compileConfig.interruptsAfter().contains( id )
+                && !stateGraph.nodeHooks.hasCalls( id )
+                && !stateGraph.edgeHooks.hasCalls( id );
+
+        final var incoming = new HashMap<String, Integer>();
+        for( var edge : edges.values() ) {
+            targetIds( edge ).forEach( id -> incoming.merge( id, 1, Integer::sum ) );
+        }
+
+        // the candidate that follows each candidate, when it can be reached only from it
+        final var links = new LinkedHashMap<String, String>();
+        edges.forEach( ( sourceId, edge ) -> {
+            if( edge.id() != null
+                    && candidate.test( sourceId )
+                    && candidate.test( edge.id() )
+                    && incoming.get( edge.id() ) == 1 ) {
+                links.put( sourceId, edge.id() );
+            }
+        });
+        final var linked = new HashSet<>( links.values() );
+
+        for( var head : links.keySet() ) {
+            if( linked.contains( head ) ) {
+                continue;
+            }
+            var group = new ArrayList<String>();
+            group.add( head );
+            for( var next = links.get( head ); next != null; next = links.get( next ) ) {
+                final var channels = declared.get( next );
+                if( group.stream().map( declared::get ).anyMatch( channels::dependsOn ) ) {
+                    parallelize( group );
+                    group = new ArrayList<>();
+                }
+                group.add( next );
+            }
+            parallelize( group );
+        }
+    }
+
+    private void parallelize( List<String> group ) throws GraphStateException {
+        if( group.size() < 2 ) {
+            return;
+        }
+        final var first = group.get( 0 );
+        final var last = group.get( group.size() - 1 );
+
+        final var parallelNode = new ParallelNode<>( String.join( ",", group ),
+                                                    group,
+                                                    group.stream().map( nodes::get ).toList(),
+                                                    stateGraph.getChannels() );
+
+        nodes.put( parallelNode.id(), parallelNode.actionFactory().apply( compileConfig ) );
+
+        edges.replaceAll( ( sourceId, edge ) -> retarget( edge, first, parallelNode.id() ) );
+
+        edges.put( parallelNode.id(), edges.get( last ) );
+
+        log.debug( "nodes {} run concurrently as {}", group, parallelNode.id() );
+    }
+
+    private static <State extends AgentState> Stream<String> targetIds( EdgeValue<State> edge ) {
+        if( edge.id() != null ) {
+            return Stream.of( edge.id() );
+        }
+        return ( edge.value() != null ) ? edge.value().mappings().values().stream() : Stream.empty();
+    }
+
+    private static <State extends AgentState> EdgeValue<State> retarget( EdgeValue<State> edge, String fromId, String toId ) {
+        if( edge.id() != null ) {
+            return Objects.equals( edge.id(), fromId ) ? new EdgeValue<>( toId ) : edge;
+        }
+        if( edge.value() == null || !edge.value().mappings().containsValue( fromId ) ) {
+            return edge;
+        }
+        final var mappings = new LinkedHashMap<String, String>();
+        edge.value().mappings().forEach( ( label, id ) -> mappings.put( label, Objects.equals( id, fromId ) ? toId : id ) );
+        return new EdgeValue<>( new EdgeCondition<>( edge.value().action(), mappings ) );
     }
 
     private boolean hasSubGraphs() {
@@ -308,6 +526,10 @@ public final class CompiledGraph<State extends AgentState> implements GraphDefin
      * UPDATE RUNNABLE CONFIG METADATA
      */
     private RunnableConfig updateRunnableConfigMetadata( RunnableConfig config, String currentNodeId ) {
+        final var step = plan.step( plan.target(currentNodeId) );
+        if( step.isPresent() ) {
+            return step.get().config( config );
+        }
         final var newMetadata = new HashMap<String,Object>(2);
         newMetadata.put(RunnableConfig.NODE_ID, currentNodeId);
         compileConfig.graphId()
@@ -322,42 +544,49 @@ public final class CompiledGraph<State extends AgentState> implements GraphDefin
 
     }
 
-    private Command nextNodeId(EdgeValue<State> route , Map<String,Object> state, String nodeId, RunnableConfig config ) throws Exception {
+    /**
+     * The result of the evaluation of an outgoing edge
+     *
+     * @param target the next node
+     * @param update the updated state
+     * @param updatedKeys the keys of the state updated by the command of the edge, if any
+     */
+    private record Transition( ExecutionPlan.Target target, Map<String,Object> update, Set<String> updatedKeys ) {}
+
+    private Transition transition( ExecutionPlan.Target source, Map<String,Object> state, RunnableConfig config ) throws Exception {
 
+        final var route = plan.route( source );
         if( route == null ) {
-            throw RunnableErrors.missingEdge.exception(nodeId);
+            throw RunnableErrors.missingEdge.exception(source.id());
         }
-        if( route.id() != null ) {
-            return new Command(route.id(), state);
+        if( !route.isConditional() ) {
+            return new Transition( route.target(), state, Set.of() );
         }
-        if( route.value() != null ) {
 
-            final var newConfig = updateRunnableConfigMetadata( config, nodeId );
+        // the node action configuration is reused when it carries all the metadata of the node
+        final var newConfig = plan.step( source )
+                    .map( step -> step.hasConfig( config ) ? config : step.config( config ) )
+                    .orElseGet( () -> updateRunnableConfigMetadata( config, source.id() ) );
 
-            final State derefState = stateGraph.getStateFactory().apply(state);
+        final State derefState = stateGraph.getStateFactory().apply(state);
 
-            // var command = route.value().action().apply(derefState,config).get();
-            final var command = stateGraph.edgeHooks.applyActionWithHooks(
-                    route.value().action(),
-                    nodeId,
-                    derefState,
-                    newConfig,
-                    stateGraph.getStateFactory(),
-                    stateGraph.getChannels() )
-                    .get();
+        final var command = stateGraph.edgeHooks.applyActionWithHooks(
+                route.condition(),
+                source.id(),
+                derefState,
+                newConfig,
+                stateGraph.getStateFactory(),
+                stateGraph.getChannels() )
+                .get();
 
-            final var newRoute = command.gotoNode();
+        final var newRoute = command.gotoNode();
 
-            final String result = route.value().mappings().get(newRoute);
-            if( result == null ) {
-                throw RunnableErrors.missingNodeInEdgeMapping.exception(nodeId, newRoute);
-            }
+        final var target = route.resolve(newRoute)
+                .orElseThrow( () -> RunnableErrors.missingNodeInEdgeMapping.exception(source.id(), newRoute) );
 
-            final var currentState = AgentState.updateState(state, command.update(), stateGraph.getChannels());
+        final var currentState = AgentState.updateState(state, command.update(), stateGraph.getChannels());
 
-            return new Command(result, currentState);
-        }
-        throw RunnableErrors.executionError.exception( format("invalid edge value for nodeId: [%s] !", nodeId) );
+        return new Transition( target, currentState, command.update().keySet() );
     }
 
     /**
@@ -369,29 +598,24 @@ public final class CompiledGraph<State extends AgentState> implements GraphDefin
      * @throws Exception if there is an error determining the next node ID
      */
     private Command nextNodeId(String nodeId, Map<String,Object> state, RunnableConfig config) throws Exception {
-        return nextNodeId(edges.get(nodeId), state, nodeId, config  );
-
-    }
-
-    private Command entryPoint(Map<String,Object> state, RunnableConfig config ) throws Exception {
-        final var entryPoint = this.edges.get(START);
-        return nextNodeId(entryPoint, state, START, config);
+        final var transition = transition( plan.target(nodeId), state, config );
+        return new Command( transition.target().id(), transition.update() );
     }
 
-    private boolean shouldInterruptBefore( String nodeId, String previousNodeId ) {
-        requireNonNull( nodeId, "nodeId cannot be null" );
-        if( previousNodeId == null ) { // FIX RESUME ERROR
+    private boolean shouldInterruptBefore( ExecutionPlan.Target node, ExecutionPlan.Target previousNode ) {
+        requireNonNull( node, "node cannot be null" );
+        if( previousNode == null ) { // FIX RESUME ERROR
             return false;
         }
-        return compileConfig.interruptsBefore().contains(nodeId);
+        return plan.isInterruptBefore(node);
     }
 
-    private boolean shouldInterruptAfter(String nodeId, String currentNodeId ) {
-        if( nodeId == null || Objects.equals(nodeId, currentNodeId) ) { // FIX RESUME ERROR
+    private boolean shouldInterruptAfter( ExecutionPlan.Target node, ExecutionPlan.Target nextNode ) {
+        if( node == null || Objects.equals(node, nextNode) ) { // FIX RESUME ERROR
             return false;
         }
-        return ( compileConfig.interruptBeforeEdge() && Objects.equals(nodeId, INTERRUPT_AFTER )) ||
-                compileConfig.interruptsAfter().contains(nodeId);
+        return ( compileConfig.interruptBeforeEdge() && Objects.equals(node.id(), INTERRUPT_AFTER )) ||
+                plan.isInterruptAfter(node);
     }
 
     private Optional<Checkpoint> addCheckpoint( RunnableConfig config, String nodeId, Map<String,Object> state, String nextNodeId ) throws Exception {
@@ -412,15 +636,26 @@ public final class CompiledGraph<State extends AgentState> implements GraphDefin
         return stateGraph.getStateFactory().initialDataFromSchema(stateGraph.getChannels());
     }
 
+    /**
+     * Converts the given data in the map implementation used by the graph state factory
+     */
+    Map<String,Object> stateData( Map<String,Object> data ) {
+        return stateGraph.getStateFactory().stateData(data);
+    }
+
     Map<String,Object> initialState(Map<String,Object> inputs, RunnableConfig config) {
 
         return compileConfig.checkpointSaver()
                 .flatMap( saver -> saver.get( config ) )
-                .map( cp -> AgentState.updateState( cp.getState(), inputs, stateGraph.getChannels() ))
+                .map( cp -> AgentState.updateState( stateData(cp.getState()), inputs, stateGraph.getChannels() ))
                 .orElseGet( () -> AgentState.updateState( initialStateFromSchema(), inputs, stateGraph.getChannels() ));
     }
 
     State cloneState( Map<String,Object> data ) throws IOException, ClassNotFoundException, InstantiationException, IllegalAccessException {
+        if( compileConfig.snapshotStrategy() == CompileConfig.SnapshotStrategy.STRUCTURAL ) {
+            final var snapshot = StateSnapshots.structuralCopyOf( data, stateGraph.getChannels(), stateGraph.getStateSerializer() );
+            return stateGraph.getStateFactory().apply( snapshot );
+        }
         return stateGraph.getStateSerializer().cloneObject(data);
     }
 
@@ -498,8 +733,17 @@ public final class CompiledGraph<State extends AgentState> implements GraphDefin
      * @since 1.6.1
      */
     public Optional<NodeOutput<State>> invokeFinal( GraphInput input, RunnableConfig config ) {
-        return stream(input, config).stream()
-                .reduce((a, b) -> b);
+        // the intermediate outputs are discarded, so only the state of the final one is materialized
+        final var generator = new AsyncNodeGeneratorWithEmbed<NodeOutput<State>>(
+                requireNonNull( input, "input cannot be null" ),
+                requireNonNull( config, "config cannot be null"),
+                true );
+
+        NodeOutput<State> result = null;
+        for( var output : generator ) {
+            result = output;
+        }
+        return ofNullable( result );
     }
 
     /**
@@ -534,6 +778,118 @@ public final class CompiledGraph<State extends AgentState> implements GraphDefin
         return invokeFinal( inputs == null ? GraphInput.resume() : GraphInput.args(inputs), RunnableConfig.builder().build() ).map( NodeOutput::state);
     }
 
+    /**
+     * Returns the executor that runs the graph execution: the one of the given {@link RunnableConfig},
+     * otherwise the one of the {@link CompileConfig}
+     */
+    private Optional<Executor> executor( RunnableConfig config ) {
+        return config.executor().or( compileConfig::executor );
+    }
+
+    /**
+     * Invokes the graph execution on the configured executor and returns the final state.
+     * <p>
+     * The whole execution, including the blocking node actions, runs on a thread of the executor
+     * ( see {@link CompileConfig.Builder#executor(Executor)} and {@link RunnableConfig.Builder#executor(Executor)} ),
+     * so using a virtual thread per task executor the number of concurrent executions is not bounded by the
+     * number of platform threads. If no executor is configured, the {@link ForkJoinPool#commonPool()} is used.
+     * </p>
+     *
+     * @param input the input data
+     * @param config the invoke configuration
+     * @return a future of an Optional containing the final state if present, otherwise an empty Optional
+     * @see org.bsc.langgraph4j.utils.VirtualThreads
+     */
+    public CompletableFuture<Optional<State>> invokeAsync( GraphInput input, RunnableConfig config ) {
+        requireNonNull( input, "input cannot be null" );
+        requireNonNull( config, "config cannot be null" );
+        return CompletableFuture.supplyAsync( () -> invoke( input, config ),
+                executor( config ).orElseGet(ForkJoinPool::commonPool) );
+    }
+
+    /**
+     * Invokes the graph execution on the configured executor and returns the final state.
+     *
+     * @param inputs the input map
+     * @param config the invoke configuration
+     * @return a future of an Optional containing the final state if present, otherwise an empty Optional
+     * @see #invokeAsync(GraphInput, RunnableConfig)
+     */
+    public CompletableFuture<Optional<State>> invokeAsync( Map<String,Object> inputs, RunnableConfig config ) {
+        return invokeAsync( inputs == null ? GraphInput.resume() : GraphInput.args(inputs), config );
+    }
+
+    /**
+     * Invokes the graph execution for each of the given inputs, running at most {@link BatchOptions#maxConcurrency()}
+     * executions at the same time, and returns their outcomes in input order.
+     * <p>
+     * Each input runs with a copy of the template configuration having its own thread id ( see {@link BatchOptions.Builder#threadId(IntFunction)} ),
+     * while the compiled graph, together with its checkpoint saver and state serializer, is shared among all the executions.
+     * The executions run on the configured executor ( see {@link #invokeAsync(GraphInput, RunnableConfig)} ) or, if none,
+     * on a thread per task executor created for the batch. A bounded executor must have more threads than
+     * {@code maxConcurrency} if the graph contains parallel nodes without a dedicated executor.
+     * </p>
+     *
+     * @param inputs the inputs to process
+     * @param template the configuration from which the configuration of each input is derived
+     * @param options the batch options
+     * @return the outcome of each input, in input order
+     */
+    public List<BatchOptions.Result<State>> batch( List<? extends GraphInput> inputs, RunnableConfig template, BatchOptions options ) {
+        requireNonNull( inputs, "inputs cannot be null" );
+        requireNonNull( template, "template cannot be null" );
+        requireNonNull( options, "options cannot be null" );
+
+        final int size = inputs.size();
+        final var results = new AtomicReferenceArray<BatchOptions.Result<State>>( size );
+        final var batchId = template.threadId().orElseGet( () -> UUID.randomUUID().toString() );
+        final IntFunction<String> threadIdOf = options.threadId()
+                                                .orElse( index -> format( "%s-%d", batchId, index ) );
+        final var nextIndex = new AtomicInteger();
+        final var failed = new AtomicBoolean();
+
+        final Runnable worker = () -> {
+            for( int index = nextIndex.getAndIncrement(); index < size; index = nextIndex.getAndIncrement() ) {
+                final var config = RunnableConfig.builder( template )
+                                        .threadId( threadIdOf.apply(index) )
+                                        .build();
+                if( options.failFast() && failed.get() ) {
+                    results.set( index, new BatchOptions.Result<>( config, Optional.empty(), new CancellationException( "batch failed" ) ) );
+                    continue;
+                }
+                try {
+                    results.set( index, new BatchOptions.Result<>( config, invoke( inputs.get(index), config ), null ) );
+                }
+                catch( Throwable ex ) {
+                    failed.set(true);
+                    final var error = ( ex instanceof CompletionException && ex.getCause() != null ) ? ex.getCause() : ex;
+                    results.set( index, new BatchOptions.Result<>( config, Optional.empty(), error ) );
+                }
+            }
+        };
+
+        final var configuredExecutor = executor( template );
+        final var batchExecutor = ( configuredExecutor.isPresent() ) ?
+                null :
+                VirtualThreads.newThreadPerTaskExecutor( "langgraph4j-batch" );
+        try {
+            final var executor = configuredExecutor.orElse( batchExecutor );
+            final var workers = IntStream.range( 0, Math.min( options.maxConcurrency(), size ) )
+                                    .mapToObj( i -> CompletableFuture.runAsync( worker, executor ) )
+                                    .toArray( CompletableFuture[]::new );
+            CompletableFuture.allOf( workers ).join();
+        }
+        finally {
+            if( batchExecutor != null ) {
+                batchExecutor.shutdown();
+            }
+        }
+
+        return IntStream.range( 0, size )
+                .mapToObj( results::get )
+                .toList();
+    }
+
 
     /**
      * Generates a drawable graph representation of the state graph.
@@ -595,30 +951,33 @@ public final class CompiledGraph<State extends AgentState> implements GraphDefin
 
         static class Context {
             private Map<String,Object> currentState;
-            private String currentNodeId;
-            private String nextNodeId;
+            private ExecutionPlan.Target currentNode;
+            private ExecutionPlan.Target nextNode;
             private String resumeFrom;
             private GraphResult returnFromEmbed;
+            // the keys of the state updated since the last output
+            private final Set<String> updatedKeys = new LinkedHashSet<>();
 
-            Context( Map<String,Object> initState ) {
-                currentNodeId = START;
-                nextNodeId = null;
+            Context( Map<String,Object> initState, ExecutionPlan.Target start ) {
+                currentNode = start;
+                nextNode = null;
                 resumeFrom = null;
                 returnFromEmbed = GraphResult.empty();
                 currentState = initState;
+                updatedKeys.addAll( initState.keySet() );
             }
 
-            Context( Checkpoint cp ) {
-                currentNodeId = null;
-                nextNodeId = cp.getNextNodeId();
+            Context( Checkpoint cp, ExecutionPlan.Target next ) {
+                currentNode = null;
+                nextNode = next;
                 resumeFrom = cp.getNodeId();
                 currentState = cp.getState();
                 returnFromEmbed = GraphResult.empty();
             }
 
             void reset() {
-                currentNodeId = null;
-                nextNodeId = null;
+                currentNode = null;
+                nextNode = null;
                 resumeFrom = null;
                 returnFromEmbed = GraphResult.empty();
             }
@@ -631,20 +990,54 @@ public final class CompiledGraph<State extends AgentState> implements GraphDefin
                 currentState = value;
             }
 
+            /**
+             * Applies the given partial state to the current state, tracking its keys
+             */
+            void updateCurrentState( Map<String,Object> partialState, Map<String, Channel<?>> channels ) {
+                currentState = AgentState.updateState( currentState, partialState, channels );
+                updatedKeys.addAll( partialState.keySet() );
+            }
+
+            /**
+             * Sets the state and the next node given by the transition, tracking the keys updated by the edge
+             */
+            void setTransition( Transition transition ) {
+                nextNode = transition.target();
+                currentState = transition.update();
+                updatedKeys.addAll( transition.updatedKeys() );
+            }
+
+            /**
+             * Returns the keys of the state updated since the last call
+             */
+            List<String> getUpdatedKeysAndReset() {
+                final var result = List.copyOf( updatedKeys );
+                updatedKeys.clear();
+                return result;
+            }
+
             String nextNodeId() {
-                return nextNodeId;
+                return ( nextNode != null ) ? nextNode.id() : null;
+            }
+
+            ExecutionPlan.Target nextNode() {
+                return nextNode;
             }
 
-            void setNextNodeId( String value ) {
-                nextNodeId = value;
+            void setNextNode( ExecutionPlan.Target value ) {
+                nextNode = value;
             }
 
             String currentNodeId() {
-                return currentNodeId;
+                return ( currentNode != null ) ? currentNode.id() : null;
+            }
+
+            ExecutionPlan.Target currentNode() {
+                return currentNode;
             }
 
-            void setCurrentNodeId( String value ) {
-                currentNodeId = value;
+            void setCurrentNode( ExecutionPlan.Target value ) {
+                currentNode = value;
             }
 
             Optional<String> getResumeFromAndReset() {
@@ -668,11 +1061,28 @@ public final class CompiledGraph<State extends AgentState> implements GraphDefin
         final Context context;
         int iteration = 0;
         final RunnableConfig config;
+        final boolean finalOutputOnly;
+        // the fallback node taken after a timeout, it is not bound by the deadline of the execution
+        ExecutionPlan.Target timeoutFallback;
 
         protected AsyncNodeGenerator(GraphInput input, RunnableConfig config )  {
+            this( input, config, false );
+        }
+
+        /**
+         * @param finalOutputOnly whether only the final output is consumed, so that the state of the outputs
+         *                        is materialized only on demand
+         */
+        AsyncNodeGenerator(GraphInput input, RunnableConfig config, boolean finalOutputOnly )  {
+            this.finalOutputOnly = finalOutputOnly;
             final var configBuilder = RunnableConfig.builder(config)
                     .checkPointId(null); // Reset checkpoint id
 
+            if( config.executor().isEmpty() ) {
+                // make the executor available to the parallel nodes and the subgraphs
+                compileConfig.executor().ifPresent( configBuilder::executor );
+            }
+
             if( input instanceof GraphResume resumeRequest ) {
                 log.trace( "RESUME REQUEST" );
 
@@ -683,7 +1093,7 @@ public final class CompiledGraph<State extends AgentState> implements GraphDefin
 
                 final var optionalResumeUpdateData = config.metadata(RunnableConfig.SUBGRAPH_RESUME_UPDATE_DATA, new TypeRef<Map<String,Object>>() {});
 
-                context = new Context(startCheckpoint);
+                context = new Context(startCheckpoint, plan.target( startCheckpoint.getNextNodeId() ));
 
                 final var startCheckpointNextNodeAction = nodes.get(startCheckpoint.getNextNodeId());
                 if( startCheckpointNextNodeAction instanceof SubCompiledGraphNodeAction<State> action ) {
@@ -699,7 +1109,7 @@ public final class CompiledGraph<State extends AgentState> implements GraphDefin
                             .putMetadata( RunnableConfig.SUBGRAPH_RESUME_UPDATE_DATA, resumeUpdateData )
                             .build();
 
-                    context.setCurrentState( startCheckpoint.getState() );
+                    context.setCurrentState( stateData(startCheckpoint.getState()) );
 
                 }
                 else {
@@ -708,12 +1118,15 @@ public final class CompiledGraph<State extends AgentState> implements GraphDefin
                             .removeMetadata( RunnableConfig.SUBGRAPH_RESUME_UPDATE_DATA )
                             .build();
                     // FIX ISSUE #302
-                    context.setCurrentState( AgentState.updateState( startCheckpoint.getState(),
+                    context.setCurrentState( AgentState.updateState( stateData(startCheckpoint.getState()),
                             stateData,
                             stateGraph.getChannels() ));
 
                 }
 
+                // the values given to resume are not an update of a node
+                context.getUpdatedKeysAndReset();
+
                 log.trace( "RESUME FROM {}", startCheckpoint.getNodeId() );
             }
             else {
@@ -723,7 +1136,7 @@ public final class CompiledGraph<State extends AgentState> implements GraphDefin
                 final var initState = initialState( ((GraphArgs)input).value(), config );
                 // patch for backward support of AppendableValue
                 State initializedState = stateGraph.getStateFactory().apply(initState);
-                this.context = new Context( initializedState.data() );
+                this.context = new Context( initializedState.data(), plan.start() );
                 this.config = configBuilder
                                 .removeMetadata(RunnableConfig.SUBGRAPH_RESUME_UPDATE_DATA)
                                 .build();
@@ -732,6 +1145,28 @@ public final class CompiledGraph<State extends AgentState> implements GraphDefin
 
         @SuppressWarnings("unchecked")
         protected Output buildNodeOutput(String nodeId ) throws Exception {
+            if( config.streamMode() == StreamMode.UPDATES ) {
+                final var data = context.currentState();
+                final var update = new LinkedHashMap<String,Object>();
+                final var removed = new LinkedHashSet<String>();
+                // the values of the updated keys are read from the state, so they are reduced by the channels
+                for( var key : context.getUpdatedKeysAndReset() ) {
+                    if( data.containsKey( key ) ) {
+                        update.put( key, data.get( key ) );
+                    }
+                    else {
+                        removed.add( key );
+                    }
+                }
+                return (Output)new NodeUpdate<State>( nodeId,
+                        Collections.unmodifiableMap( update ),
+                        Collections.unmodifiableSet( removed ),
+                        TrySupplier.Try( () -> cloneState(data) ) );
+            }
+            if( finalOutputOnly ) {
+                final var data = context.currentState();
+                return (Output)new LazyNodeOutput<State>( nodeId, TrySupplier.Try( () -> cloneState(data) ) );
+            }
             return  (Output)NodeOutput.of( nodeId, cloneState(context.currentState()) );
         }
 
@@ -771,11 +1206,7 @@ public final class CompiledGraph<State extends AgentState> implements GraphDefin
                                         .filter( e -> !Objects.equals(e.getKey(),generatorEntry.getKey()))
                                         .collect( Collectors.toMap( Map.Entry::getKey, Map.Entry::getValue));
 
-                                var intermediateState = AgentState.updateState( context.currentState(),
-                                        partialStateWithoutGenerator,
-                                        stateGraph.getChannels() );
-
-                                context.setCurrentState(intermediateState);
+                                context.updateCurrentState( partialStateWithoutGenerator, stateGraph.getChannels() );
 
                                 context.setReturnFromEmbedWithValue( result );
                                 return;
@@ -808,21 +1239,20 @@ public final class CompiledGraph<State extends AgentState> implements GraphDefin
                                 return embed.get();
                             }
 
-                            context.setCurrentState( AgentState.updateState(context.currentState(), partial, stateGraph.getChannels()) );
+                            context.updateCurrentState( partial, stateGraph.getChannels() );
 
-                            if (compileConfig.interruptBeforeEdge() && compileConfig.interruptsAfter().contains(context.currentNodeId())) {
+                            if (compileConfig.interruptBeforeEdge() && plan.isInterruptAfter(context.currentNode())) {
                                 //nextNodeId = INTERRUPT_AFTER;
-                                context.setNextNodeId(INTERRUPT_AFTER);
+                                context.setNextNode(interruptAfterTarget);
                             } else {
-                                var nextNodeCommand = nextNodeId(context.currentNodeId(), context.currentState(), runnableConfig);
-                                context.setNextNodeId(nextNodeCommand.gotoNode());
-                                context.setCurrentState( nextNodeCommand.update() );
+                                var transition = transition(context.currentNode(), context.currentState(), runnableConfig);
+                                context.setTransition( transition );
                             }
 
                             return Data.of(nodeOutput());
                         }));
                     }
-                    return result.interruptionMetadata().thenApply(Data::<Output>done);
+                    return result.interruptionMetadata().thenApply( TryFunction.<InterruptionMetadata<State>, Data<Output>, Exception>Try( this::interruption ) );
                 }))
                 .thenCompose( result -> result )
                 .get();
@@ -836,6 +1266,28 @@ public final class CompiledGraph<State extends AgentState> implements GraphDefin
                     ;
         }
 
+        /**
+         * Takes the timeout fallback of the current node, if configured, leaving the state unchanged.
+         */
+        private Data<Output> nodeTimeout( NodeTimeoutException ex ) throws Exception {
+            final var fallback = ofNullable( stateGraph.nodeTimeouts.get( context.currentNodeId() ) )
+                    .flatMap( NodeTimeout::fallback );
+            if( fallback.isEmpty() ) {
+                throw ex;
+            }
+            log.warn( "{}, going to fallback node '{}'", ex.getMessage(), fallback.get() );
+            timeoutFallback = plan.target( fallback.get() );
+            context.setNextNode( timeoutFallback );
+            return Data.of( nodeOutput() );
+        }
+
+        private Data<Output> interruption( InterruptionMetadata<State> metadata ) throws Exception {
+            if( compileConfig.checkpointSaver().isPresent() ) {
+                compileConfig.checkpointSaver().get().interrupted( config );
+            }
+            return Data.done( metadata );
+        }
+
         private Optional<BaseCheckpointSaver.Tag> releaseThread() throws Exception {
             if(compileConfig.releaseThread() && compileConfig.checkpointSaver().isPresent() ) {
                 return Optional.of(compileConfig.checkpointSaver().get().release( config ));
@@ -866,7 +1318,7 @@ public final class CompiledGraph<State extends AgentState> implements GraphDefin
                 if( !returnFromEmbed.isEmpty() ) {
 
                     if( returnFromEmbed.isInterruptionMetadata() ) {
-                        return Data.done( returnFromEmbed.asInterruptionMetadata() );
+                        return interruption( returnFromEmbed.asInterruptionMetadata() );
                     }
 
                     // FIX #336
@@ -886,22 +1338,18 @@ public final class CompiledGraph<State extends AgentState> implements GraphDefin
 
                     return Data.of( future.thenCompose( TryFunction.Try((partialResult) -> {
 
-                        final var updatedState = AgentState.updateState( context.currentState(),
-                                partialResult,
-                                stateGraph.getChannels() );
+                        context.updateCurrentState( partialResult, stateGraph.getChannels() );
 
-                        final var nextNodeCommand = nextNodeId(context.currentNodeId(), updatedState, config);
-                        context.setNextNodeId(nextNodeCommand.gotoNode());
-                        context.setCurrentState(nextNodeCommand.update());
+                        final var transition = transition(context.currentNode(), context.currentState(), config);
+                        context.setTransition( transition );
 
                         return nodeOutput();
                     })));
                 }
 
-                if( START.equals(context.currentNodeId()) ) {
-                    var nextNodeCommand = entryPoint(context.currentState(), config) ;
-                    context.setNextNodeId(nextNodeCommand.gotoNode());
-                    context.setCurrentState( nextNodeCommand.update() );
+                if( context.currentNode() != null && context.currentNode().isStart() ) {
+                    var transition = transition(context.currentNode(), context.currentState(), config) ;
+                    context.setTransition( transition );
 
                     var cp = addCheckpoint( config, START, context.currentState(), context.nextNodeId() );
 
@@ -909,12 +1357,12 @@ public final class CompiledGraph<State extends AgentState> implements GraphDefin
                             buildStateSnapshot(cp.get()) :
                             buildNodeOutput( context.currentNodeId() );
 
-                    context.setCurrentNodeId(context.nextNodeId());
+                    context.setCurrentNode(context.nextNode());
 
                     return Data.of( output );
                 }
 
-                if( END.equals(context.nextNodeId()) ) {
+                if( context.nextNode() != null && context.nextNode().isEnd() ) {
                     context.reset();
                     return Data.of( buildNodeOutput( END ) );
                 }
@@ -923,38 +1371,57 @@ public final class CompiledGraph<State extends AgentState> implements GraphDefin
                 if( resumeFrom.isPresent() ) {
 
                     if(compileConfig.interruptBeforeEdge() && Objects.equals( context.nextNodeId(), INTERRUPT_AFTER)) {
-                        var nextNodeCommand = nextNodeId( resumeFrom.get(), context.currentState(), config);
-                        context.setNextNodeId( nextNodeCommand.gotoNode() );
-                        context.setCurrentState(  nextNodeCommand.update() );
-                        context.setCurrentNodeId( null );
+                        var transition = transition( plan.target(resumeFrom.get()), context.currentState(), config);
+                        context.setTransition( transition );
+                        context.setCurrentNode( null );
                     }
                 }
 
                 // check on previous node
-                if( shouldInterruptAfter( context.currentNodeId(), context.nextNodeId() )) {
-                    return Data.done( InterruptionMetadata.builder(context.currentNodeId(), cloneState(context.currentState())).build() );
+                if( shouldInterruptAfter( context.currentNode(), context.nextNode() )) {
+                    return interruption( InterruptionMetadata.builder(context.currentNodeId(), cloneState(context.currentState())).build() );
                 }
 
-                if( shouldInterruptBefore( context.nextNodeId(), context.currentNodeId() ) ) {
-                    return Data.done(InterruptionMetadata.builder(context.currentNodeId(), cloneState(context.currentState())).build() );
+                if( shouldInterruptBefore( context.nextNode(), context.currentNode() ) ) {
+                    return interruption( InterruptionMetadata.builder(context.currentNodeId(), cloneState(context.currentState())).build() );
                 }
 
-                context.setCurrentNodeId( context.nextNodeId() );
-
-                final var newConfig = updateRunnableConfigMetadata( config, context.currentNodeId() );
+                context.setCurrentNode( context.nextNode() );
 
                 //
                 // EVALUATE ACTION
                 //
-                final var action = nodes.get( context.currentNodeId() );
+                final var step = plan.step( context.currentNode() )
+                        .orElseThrow( () -> RunnableErrors.missingNode.exception(context.currentNodeId()) );
+
+                final var newConfig = step.config( config );
 
-                if (action == null)
-                    throw RunnableErrors.missingNode.exception(context.currentNodeId());
+                final var action = step.action();
 
                 final var clonedState = cloneState(context.currentState());
 
+                // the node action is bounded by the deadline of the execution, if any, except the timeout fallback
+                var stepAction = action;
+                final var isTimeoutFallback = Objects.equals( context.currentNode(), timeoutFallback );
+                timeoutFallback = null;
+                if( config.deadline().isPresent() && !isTimeoutFallback ) {
+                    final var remaining = Duration.between( Instant.now(), config.deadline().get() );
+                    if( remaining.isNegative() || remaining.isZero() ) {
+                        return nodeTimeout( new NodeTimeoutException( context.currentNodeId(),
+                                "deadline of the execution expired before node '%s'".formatted(context.currentNodeId()) ) );
+                    }
+                    stepAction = NodeTimeout.withTimeout( context.currentNodeId(), action, remaining, "the deadline of the execution" );
+                }
+
                 try {
-                    return applyAction(action, context.currentNodeId(), clonedState, newConfig);
+                    return applyAction(stepAction, context.currentNodeId(), clonedState, newConfig);
+                }
+                catch( ExecutionException ex ) {
+                    final var timeout = ExceptionUtils.findCauseByType( ex, NodeTimeoutException.class );
+                    if( timeout.isPresent() ) {
+                        return nodeTimeout( (NodeTimeoutException) timeout.get() );
+                    }
+                    throw ex;
                 }
                 catch( InterruptedException ex ) {
                     if( action instanceof ParallelNode.AsyncParallelNodeAction<?> parallelNodeAction ) {
@@ -974,7 +1441,11 @@ public final class CompiledGraph<State extends AgentState> implements GraphDefin
 
     class AsyncNodeGeneratorWithEmbed<Output extends NodeOutput<State>> extends AsyncGenerator.WithEmbed<Output> {
         public AsyncNodeGeneratorWithEmbed(GraphInput input, RunnableConfig config ) {
-            super( new AsyncNodeGenerator<>( input, config ) );
+            this( input, config, false );
+        }
+
+        AsyncNodeGeneratorWithEmbed(GraphInput input, RunnableConfig config, boolean finalOutputOnly ) {
+            super( new AsyncNodeGenerator<>( input, config, finalOutputOnly ) );
         }
     }
 
@@ -992,27 +1463,94 @@ public final class CompiledGraph<State extends AgentState> implements GraphDefin
                     config.interruptsAfter() );
         }
 
+        /**
+         * Checks that the inlined nodes behave as in the compiled subgraph: only its interruptions are carried over
+         * into the parent graph, so it can't have node timeouts, hooks, declared node channels or channels not
+         * shared with the parent graph.
+         */
+        private static <State extends AgentState> void requireInlinable( SubCompiledGraphNode<State> subgraphNode,
+                                                                        Map<String, Channel<?>> channels ) throws GraphStateException {
+            final var subGraph = subgraphNode.subGraph();
+            final var unsupported = new ArrayList<String>();
+            if( !subGraph.nodeTimeouts.isEmpty() ) {
+                unsupported.add( "node timeouts" );
+            }
+            if( !subGraph.nodeHooks.isEmpty() ) {
+                unsupported.add( "node hooks" );
+            }
+            if( !subGraph.edgeHooks.isEmpty() ) {
+                unsupported.add( "edge hooks" );
+            }
+            if( !subGraph.nodeChannels.isEmpty() ) {
+                unsupported.add( "declared node channels" );
+            }
+            if( subGraph.getChannels().entrySet().stream()
+                    .anyMatch( entry -> !Objects.equals( channels.get( entry.getKey() ), entry.getValue() ) ) ) {
+                unsupported.add( "channels not shared with the parent graph" );
+            }
+            if( !unsupported.isEmpty() ) {
+                throw new GraphStateException( format( "compiled subgraph '%s' cannot be inlined, it has %s!",
+                        subgraphNode.id(), String.join( ", ", unsupported ) ) );
+            }
+        }
+
         static <State extends AgentState> ProcessedNodesEdgesAndConfig<State> process(StateGraph<State> stateGraph, CompileConfig config ) throws GraphStateException {
+            return process( stateGraph, config.interruptsBefore(), config.interruptsAfter(), config.inlineCompiledSubgraphs() );
+        }
+
+        private static <State extends AgentState> ProcessedNodesEdgesAndConfig<State> process(StateGraph<State> stateGraph,
+                                                                                               Set<String> graphInterruptsBefore,
+                                                                                               Set<String> graphInterruptsAfter,
+                                                                                               boolean inlineCompiledSubgraphs ) throws GraphStateException {
 
-            var subgraphNodes = stateGraph.nodes.onlySubStateGraphNodes();
+            final List<SubCompiledGraphNode<State>> compiledSubgraphNodes = ( inlineCompiledSubgraphs ) ?
+                    stateGraph.nodes.onlySubCompiledGraphNodes() :
+                    List.of();
+
+            var subgraphNodes = new ArrayList<>( stateGraph.nodes.onlySubStateGraphNodes() );
+            for( var compiledSubgraphNode : compiledSubgraphNodes ) {
+                requireInlinable( compiledSubgraphNode, stateGraph.getChannels() );
+                subgraphNodes.add( new SubStateGraphNode<>( compiledSubgraphNode.id(), compiledSubgraphNode.subGraph() ) );
+            }
 
             if( subgraphNodes.isEmpty() ) {
-                return new ProcessedNodesEdgesAndConfig<>( stateGraph, config );
+                return new ProcessedNodesEdgesAndConfig<>( stateGraph.nodes, stateGraph.edges, graphInterruptsBefore, graphInterruptsAfter );
             }
 
-            var interruptsBefore = config.interruptsBefore();
-            var interruptsAfter = config.interruptsAfter();
-            var nodes = new StateGraph.Nodes<>( stateGraph.nodes.exceptSubStateGraphNodes() );
+            var interruptsBefore = graphInterruptsBefore;
+            var interruptsAfter = graphInterruptsAfter;
+            var nodes = new StateGraph.Nodes<>( stateGraph.nodes.exceptSubStateGraphNodes().stream()
+                    .filter( n -> !compiledSubgraphNodes.contains( n ) )
+                    .toList() );
             var edges = new StateGraph.Edges<>( stateGraph.edges.elements);
 
             for( var subgraphNode : subgraphNodes ) {
 
-                var sgWorkflow = subgraphNode.subGraph();
+                // the interruptions of a compiled subgraph are kept
+                final var sgCompileConfig = compiledSubgraphNodes.stream()
+                        .filter( n -> Objects.equals( n.id(), subgraphNode.id() ) )
+                        .findFirst()
+                        .map( n -> n.compiledSubGraph().compileConfig );
+
+                // the nested subgraphs are inlined first
+                var sgWorkflow = process( subgraphNode.subGraph(),
+                        sgCompileConfig.map( CompileConfig::interruptsBefore ).orElseGet( Set::of ),
+                        sgCompileConfig.map( CompileConfig::interruptsAfter ).orElseGet( Set::of ),
+                        inlineCompiledSubgraphs );
+
+                if( !sgWorkflow.interruptsBefore().isEmpty() || !sgWorkflow.interruptsAfter().isEmpty() ) {
+                    interruptsBefore = Stream.concat( interruptsBefore.stream(),
+                                    sgWorkflow.interruptsBefore().stream().map( subgraphNode::formatId ) )
+                            .collect(Collectors.toUnmodifiableSet());
+                    interruptsAfter = Stream.concat( interruptsAfter.stream(),
+                                    sgWorkflow.interruptsAfter().stream().map( subgraphNode::formatId ) )
+                            .collect(Collectors.toUnmodifiableSet());
+                }
 
                 //
                 // Process START Node
                 //
-                var sgEdgeStart = sgWorkflow.edges.edgeBySourceId(START).orElseThrow();
+                var sgEdgeStart = sgWorkflow.edges().edgeBySourceId(START).orElseThrow();
 
                 if( sgEdgeStart.isParallel() ) {
                     throw new GraphStateException( "subgraph not support start with parallel branches yet!"  );
@@ -1079,7 +1617,7 @@ public final class CompiledGraph<State extends AgentState> implements GraphDefin
                 //
                 // Process END Nodes
                 //
-                var sgEdgesEnd = sgWorkflow.edges.edgesByTargetId(END);
+                var sgEdgesEnd = sgWorkflow.edges().edgesByTargetId(END);
 
                 var edgeWithSubgraphSourceId = edges.edgeBySourceId( subgraphNode.id() ).orElseThrow();
 
@@ -1134,7 +1672,7 @@ public final class CompiledGraph<State extends AgentState> implements GraphDefin
                 //
                 // Process edges
                 //
-                sgWorkflow.edges.elements.stream()
+                sgWorkflow.edges().elements.stream()
                         .filter( e -> !Objects.equals( e.sourceId(),START) )
                         .filter( e -> !e.anyMatchByTargetId(END) )
                         .map( e ->
@@ -1146,7 +1684,7 @@ public final class CompiledGraph<State extends AgentState> implements GraphDefin
                 //
                 // Process nodes
                 //
-                sgWorkflow.nodes.elements.stream()
+                sgWorkflow.nodes().elements.stream()
                         .map( n -> n.withIdUpdated( subgraphNode::formatId) )
                         .forEach(nodes.elements::add);
 
@@ -2,6 +2,7 @@ package org.bsc.langgraph4j;
 
 import org.bsc.langgraph4j.internal.edge.Edge;
 import org.bsc.langgraph4j.internal.node.Node;
+import org.bsc.langgraph4j.internal.node.SubCompiledGraphNode;
 import org.bsc.langgraph4j.internal.node.SubStateGraphNode;
 import org.bsc.langgraph4j.state.AgentState;
 
@@ -78,6 +79,18 @@ public sealed interface GraphDefinition<State extends AgentState> permits StateG
                     .toList();
         }
 
+        /**
+         * Returns a list of all SubCompiledGraphNodes in this container.
+         *
+         * @return a list containing only SubCompiledGraphNode instances
+         */
+        public List<SubCompiledGraphNode<State>> onlySubCompiledGraphNodes() {
+            return elements.stream()
+                    .filter(n -> n instanceof SubCompiledGraphNode<State>)
+                    .map(n -> (SubCompiledGraphNode<State>) n)
+                    .toList();
+        }
+
         /**
          * Returns a list of all nodes in this container except SubStateGraphNodes.
          *
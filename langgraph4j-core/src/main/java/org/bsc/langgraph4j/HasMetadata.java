@@ -52,6 +52,16 @@ public interface HasMetadata {
             return ofNullable(metadata).map(Map::copyOf).orElseGet(Map::of);
         }
 
+        /**
+         * Returns the value set in this builder for the given key, without copying the metadata
+         *
+         * @param key the metadata key
+         * @return the value, {@code null} if it is not set
+         */
+        protected Object metadataValue( String key ) {
+            return ( metadata == null ) ? null : metadata.get( key );
+        }
+
         protected Builder() {}
 
         protected Builder( Map<String,Object> metadata ) {
@@ -0,0 +1,44 @@
+package org.bsc.langgraph4j;
+
+import org.bsc.langgraph4j.state.AgentState;
+
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Node output whose state is materialized only when requested, once, used when only the final output of an
+ * execution is consumed and as base of the outputs that carry only a part of the state.
+ *
+ * @param <State> the type of the state
+ */
+public class LazyNodeOutput<State extends AgentState> extends NodeOutput<State> {
+
+    private Supplier<State> stateSupplier;
+    private volatile State state;
+
+    protected LazyNodeOutput( String node, Supplier<State> stateSupplier ) {
+        super( node, null );
+        this.stateSupplier = requireNonNull( stateSupplier, "stateSupplier cannot be null" );
+    }
+
+    /**
+     * Materializes the state, once.
+     *
+     * @return the state after the node
+     */
+    @Override
+    public State state() {
+        var result = state;
+        if( result == null ) {
+            synchronized( this ) {
+                result = state;
+                if( result == null ) {
+                    state = result = stateSupplier.get();
+                    stateSupplier = null;
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,30 @@
+package org.bsc.langgraph4j;
+
+import java.util.concurrent.TimeoutException;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Exception raised when a node action doesn't complete within its timeout or within the deadline of the execution.
+ *
+ * @see StateGraph#addNodeTimeout(String, java.time.Duration, String)
+ * @see RunnableConfig#deadline()
+ */
+public class NodeTimeoutException extends TimeoutException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String nodeId;
+
+    public NodeTimeoutException(String nodeId, String message) {
+        super(message);
+        this.nodeId = requireNonNull(nodeId, "nodeId cannot be null");
+    }
+
+    /**
+     * @return the id of the node that timed out
+     */
+    public String nodeId() {
+        return nodeId;
+    }
+}
@@ -5,7 +5,12 @@ import org.bsc.langgraph4j.internal.node.ParallelNode;
 import org.bsc.langgraph4j.utils.CollectionsUtils;
 import org.bsc.langgraph4j.utils.TypeRef;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
@@ -35,7 +40,82 @@ public final class RunnableConfig implements HasMetadata {
     private final String checkPointId;
     private final String nextNode;
     private final CompiledGraph.StreamMode streamMode;
-    private final Map<String,Object> metadata;
+    private final Executor executor;
+    private final Instant deadline;
+    // reserved metadata kept apart, since they change at each step
+    private final Object nodeId;
+    private final Object graphId;
+    private final Object graphPath;
+    private final Metadata metadata;
+
+    /**
+     * Immutable layer of metadata on top of the ones of the configuration it derives from, so that deriving a
+     * configuration doesn't copy the metadata. The layers are flattened once they get too deep.
+     */
+    private static final class Metadata {
+        // marks a key removed from the layers below
+        private static final Object REMOVED = new Object();
+        private static final int MAX_DEPTH = 8;
+
+        private final Metadata parent;
+        private final Map<String,Object> entries;
+        private final int depth;
+
+        private Metadata( Metadata parent, Map<String,Object> entries ) {
+            this.parent = parent;
+            this.entries = entries;
+            this.depth = ( parent == null ) ? 0 : parent.depth + 1;
+        }
+
+        /**
+         * @param parent the layer to derive from, {@code null} if any
+         * @param entries the entries of the new layer, with {@link #REMOVED} for the removed keys
+         * @return the new layer, {@code parent} if there are no entries
+         */
+        static Metadata of( Metadata parent, Map<String,Object> entries ) {
+            if( entries.isEmpty() ) {
+                return parent;
+            }
+            if( parent == null || parent.depth >= MAX_DEPTH ) {
+                final var result = ( parent == null ) ? new HashMap<String,Object>() : parent.toMap();
+                entries.forEach( ( key, value ) -> {
+                    if( value == REMOVED ) {
+                        result.remove( key );
+                    } else {
+                        result.put( key, value );
+                    }
+                });
+                return result.isEmpty() ? null : new Metadata( null, Map.copyOf( result ) );
+            }
+            return new Metadata( parent, Map.copyOf( entries ) );
+        }
+
+        Object get( String key ) {
+            for( var layer = this; layer != null; layer = layer.parent ) {
+                final var value = layer.entries.get( key );
+                if( value != null ) {
+                    return ( value == REMOVED ) ? null : value;
+                }
+            }
+            return null;
+        }
+
+        HashMap<String,Object> toMap() {
+            final var result = ( parent == null ) ? new HashMap<String,Object>() : parent.toMap();
+            entries.forEach( ( key, value ) -> {
+                if( value == REMOVED ) {
+                    result.remove( key );
+                } else {
+                    result.put( key, value );
+                }
+            });
+            return result;
+        }
+    }
+
+    private static boolean isReserved( String key ) {
+        return NODE_ID.equals( key ) || GRAPH_ID.equals( key ) || GRAPH_PATH.equals( key );
+    }
 
     /**
      * Returns the stream mode of the compiled graph.
@@ -71,6 +151,24 @@ public final class RunnableConfig implements HasMetadata {
         return ofNullable(nextNode);
     }
 
+    /**
+     * Returns the executor that runs the graph execution, overriding the one of {@link CompileConfig#executor()}.
+     *
+     * @return an {@link Optional} containing the executor, or {@link Optional#empty()} if it is not set.
+     */
+    public Optional<Executor> executor() {
+        return ofNullable(executor);
+    }
+
+    /**
+     * Returns the instant by which the graph execution must complete. It is propagated to the subgraphs.
+     *
+     * @return an {@link Optional} containing the deadline, or {@link Optional#empty()} if it is not set.
+     */
+    public Optional<Instant> deadline() {
+        return ofNullable(deadline);
+    }
+
     /**
      * Create a new RunnableConfig with the same attributes as this one
      * but with a different {@link CompiledGraph.StreamMode}.
@@ -114,14 +212,43 @@ public final class RunnableConfig implements HasMetadata {
 
         if( newMetadata == null || newMetadata.isEmpty() ) return this;
 
-        return new RunnableConfig.Builder( this)
-                .putMetadata( newMetadata )
-                .build();
+        Object newNodeId = nodeId, newGraphId = graphId, newGraphPath = graphPath;
+        Map<String,Object> entries = null;
+        for( var entry : newMetadata.entrySet() ) {
+            switch( entry.getKey() ) {
+                case NODE_ID -> newNodeId = entry.getValue();
+                case GRAPH_ID -> newGraphId = entry.getValue();
+                case GRAPH_PATH -> newGraphPath = entry.getValue();
+                default -> {
+                    if( entries == null ) {
+                        entries = new HashMap<>();
+                    }
+                    entries.put( entry.getKey(), entry.getValue() );
+                }
+            }
+        }
+
+        return new RunnableConfig( this,
+                newNodeId,
+                newGraphId,
+                newGraphPath,
+                ( entries == null ) ? metadata : Metadata.of( metadata, entries ) );
     }
 
     @Override
     public Set<String> metadataKeys() {
-        return ofNullable(metadata).map( Map::keySet ).orElseGet(Set::of);
+        if( metadata == null && nodeId == null && graphId == null && graphPath == null ) {
+            return Set.of();
+        }
+        return Collections.unmodifiableSet( allMetadata().keySet() );
+    }
+
+    private Map<String,Object> allMetadata() {
+        final var result = ( metadata == null ) ? new HashMap<String,Object>() : metadata.toMap();
+        if( nodeId != null ) result.put( NODE_ID, nodeId );
+        if( graphId != null ) result.put( GRAPH_ID, graphId );
+        if( graphPath != null ) result.put( GRAPH_PATH, graphPath );
+        return result;
     }
 
     /**
@@ -135,7 +262,12 @@ public final class RunnableConfig implements HasMetadata {
         if( key == null ) {
             return Optional.empty();
         }
-        return ofNullable( metadata ).map( m -> m.get(key) );
+        return switch( key ) {
+            case NODE_ID -> ofNullable( nodeId );
+            case GRAPH_ID -> ofNullable( graphId );
+            case GRAPH_PATH -> ofNullable( graphPath );
+            default -> ( metadata == null ) ? Optional.empty() : ofNullable( metadata.get(key) );
+        };
     }
 
     /**
@@ -148,16 +280,18 @@ public final class RunnableConfig implements HasMetadata {
     }
 
     public String nodeId() {
-        return (String)metadata(NODE_ID).orElseThrow();
+        if( nodeId == null ) {
+            throw new NoSuchElementException("No value present");
+        }
+        return (String)nodeId;
     }
 
     public Optional<String> graphId() {
-        return metadata(GRAPH_ID).map(Object::toString);
+        return ofNullable(graphId).map(Object::toString);
     }
 
     public GraphPath graphPath() {
-        return metadata(GRAPH_PATH, new TypeRef<GraphPath>() {})
-                .orElseGet(GraphPath::empty);
+        return ( graphPath instanceof GraphPath path ) ? path : GraphPath.empty();
     }
 
     public boolean isResumeSubgraph() {
@@ -190,6 +324,13 @@ public final class RunnableConfig implements HasMetadata {
         private String checkPointId;
         private String nextNode;
         private CompiledGraph.StreamMode streamMode = CompiledGraph.StreamMode.VALUES;
+        private Executor executor;
+        private Instant deadline;
+        private Object nodeId;
+        private Object graphId;
+        private Object graphPath;
+        // the metadata of the configuration the builder derives from, the changes are layered on top of them
+        private Metadata base;
 
         /**
          * Constructs a new instance of the {@link Builder} with default configuration settings.
@@ -202,11 +343,17 @@ public final class RunnableConfig implements HasMetadata {
          * @param config The configuration to be used for initialization.
          */
         Builder( RunnableConfig config ) {
-            super( requireNonNull(config, "config cannot be null!").metadata );
+            requireNonNull(config, "config cannot be null!");
+            this.base           = config.metadata;
+            this.nodeId         = config.nodeId;
+            this.graphId        = config.graphId;
+            this.graphPath      = config.graphPath;
             this.threadId       = config.threadId;
             this.checkPointId   = config.checkPointId;
             this.nextNode       = config.nextNode;
             this.streamMode     = config.streamMode;
+            this.executor       = config.executor;
+            this.deadline       = config.deadline;
 
         }
 
@@ -251,6 +398,43 @@ public final class RunnableConfig implements HasMetadata {
             return this;
         }
 
+        /**
+         * Sets the executor that runs the graph execution, overriding the one of {@link CompileConfig#executor()}.
+         *
+         * @param executor the {@link Executor} to use, {@code null} to use the one of the compile configuration.
+         * @return this {@code Builder} instance for method chaining.
+         * @see CompileConfig.Builder#executor(Executor)
+         */
+        public Builder executor( Executor executor ) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Sets the instant by which the graph execution must complete.
+         * When it expires the running node is cancelled and, if configured, its timeout fallback is taken,
+         * otherwise the execution fails.
+         *
+         * @param deadline the deadline, {@code null} for no deadline
+         * @return this {@code Builder} instance for method chaining.
+         * @see StateGraph#addNodeTimeout(String, Duration, String)
+         */
+        public Builder deadline( Instant deadline ) {
+            this.deadline = deadline;
+            return this;
+        }
+
+        /**
+         * Sets the deadline of the graph execution to the given time from now.
+         *
+         * @param timeout the maximum duration of the execution
+         * @return this {@code Builder} instance for method chaining.
+         * @see #deadline(Instant)
+         */
+        public Builder timeout( Duration timeout ) {
+            return deadline( Instant.now().plus( requireNonNull(timeout, "timeout cannot be null!") ) );
+        }
+
         /**
          * Adds a custom {@link Executor} for a specific parallel node.
          * <p>
@@ -267,6 +451,92 @@ public final class RunnableConfig implements HasMetadata {
             return addMetadata( ParallelNode.formatNodeId(nodeId), requireNonNull(executor, "executor cannot be null!") );
         }
 
+        private boolean isInherited( String key ) {
+            return switch( key ) {
+                case NODE_ID -> nodeId != null;
+                case GRAPH_ID -> graphId != null;
+                case GRAPH_PATH -> graphPath != null;
+                default -> base != null && base.get( key ) != null;
+            };
+        }
+
+        /**
+         * Returns the metadata of the configuration being built: the ones inherited from the configuration the
+         * builder derives from, updated with the changes made through this builder
+         *
+         * @return the immutable metadata
+         */
+        @Override
+        public Map<String,Object> metadata() {
+            final var result = ( base == null ) ? new HashMap<String,Object>() : base.toMap();
+            if( nodeId != null ) {
+                result.put( NODE_ID, nodeId );
+            }
+            if( graphId != null ) {
+                result.put( GRAPH_ID, graphId );
+            }
+            if( graphPath != null ) {
+                result.put( GRAPH_PATH, graphPath );
+            }
+            changes().forEach( ( key, value ) -> {
+                if( value == Metadata.REMOVED ) {
+                    result.remove( key );
+                } else {
+                    result.put( key, value );
+                }
+            });
+            return Collections.unmodifiableMap( result );
+        }
+
+        /**
+         * @return the metadata changed through this builder, with {@link Metadata#REMOVED} for the removed keys
+         */
+        private Map<String,Object> changes() {
+            return super.metadata();
+        }
+
+        @Override
+        public Builder putMetadataIfAbsent( String key, Object value ) {
+            requireNonNull(key, "key cannot be null");
+            final var change = metadataValue( key );
+            if( change == Metadata.REMOVED ) {
+                return putMetadata( key, value );
+            }
+            if( change == null && isInherited( key ) ) {
+                return this;
+            }
+            return super.putMetadataIfAbsent( key, value );
+        }
+
+        @Override
+        public Builder addMetadata( String key, Object value ) {
+            requireNonNull(key, "key cannot be null");
+            final var change = metadataValue( key );
+            if( change == Metadata.REMOVED ) {
+                return putMetadata( key, value );
+            }
+            if( change == null && isInherited( key ) ) {
+                throw new IllegalArgumentException( "Metadata key [%s] already exists: ".formatted(key));
+            }
+            return super.addMetadata( key, value );
+        }
+
+        @Override
+        public Builder removeMetadata( String key ) {
+            requireNonNull(key, "key cannot be null");
+            switch( key ) {
+                case NODE_ID -> nodeId = null;
+                case GRAPH_ID -> graphId = null;
+                case GRAPH_PATH -> graphPath = null;
+                default -> {
+                    if( base != null && base.get( key ) != null ) {
+                        return super.putMetadata( key, Metadata.REMOVED );
+                    }
+                }
+            }
+            return super.removeMetadata( key );
+        }
+
         /**
          * Constructs and returns the configured {@code RunnableConfig} object.
          *
@@ -286,9 +556,40 @@ public final class RunnableConfig implements HasMetadata {
         this.checkPointId   = builder.checkPointId;
         this.nextNode       = builder.nextNode;
         this.streamMode     = builder.streamMode;
-        this.metadata       = ofNullable(builder.metadata())
-                                .map( Map::copyOf )
-                                .orElse(null);
+        this.executor       = builder.executor;
+        this.deadline       = builder.deadline;
+
+        Object nodeId = builder.nodeId, graphId = builder.graphId, graphPath = builder.graphPath;
+        final var entries = new HashMap<String,Object>();
+        for( var entry : builder.changes().entrySet() ) {
+            final var value = ( entry.getValue() == Metadata.REMOVED ) ? null : entry.getValue();
+            switch( entry.getKey() ) {
+                case NODE_ID -> nodeId = value;
+                case GRAPH_ID -> graphId = value;
+                case GRAPH_PATH -> graphPath = value;
+                default -> entries.put( entry.getKey(), entry.getValue() );
+            }
+        }
+        this.nodeId         = nodeId;
+        this.graphId        = graphId;
+        this.graphPath      = graphPath;
+        this.metadata       = Metadata.of( builder.base, entries );
+    }
+
+    /**
+     * Derives a configuration replacing only the metadata
+     */
+    private RunnableConfig( RunnableConfig config, Object nodeId, Object graphId, Object graphPath, Metadata metadata ) {
+        this.threadId       = config.threadId;
+        this.checkPointId   = config.checkPointId;
+        this.nextNode       = config.nextNode;
+        this.streamMode     = config.streamMode;
+        this.executor       = config.executor;
+        this.deadline       = config.deadline;
+        this.nodeId         = nodeId;
+        this.graphId        = graphId;
+        this.graphPath      = graphPath;
+        this.metadata       = metadata;
     }
 
     @Override
@@ -298,7 +599,7 @@ public final class RunnableConfig implements HasMetadata {
                 checkPointId,
                 nextNode,
                 streamMode,
-                CollectionsUtils.toString(metadata)
+                CollectionsUtils.toString(allMetadata())
                 );
     }
 
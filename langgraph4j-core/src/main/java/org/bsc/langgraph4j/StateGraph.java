@@ -1,6 +1,7 @@
 package org.bsc.langgraph4j;
 
 import org.bsc.langgraph4j.action.*;
+import org.bsc.langgraph4j.cache.CachePolicy;
 import org.bsc.langgraph4j.hook.EdgeHook;
 import org.bsc.langgraph4j.hook.NodeHook;
 import org.bsc.langgraph4j.internal.edge.Edge;
@@ -9,6 +10,9 @@ import org.bsc.langgraph4j.internal.edge.EdgeValue;
 import org.bsc.langgraph4j.internal.hook.EdgeHooks;
 import org.bsc.langgraph4j.internal.hook.NodeHooks;
 import org.bsc.langgraph4j.internal.node.Node;
+import org.bsc.langgraph4j.internal.node.NodeChannels;
+import org.bsc.langgraph4j.internal.node.NodeTimeout;
+import org.bsc.langgraph4j.internal.node.SendNode;
 import org.bsc.langgraph4j.internal.node.SubCompiledGraphNode;
 import org.bsc.langgraph4j.internal.node.SubStateGraphNode;
 import org.bsc.langgraph4j.serializer.StateSerializer;
@@ -17,7 +21,9 @@ import org.bsc.langgraph4j.state.AgentState;
 import org.bsc.langgraph4j.state.AgentStateFactory;
 import org.bsc.langgraph4j.state.Channel;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.stream.Stream;
 
 import static java.lang.String.format;
 import static java.util.Collections.unmodifiableMap;
@@ -51,6 +57,10 @@ public non-sealed class StateGraph<State extends AgentState> implements GraphDef
         unsupportedConditionalEdgeOnParallelNode("parallel node doesn't support conditional branch, but on [%s] a conditional branch on %s have been found!"),
         illegalMultipleTargetsOnParallelNode("parallel node [%s] must have only one target, but %s have been found!"),
         interruptionNodeNotExist( "node '%s' configured as interruption doesn't exist!"),
+        timeoutNodeNotExist( "node '%s' configured with a timeout doesn't exist!"),
+        timeoutFallbackNotExist( "timeout fallback '%s' of node '%s' doesn't exist!"),
+        timeoutOnSubgraphNode( "node '%s' configured with a timeout is a subgraph, a timeout can only be set on its nodes!"),
+        sendTargetNotExist( "send node '%s' refers to a not existent target node '%s'!"),
         validationError( "validation error: %s")
         ;
 
@@ -75,6 +85,8 @@ public non-sealed class StateGraph<State extends AgentState> implements GraphDef
     final Edges<State> edges = new Edges<>();
     final NodeHooks<State> nodeHooks = new NodeHooks<>();
     final EdgeHooks<State> edgeHooks = new EdgeHooks<>();
+    final Map<String, NodeTimeout> nodeTimeouts = new LinkedHashMap<>();
+    final Map<String, NodeChannels> nodeChannels = new LinkedHashMap<>();
 
     private final Map<String, Channel<?>> channels;
 
@@ -132,6 +144,35 @@ public non-sealed class StateGraph<State extends AgentState> implements GraphDef
     }
 
 
+    /**
+     * Sets the maximum duration of the action of the given node. When it expires the action is cancelled
+     * and the execution fails with a {@link NodeTimeoutException}. The node can't be a subgraph.
+     *
+     * @param nodeId the identifier of the node
+     * @param timeout the maximum duration of the node action
+     * @return this
+     */
+    public StateGraph<State> addNodeTimeout( String nodeId, Duration timeout ) {
+        return addNodeTimeout( nodeId, timeout, null );
+    }
+
+    /**
+     * Sets the maximum duration of the action of the given node. When it expires, or the deadline of the
+     * execution expires while the node is running, the action is cancelled and the execution goes to the
+     * given fallback node, leaving the state unchanged. The fallback node is not bound by the deadline of the
+     * execution.
+     *
+     * @param nodeId the identifier of the node
+     * @param timeout the maximum duration of the node action
+     * @param fallbackNodeId the node to go to on timeout, {@code null} to fail the execution
+     * @return this
+     * @see RunnableConfig.Builder#deadline(java.time.Instant)
+     */
+    public StateGraph<State> addNodeTimeout( String nodeId, Duration timeout, String fallbackNodeId ) {
+        nodeTimeouts.put( nodeId, new NodeTimeout( nodeId, timeout, fallbackNodeId ) );
+        return this;
+    }
+
     public StateGraph<State> addWrapCallNodeHook(NodeHook.WrapCall<State> wrapCallHook ) {
         nodeHooks.wrapCalls.add( wrapCallHook );
         return this;
@@ -231,6 +272,84 @@ public non-sealed class StateGraph<State extends AgentState> implements GraphDef
         return addNode( id, factory);
     }
 
+    /**
+     * Adds a node whose results are cached according to the given policy.
+     *
+     * @param id the identifier of the node
+     * @param action the action to be performed by the node
+     * @param cachePolicy the cache policy of the node
+     * @return this
+     * @throws GraphStateException if the node identifier is invalid, the node already exists or the action is interruptable
+     * @see CachePolicy
+     */
+    public StateGraph<State> addNode(String id, AsyncNodeAction<State> action, CachePolicy<State> cachePolicy) throws GraphStateException {
+        return addNode( id, AsyncNodeActionWithConfig.of(action), cachePolicy );
+    }
+
+    /**
+     * Adds a node whose results are cached according to the given policy.
+     *
+     * @param id the identifier of the node
+     * @param action the action to be performed by the node
+     * @param cachePolicy the cache policy of the node
+     * @return this
+     * @throws GraphStateException if the node identifier is invalid, the node already exists or the action is interruptable
+     * @see CachePolicy
+     */
+    public StateGraph<State> addNode(String id, AsyncNodeActionWithConfig<State> action, CachePolicy<State> cachePolicy) throws GraphStateException {
+        requireNonNull(cachePolicy, "cachePolicy cannot be null");
+        if (action instanceof InterruptableAction<?>) {
+            throw Errors.validationError.exception(format("interruptable node '%s' cannot be cached", id));
+        }
+        return addNode( id, cachePolicy.apply( id, action ) );
+    }
+
+    /**
+     * Adds a node declaring the channels it reads and writes. The node fails if it updates a channel not
+     * declared in its writes. The declarations allow the compiler to run independent nodes concurrently.
+     *
+     * @param id the identifier of the node
+     * @param action the action to be performed by the node
+     * @param reads the channels read by the node
+     * @param writes the channels written by the node
+     * @return this
+     * @throws GraphStateException if the node identifier is invalid, the node already exists or the channels are not valid
+     * @see CompileConfig.Builder#parallelizeIndependentNodes(boolean)
+     */
+    public StateGraph<State> addNode(String id, AsyncNodeAction<State> action, Set<String> reads, Set<String> writes) throws GraphStateException {
+        return addNode( id, AsyncNodeActionWithConfig.of(action), reads, writes );
+    }
+
+    /**
+     * Adds a node declaring the channels it reads and writes. The node fails if it updates a channel not
+     * declared in its writes. The declarations allow the compiler to run independent nodes concurrently.
+     * Interruptable actions and subgraphs can't declare their channels.
+     *
+     * @param id the identifier of the node
+     * @param action the action to be performed by the node
+     * @param reads the channels read by the node
+     * @param writes the channels written by the node
+     * @return this
+     * @throws GraphStateException if the node identifier is invalid, the node already exists or the channels are not valid
+     * @see CompileConfig.Builder#parallelizeIndependentNodes(boolean)
+     */
+    public StateGraph<State> addNode(String id, AsyncNodeActionWithConfig<State> action, Set<String> reads, Set<String> writes) throws GraphStateException {
+        requireNonNull(reads, "reads cannot be null");
+        requireNonNull(writes, "writes cannot be null");
+        if (action instanceof InterruptableAction<?>) {
+            throw Errors.validationError.exception(format("interruptable node '%s' cannot declare its channels", id));
+        }
+        if (action instanceof SubCompiledGraphNodeAction<?>) {
+            throw Errors.validationError.exception(format("subgraph node '%s' cannot declare its channels", id));
+        }
+        if (Stream.concat(reads.stream(), writes.stream()).anyMatch(channel -> channel == null || channel.isBlank())) {
+            throw Errors.validationError.exception(format("node '%s' declares a blank channel", id));
+        }
+        addNode( id, action );
+        nodeChannels.put( id, new NodeChannels( id, reads, writes ) );
+        return this;
+    }
+
     /**
      * Adds node that behave as conditional edges.
      *
@@ -262,6 +381,71 @@ public non-sealed class StateGraph<State extends AgentState> implements GraphDef
         */
     }
 
+    /**
+     * Adds a node that performs a dynamic fan-out ( map-reduce ).
+     * The given action returns a list of {@link Send}, each one executes its target node on the current state
+     * merged with the send input, then the results are reduced, in send order, through the channels of the graph.
+     * The target nodes are regular nodes of the graph, with their hooks, that don't require any incoming edge.
+     * The declared targets are checked when the graph is compiled, a send to any other node fails the execution.
+     *
+     * @param id the identifier of the node
+     * @param sends the action that evaluates the sends
+     * @param maxConcurrency the maximum number of sends executed at the same time
+     * @param targets the nodes allowed as targets of the sends, empty to allow any node of the graph
+     * @return this
+     * @throws GraphStateException if the node identifier is invalid, the node already exists or maxConcurrency is not positive
+     */
+    public StateGraph<State> addSendNode(String id, AsyncSendAction<State> sends, int maxConcurrency, Set<String> targets) throws GraphStateException {
+        if (Objects.equals(id, END)) {
+            throw Errors.invalidNodeIdentifier.exception(END);
+        }
+        if (maxConcurrency <= 0) {
+            throw Errors.validationError.exception(format("maxConcurrency of send node '%s' must be > 0", id));
+        }
+
+        var node = new SendNode<>(id,
+                requireNonNull(sends, "sends cannot be null"),
+                maxConcurrency,
+                requireNonNull(targets, "targets cannot be null"),
+                getStateFactory(),
+                channels);
+
+        if (nodes.elements.contains(node)) {
+            throw Errors.duplicateNodeError.exception(id);
+        }
+
+        nodes.elements.add(node);
+        return this;
+    }
+
+    /**
+     * Adds a node that performs a dynamic fan-out ( map-reduce ) to any node of the graph.
+     *
+     * @param id the identifier of the node
+     * @param sends the action that evaluates the sends
+     * @param maxConcurrency the maximum number of sends executed at the same time
+     * @return this
+     * @throws GraphStateException if the node identifier is invalid, the node already exists or maxConcurrency is not positive
+     * @see #addSendNode(String, AsyncSendAction, int, Set)
+     */
+    public StateGraph<State> addSendNode(String id, AsyncSendAction<State> sends, int maxConcurrency) throws GraphStateException {
+        return addSendNode(id, sends, maxConcurrency, Set.of());
+    }
+
+    /**
+     * Adds a node that performs a dynamic fan-out ( map-reduce ), executing at most as many sends
+     * as the available processors at the same time.
+     *
+     * @param id the identifier of the node
+     * @param sends the action that evaluates the sends
+     * @return this
+     * @throws GraphStateException if the node identifier is invalid or the node already exists
+     * @see #addSendNode(String, AsyncSendAction, int)
+     */
+    public StateGraph<State> addSendNode(String id, AsyncSendAction<State> sends) throws GraphStateException {
+        return addSendNode(id, sends, Runtime.getRuntime().availableProcessors());
+    }
+
     /**
      * Adds a subgraph to the state graph by creating a node with the specified identifier.
      * This implies that Subgraph share the same state with parent graph
@@ -412,6 +596,9 @@ public non-sealed class StateGraph<State extends AgentState> implements GraphDef
     void validateGraph( ) throws GraphStateException {
         for( var node : nodes.elements ) {
             node.validate();
+            if( node instanceof SendNode<State> sendNode ) {
+                sendNode.validateTargets(nodes);
+            }
         }
 
         var edgeStart = edges.edgeBySourceId(START)
@@ -425,6 +612,19 @@ public non-sealed class StateGraph<State extends AgentState> implements GraphDef
 
         nodeHooks.validate(nodes);
         edgeHooks.validate(edges);
+
+        for (var nodeTimeout : nodeTimeouts.values()) {
+            if (!nodes.anyMatchById(nodeTimeout.nodeId())) {
+                throw Errors.timeoutNodeNotExist.exception(nodeTimeout.nodeId());
+            }
+            if (nodes.elements.stream().anyMatch(n -> n instanceof SubGraphNode<?> && Objects.equals(n.id(), nodeTimeout.nodeId()))) {
+                throw Errors.timeoutOnSubgraphNode.exception(nodeTimeout.nodeId());
+            }
+            var fallback = nodeTimeout.fallback();
+            if (fallback.isPresent() && !Objects.equals(fallback.get(), END) && !nodes.anyMatchById(fallback.get())) {
+                throw Errors.timeoutFallbackNotExist.exception(fallback.get(), nodeTimeout.nodeId());
+            }
+        }
     }
 
 
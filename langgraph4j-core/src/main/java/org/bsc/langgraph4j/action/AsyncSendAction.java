@@ -0,0 +1,27 @@
+package org.bsc.langgraph4j.action;
+
+import org.bsc.langgraph4j.RunnableConfig;
+import org.bsc.langgraph4j.state.AgentState;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+
+/**
+ * Represents an asynchronous action that, given the current state, returns the list of {@link Send}
+ * to execute in a map-reduce fashion.
+ *
+ * @param <S> the type of the agent state
+ */
+@FunctionalInterface
+public interface AsyncSendAction<S extends AgentState> extends BiFunction<S, RunnableConfig, CompletableFuture<List<Send>>> {
+
+    /**
+     * Evaluates the sends of the given state.
+     *
+     * @param state the agent state
+     * @param config the runnable configuration
+     * @return a CompletableFuture with the list of sends to execute
+     */
+    CompletableFuture<List<Send>> apply(S state, RunnableConfig config);
+}
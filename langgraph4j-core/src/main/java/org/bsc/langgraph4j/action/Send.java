@@ -0,0 +1,29 @@
+package org.bsc.langgraph4j.action;
+
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Represents a single item of a dynamic fan-out returned by an {@link AsyncSendAction}.
+ * The target node is executed with the current state merged with the given input.
+ *
+ * @param node the id of the node to execute
+ * @param input the values that override the current state for this execution only
+ */
+public record Send(String node, Map<String,Object> input) {
+
+    public Send {
+        requireNonNull(node, "node cannot be null");
+        input = ( input == null ) ? Map.of() : input;
+    }
+
+    /**
+     * Creates a send to the given node without any additional input
+     *
+     * @param node the id of the node to execute
+     */
+    public Send(String node) {
+        this(node, Map.of());
+    }
+}
@@ -0,0 +1,210 @@
+package org.bsc.langgraph4j.cache;
+
+import org.bsc.async.AsyncGenerator;
+import org.bsc.langgraph4j.RunnableConfig;
+import org.bsc.langgraph4j.action.AsyncNodeActionWithConfig;
+import org.bsc.langgraph4j.state.AgentState;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+/**
+ * Cache policy of a node whose result depends only on a few values of the state
+ * ( e.g. retrieval, classification, prompt rendering ).
+ * <p>
+ * On a cache hit the node action is skipped and the cached partial state is returned in its place,
+ * so it is still applied through the channels of the graph. The results containing a generator
+ * ( i.e. streaming nodes ) are never cached.
+ * </p>
+ * <pre>
+ * var policy = CachePolicy.&lt;MyState&gt;builder( "question" )
+ *                  .ttl( Duration.ofMinutes(10) )
+ *                  .maxEntries( 500 )
+ *                  .build();
+ *
+ * workflow.addNode( "retrieve", retrieveAction, policy );
+ * </pre>
+ *
+ * @param <State> the type of the state
+ */
+public final class CachePolicy<State extends AgentState> {
+
+    public static class Builder<State extends AgentState> {
+        private final Function<State, ?> keyFunction;
+        private Duration ttl;
+        private int maxEntries = 1000;
+        private NodeCache cache;
+
+        private Builder( Function<State, ?> keyFunction ) {
+            this.keyFunction = requireNonNull( keyFunction, "keyFunction cannot be null" );
+        }
+
+        /**
+         * Sets the time to live of the cached results (default: no expiration)
+         *
+         * @param ttl the time to live
+         * @return this builder
+         */
+        public Builder<State> ttl( Duration ttl ) {
+            if( ttl != null && ( ttl.isNegative() || ttl.isZero() ) ) {
+                throw new IllegalArgumentException("ttl must be > 0!");
+            }
+            this.ttl = ttl;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of entries of the default in memory cache (default 1000)
+         *
+         * @param maxEntries the maximum number of entries
+         * @return this builder
+         */
+        public Builder<State> maxEntries( int maxEntries ) {
+            if( maxEntries <= 0 ) {
+                throw new IllegalArgumentException("maxEntries must be > 0!");
+            }
+            this.maxEntries = maxEntries;
+            return this;
+        }
+
+        /**
+         * Sets the storage of the cached results (default: {@link InMemoryNodeCache})
+         *
+         * @param cache the cache backend
+         * @return this builder
+         */
+        public Builder<State> cache( NodeCache cache ) {
+            this.cache = cache;
+            return this;
+        }
+
+        public CachePolicy<State> build() {
+            return new CachePolicy<>( this );
+        }
+    }
+
+    /**
+     * Creates a builder of a policy whose cache key is evaluated from the state.
+     * The keys are compared through their {@code equals} and {@code hashCode}.
+     * If the key function returns {@code null} the node is executed without caching.
+     *
+     * @param keyFunction the function that evaluates the cache key
+     * @param <State> the type of the state
+     * @return a new builder
+     */
+    public static <State extends AgentState> Builder<State> builder( Function<State, ?> keyFunction ) {
+        return new Builder<>( keyFunction );
+    }
+
+    /**
+     * Creates a builder of a policy whose cache key is made by the values of the given state keys
+     *
+     * @param stateKeys the state keys the node result depends on
+     * @param <State> the type of the state
+     * @return a new builder
+     */
+    public static <State extends AgentState> Builder<State> builder( String... stateKeys ) {
+        requireNonNull( stateKeys, "stateKeys cannot be null" );
+        final var keys = List.of( stateKeys );
+        return new Builder<>( state -> {
+            final var values = new ArrayList<>( keys.size() );
+            for( var key : keys ) {
+                values.add( state.value( key ).orElse( null ) );
+            }
+            return Collections.unmodifiableList( values );
+        });
+    }
+
+    /**
+     * Cache statistics
+     *
+     * @param hits number of node executions served by the cache
+     * @param misses number of node executions that invoked the node action
+     */
+    public record Stats( long hits, long misses ) {
+
+        /**
+         * Returns the ratio of node executions served by the cache
+         *
+         * @return the hit rate, 0 if no node has been executed
+         */
+        public double hitRate() {
+            final var total = hits + misses;
+            return ( total == 0 ) ? 0.0 : (double) hits / total;
+        }
+    }
+
+    private final Function<State, ?> keyFunction;
+    private final Duration ttl;
+    private final NodeCache cache;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private CachePolicy( Builder<State> builder ) {
+        this.keyFunction = builder.keyFunction;
+        this.ttl = builder.ttl;
+        this.cache = ( builder.cache != null ) ? builder.cache : new InMemoryNodeCache( builder.maxEntries );
+    }
+
+    public NodeCache cache() {
+        return cache;
+    }
+
+    public Stats stats() {
+        return new Stats( hits.sum(), misses.sum() );
+    }
+
+    private static boolean isCacheable( Map<String, Object> partialState ) {
+        return partialState.values().stream().noneMatch( value -> value instanceof AsyncGenerator );
+    }
+
+    /**
+     * Decorates the action of the given node with this cache policy
+     *
+     * @param nodeId the id of the node, used to scope the cache keys
+     * @param action the node action
+     * @return the cached action
+     */
+    public AsyncNodeActionWithConfig<State> apply( String nodeId, AsyncNodeActionWithConfig<State> action ) {
+        requireNonNull( nodeId, "nodeId cannot be null" );
+        requireNonNull( action, "action cannot be null" );
+
+        return ( State state, RunnableConfig config ) -> {
+            final Object value;
+            try {
+                value = keyFunction.apply( state );
+            }
+            catch( Exception ex ) {
+                return CompletableFuture.failedFuture( ex );
+            }
+            if( value == null ) {
+                return action.apply( state, config );
+            }
+            final var key = new NodeCache.Key( nodeId, value );
+
+            final var cached = cache.get( key );
+            if( cached.isPresent() ) {
+                hits.increment();
+                return completedFuture( cached.get() );
+            }
+            misses.increment();
+
+            return action.apply( state, config ).thenApply( partialState -> {
+                if( partialState != null && isCacheable( partialState ) ) {
+                    cache.put( key, Collections.unmodifiableMap( new HashMap<>( partialState ) ), ttl );
+                }
+                return partialState;
+            });
+        };
+    }
+}
@@ -0,0 +1,85 @@
+package org.bsc.langgraph4j.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In memory {@link NodeCache} that keeps at most {@code maxEntries} entries, evicting the least recently used one.
+ * The expired entries are removed when they are read.
+ */
+public class InMemoryNodeCache implements NodeCache {
+
+    private record Entry( Map<String, Object> partialState, long expiresAt ) {
+
+        boolean isExpired( long now ) {
+            return expiresAt != Long.MAX_VALUE && now - expiresAt >= 0;
+        }
+    }
+
+    private final Map<Key, Entry> entries;
+
+    /**
+     * Creates a cache with the given maximum number of entries
+     *
+     * @param maxEntries the maximum number of entries
+     */
+    public InMemoryNodeCache( int maxEntries ) {
+        if( maxEntries <= 0 ) {
+            throw new IllegalArgumentException("maxEntries must be > 0!");
+        }
+        this.entries = new LinkedHashMap<>( 16, 0.75f, true ) {
+            @Override
+            protected boolean removeEldestEntry( Map.Entry<Key, Entry> eldest ) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public Optional<Map<String, Object>> get( Key key ) {
+        synchronized ( entries ) {
+            final var entry = entries.get( key );
+            if( entry == null ) {
+                return Optional.empty();
+            }
+            if( entry.isExpired( System.nanoTime() ) ) {
+                entries.remove( key );
+                return Optional.empty();
+            }
+            return Optional.of( entry.partialState() );
+        }
+    }
+
+    @Override
+    public void put( Key key, Map<String, Object> partialState, Duration ttl ) {
+        final var expiresAt = ( ttl == null ) ? Long.MAX_VALUE : System.nanoTime() + ttl.toNanos();
+        synchronized ( entries ) {
+            entries.put( key, new Entry( partialState, expiresAt ) );
+        }
+    }
+
+    @Override
+    public void invalidate( Key key ) {
+        synchronized ( entries ) {
+            entries.remove( key );
+        }
+    }
+
+    @Override
+    public void clear() {
+        synchronized ( entries ) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * @return the number of entries, including the expired ones not yet removed
+     */
+    public int size() {
+        synchronized ( entries ) {
+            return entries.size();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package org.bsc.langgraph4j.cache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Storage of the partial states returned by the cached nodes.
+ *
+ * @see CachePolicy
+ * @see InMemoryNodeCache
+ */
+public interface NodeCache {
+
+    /**
+     * Key of a cached partial state, compared through {@link Object#equals(Object)} and {@link Object#hashCode()}
+     * of its value, that must not be changed after the key is created
+     *
+     * @param nodeId the id of the cached node
+     * @param value the value evaluated from the state by the key function of the policy
+     */
+    record Key(String nodeId, Object value) {
+
+        public Key {
+            Objects.requireNonNull(nodeId, "nodeId cannot be null");
+            Objects.requireNonNull(value, "value cannot be null");
+        }
+    }
+
+    /**
+     * Returns the partial state cached with the given key
+     *
+     * @param key the cache key
+     * @return the partial state, empty if it is not cached or it is expired
+     */
+    Optional<Map<String, Object>> get(Key key);
+
+    /**
+     * Caches the partial state with the given key
+     *
+     * @param key the cache key
+     * @param partialState the partial state returned by the node
+     * @param ttl the time to live of the entry, {@code null} if it never expires
+     */
+    void put(Key key, Map<String, Object> partialState, Duration ttl);
+
+    /**
+     * Removes the entry with the given key, if any
+     *
+     * @param key the cache key
+     */
+    void invalidate(Key key);
+
+    /**
+     * Removes all the entries
+     */
+    void clear();
+}
@@ -4,14 +4,65 @@ import org.bsc.langgraph4j.RunnableConfig;
 import org.bsc.langgraph4j.utils.TryFunction;
 
 import java.util.*;
-import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.IntStream;
 
 import static java.lang.String.format;
 import static java.util.Optional.ofNullable;
 
 public abstract class AbstractCheckpointSaver implements BaseCheckpointSaver {
-    private final ReentrantLock _lock = new ReentrantLock();
+    private static final int MAX_LAST_CHECKPOINTS = 256;
+
+    /**
+     * The last checkpoints stored as they have been given, evicting the least recently used thread
+     */
+    private static final class LastCheckpoints extends LinkedHashMap<String, Checkpoint> {
+        private static final long serialVersionUID = 1L;
+
+        LastCheckpoints() {
+            super( 16, 0.75f, true );
+        }
+
+        @Override
+        protected boolean removeEldestEntry( Map.Entry<String, Checkpoint> eldest ) {
+            return size() > MAX_LAST_CHECKPOINTS;
+        }
+    }
+
+    private final ThreadLocks _locks = new ThreadLocks();
+    private final int keyframeInterval;
+    // the parents of the next deltas: their lists are the ones extended by the next checkpoint, while the lists
+    // of a reconstructed checkpoint are copies, so the appended values are detected without comparing them
+    private final Map<String, Checkpoint> lastCheckpoints = Collections.synchronizedMap( new LastCheckpoints() );
+
+    /**
+     * Creates a saver that stores the full state in each checkpoint
+     */
+    protected AbstractCheckpointSaver() {
+        this(1);
+    }
+
+    /**
+     * Creates a saver that stores a full state ( keyframe ) every {@code keyframeInterval} checkpoints and,
+     * in between, only the changes since the previous checkpoint.
+     *
+     * @param keyframeInterval the number of checkpoints between two keyframes, 1 means that each checkpoint is a keyframe
+     * @see CheckpointDelta
+     */
+    protected AbstractCheckpointSaver( int keyframeInterval ) {
+        if( keyframeInterval <= 0 ) {
+            throw new IllegalArgumentException("keyframeInterval must be > 0!");
+        }
+        this.keyframeInterval = keyframeInterval;
+    }
+
+    /**
+     * Returns the number of checkpoints between two keyframes
+     *
+     * @return the keyframe interval, 1 if each checkpoint stores the full state
+     */
+    public final int keyframeInterval() {
+        return keyframeInterval;
+    }
 
     protected abstract LinkedList<Checkpoint> loadCheckpoints(RunnableConfig config) throws Exception;
 
@@ -21,27 +72,80 @@ public abstract class AbstractCheckpointSaver implements BaseCheckpointSaver {
 
     protected abstract Tag releaseCheckpoints(RunnableConfig config, LinkedList<Checkpoint> checkpoints ) throws Exception;
 
+    /**
+     * Loads the most recent checkpoints of the thread, ordered from the most recent.
+     * <p>
+     * It is used to append a checkpoint and to get the last one, so savers backed by a storage able to fetch
+     * a limited number of rows should override it to avoid materializing the whole thread history on each step.
+     * In such case {@link #insertedCheckpoint(RunnableConfig, LinkedList, Checkpoint)} receives only the loaded checkpoints.
+     * The default implementation loads all the checkpoints.
+     * </p>
+     *
+     * @param config the configuration
+     * @param limit the maximum number of checkpoints needed
+     * @return the most recent checkpoints, at least {@code limit} if available
+     * @throws Exception if an error occurs while the checkpoints are being loaded
+     */
+    protected LinkedList<Checkpoint> loadLatestCheckpoints(RunnableConfig config, int limit) throws Exception {
+        return loadCheckpoints(config);
+    }
+
     private <T> T loadOrInitCheckpoints(RunnableConfig config,
                                                 TryFunction<LinkedList<Checkpoint>, T, Exception> transformer) throws Exception {
-        _lock.lock();
-        try {
+        // operations on the same thread are serialized, different threads run in parallel
+        return _locks.withLock( threadId(config), threadId -> {
             final var checkpoints = loadCheckpoints(config);
 
             return transformer.tryApply( checkpoints );
-        } finally {
-            _lock.unlock();
-        }
+        });
+
+    }
+
+    private <T> T loadOrInitLatestCheckpoints(RunnableConfig config,
+                                                TryFunction<LinkedList<Checkpoint>, T, Exception> transformer) throws Exception {
+        return _locks.withLock( threadId(config), threadId -> {
+            // a keyframe is always among the last 'keyframeInterval' checkpoints
+            var checkpoints = loadLatestCheckpoints(config, keyframeInterval);
+
+            if( !checkpoints.isEmpty() && CheckpointDelta.distanceFromKeyframe(checkpoints) == checkpoints.size() ) {
+                // keyframe not loaded (e.g. checkpoints stored with a greater interval)
+                checkpoints = loadCheckpoints(config);
+            }
+            return transformer.tryApply( checkpoints );
+        });
 
     }
 
     final Optional<Checkpoint> getLast( LinkedList<Checkpoint> checkpoints, RunnableConfig config ) {
-        return (checkpoints.isEmpty() ) ? Optional.empty() : ofNullable(checkpoints.peek());
+        return (checkpoints.isEmpty() ) ? Optional.empty() : Optional.of( reconstruct(checkpoints, 0) );
+    }
+
+    private Checkpoint reconstruct( LinkedList<Checkpoint> checkpoints, int index ) {
+        final var checkpoint = checkpoints.get(index);
+        return ( CheckpointDelta.isDelta(checkpoint) ) ? CheckpointDelta.reconstruct( checkpoints, index ) : checkpoint;
+    }
+
+    /**
+     * Returns the checkpoint to store, that is a delta unless a keyframe is due
+     */
+    private Checkpoint checkpointToStore( String threadId, LinkedList<Checkpoint> checkpoints, Checkpoint checkpoint ) {
+        if( keyframeInterval == 1 || checkpoints.isEmpty() ) {
+            return checkpoint;
+        }
+        if( CheckpointDelta.distanceFromKeyframe(checkpoints) + 1 >= keyframeInterval ) {
+            return checkpoint;
+        }
+        final var last = lastCheckpoints.get( threadId );
+        final var parent = ( last != null && last.getId().equals( checkpoints.getFirst().getId() ) ) ?
+                last :
+                reconstruct( checkpoints, 0 );
+        return CheckpointDelta.diff( parent, checkpoint );
     }
 
     @Override
     public final Collection<Checkpoint> list(RunnableConfig config ) {
         try {
-            return loadOrInitCheckpoints( config, List::copyOf);
+            return loadOrInitCheckpoints( config, CheckpointDelta::reconstructAll );
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
@@ -51,15 +155,16 @@ public abstract class AbstractCheckpointSaver implements BaseCheckpointSaver {
     public final Optional<Checkpoint> get(RunnableConfig config) {
 
         try {
+            if( config.checkPointId().isEmpty() ) {
+                return loadOrInitLatestCheckpoints( config, checkpoints -> getLast(checkpoints,config) );
+            }
             return loadOrInitCheckpoints( config, checkpoints -> {
-                if( config.checkPointId().isPresent() ) {
-                    return config.checkPointId()
-                            .flatMap( id -> checkpoints.stream()
-                                    .filter( checkpoint -> checkpoint.getId().equals(id) )
-                                    .findFirst());
-                }
-                return getLast(checkpoints,config);
-
+                final var id = config.checkPointId().get();
+                return IntStream.range(0, checkpoints.size())
+                        .filter(i -> checkpoints.get(i).getId().equals(id))
+                        .boxed()
+                        .findFirst()
+                        .map( index -> reconstruct( checkpoints, index ) );
             });
         } catch (Exception e) {
             throw new RuntimeException(e);
@@ -68,35 +173,73 @@ public abstract class AbstractCheckpointSaver implements BaseCheckpointSaver {
 
     @Override
     public final RunnableConfig put(RunnableConfig config, Checkpoint checkpoint) throws Exception {
+        if (config.checkPointId().isEmpty()) { // Add Checkpoint, without loading the whole history
+            return loadOrInitLatestCheckpoints( config, checkpoints -> {
+                final var threadId = threadId(config);
+                final var checkpointToStore = checkpointToStore( threadId, checkpoints, checkpoint );
+                checkpoints.push( checkpointToStore );
+                insertedCheckpoint( config, checkpoints, checkpointToStore);
+                if( keyframeInterval > 1 ) {
+                    lastCheckpoints.put( threadId, checkpoint );
+                }
 
-        return loadOrInitCheckpoints( config, checkpoints -> {
+                return RunnableConfig.builder(config)
+                        .checkPointId(checkpoint.getId())
+                        .build();
+            });
+        }
 
-            if (config.checkPointId().isPresent()) { // Replace Checkpoint
-                String checkPointId = config.checkPointId().get();
-                int index = IntStream.range(0, checkpoints.size())
-                        .filter(i -> checkpoints.get(i).getId().equals(checkPointId))
-                        .findFirst()
-                        .orElseThrow(() -> (new NoSuchElementException(format("Checkpoint with id %s not found!", checkPointId))));
-                checkpoints.set(index, checkpoint );
-                updatedCheckpoint( config, checkpoints, checkpoint);
-                return config;
+        return loadOrInitCheckpoints( config, checkpoints -> {
+            // Replace Checkpoint
+            lastCheckpoints.remove( threadId(config) );
+            String checkPointId = config.checkPointId().get();
+            int index = IntStream.range(0, checkpoints.size())
+                    .filter(i -> checkpoints.get(i).getId().equals(checkPointId))
+                    .findFirst()
+                    .orElseThrow(() -> (new NoSuchElementException(format("Checkpoint with id %s not found!", checkPointId))));
+            if( index > 0 && CheckpointDelta.isDelta( checkpoints.get(index - 1) ) ) {
+                // the next checkpoint depends on the replaced one, turn it into a keyframe
+                final var next = CheckpointDelta.reconstruct( checkpoints, index - 1 );
+                checkpoints.set( index - 1, next );
+                updatedCheckpoint( RunnableConfig.builder(config).checkPointId(next.getId()).build(), checkpoints, next );
             }
-
-            checkpoints.push( checkpoint ); // Add Checkpoint
-            insertedCheckpoint( config, checkpoints, checkpoint);
-
-            return RunnableConfig.builder(config)
-                    .checkPointId(checkpoint.getId())
-                    .build();
-
+            checkpoints.set(index, checkpoint );
+            updatedCheckpoint( config, checkpoints, checkpoint);
+            return config;
         });
     }
 
+    /**
+     * Performs the puts of each thread holding its lock once, so the batch is applied atomically with respect to
+     * the other operations on the thread.
+     *
+     * @param puts the puts to perform
+     * @throws Exception if an error occurs while storing the checkpoints
+     */
+    @Override
+    public void putAll(List<Put> puts) throws Exception {
+        final var putsByThread = new LinkedHashMap<String, List<Put>>();
+        for( var put : puts ) {
+            putsByThread.computeIfAbsent( threadId(put.config()), key -> new ArrayList<>() ).add( put );
+        }
+        for( var entry : putsByThread.entrySet() ) {
+            _locks.withLock( entry.getKey(), threadId -> {
+                for( var put : entry.getValue() ) {
+                    put( put.config(), put.checkpoint() );
+                }
+                return null;
+            });
+        }
+    }
+
     @Override
     public final Tag release(RunnableConfig config) throws Exception {
 
-        return loadOrInitCheckpoints( config, checkpoints ->
-            releaseCheckpoints( config, checkpoints ));
+        return loadOrInitCheckpoints( config, checkpoints -> {
+            lastCheckpoints.remove( threadId(config) );
+            final var tag = releaseCheckpoints( config, checkpoints );
+            return new Tag( tag.threadId(), CheckpointDelta.reconstructAll( List.copyOf(tag.checkpoints()) ) );
+        });
     }
 
 }
@@ -16,14 +16,71 @@ public interface BaseCheckpointSaver {
         }
     }
 
+    /**
+     * A put of a checkpoint
+     *
+     * @param config the configuration given to put
+     * @param checkpoint the checkpoint to store
+     * @see #put(RunnableConfig, Checkpoint)
+     */
+    record Put(RunnableConfig config, Checkpoint checkpoint) {
+        public Put {
+            Objects.requireNonNull(config, "config cannot be null");
+            Objects.requireNonNull(checkpoint, "checkpoint cannot be null");
+        }
+    }
+
     Collection<Checkpoint> list(RunnableConfig config);
 
+    /**
+     * Returns the checkpoint identified by {@link RunnableConfig#checkPointId()}, or the latest one
+     * of the thread if no checkpoint id is given. In the latter case implementations should fetch
+     * only the latest checkpoint, without loading the thread history.
+     *
+     * @param config the configuration
+     * @return the checkpoint, if any
+     */
     Optional<Checkpoint> get(RunnableConfig config);
 
+    /**
+     * Replaces the checkpoint identified by {@link RunnableConfig#checkPointId()} or, if no checkpoint id is given,
+     * appends the checkpoint to the thread. Appending is the path taken at each graph step, so implementations
+     * should perform it without loading the thread history.
+     *
+     * @param config the configuration
+     * @param checkpoint the checkpoint to store
+     * @return the configuration referencing the stored checkpoint
+     * @throws Exception if an error occurs while storing the checkpoint
+     */
     RunnableConfig put(RunnableConfig config, Checkpoint checkpoint) throws Exception;
 
+    /**
+     * Performs the given puts, in order, as a single batch. Savers backed by a storage should override it to write
+     * the batch with a single round trip or transaction. The default implementation performs the puts one by one.
+     *
+     * @param puts the puts to perform
+     * @throws Exception if an error occurs while storing the checkpoints
+     * @see #put(RunnableConfig, Checkpoint)
+     */
+    default void putAll(List<Put> puts) throws Exception {
+        for (var put : puts) {
+            put(put.config(), put.checkpoint());
+        }
+    }
+
     Tag release(RunnableConfig config) throws Exception;
 
+    /**
+     * Notifies that the graph execution on the given thread has been interrupted and will be resumed later
+     * ( e.g. waiting for a human feedback ). Savers that buffer the checkpoints should make them durable.
+     * The default implementation does nothing.
+     *
+     * @param config the configuration
+     * @throws Exception if an error occurs while storing the checkpoints
+     */
+    default void interrupted(RunnableConfig config) throws Exception {
+    }
+
     default String threadId( RunnableConfig config ) {
         return config.threadId().orElse(THREAD_ID_DEFAULT);
     }
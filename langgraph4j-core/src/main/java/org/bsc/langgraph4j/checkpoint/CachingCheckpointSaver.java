@@ -0,0 +1,250 @@
+package org.bsc.langgraph4j.checkpoint;
+
+import org.bsc.langgraph4j.RunnableConfig;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link BaseCheckpointSaver} decorator that keeps the checkpoints of the most recently used threads in memory,
+ * in front of a durable saver.
+ * <p>
+ * For each thread the latest checkpoint ( read by {@link #get(RunnableConfig)} ) and the whole history
+ * ( read by {@link #list(RunnableConfig)} ) are cached independently, so resuming or inspecting a hot thread
+ * doesn't re-read and re-decode its checkpoints from the storage.
+ * At most {@code maxThreads} threads are cached, evicting the least recently used one.
+ * A put invalidates the cached history of the thread ( an appended checkpoint becomes the cached latest one )
+ * and a release invalidates the whole thread.
+ * </p>
+ * The wrapped saver must not be updated bypassing this cache.
+ * <pre>
+ * var saver = CachingCheckpointSaver.builder( postgresSaver )
+ *                  .maxThreads( 500 )
+ *                  .build();
+ * </pre>
+ */
+public class CachingCheckpointSaver implements BaseCheckpointSaver {
+
+    public static class Builder {
+        private final BaseCheckpointSaver delegate;
+        private int maxThreads = 100;
+
+        private Builder( BaseCheckpointSaver delegate ) {
+            this.delegate = requireNonNull( delegate, "delegate cannot be null" );
+        }
+
+        /**
+         * Sets the maximum number of threads kept in cache (default 100)
+         *
+         * @param maxThreads the maximum number of cached threads
+         * @return this builder
+         */
+        public Builder maxThreads( int maxThreads ) {
+            if( maxThreads <= 0 ) {
+                throw new IllegalArgumentException("maxThreads must be > 0!");
+            }
+            this.maxThreads = maxThreads;
+            return this;
+        }
+
+        public CachingCheckpointSaver build() {
+            return new CachingCheckpointSaver( this );
+        }
+    }
+
+    /**
+     * Creates a builder of a caching saver wrapping the given saver
+     *
+     * @param delegate the saver whose checkpoints are cached
+     * @return a new builder
+     */
+    public static Builder builder( BaseCheckpointSaver delegate ) {
+        return new Builder( delegate );
+    }
+
+    /**
+     * Cache statistics
+     *
+     * @param hits number of reads served by the cache
+     * @param misses number of reads forwarded to the wrapped saver
+     * @param evictions number of threads evicted to respect the maximum size
+     */
+    public record Stats( long hits, long misses, long evictions ) {
+
+        /**
+         * Returns the ratio of reads served by the cache
+         *
+         * @return the hit rate, 0 if no read has been performed
+         */
+        public double hitRate() {
+            final long requests = hits + misses;
+            return ( requests == 0 ) ? 0.0 : (double) hits / requests;
+        }
+    }
+
+    /**
+     * The cached checkpoints of a thread, {@code null} fields are not loaded yet
+     */
+    private static final class Entry {
+        Optional<Checkpoint> latest;
+        List<Checkpoint> history;
+    }
+
+    private final BaseCheckpointSaver delegate;
+    private final ThreadLocks _locks = new ThreadLocks();
+    private final Map<String, Entry> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    protected CachingCheckpointSaver( Builder builder ) {
+        this.delegate = builder.delegate;
+        final int maxThreads = builder.maxThreads;
+        this.entries = new LinkedHashMap<>( 16, 0.75f, true ) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                final boolean evict = size() > maxThreads;
+                if( evict ) {
+                    evictions.increment();
+                }
+                return evict;
+            }
+        };
+    }
+
+    /**
+     * Returns the cache statistics
+     *
+     * @return a snapshot of the statistics
+     */
+    public Stats stats() {
+        return new Stats( hits.sum(), misses.sum(), evictions.sum() );
+    }
+
+    /**
+     * Returns the number of threads currently cached
+     *
+     * @return the number of cached threads
+     */
+    public int cachedThreads() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Discards the cached checkpoints of the given thread
+     *
+     * @param config the configuration identifying the thread
+     */
+    public void invalidate( RunnableConfig config ) {
+        synchronized (entries) {
+            entries.remove( threadId(config) );
+        }
+    }
+
+    /**
+     * Discards all the cached checkpoints
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    private Entry entry( String threadId ) {
+        synchronized (entries) {
+            return entries.computeIfAbsent( threadId, key -> new Entry() );
+        }
+    }
+
+    private Optional<Entry> cachedEntry( String threadId ) {
+        synchronized (entries) {
+            return Optional.ofNullable( entries.get( threadId ) );
+        }
+    }
+
+    private <T> T hit( T value ) {
+        hits.increment();
+        return value;
+    }
+
+    @Override
+    public Collection<Checkpoint> list(RunnableConfig config) {
+        try {
+            return _locks.withLock( threadId(config), threadId -> {
+                final var cached = cachedEntry( threadId ).map( entry -> entry.history );
+                if( cached.isPresent() ) {
+                    return hit( cached.get() );
+                }
+                misses.increment();
+                final var history = List.copyOf( delegate.list( config ) );
+                final var entry = entry( threadId );
+                entry.history = history;
+                entry.latest = history.stream().findFirst();
+                return history;
+            });
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public Optional<Checkpoint> get(RunnableConfig config) {
+        try {
+            return _locks.withLock( threadId(config), threadId -> {
+                final var cached = cachedEntry( threadId );
+                final var id = config.checkPointId();
+
+                if( cached.isPresent() ) {
+                    final var entry = cached.get();
+                    if( entry.history != null ) {
+                        return hit( ( id.isPresent() ) ?
+                                entry.history.stream().filter( cp -> cp.getId().equals( id.get() ) ).findFirst() :
+                                entry.history.stream().findFirst() );
+                    }
+                    if( entry.latest != null && ( id.isEmpty() || entry.latest.map( cp -> cp.getId().equals( id.get() ) ).orElse(false) ) ) {
+                        return hit( entry.latest );
+                    }
+                }
+                misses.increment();
+                final var checkpoint = delegate.get( config );
+                if( id.isEmpty() ) {
+                    entry( threadId ).latest = checkpoint;
+                }
+                return checkpoint;
+            });
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public RunnableConfig put(RunnableConfig config, Checkpoint checkpoint) throws Exception {
+        return _locks.withLock( threadId(config), threadId -> {
+            invalidate( config );
+            final var result = delegate.put( config, checkpoint );
+            if( config.checkPointId().isEmpty() ) {
+                // the appended checkpoint is the latest one
+                entry( threadId ).latest = Optional.of( checkpoint );
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public Tag release(RunnableConfig config) throws Exception {
+        return _locks.withLock( threadId(config), threadId -> {
+            invalidate( config );
+            return delegate.release( config );
+        });
+    }
+
+    @Override
+    public void interrupted(RunnableConfig config) throws Exception {
+        delegate.interrupted( config );
+    }
+
+}
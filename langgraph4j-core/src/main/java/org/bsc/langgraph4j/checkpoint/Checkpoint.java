@@ -22,6 +22,7 @@ public class Checkpoint {
     private Map<String,Object> state = null;
     private String nodeId = null ;
     private String nextNodeId = null;
+    private CheckpointDelta.Changes delta = null;
 
     public String getId() { return id; }
 
@@ -37,6 +38,16 @@ public class Checkpoint {
         return nextNodeId;
     }
 
+    /**
+     * Returns the changes since the parent checkpoint, when the state holds only them
+     *
+     * @return the changes of a delta checkpoint, empty for a checkpoint holding the full state
+     * @see CheckpointDelta
+     */
+    public Optional<CheckpointDelta.Changes> getDelta() {
+        return Optional.ofNullable( delta );
+    }
+
     /**
      * create a copy of given checkpoint with a new id
      * @param checkpoint value from which copy is created
@@ -47,15 +58,17 @@ public class Checkpoint {
         return new Checkpoint( UUID.randomUUID().toString(),
                                 checkpoint.state,
                                 checkpoint.nodeId,
-                                checkpoint.nextNodeId);
+                                checkpoint.nextNodeId,
+                                checkpoint.delta);
     }
 
-    private Checkpoint( String id, Map<String,Object> state, String nodeId, String nextNodeId ) {
+    private Checkpoint( String id, Map<String,Object> state, String nodeId, String nextNodeId, CheckpointDelta.Changes delta ) {
 
         this.id = requireNonNull( id, "id cannot be null" );
         this.state =  requireNonNull( state, "state cannot be null" );
         this.nodeId = requireNonNull( nodeId, "nodeId cannot be null" );
         this.nextNodeId =  requireNonNull( nextNodeId, "Checkpoint.nextNodeId cannot be null" );
+        this.delta = delta;
 
     }
 
@@ -68,6 +81,7 @@ public class Checkpoint {
         private Map<String,Object> state = null;
         private String nodeId = null ;
         private String nextNodeId = null;
+        private CheckpointDelta.Changes delta = null;
 
         public Builder id( String id ) {
             this.id = id;
@@ -90,11 +104,24 @@ public class Checkpoint {
             return this;
         }
 
+        /**
+         * Sets the changes since the parent checkpoint, when the state holds only them
+         *
+         * @param delta the changes, {@code null} for a checkpoint holding the full state
+         * @return this
+         * @see CheckpointDelta
+         */
+        public Builder delta( CheckpointDelta.Changes delta ) {
+            this.delta = delta;
+            return this;
+        }
+
         public Checkpoint build() {
             return new Checkpoint(  id,
                                     state,
                                     nodeId,
-                                    nextNodeId );
+                                    nextNodeId,
+                                    delta );
         }
     }
 
@@ -108,7 +135,8 @@ public class Checkpoint {
         return new Checkpoint( this.id,
                 AgentState.updateState( this.state, values, channels ),
                 this.nodeId,
-                requireNonNull(nextNodeId, "nextNodeId cannot be null") );
+                requireNonNull(nextNodeId, "nextNodeId cannot be null"),
+                this.delta );
     }
 
     @Override
@@ -0,0 +1,256 @@
+package org.bsc.langgraph4j.checkpoint;
+
+import org.bsc.langgraph4j.utils.PersistentVector;
+
+import java.util.*;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Delta format of a {@link Checkpoint}.
+ * <p>
+ * A delta checkpoint holds, instead of the full state, only the properties changed since its parent
+ * ( the previous checkpoint of the thread ). A list that has been extended holds only the appended values.
+ * The changes are described by the {@link Changes} of the checkpoint ( see {@link Checkpoint#getDelta()} ),
+ * kept apart from the state: a checkpoint without them is a keyframe, that is a checkpoint holding the full state.
+ * The savers persist them along with the state.
+ * </p>
+ */
+public final class CheckpointDelta {
+
+    /**
+     * Changes of a delta checkpoint with respect to its parent
+     *
+     * @param appended the properties that hold the values appended to the parent list
+     * @param removed the properties removed from the parent state
+     */
+    public record Changes( Set<String> appended, Set<String> removed ) {
+
+        private static final String APPENDED = "appended";
+        private static final String REMOVED = "removed";
+
+        public Changes {
+            appended = Set.copyOf( requireNonNull( appended, "appended cannot be null" ) );
+            removed = Set.copyOf( requireNonNull( removed, "removed cannot be null" ) );
+        }
+
+        /**
+         * Returns the changes as a map of lists, suitable for the savers that store them as JSON
+         *
+         * @return the map holding the {@code appended} and {@code removed} properties
+         */
+        public Map<String,Object> toMap() {
+            return Map.of( APPENDED, List.copyOf(appended), REMOVED, List.copyOf(removed) );
+        }
+
+        /**
+         * Creates the changes from a map returned by {@link #toMap()}
+         *
+         * @param map the map holding the {@code appended} and {@code removed} properties
+         * @return the changes
+         */
+        @SuppressWarnings("unchecked")
+        public static Changes fromMap( Map<String,?> map ) {
+            requireNonNull( map, "map cannot be null" );
+            final var appended = (Collection<String>) map.get( APPENDED );
+            final var removed = (Collection<String>) map.get( REMOVED );
+            return new Changes( ( appended != null ) ? Set.copyOf( appended ) : Set.of(),
+                                ( removed != null ) ? Set.copyOf( removed ) : Set.of() );
+        }
+    }
+
+    private CheckpointDelta() {}
+
+    /**
+     * Checks if the given checkpoint is a delta checkpoint
+     *
+     * @param checkpoint the checkpoint
+     * @return true if the checkpoint is a delta, false if it is a keyframe
+     */
+    public static boolean isDelta( Checkpoint checkpoint ) {
+        return checkpoint.getDelta().isPresent();
+    }
+
+    /**
+     * Checks whether the given list has been obtained appending values to the parent one.
+     * The persistent vectors are checked through their shared structure in O(log n), the other lists
+     * comparing their elements.
+     */
+    private static boolean isAppendedTo( List<?> list, List<?> parentList ) {
+        if( list.size() < parentList.size() ) {
+            return false;
+        }
+        if( list instanceof PersistentVector<?> vector && parentList instanceof PersistentVector<?> parentVector
+                && vector.isExtensionOf( parentVector ) ) {
+            return true;
+        }
+        return list.subList( 0, parentList.size() ).equals( parentList );
+    }
+
+    /**
+     * Creates the delta checkpoint of the given checkpoint with respect to its parent
+     *
+     * @param parent the parent checkpoint holding the full state
+     * @param checkpoint the checkpoint holding the full state
+     * @return the delta checkpoint
+     */
+    public static Checkpoint diff( Checkpoint parent, Checkpoint checkpoint ) {
+        requireNonNull( parent, "parent cannot be null" );
+        requireNonNull( checkpoint, "checkpoint cannot be null" );
+
+        final var parentState = parent.getState();
+        final var state = new HashMap<String,Object>();
+        final var appended = new HashSet<String>();
+        final var removed = new HashSet<String>();
+
+        for( var entry : checkpoint.getState().entrySet() ) {
+            final var key = entry.getKey();
+            final var value = entry.getValue();
+
+            if( !parentState.containsKey(key) ) {
+                state.put( key, value );
+                continue;
+            }
+            final var parentValue = parentState.get(key);
+
+            if( parentValue == value ) {
+                continue;
+            }
+            if( parentValue instanceof List<?> parentList && value instanceof List<?> list
+                    && isAppendedTo( list, parentList ) ) {
+                if( list.size() > parentList.size() ) {
+                    appended.add( key );
+                    state.put( key, new ArrayList<>( list.subList( parentList.size(), list.size() ) ) );
+                }
+                continue;
+            }
+            if( !Objects.equals( parentValue, value ) ) {
+                state.put( key, value );
+            }
+        }
+
+        for( var key : parentState.keySet() ) {
+            if( !checkpoint.getState().containsKey(key) ) {
+                removed.add( key );
+            }
+        }
+
+        return Checkpoint.builder()
+                .id( checkpoint.getId() )
+                .nodeId( checkpoint.getNodeId() )
+                .nextNodeId( checkpoint.getNextNodeId() )
+                .state( state )
+                .delta( new Changes( appended, removed ) )
+                .build();
+    }
+
+    /**
+     * Applies the given delta checkpoint to its parent
+     *
+     * @param parent the parent checkpoint holding the full state
+     * @param delta the delta checkpoint
+     * @return the checkpoint holding the full state
+     */
+    @SuppressWarnings("unchecked")
+    public static Checkpoint apply( Checkpoint parent, Checkpoint delta ) {
+        requireNonNull( parent, "parent cannot be null" );
+        requireNonNull( delta, "delta cannot be null" );
+
+        final var changes = delta.getDelta()
+                .orElseThrow( () -> new IllegalArgumentException( format( "checkpoint %s is not a delta", delta.getId() ) ) );
+
+        final var state = new HashMap<>( parent.getState() );
+        changes.removed().forEach( state::remove );
+
+        for( var entry : delta.getState().entrySet() ) {
+            final var key = entry.getKey();
+            if( changes.appended().contains(key) ) {
+                final var list = new ArrayList<>( (Collection<Object>) state.getOrDefault( key, List.of() ) );
+                list.addAll( (Collection<Object>) entry.getValue() );
+                state.put( key, list );
+            }
+            else {
+                state.put( key, entry.getValue() );
+            }
+        }
+
+        return Checkpoint.builder()
+                .id( delta.getId() )
+                .nodeId( delta.getNodeId() )
+                .nextNodeId( delta.getNextNodeId() )
+                .state( state )
+                .build();
+    }
+
+    /**
+     * Returns the number of delta checkpoints that precede the most recent keyframe
+     *
+     * @param checkpoints the checkpoints of a thread, ordered from the most recent
+     * @return the number of delta checkpoints since the last keyframe
+     */
+    public static int distanceFromKeyframe( List<Checkpoint> checkpoints ) {
+        int distance = 0;
+        for( var checkpoint : checkpoints ) {
+            if( !isDelta(checkpoint) ) {
+                break;
+            }
+            ++distance;
+        }
+        return distance;
+    }
+
+    /**
+     * Reconstructs the full state of the checkpoint at the given index
+     *
+     * @param checkpoints the checkpoints of a thread, ordered from the most recent
+     * @param index the index of the checkpoint to reconstruct
+     * @return the checkpoint holding the full state
+     * @throws IllegalStateException if no keyframe precedes the checkpoint
+     */
+    public static Checkpoint reconstruct( List<Checkpoint> checkpoints, int index ) {
+        final var chain = new ArrayDeque<Checkpoint>();
+
+        final var iterator = checkpoints.listIterator( index );
+        while( iterator.hasNext() ) {
+            final var checkpoint = iterator.next();
+            if( !isDelta(checkpoint) ) {
+                var result = checkpoint;
+                while( !chain.isEmpty() ) {
+                    result = apply( result, chain.pop() );
+                }
+                return result;
+            }
+            chain.push( checkpoint );
+        }
+
+        throw new IllegalStateException( format( "no keyframe found for checkpoint %s", checkpoints.get(index).getId() ) );
+    }
+
+    /**
+     * Reconstructs the full state of all the given checkpoints
+     *
+     * @param checkpoints the checkpoints of a thread, ordered from the most recent
+     * @return the checkpoints holding the full state, ordered from the most recent
+     * @throws IllegalStateException if the oldest checkpoint is not a keyframe
+     */
+    public static List<Checkpoint> reconstructAll( List<Checkpoint> checkpoints ) {
+        final var result = new ArrayDeque<Checkpoint>( checkpoints.size() );
+
+        Checkpoint previous = null;
+        final var iterator = checkpoints.listIterator( checkpoints.size() );
+        while( iterator.hasPrevious() ) {
+            var checkpoint = iterator.previous();
+            if( isDelta(checkpoint) ) {
+                if( previous == null ) {
+                    throw new IllegalStateException( format( "no keyframe found for checkpoint %s", checkpoint.getId() ) );
+                }
+                checkpoint = apply( previous, checkpoint );
+            }
+            result.push( checkpoint );
+            previous = checkpoint;
+        }
+
+        return List.copyOf( result );
+    }
+}
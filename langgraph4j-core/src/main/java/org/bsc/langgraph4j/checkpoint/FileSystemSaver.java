@@ -34,15 +34,34 @@ import static java.util.Objects.requireNonNull;
 public class FileSystemSaver extends AbstractCheckpointSaver implements LG4JLoggable {
     public static final String EXTENSION = ".saver";
 
+    // written in place of the number of checkpoints by the format that stores the changes of the delta checkpoints
+    private static final int DELTA_FORMAT = -1;
+
     private final Path targetFolder;
     private final Serializer<Checkpoint> serializer;
+    private final Serializer<Checkpoint> legacySerializer;
 
-    @SuppressWarnings("unchecked")
     public FileSystemSaver(Path targetFolder, StateSerializer<? extends AgentState> stateSerializer) {
+        this( targetFolder, stateSerializer, 1 );
+    }
+
+    /**
+     * Creates a saver that stores a full state every {@code keyframeInterval} checkpoints and,
+     * in between, only the changes since the previous checkpoint.
+     *
+     * @param targetFolder the folder where the checkpoints are stored
+     * @param stateSerializer the serializer of the state
+     * @param keyframeInterval the number of checkpoints between two keyframes
+     * @see CheckpointDelta
+     */
+    @SuppressWarnings("unchecked")
+    public FileSystemSaver(Path targetFolder, StateSerializer<? extends AgentState> stateSerializer, int keyframeInterval) {
+        super( keyframeInterval );
 
         requireNonNull(stateSerializer, "stateSerializer cannot be null");
         this.targetFolder = requireNonNull(targetFolder, "targetFolder cannot be null");
-        this.serializer = new CheckPointSerializer((StateSerializer<AgentState>) stateSerializer);
+        this.serializer = new CheckPointSerializer((StateSerializer<AgentState>) stateSerializer, true);
+        this.legacySerializer = new CheckPointSerializer((StateSerializer<AgentState>) stateSerializer, false);
 
         File targetFolderAsFile = targetFolder.toFile();
 
@@ -75,6 +94,7 @@ public class FileSystemSaver extends AbstractCheckpointSaver implements LG4JLogg
         requireNonNull(outFile, "outFile cannot be null");
         try (ObjectOutputStream oos = new ObjectOutputStream(Files.newOutputStream(outFile.toPath()))) {
 
+            oos.writeInt(DELTA_FORMAT);
             oos.writeInt(checkpoints.size());
             for (Checkpoint checkpoint : checkpoints) {
                 serializer.write(checkpoint, oos);
@@ -88,8 +108,13 @@ public class FileSystemSaver extends AbstractCheckpointSaver implements LG4JLogg
 
         try (ObjectInputStream ois = new ObjectInputStream(Files.newInputStream(file.toPath()))) {
             int size = ois.readInt();
+            // the files written before the delta checkpoints start with the number of checkpoints
+            final var checkpointSerializer = ( size == DELTA_FORMAT ) ? serializer : legacySerializer;
+            if (size == DELTA_FORMAT) {
+                size = ois.readInt();
+            }
             for (int i = 0; i < size; i++) {
-                result.add(serializer.read(ois));
+                result.add(checkpointSerializer.read(ois));
             }
         }
     }
@@ -176,7 +201,7 @@ public class FileSystemSaver extends AbstractCheckpointSaver implements LG4JLogg
 }
 
 record CheckPointSerializer(
-        StateSerializer<AgentState> stateSerializer) implements NullableObjectSerializer<Checkpoint> {
+        StateSerializer<AgentState> stateSerializer, boolean withDelta) implements NullableObjectSerializer<Checkpoint> {
 
     @Override
     public void write(Checkpoint object, ObjectOutput out) throws IOException {
@@ -185,16 +210,43 @@ record CheckPointSerializer(
         writeNullableUTF(object.getNextNodeId(), out);
         AgentState state = stateSerializer.stateFactory().apply(object.getState());
         stateSerializer.write(state, out);
+        if (withDelta) {
+            final var delta = object.getDelta();
+            out.writeBoolean(delta.isPresent());
+            if (delta.isPresent()) {
+                writeKeys(delta.get().appended(), out);
+                writeKeys(delta.get().removed(), out);
+            }
+        }
     }
 
     @Override
     public Checkpoint read(ObjectInput in) throws IOException, ClassNotFoundException {
-        return Checkpoint.builder()
+        final var builder = Checkpoint.builder()
                 .id(Serializer.readUTF(in))
                 .nextNodeId(readNullableUTF(in).orElse(null))
                 .nodeId(readNullableUTF(in).orElse(null))
-                .state(stateSerializer.read(in))
-                .build();
+                .state(stateSerializer.read(in));
+        if (withDelta && in.readBoolean()) {
+            builder.delta(new CheckpointDelta.Changes(readKeys(in), readKeys(in)));
+        }
+        return builder.build();
+    }
+
+    private static void writeKeys(Set<String> keys, ObjectOutput out) throws IOException {
+        out.writeInt(keys.size());
+        for (var key : keys) {
+            Serializer.writeUTF(key, out);
+        }
+    }
+
+    private static Set<String> readKeys(ObjectInput in) throws IOException {
+        final int size = in.readInt();
+        final var keys = new HashSet<String>(size);
+        for (int i = 0; i < size; i++) {
+            keys.add(Serializer.readUTF(in));
+        }
+        return keys;
     }
 
 }
\ No newline at end of file
@@ -3,9 +3,27 @@ package org.bsc.langgraph4j.checkpoint;
 import org.bsc.langgraph4j.RunnableConfig;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class MemorySaver extends AbstractCheckpointSaver {
-    private final Map<String, LinkedList<Checkpoint>> _checkpointsByThread = new HashMap<>();
+    private final Map<String, LinkedList<Checkpoint>> _checkpointsByThread = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a saver that stores the full state in each checkpoint
+     */
+    public MemorySaver() {
+    }
+
+    /**
+     * Creates a saver that stores a full state every {@code keyframeInterval} checkpoints and,
+     * in between, only the changes since the previous checkpoint.
+     *
+     * @param keyframeInterval the number of checkpoints between two keyframes
+     * @see CheckpointDelta
+     */
+    public MemorySaver( int keyframeInterval ) {
+        super( keyframeInterval );
+    }
 
     protected final Map<String, LinkedList<Checkpoint>> cache() {
         return Map.copyOf(_checkpointsByThread);
@@ -0,0 +1,63 @@
+package org.bsc.langgraph4j.checkpoint;
+
+import org.bsc.langgraph4j.utils.TryFunction;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Lock per thread id.
+ * <p>
+ * Operations on the same thread id are serialized, while operations on different thread ids run in parallel.
+ * A lock is evicted as soon as no one holds or waits for it, so the map size is bounded by the number of
+ * threads concurrently in use.
+ * </p>
+ */
+final class ThreadLocks {
+
+    private static final class Entry {
+        final ReentrantLock lock = new ReentrantLock();
+        int references = 0;
+    }
+
+    private final ConcurrentHashMap<String, Entry> locks = new ConcurrentHashMap<>();
+
+    /**
+     * Executes the given action holding the lock of the given thread id
+     *
+     * @param threadId the thread id
+     * @param action the action to execute
+     * @return the result of the action
+     * @param <T> the type of result
+     * @throws Exception if the action throws an exception
+     */
+    <T> T withLock( String threadId, TryFunction<String, T, Exception> action ) throws Exception {
+        requireNonNull( threadId, "threadId cannot be null" );
+
+        final var entry = locks.compute( threadId, ( key, value ) -> {
+            final var result = ( value == null ) ? new Entry() : value;
+            ++result.references;
+            return result;
+        });
+
+        entry.lock.lock();
+        try {
+            return action.tryApply( threadId );
+        }
+        finally {
+            entry.lock.unlock();
+            locks.computeIfPresent( threadId, ( key, value ) -> ( --value.references == 0 ) ? null : value );
+        }
+    }
+
+    /**
+     * Returns the number of locks currently in use
+     *
+     * @return the number of locks
+     */
+    int size() {
+        return locks.size();
+    }
+}
@@ -0,0 +1,519 @@
+package org.bsc.langgraph4j.checkpoint;
+
+import org.bsc.langgraph4j.LG4JLoggable;
+import org.bsc.langgraph4j.RunnableConfig;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link BaseCheckpointSaver} decorator that acknowledges the checkpoints as soon as they are buffered in memory
+ * and writes them to the wrapped saver in background.
+ * <p>
+ * The pending checkpoints of each thread are coalesced:
+ * <ul>
+ *     <li>consecutive appends are coalesced into the newest one ( unless {@code coalesceAppends} is disabled ), so
+ *     the intermediate checkpoints put between two flushes are never written. Until the flush, their ids still
+ *     refer to the newest checkpoint</li>
+ *     <li>replacements of a pending checkpoint are applied to it</li>
+ * </ul>
+ * and written, in the order they have been put, with a single {@link BaseCheckpointSaver#putAll(List)} per flush:
+ * <ul>
+ *     <li>every {@code flushInterval} by a background executor</li>
+ *     <li>when the pending checkpoints exceed {@code maxPendingCheckpoints} ( the thread that exceeds it flushes synchronously )</li>
+ *     <li>when the graph execution is interrupted, if {@code flushOnInterrupt} is enabled ( default )</li>
+ *     <li>on {@link #release(RunnableConfig)} and {@link #close()}</li>
+ * </ul>
+ * {@link #get(RunnableConfig)} and {@link #list(RunnableConfig)} read through the pending checkpoints, so they are
+ * always consistent with the performed puts.
+ * When a background flush fails, the checkpoints stay pending and are retried on the next flush, while the failure
+ * is raised, as {@link IllegalStateException}, by the next {@code put}, {@code get} or {@code list} on the same thread.
+ * </p>
+ * <pre>
+ * var saver = WriteBehindCheckpointSaver.builder( postgresSaver )
+ *                  .flushInterval( Duration.ofMillis(200) )
+ *                  .build();
+ * </pre>
+ */
+public class WriteBehindCheckpointSaver implements BaseCheckpointSaver, AutoCloseable, LG4JLoggable {
+
+    public static class Builder {
+        private final BaseCheckpointSaver delegate;
+        private Duration flushInterval = Duration.ofSeconds(1);
+        private int maxPendingCheckpoints = 1000;
+        private boolean flushOnInterrupt = true;
+        private boolean coalesceAppends = true;
+        private ScheduledExecutorService executor;
+
+        private Builder( BaseCheckpointSaver delegate ) {
+            this.delegate = requireNonNull( delegate, "delegate cannot be null" );
+        }
+
+        /**
+         * Sets the interval between two background flushes (default 1 second).
+         * A zero interval disables the background flushes.
+         *
+         * @param flushInterval the flush interval
+         * @return this builder
+         */
+        public Builder flushInterval( Duration flushInterval ) {
+            requireNonNull( flushInterval, "flushInterval cannot be null" );
+            if( flushInterval.isNegative() ) {
+                throw new IllegalArgumentException("flushInterval cannot be negative!");
+            }
+            this.flushInterval = flushInterval;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of pending checkpoints (default 1000), over which the puts flush synchronously
+         *
+         * @param maxPendingCheckpoints the maximum number of pending checkpoints
+         * @return this builder
+         */
+        public Builder maxPendingCheckpoints( int maxPendingCheckpoints ) {
+            if( maxPendingCheckpoints <= 0 ) {
+                throw new IllegalArgumentException("maxPendingCheckpoints must be > 0!");
+            }
+            this.maxPendingCheckpoints = maxPendingCheckpoints;
+            return this;
+        }
+
+        /**
+         * Sets whether to flush the checkpoints of a thread when its execution is interrupted (default true)
+         *
+         * @param flushOnInterrupt the flag
+         * @return this builder
+         * @see BaseCheckpointSaver#interrupted(RunnableConfig)
+         */
+        public Builder flushOnInterrupt( boolean flushOnInterrupt ) {
+            this.flushOnInterrupt = flushOnInterrupt;
+            return this;
+        }
+
+        /**
+         * Sets whether to coalesce the consecutive appends of a thread into the newest one (default true).
+         * Disable it to write every checkpoint, keeping the whole history of the thread.
+         *
+         * @param coalesceAppends the flag
+         * @return this builder
+         */
+        public Builder coalesceAppends( boolean coalesceAppends ) {
+            this.coalesceAppends = coalesceAppends;
+            return this;
+        }
+
+        /**
+         * Sets the executor used for the background flushes. If not set, a single daemon thread is used.
+         * The given executor is not shut down on {@link #close()}.
+         *
+         * @param executor the executor
+         * @return this builder
+         */
+        public Builder executor( ScheduledExecutorService executor ) {
+            this.executor = executor;
+            return this;
+        }
+
+        public WriteBehindCheckpointSaver build() {
+            final var saver = new WriteBehindCheckpointSaver( this );
+            saver.start( flushInterval );
+            return saver;
+        }
+    }
+
+    /**
+     * Creates a builder of a write-behind saver wrapping the given saver
+     *
+     * @param delegate the saver to which the checkpoints are written
+     * @return a new builder
+     */
+    public static Builder builder( BaseCheckpointSaver delegate ) {
+        return new Builder( delegate );
+    }
+
+    /**
+     * The pending puts of a thread
+     */
+    static final class PendingPuts {
+        // the puts not yet taken by a flush
+        final LinkedList<Put> puts = new LinkedList<>();
+        // the puts being written by the current flush
+        List<Put> flushing = List.of();
+        // the ids of the coalesced appends, mapped to the id of the append that replaced them
+        final Map<String, String> coalescedIds = new HashMap<>();
+        // the failure of the last background flush, not yet raised to the callers
+        Exception failure;
+        // whether the last flush failed, so some puts of its batch may have been written
+        boolean retry;
+        final ReentrantLock flushLock = new ReentrantLock();
+
+        synchronized List<Put> snapshot() {
+            if( flushing.isEmpty() ) {
+                return List.copyOf( puts );
+            }
+            final var result = new ArrayList<Put>( flushing.size() + puts.size() );
+            result.addAll( flushing );
+            result.addAll( puts );
+            return result;
+        }
+
+        synchronized boolean isIdle() {
+            return puts.isEmpty() && flushing.isEmpty() && failure == null;
+        }
+
+        synchronized Optional<String> resolve( String checkpointId ) {
+            return Optional.ofNullable( coalescedIds.get( checkpointId ) );
+        }
+    }
+
+    private final BaseCheckpointSaver delegate;
+    private final int maxPendingCheckpoints;
+    private final boolean flushOnInterrupt;
+    private final boolean coalesceAppends;
+    private final ScheduledExecutorService executor;
+    private final boolean ownExecutor;
+    private final Map<String, PendingPuts> pendingByThread = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private ScheduledFuture<?> scheduledFlush;
+
+    protected WriteBehindCheckpointSaver( Builder builder ) {
+        this.delegate = builder.delegate;
+        this.maxPendingCheckpoints = builder.maxPendingCheckpoints;
+        this.flushOnInterrupt = builder.flushOnInterrupt;
+        this.coalesceAppends = builder.coalesceAppends;
+        this.ownExecutor = builder.executor == null;
+        this.executor = ( ownExecutor ) ?
+                Executors.newSingleThreadScheduledExecutor( runnable -> {
+                    var thread = new Thread( runnable, "langgraph4j-write-behind-saver" );
+                    thread.setDaemon(true);
+                    return thread;
+                }) :
+                builder.executor;
+    }
+
+    /**
+     * Starts the background flushes, once the saver is fully constructed
+     */
+    private void start( Duration flushInterval ) {
+        if( !flushInterval.isZero() ) {
+            final var millis = flushInterval.toMillis();
+            scheduledFlush = executor.scheduleWithFixedDelay( this::flushAllQuietly, millis, millis, TimeUnit.MILLISECONDS );
+        }
+    }
+
+    /**
+     * Raises the failure of the last background flush of the given thread, if any
+     */
+    private void checkFlushFailure( PendingPuts pending ) {
+        if( pending == null ) {
+            return;
+        }
+        final Exception failure;
+        synchronized ( pending ) {
+            failure = pending.failure;
+            pending.failure = null;
+        }
+        if( failure != null ) {
+            throw new IllegalStateException( "background flush failed, %d checkpoints of the thread are not yet written to the wrapped saver"
+                    .formatted( pending.snapshot().size() ), failure );
+        }
+    }
+
+    /**
+     * Returns the number of checkpoints not yet written to the wrapped saver
+     *
+     * @return the number of pending checkpoints
+     */
+    public int pendingCheckpoints() {
+        return pendingCount.get();
+    }
+
+    /**
+     * Applies the pending puts to the given checkpoints ( ordered from the most recent ).
+     * The merge is idempotent, so a put already written to the wrapped saver is not applied twice.
+     */
+    static LinkedList<Checkpoint> merge( Collection<Checkpoint> checkpoints, List<Put> puts ) {
+        final var result = new LinkedList<>( checkpoints );
+
+        for( var put : puts ) {
+            final var replacedId = put.config().checkPointId();
+            if( replacedId.isPresent() ) {
+                final var index = indexOf( result, replacedId.get() );
+                if( index >= 0 ) {
+                    result.set( index, put.checkpoint() );
+                }
+            }
+            else if( indexOf( result, put.checkpoint().getId() ) < 0 ) {
+                result.push( put.checkpoint() );
+            }
+        }
+        return result;
+    }
+
+    private static int indexOf( List<Checkpoint> checkpoints, String id ) {
+        int index = 0;
+        for( var checkpoint : checkpoints ) {
+            if( checkpoint.getId().equals(id) ) {
+                return index;
+            }
+            ++index;
+        }
+        return -1;
+    }
+
+    /**
+     * Makes the given configuration refer to the append that replaced its checkpoint, if it has been coalesced
+     */
+    private static RunnableConfig resolve( RunnableConfig config, PendingPuts pending ) {
+        return config.checkPointId()
+                .flatMap( pending::resolve )
+                .map( id -> RunnableConfig.builder(config).checkPointId( id ).build() )
+                .orElse( config );
+    }
+
+    @Override
+    public Collection<Checkpoint> list(RunnableConfig config) {
+        final var pending = pendingByThread.get( threadId(config) );
+        checkFlushFailure( pending );
+        final var puts = ( pending == null ) ? List.<Put>of() : pending.snapshot();
+        final var checkpoints = delegate.list( config );
+        if( puts.isEmpty() ) {
+            return checkpoints;
+        }
+        return List.copyOf( merge( checkpoints, puts ) );
+    }
+
+    @Override
+    public Optional<Checkpoint> get(RunnableConfig config) {
+        final var pending = pendingByThread.get( threadId(config) );
+        checkFlushFailure( pending );
+        if( pending == null ) {
+            return delegate.get( config );
+        }
+        final var resolvedConfig = resolve( config, pending );
+        final var puts = pending.snapshot();
+        final var checkpoint = delegate.get( resolvedConfig );
+        if( puts.isEmpty() ) {
+            return checkpoint;
+        }
+        final var merged = merge( checkpoint.map( List::of ).orElseGet( List::of ), puts );
+
+        if( resolvedConfig.checkPointId().isPresent() ) {
+            final var id = resolvedConfig.checkPointId().get();
+            return merged.stream().filter( cp -> cp.getId().equals(id) ).findFirst();
+        }
+        return Optional.ofNullable( merged.peek() );
+    }
+
+    @Override
+    public RunnableConfig put(RunnableConfig config, Checkpoint checkpoint) throws Exception {
+        requireNonNull( checkpoint, "checkpoint cannot be null" );
+
+        final var threadId = threadId(config);
+        checkFlushFailure( pendingByThread.get( threadId ) );
+
+        final var pending = pendingByThread.compute( threadId, ( key, value ) -> {
+            final var result = ( value == null ) ? new PendingPuts() : value;
+            synchronized ( result ) {
+                final var put = new Put( resolve( config, result ), checkpoint );
+                if( !coalesce( result, put ) ) {
+                    result.puts.addLast( put );
+                    pendingCount.incrementAndGet();
+                }
+            }
+            return result;
+        });
+
+        if( pendingCount.get() > maxPendingCheckpoints ) {
+            flush( threadId, pending );
+        }
+
+        return ( config.checkPointId().isPresent() ) ?
+                config :
+                RunnableConfig.builder(config)
+                        .checkPointId( checkpoint.getId() )
+                        .build();
+    }
+
+    /**
+     * Coalesces the given put into the puts not yet taken by a flush: an append replaces the last pending append,
+     * a replacement is applied to the pending checkpoint that it replaces.
+     */
+    private boolean coalesce( PendingPuts pending, Put put ) {
+        final var replacedId = put.config().checkPointId();
+        if( replacedId.isEmpty() ) {
+            final var last = pending.puts.peekLast();
+            if( !coalesceAppends || last == null || last.config().checkPointId().isPresent() ) {
+                return false;
+            }
+            final var lastId = last.checkpoint().getId();
+            final var newId = put.checkpoint().getId();
+            pending.coalescedIds.replaceAll( ( id, replacingId ) -> replacingId.equals( lastId ) ? newId : replacingId );
+            pending.coalescedIds.put( lastId, newId );
+            pending.puts.removeLast();
+            pending.puts.addLast( put );
+            return true;
+        }
+        for( var it = pending.puts.listIterator(); it.hasNext(); ) {
+            final var pendingPut = it.next();
+            if( pendingPut.checkpoint().getId().equals( replacedId.get() ) ) {
+                it.set( new Put( pendingPut.config(), put.checkpoint() ) );
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void flush( String threadId, PendingPuts pending ) throws Exception {
+        pending.flushLock.lock();
+        try {
+            final List<Put> batch;
+            final boolean retry;
+            synchronized ( pending ) {
+                batch = List.copyOf( pending.puts );
+                pending.puts.clear();
+                pending.flushing = batch;
+                retry = pending.retry;
+            }
+            if( batch.isEmpty() ) {
+                return;
+            }
+            try {
+                delegate.putAll( retry ? notYetAppended( batch ) : batch );
+            }
+            catch( Exception ex ) {
+                // the batch is retried on the next flush
+                synchronized ( pending ) {
+                    pending.puts.addAll( 0, batch );
+                    pending.flushing = List.of();
+                    pending.retry = true;
+                }
+                throw ex;
+            }
+            synchronized ( pending ) {
+                pending.flushing = List.of();
+                pending.retry = false;
+                pending.failure = null;
+                // the coalesced checkpoints have never been written, the references to them end with the flush
+                if( pending.puts.isEmpty() ) {
+                    pending.coalescedIds.clear();
+                }
+                pendingCount.addAndGet( -batch.size() );
+            }
+        }
+        finally {
+            pending.flushLock.unlock();
+            pendingByThread.computeIfPresent( threadId, ( key, value ) -> value.isIdle() ? null : value );
+        }
+    }
+
+    /**
+     * Skips the appends written by a failed flush, the replacements can be safely applied again
+     */
+    private List<Put> notYetAppended( List<Put> batch ) {
+        return batch.stream()
+                .filter( put -> put.config().checkPointId().isPresent()
+                        || delegate.get( RunnableConfig.builder( put.config() ).checkPointId( put.checkpoint().getId() ).build() ).isEmpty() )
+                .toList();
+    }
+
+    /**
+     * Writes the pending checkpoints of the given thread to the wrapped saver
+     *
+     * @param config the configuration identifying the thread
+     * @throws Exception if an error occurs while writing the checkpoints
+     */
+    public void flush( RunnableConfig config ) throws Exception {
+        final var threadId = threadId(config);
+        final var pending = pendingByThread.get( threadId );
+        if( pending != null ) {
+            flush( threadId, pending );
+        }
+    }
+
+    /**
+     * Writes all the pending checkpoints to the wrapped saver
+     *
+     * @throws Exception if an error occurs while writing the checkpoints
+     */
+    public void flush() throws Exception {
+        Exception error = null;
+        for( var entry : pendingByThread.entrySet() ) {
+            try {
+                flush( entry.getKey(), entry.getValue() );
+            }
+            catch( Exception ex ) {
+                if( error == null ) {
+                    error = ex;
+                }
+                else {
+                    error.addSuppressed(ex);
+                }
+            }
+        }
+        if( error != null ) {
+            throw error;
+        }
+    }
+
+    private void flushAllQuietly() {
+        for( var entry : pendingByThread.entrySet() ) {
+            final var pending = entry.getValue();
+            try {
+                flush( entry.getKey(), pending );
+            }
+            catch( Exception ex ) {
+                log.error( format("error flushing the pending checkpoints of thread '%s', retry on next flush", entry.getKey()), ex );
+                synchronized ( pending ) {
+                    pending.failure = ex;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void interrupted(RunnableConfig config) throws Exception {
+        if( flushOnInterrupt ) {
+            flush( config );
+        }
+        delegate.interrupted( config );
+    }
+
+    @Override
+    public Tag release(RunnableConfig config) throws Exception {
+        flush( config );
+        return delegate.release( config );
+    }
+
+    /**
+     * Writes all the pending checkpoints and stops the background flushes
+     *
+     * @throws IllegalStateException if an error occurs while writing the checkpoints
+     */
+    @Override
+    public void close() {
+        if( scheduledFlush != null ) {
+            scheduledFlush.cancel( false );
+        }
+        if( ownExecutor ) {
+            executor.shutdown();
+        }
+        try {
+            flush();
+        }
+        catch( Exception ex ) {
+            throw new IllegalStateException( "error flushing %d pending checkpoints on close".formatted( pendingCount.get() ), ex );
+        }
+    }
+}
@@ -13,7 +13,7 @@ import org.bsc.langgraph4j.state.Channel;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
-import java.util.stream.Stream;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static java.util.concurrent.CompletableFuture.completedFuture;
 import static org.bsc.langgraph4j.utils.CollectionsUtils.mergeMap;
@@ -56,17 +56,17 @@ public class EdgeHooks<State extends AgentState> {
         }
 
         public CompletableFuture<State> apply(String sourceId, State state, RunnableConfig config, AgentStateFactory<State> stateFactory, Map<String, Channel<?>> schema ) {
-            if( isEmpty() ) {
+            final var calls = calls(sourceId);
+            if( calls.isEmpty() ) {
                 return completedFuture(state);
             }
 
-            final var futureReturn = Stream.concat( callListAsStream(), callMapAsStream(sourceId))
-                    .reduce( completedFuture(state.data()),
-                            (futureResult, call) ->
-                                    futureResult.thenCompose( result -> call.applyBefore(sourceId, stateFactory.apply(result), config)
-                                            .thenApply( command -> AgentState.updateState( result, command.update(), schema ) )),
-                            (f1, f2) -> f1.thenCompose(v -> f2) // Combiner for parallel streams
-                    );
+            CompletableFuture<Map<String,Object>> futureReturn = completedFuture(state.data());
+            for( int i = 0; i < calls.size(); ++i ) {
+                final var call = calls.get(i);
+                futureReturn = futureReturn.thenCompose( result -> call.applyBefore(sourceId, stateFactory.apply(result), config)
+                        .thenApply( command -> AgentState.updateState( result, command.update(), schema ) ));
+            }
 
             return futureReturn.thenApply( processedResult -> {
                 final var newStateData = AgentState.updateState(state, processedResult, schema);
@@ -85,20 +85,16 @@ public class EdgeHooks<State extends AgentState> {
         }
 
         public CompletableFuture<Command> apply(String sourceId, State state, RunnableConfig config, Command partialResult ) {
-            if( isEmpty() ) {
+            final var calls = calls(sourceId);
+            if( calls.isEmpty() ) {
                 return completedFuture(partialResult);
             }
-            return Stream.concat( callListAsStream(), callMapAsStream(sourceId))
-                    .reduce( completedFuture(partialResult),
-                            (futureResult, call) ->
-                                    futureResult.thenCompose( result -> call.applyAfter( sourceId, state, config, result)),
-                                            // Merge original Command with Command returned by hook
-                                            //.thenApply( command -> new Command(
-                                            //            command.gotoNodeSafe().orElse(null),
-                                            //            mergeMap(result.update(), command.update(), ( oldValue, newValue) -> newValue ))
-                                            //)),
-                            (f1, f2) -> f1.thenCompose(v -> f2) // Combiner for parallel streams
-                    );
+            CompletableFuture<Command> futureResult = completedFuture(partialResult);
+            for( int i = 0; i < calls.size(); ++i ) {
+                final var call = calls.get(i);
+                futureResult = futureResult.thenCompose( result -> call.applyAfter( sourceId, state, config, result));
+            }
+            return futureResult;
         }
 
     }
@@ -120,20 +116,44 @@ public class EdgeHooks<State extends AgentState> {
     }
 
 
+    private record WrapCallChain<State extends AgentState>(
+            AsyncCommandAction<State> action,
+            AsyncCommandAction<State> chain
+    ) {}
+
     public class WrapCalls extends Calls<EdgeHook.WrapCall<State>> {
+        // the last chain built for each edge, reused as long as the edge action is the same
+        private final Map<String, WrapCallChain<State>> chains = new ConcurrentHashMap<>();
+
         WrapCalls() {
             super(Type.FIFO);
         }
 
+        @Override
+        protected void invalidate() {
+            super.invalidate();
+            chains.clear();
+        }
+
+        private AsyncCommandAction<State> chain( String sourceId, List<EdgeHook.WrapCall<State>> calls, AsyncCommandAction<State> action ) {
+            final var cached = chains.get(sourceId);
+            if( cached != null && cached.action() == action ) {
+                return cached.chain();
+            }
+            AsyncCommandAction<State> result = action;
+            for( int i = 0; i < calls.size(); ++i ) {
+                result = new WrapCallChainLink<>(sourceId, calls.get(i), result);
+            }
+            chains.put( sourceId, new WrapCallChain<>( action, result ) );
+            return result;
+        }
+
         public CompletableFuture<Command> apply(String sourceId, State state, RunnableConfig config, AsyncCommandAction<State> action ) {
-            if( isEmpty() ) {
+            final var calls = calls(sourceId);
+            if( calls.isEmpty() ) {
                 return action.apply( state, config );
             }
-            return Stream.concat( callListAsStream(), callMapAsStream(sourceId))
-                    .reduce(action,
-                            (acc, wrapper) -> new WrapCallChainLink<>(sourceId, wrapper, acc),
-                            (v1, v2) -> v1)
-                    .apply(state, config);
+            return chain( sourceId, calls, action ).apply(state, config);
         }
 
     }
@@ -153,6 +173,36 @@ public class EdgeHooks<State extends AgentState> {
 
     }
 
+    /**
+     * Fuses in advance the hooks of the edges starting from the given sources
+     *
+     * @param sourceIds the ids of the edge sources
+     */
+    public void compile( Collection<String> sourceIds ) {
+        beforeCalls.compile(sourceIds);
+        afterCalls.compile(sourceIds);
+        wrapCalls.compile(sourceIds);
+    }
+
+    /**
+     * Checks whether any hook is registered, global or for a single edge
+     *
+     * @return true if there are no hooks
+     */
+    public boolean isEmpty() {
+        return beforeCalls.isEmpty() && afterCalls.isEmpty() && wrapCalls.isEmpty();
+    }
+
+    /**
+     * Checks whether the edge starting from the given source has its own hooks
+     *
+     * @param sourceId the id of the edge source
+     * @return true if the edge has its own hooks
+     */
+    public boolean hasCalls( String sourceId ) {
+        return beforeCalls.hasCalls(sourceId) || afterCalls.hasCalls(sourceId) || wrapCalls.hasCalls(sourceId);
+    }
+
     public void validate( GraphDefinition.Edges<?> edges ) throws GraphStateException {
         beforeCalls.validate(edges);
         afterCalls.validate(edges);
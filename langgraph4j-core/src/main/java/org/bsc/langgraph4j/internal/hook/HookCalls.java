@@ -2,6 +2,7 @@ package org.bsc.langgraph4j.internal.hook;
 
 import java.lang.reflect.ParameterizedType;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 
 import static java.util.Objects.requireNonNull;
@@ -12,6 +13,8 @@ public abstract class HookCalls<T> {
     Map<String, Deque<T>> callMap;
     Deque<T> callList;
     final Type type;
+    // the fused calls by id, built once and reset when a call is added
+    private final Map<String, List<T>> pipelines = new ConcurrentHashMap<>();
 
     HookCalls( Type type ) {
         this.type = requireNonNull(type, "type cannot be null");
@@ -27,6 +30,8 @@ public abstract class HookCalls<T> {
             callList.addFirst(call);
         else
             callList.addLast(call);
+
+        invalidate();
     }
 
     public void add(String nodeId, T call ) {
@@ -43,12 +48,58 @@ public abstract class HookCalls<T> {
         else
             callList.addLast(call);
 
+        invalidate();
     }
 
     public boolean isEmpty() {
         return (callList == null || callList.isEmpty()) && (callMap == null || callMap.isEmpty()) ;
     }
 
+    /**
+     * Checks whether calls are registered for the given id, besides the global ones
+     *
+     * @param id the id of the node or of the edge source
+     * @return true if there are calls for the id
+     */
+    public boolean hasCalls( String id ) {
+        return callMap != null && callMap.containsKey( id );
+    }
+
+    /**
+     * Discards the fused calls, invoked each time a call is added
+     */
+    protected void invalidate() {
+        pipelines.clear();
+    }
+
+    /**
+     * Fuses in advance the calls of each given id, so that no pipeline needs to be built while running
+     *
+     * @param ids the ids of the nodes or of the edge sources
+     */
+    public void compile( Collection<String> ids ) {
+        requireNonNull( ids, "ids cannot be null");
+        for( var id : ids ) {
+            calls( id );
+        }
+    }
+
+    /**
+     * Returns the calls to apply for the given id: the global ones followed by the ones registered for the id.
+     * They are fused once per id, so the result can be walked by index on each invocation.
+     *
+     * @param id the id of the node or of the edge source
+     * @return the immutable list of calls
+     */
+    protected List<T> calls( String id ) {
+        requireNonNull( id, "id cannot be null");
+        if( isEmpty() ) {
+            return List.of();
+        }
+        return pipelines.computeIfAbsent( id, key ->
+                Stream.concat( callListAsStream(), callMapAsStream(key) ).toList() );
+    }
+
     protected Stream<T> callListAsStream( ) {
         return ofNullable(callList).stream().flatMap(Collection::stream);
     }
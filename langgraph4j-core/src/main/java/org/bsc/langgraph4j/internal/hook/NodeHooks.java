@@ -15,7 +15,7 @@ import org.bsc.langgraph4j.state.Channel;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
-import java.util.stream.Stream;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static java.util.concurrent.CompletableFuture.completedFuture;
 import static org.bsc.langgraph4j.utils.CollectionsUtils.mergeMap;
@@ -48,18 +48,16 @@ public class NodeHooks<State extends AgentState> {
         }
 
         public CompletableFuture<State> apply( String nodeId, State state, RunnableConfig config, AgentStateFactory<State> stateFactory, Map<String, Channel<?>> schema ) {
-            if( isEmpty() ) {
+            final var calls = calls(nodeId);
+            if( calls.isEmpty() ) {
                 return completedFuture(state);
             }
 
-            final var futureReturn = Stream.concat( callListAsStream(), callMapAsStream(nodeId))
-                    .reduce( completedFuture(state.data()),
-                            (futureResult, call) ->
-                                    futureResult.thenCompose( result -> call.applyBefore(nodeId, stateFactory.apply(result), config)),
-                                            // Update state with partial result  returned by hook
-                                            //.thenApply( partial -> AgentState.updateState( result, partial, schema ) )),
-                            (f1, f2) -> f1.thenCompose(v -> f2) // Combiner for parallel streams
-                    );
+            CompletableFuture<Map<String,Object>> futureReturn = completedFuture(state.data());
+            for( int i = 0; i < calls.size(); ++i ) {
+                final var call = calls.get(i);
+                futureReturn = futureReturn.thenCompose( result -> call.applyBefore(nodeId, stateFactory.apply(result), config));
+            }
 
             return futureReturn.thenApply( processedResult -> {
                 final var newStateData = AgentState.updateState(state, processedResult, schema);
@@ -78,17 +76,16 @@ public class NodeHooks<State extends AgentState> {
         }
 
         public CompletableFuture<Map<String, Object>> apply(String nodeId, State state, RunnableConfig config, Map<String,Object> partialResult ) {
-            if( isEmpty() ) {
+            final var calls = calls(nodeId);
+            if( calls.isEmpty() ) {
                 return completedFuture(partialResult);
             }
-            return Stream.concat( callListAsStream(), callMapAsStream(nodeId))
-                    .reduce( completedFuture(partialResult),
-                            (futureResult, call) ->
-                                    futureResult.thenCompose( result -> call.applyAfter( nodeId, state, config, result)),
-                                            // Merge original result with partial result returned by hook
-                                            //.thenApply( partial -> mergeMap(result, partial, ( oldValue, newValue) -> newValue ) )),
-                            (f1, f2) -> f1.thenCompose(v -> f2) // Combiner for parallel streams
-                    );
+            CompletableFuture<Map<String,Object>> futureResult = completedFuture(partialResult);
+            for( int i = 0; i < calls.size(); ++i ) {
+                final var call = calls.get(i);
+                futureResult = futureResult.thenCompose( result -> call.applyAfter( nodeId, state, config, result));
+            }
+            return futureResult;
         }
 
     }
@@ -97,33 +94,66 @@ public class NodeHooks<State extends AgentState> {
 
     // WRAP CALL HOOK
 
-    private record WrapCallChainLink<State extends AgentState>  (
+    /**
+     * Link of the chain of the wrap calls of a node. The chain doesn't hold the node action, given on each
+     * invocation, so it is built once per node even if the action is decorated on each step ( e.g. by a deadline ).
+     *
+     * @param nodeId the id of the node
+     * @param delegate the wrap call
+     * @param next the link of the wrap call applied inside this one, {@code null} if it is the innermost one
+     */
+    private record WrapCallChainLink<State extends AgentState>(
             String nodeId,
             NodeHook.WrapCall<State> delegate,
-            AsyncNodeActionWithConfig<State> action
-    )  implements AsyncNodeActionWithConfig<State> {
-
-        @Override
-        public CompletableFuture<Map<String, Object>> apply(State state, RunnableConfig config) {
-            return delegate.applyWrap(nodeId, state, config, action);
+            WrapCallChainLink<State> next
+    ) {
+
+        CompletableFuture<Map<String, Object>> apply(State state, RunnableConfig config, AsyncNodeActionWithConfig<State> action) {
+            final AsyncNodeActionWithConfig<State> inner = ( next == null ) ?
+                    action :
+                    ( innerState, innerConfig ) -> next.apply( innerState, innerConfig, action );
+            return delegate.applyWrap(nodeId, state, config, inner);
         }
     }
 
-
     public class WrapCalls extends Calls<NodeHook.WrapCall<State>> {
+        // the outermost link of the chain of each node, built once
+        private final Map<String, Optional<WrapCallChainLink<State>>> chains = new ConcurrentHashMap<>();
+
         WrapCalls() {
             super(Type.FIFO);
         }
 
+        @Override
+        protected void invalidate() {
+            super.invalidate();
+            chains.clear();
+        }
+
+        @Override
+        public void compile( Collection<String> ids ) {
+            super.compile(ids);
+            for( var id : ids ) {
+                chain( id );
+            }
+        }
+
+        private Optional<WrapCallChainLink<State>> chain( String nodeId ) {
+            return chains.computeIfAbsent( nodeId, key -> {
+                WrapCallChainLink<State> result = null;
+                for( var call : calls(key) ) {
+                    result = new WrapCallChainLink<>(key, call, result);
+                }
+                return Optional.ofNullable(result);
+            });
+        }
+
         public CompletableFuture<Map<String, Object>> apply( String nodeId, State state, RunnableConfig config, AsyncNodeActionWithConfig<State> action ) {
-            if( isEmpty() ) {
+            final var chain = chain( nodeId );
+            if( chain.isEmpty() ) {
                 return action.apply( state, config );
             }
-            return Stream.concat( callListAsStream(), callMapAsStream(nodeId))
-                    .reduce(action,
-                            (acc, wrapper) -> new WrapCallChainLink<>(nodeId, wrapper, acc),
-                            (v1, v2) -> v1)
-                    .apply(state, config);
+            return chain.get().apply(state, config, action);
         }
 
     }
@@ -203,6 +233,36 @@ public class NodeHooks<State extends AgentState> {
     }
 
 
+    /**
+     * Fuses in advance the hooks of the given nodes
+     *
+     * @param nodeIds the ids of the nodes
+     */
+    public void compile( Collection<String> nodeIds ) {
+        beforeCalls.compile(nodeIds);
+        afterCalls.compile(nodeIds);
+        wrapCalls.compile(nodeIds);
+    }
+
+    /**
+     * Checks whether any hook is registered, global or for a single node
+     *
+     * @return true if there are no hooks
+     */
+    public boolean isEmpty() {
+        return beforeCalls.isEmpty() && afterCalls.isEmpty() && wrapCalls.isEmpty();
+    }
+
+    /**
+     * Checks whether hooks are registered for the given node, besides the global ones
+     *
+     * @param nodeId the id of the node
+     * @return true if the node has its own hooks
+     */
+    public boolean hasCalls( String nodeId ) {
+        return beforeCalls.hasCalls(nodeId) || afterCalls.hasCalls(nodeId) || wrapCalls.hasCalls(nodeId);
+    }
+
     public void validate( StateGraph.Nodes<?> nodes ) throws GraphStateException {
         beforeCalls.validate(nodes);
         afterCalls.validate(nodes);
@@ -0,0 +1,61 @@
+package org.bsc.langgraph4j.internal.node;
+
+import org.bsc.async.AsyncGenerator;
+import org.bsc.langgraph4j.action.AsyncNodeActionWithConfig;
+import org.bsc.langgraph4j.state.AgentState;
+
+import java.util.Collections;
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Channels read and written by a node
+ *
+ * @param nodeId the id of the node
+ * @param reads the channels read by the node
+ * @param writes the channels written by the node
+ */
+public record NodeChannels(String nodeId, Set<String> reads, Set<String> writes) {
+
+    public NodeChannels {
+        requireNonNull(nodeId, "nodeId cannot be null");
+        reads = Set.copyOf(requireNonNull(reads, "reads cannot be null"));
+        writes = Set.copyOf(requireNonNull(writes, "writes cannot be null"));
+    }
+
+    /**
+     * Checks whether this node reads a channel written by the given one, so it must run after it
+     *
+     * @param other the channels of the node that runs before
+     * @return true if this node depends on the given one
+     */
+    public boolean dependsOn(NodeChannels other) {
+        return !Collections.disjoint(reads, other.writes());
+    }
+
+    /**
+     * Decorates the given action so that it fails with an {@link IllegalStateException} when it updates a
+     * channel not declared in the writes. The values holding a generator are not checked, since they are
+     * folded into the state by the execution.
+     *
+     * @param action the node action
+     * @param <State> the type of the state
+     * @return the decorated action
+     */
+    public <State extends AgentState> AsyncNodeActionWithConfig<State> withDeclaredWrites(AsyncNodeActionWithConfig<State> action) {
+        requireNonNull(action, "action cannot be null");
+        return (state, config) -> action.apply(state, config).thenApply(partialState -> {
+            if (partialState == null) {
+                return null;
+            }
+            for (var entry : partialState.entrySet()) {
+                if (!writes.contains(entry.getKey()) && !(entry.getValue() instanceof AsyncGenerator<?>)) {
+                    throw new IllegalStateException("node '%s' updated channel '%s' not declared in its writes %s"
+                            .formatted(nodeId, entry.getKey(), writes));
+                }
+            }
+            return partialState;
+        });
+    }
+}
@@ -0,0 +1,160 @@
+package org.bsc.langgraph4j.internal.node;
+
+import org.bsc.langgraph4j.NodeTimeoutException;
+import org.bsc.langgraph4j.RunnableConfig;
+import org.bsc.langgraph4j.action.AsyncNodeActionWithConfig;
+import org.bsc.langgraph4j.action.InterruptableAction;
+import org.bsc.langgraph4j.state.AgentState;
+import org.bsc.langgraph4j.utils.VirtualThreads;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.CompletableFuture.failedFuture;
+
+/**
+ * Timeout of a node
+ *
+ * @param nodeId the id of the node
+ * @param timeout the maximum duration of the node action
+ * @param fallbackNodeId the node to go to when the action times out, {@code null} to fail the execution
+ */
+public record NodeTimeout(String nodeId, Duration timeout, String fallbackNodeId) {
+
+    public NodeTimeout {
+        requireNonNull(nodeId, "nodeId cannot be null");
+        requireNonNull(timeout, "timeout cannot be null");
+        if (timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("timeout must be > 0!");
+        }
+    }
+
+    public Optional<String> fallback() {
+        return Optional.ofNullable(fallbackNodeId);
+    }
+
+    /**
+     * Runs the actions bounded by a timeout
+     */
+    private static final class DefaultExecutor {
+        static final Executor INSTANCE = VirtualThreads.newThreadPerTaskExecutor("langgraph4j-node-timeout");
+    }
+
+    /**
+     * Decorates the given action so that it fails with a {@link NodeTimeoutException}, cancelling the
+     * action, when it doesn't complete within the given time.
+     * <p>
+     * The action is started on a new virtual thread, so that also a blocking action ( e.g. {@code node_async} )
+     * is bounded by the timeout and interrupted when it expires.
+     * </p>
+     * <p>
+     * The action runs on a dedicated executor rather than on the executor of the {@link RunnableConfig} or of the
+     * compiled graph: the execution waits for the action, so with a bounded executor shared by concurrent
+     * executions both would be waiting for a free thread.
+     * </p>
+     *
+     * @param nodeId the id of the node
+     * @param action the node action
+     * @param timeout the maximum duration of the action
+     * @param reason the description of the timeout used in the error message
+     * @param <State> the type of the state
+     * @return the decorated action
+     */
+    @SuppressWarnings("unchecked")
+    public static <State extends AgentState> AsyncNodeActionWithConfig<State> withTimeout(String nodeId,
+                                                                                        AsyncNodeActionWithConfig<State> action,
+                                                                                        Duration timeout,
+                                                                                        String reason) {
+        final AsyncNodeActionWithConfig<State> timedAction = (state, config) -> apply(nodeId, action, timeout, reason, state, config);
+
+        if (action instanceof InterruptableAction<?>) {
+            final var proxyInstance = Proxy.newProxyInstance(action.getClass().getClassLoader(),
+                    new Class<?>[]{AsyncNodeActionWithConfig.class, InterruptableAction.class},
+                    (proxy, method, methodArgs) -> {
+                        if (method.getName().equals("interrupt")) {
+                            return method.invoke(action, methodArgs);
+                        }
+                        return method.invoke(timedAction, methodArgs);
+                    }
+            );
+            return (AsyncNodeActionWithConfig<State>) proxyInstance;
+        }
+        return timedAction;
+    }
+
+    private static <State extends AgentState> CompletableFuture<Map<String, Object>> apply(String nodeId,
+                                                                                          AsyncNodeActionWithConfig<State> action,
+                                                                                          Duration timeout,
+                                                                                          String reason,
+                                                                                          State state,
+                                                                                          RunnableConfig config) {
+        // the future returned by the action, available once the action has been called
+        final var started = new CompletableFuture<CompletableFuture<Map<String, Object>>>();
+        // the call of the action, cancelling it interrupts a blocking action
+        final var call = new FutureTask<>(() -> action.apply(state, config)) {
+            @Override
+            protected void done() {
+                try {
+                    started.complete(get());
+                } catch (CancellationException ex) {
+                    started.cancel(false);
+                } catch (ExecutionException ex) {
+                    started.completeExceptionally(ex.getCause());
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    started.completeExceptionally(ex);
+                }
+            }
+        };
+        try {
+            DefaultExecutor.INSTANCE.execute(call);
+        } catch (RejectedExecutionException ex) {
+            return failedFuture(ex);
+        }
+
+        final Runnable cancelAction = () -> {
+            call.cancel(true);
+            started.thenAccept(future -> future.cancel(true));
+        };
+
+        final var result = new CompletableFuture<Map<String, Object>>();
+        final var timedOut = new AtomicBoolean();
+        started.thenCompose(Function.identity()).whenComplete((value, ex) -> {
+            if (timedOut.get()) {
+                return;
+            }
+            if (ex != null) {
+                result.completeExceptionally((ex instanceof CompletionException && ex.getCause() != null) ? ex.getCause() : ex);
+            } else {
+                result.complete(value);
+            }
+        });
+        result.whenComplete((value, ex) -> {
+            if (result.isCancelled()) {
+                cancelAction.run();
+            }
+        });
+        CompletableFuture.delayedExecutor(timeout.toNanos(), TimeUnit.NANOSECONDS).execute(() -> {
+            if (!result.isDone() && timedOut.compareAndSet(false, true)) {
+                // cancel the action before reporting the timeout
+                cancelAction.run();
+                result.completeExceptionally(new NodeTimeoutException(nodeId,
+                        "node '%s' has not completed within %s".formatted(nodeId, reason)));
+            }
+        });
+        return result;
+    }
+}
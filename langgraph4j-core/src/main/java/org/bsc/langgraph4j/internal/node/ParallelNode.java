@@ -1,21 +1,30 @@
 package org.bsc.langgraph4j.internal.node;
 
 import org.bsc.async.AsyncGenerator;
+import org.bsc.async.AsyncGeneratorQueue;
 import org.bsc.langgraph4j.NodeOutput;
 import org.bsc.langgraph4j.RunnableConfig;
 import org.bsc.langgraph4j.action.AsyncNodeActionWithConfig;
 import org.bsc.langgraph4j.state.AgentState;
 import org.bsc.langgraph4j.state.Channel;
+import org.bsc.langgraph4j.streaming.BranchOutput;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.Executor;
-import java.util.function.Function;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.stream.IntStream;
 
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.CompletableFuture.failedFuture;
 
 public class ParallelNode<State extends AgentState> extends Node<State> {
     private static final String PARALLEL_PREFIX = "__PARALLEL__";
@@ -24,29 +33,78 @@ public class ParallelNode<State extends AgentState> extends Node<State> {
         return "%s(%s)".formatted(PARALLEL_PREFIX, requireNonNull(nodeId, "nodeId cannot be null!"));
     }
 
+    /**
+     * Action that runs the branches of a parallel node without blocking any thread while waiting for them.
+     * <p>
+     * The branches are started on the executor registered for the node ( see
+     * {@link RunnableConfig.Builder#addParallelNodeExecutor(String, Executor)} ), otherwise on the executor of the
+     * execution or of the compiled graph, otherwise on the calling thread. As soon as a branch fails the
+     * others are cancelled and the branches not yet started are skipped.
+     * </p>
+     * <p>
+     * The outputs of the branches that return a generator are folded as they arrive. In streaming mode
+     * they are also interleaved, as {@link BranchOutput}, into the stream of the graph.
+     * </p>
+     *
+     * @param nodeId the id of the parallel node
+     * @param branchIds the ids of the nodes that start the branches
+     * @param actions the actions of the branches
+     * @param channels the channels used to reduce the branch results
+     * @param defaultExecutor the executor used when none is given by the configuration, {@code null} if any
+     * @param streaming whether to stream the outputs of the branches as they arrive
+     * @param <State> the type of the state
+     */
     public record AsyncParallelNodeAction<State extends AgentState>(
             String nodeId,
+            List<String> branchIds,
             List<AsyncNodeActionWithConfig<State>> actions,
-            Map<String, Channel<?>> channels) implements AsyncNodeActionWithConfig<State> {
+            Map<String, Channel<?>> channels,
+            Executor defaultExecutor,
+            boolean streaming) implements AsyncNodeActionWithConfig<State> {
 
-        private CompletableFuture<Map<String, Object>> evalGenerator(AsyncGenerator<NodeOutput<State>> generator, Map<String, Object> initPartialState) {
-            return generator.reduce(new ArrayList<NodeOutput<State>>(), (result, value) -> {
-                        result.add(value);
-                        return result;
-                    })
-                    .thenApply(list -> {
-                        Map<String, Object> result = initPartialState;
-                        for (var output : list) {
-                            result = AgentState.updateState(result, output.state().data(), channels);
+        public AsyncParallelNodeAction {
+            requireNonNull(branchIds, "branchIds cannot be null");
+            requireNonNull(actions, "actions cannot be null");
+            if (branchIds.size() != actions.size()) {
+                throw new IllegalArgumentException("branchIds and actions must have the same size!");
+            }
+        }
+
+        public AsyncParallelNodeAction(String nodeId, List<AsyncNodeActionWithConfig<State>> actions, Map<String, Channel<?>> channels) {
+            this(nodeId, indexIds(actions.size()), actions, channels, null, false);
+        }
+
+        private CompletableFuture<Map<String, Object>> evalGenerator(AsyncGenerator<NodeOutput<State>> generator,
+                                                                     Map<String, Object> initPartialState,
+                                                                     Consumer<NodeOutput<State>> listener) {
+            // the state is folded as soon as each output arrives, the accumulator must be mutable since
+            // reduce() passes the initial value to each step
+            return generator.reduce(new AtomicReference<>(initPartialState), (result, output) -> {
+                        if (listener != null) {
+                            listener.accept(output);
                         }
+                        result.set(AgentState.updateState(result.get(), output.state().data(), channels));
                         return result;
-                    });
+                    })
+                    .thenApply(AtomicReference::get);
         }
 
         @SuppressWarnings("unchecked")
-        private CompletableFuture<Map<String, Object>> evalNodeActionSync(AsyncNodeActionWithConfig<State> action, State state, RunnableConfig config) {
+        private CompletableFuture<Map<String, Object>> evalNodeActionSync(AsyncNodeActionWithConfig<State> action,
+                                                                          State state,
+                                                                          RunnableConfig config,
+                                                                          Consumer<NodeOutput<State>> listener) {
+
+            final CompletableFuture<Map<String, Object>> result;
+            try {
+                result = action.apply(state, config);
+            } catch (Exception ex) {
+                return failedFuture(ex);
+            }
 
-            return action.apply(state, config).thenCompose(partialState ->
+            // a null partial state doesn't update the state, as in the sequential execution
+            final CompletableFuture<Map<String, Object>> branch = result.thenCompose(partialState -> (partialState == null) ?
+                    completedFuture(Map.<String, Object>of()) :
                     partialState.entrySet().stream()
                             .filter(e -> e.getValue() instanceof AsyncGenerator)
                             .findFirst()
@@ -55,78 +113,189 @@ public class ParallelNode<State extends AgentState> extends Node<State> {
                                 var partialStateWithoutGenerator = partialState.entrySet().stream()
                                         .filter(e -> !Objects.equals(e.getKey(), generatorEntry.getKey()))
                                         .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-                                return evalGenerator((AsyncGenerator<NodeOutput<State>>) generatorEntry.getValue(), partialStateWithoutGenerator);
+                                return evalGenerator((AsyncGenerator<NodeOutput<State>>) generatorEntry.getValue(), partialStateWithoutGenerator, listener);
 
                             })
                             .orElse(completedFuture(partialState))
             );
+            // propagate the cancellation of the branch to the future returned by the action
+            branch.whenComplete((value, ex) -> {
+                if (branch.isCancelled()) {
+                    result.cancel(true);
+                }
+            });
+            return branch;
         }
 
+        /**
+         * Starts the branch on the given executor. The returned future completes with the branch, without
+         * keeping the executor thread busy while the branch is waiting. Cancelling it before the branch starts
+         * skips the branch, cancelling it later cancels the future returned by the branch action.
+         */
         private CompletableFuture<Map<String, Object>> evalNodeActionAsync(AsyncNodeActionWithConfig<State> action,
                                                                            State state,
                                                                            RunnableConfig config,
+                                                                           Consumer<NodeOutput<State>> listener,
                                                                            Executor executor) {
-            return CompletableFuture.supplyAsync(() -> evalNodeActionSync(action, state, config).join(), executor);
-
+            final var result = new CompletableFuture<Map<String, Object>>();
+            try {
+                executor.execute(() -> {
+                    if (result.isDone()) {
+                        return;
+                    }
+                    final var branch = evalNodeActionSync(action, state, config, listener);
+                    result.whenComplete((value, ex) -> {
+                        if (result.isCancelled()) {
+                            branch.cancel(true);
+                        }
+                    });
+                    branch.whenComplete((value, ex) -> {
+                        if (ex != null) {
+                            result.completeExceptionally(unwrap(ex));
+                        } else {
+                            result.complete(value);
+                        }
+                    });
+                });
+            } catch (RejectedExecutionException ex) {
+                result.completeExceptionally(ex);
+            }
+            return result;
         }
+
         private Optional<Executor> getExecutor(RunnableConfig config) {
             return config.metadata(nodeId)
                     .filter(value -> value instanceof Executor)
-                    .map(Executor.class::cast);
+                    .map(Executor.class::cast)
+                    .or(config::executor)
+                    .or(() -> Optional.ofNullable(defaultExecutor));
         }
 
-        private CompletableFuture<Void> allOfFailFast(RunnableConfig config, CompletableFuture<?>... futures) {
-            CompletableFuture<Void> manager = new CompletableFuture<>();
-
-            for (CompletableFuture<?> future : futures) {
-                future.whenComplete((result, throwable) -> {
-                    if (throwable != null) {
-                        // One failed, so fail the manager immediately
-                        manager.completeExceptionally(throwable);
-                    } else {
-                        // Check if all others are done
-                        if (Stream.of(futures).allMatch(CompletableFuture::isDone)) {
-                            manager.complete(null);
-                        }
+        private static Throwable unwrap(Throwable ex) {
+            return (ex instanceof CompletionException && ex.getCause() != null) ? ex.getCause() : ex;
+        }
+
+        private static List<String> indexIds(int size) {
+            return IntStream.range(0, size).mapToObj(String::valueOf).toList();
+        }
+
+        /**
+         * Runs the branches and reduces their results in branch order.
+         *
+         * @param listener the consumer of the outputs of the branches that return a generator, {@code null} if any
+         */
+        private CompletableFuture<Map<String, Object>> evalBranches(State state,
+                                                                    RunnableConfig config,
+                                                                    Optional<Executor> executor,
+                                                                    Consumer<BranchOutput<State>> listener) {
+
+            final var outcome = new CompletableFuture<Void>();
+            final var pending = new AtomicInteger(actions.size());
+            final var branches = new ArrayList<CompletableFuture<Map<String, Object>>>(actions.size());
+
+            for (int i = 0; i < actions.size(); ++i) {
+                if (outcome.isDone()) {
+                    // a branch already failed, skip the remaining ones
+                    break;
+                }
+                final var action = actions.get(i);
+                final var branchId = branchIds.get(i);
+                final Consumer<NodeOutput<State>> branchListener = (listener == null) ? null :
+                        output -> listener.accept(new BranchOutput<>(branchId, output));
+
+                final var branch = executor
+                        .map(e -> evalNodeActionAsync(action, state, config, branchListener, e))
+                        .orElseGet(() -> evalNodeActionSync(action, state, config, branchListener));
+
+                branches.add(branch);
+
+                branch.whenComplete((value, ex) -> {
+                    if (ex != null) {
+                        outcome.completeExceptionally(unwrap(ex));
+                    } else if (pending.decrementAndGet() == 0) {
+                        outcome.complete(null);
                     }
                 });
             }
 
-            // Handle the case of an empty array
-            if (futures.length == 0) {
-                manager.complete(null);
+            if (actions.isEmpty()) {
+                outcome.complete(null);
             }
 
-            return manager;
+            // fail fast: cancel the branches still running
+            outcome.whenComplete((value, ex) -> {
+                if (ex != null) {
+                    branches.forEach(branch -> branch.cancel(true));
+                }
+            });
+
+            final CompletableFuture<Map<String, Object>> result = outcome.thenApply(v -> {
+                Map<String, Object> data = state.data();
+                for (var branch : branches) {
+                    data = AgentState.updateState(data, branch.join(), channels);
+                }
+                return data;
+            });
+            result.whenComplete((value, ex) -> {
+                if (result.isCancelled()) {
+                    outcome.cancel(true);
+                }
+            });
+            return result;
         }
 
+        /**
+         * Returns a generator that emits the outputs of the branches as they arrive and completes with the
+         * reduced state. The branches are started on the configured executor or on the common pool, so the
+         * generator can be returned before any branch completes.
+         */
+        private AsyncGenerator<NodeOutput<State>> streamBranches(State state, RunnableConfig config) {
+            final var queue = new LinkedBlockingQueue<AsyncGenerator.Data<NodeOutput<State>>>();
 
-        @Override
-        public CompletableFuture<Map<String, Object>> apply(State state, RunnableConfig config) {
+            final var executor = getExecutor(config).orElseGet(ForkJoinPool::commonPool);
 
-            final var evalNodeAction = getExecutor(config)
-                    .map(executor -> (Function<AsyncNodeActionWithConfig<State>, CompletableFuture<Map<String, Object>>>) action -> evalNodeActionAsync(action, state, config, executor))
-                    .orElseGet(() -> (Function<AsyncNodeActionWithConfig<State>, CompletableFuture<Map<String, Object>>>) action -> evalNodeActionSync(action, state, config));
-
-            @SuppressWarnings("unchecked") final CompletableFuture<Map<String, Object>>[] actionsArray = actions.stream()
-                    .map(evalNodeAction)
-                    .toArray(CompletableFuture[]::new);
-
-            return allOfFailFast(config, actionsArray).thenApply(v ->
-                    Stream.of(actionsArray)
-                            .map(CompletableFuture::join)
-                            .reduce(state.data(),
-                                    (result, actionResult) ->
-                                            AgentState.updateState(result, actionResult, channels)
-                                    /* , (f1, f2) -> AgentState.updateState( f1, f2, channels) )  */)
-            );
+            final var result = evalBranches(state, config, Optional.of(executor),
+                    output -> queue.add(AsyncGenerator.Data.of(output)));
+
+            result.whenComplete((value, ex) -> {
+                if (ex != null) {
+                    queue.add(AsyncGenerator.Data.error(unwrap(ex)));
+                    queue.add(AsyncGenerator.Data.done());
+                } else {
+                    queue.add(AsyncGenerator.Data.done(value));
+                }
+            });
+
+            return new AsyncGeneratorQueue.Generator<>(queue) {
+                @Override
+                public boolean cancel(boolean mayInterruptIfRunning) {
+                    result.cancel(mayInterruptIfRunning);
+                    return super.cancel(mayInterruptIfRunning);
+                }
+            };
+        }
 
+        @Override
+        public CompletableFuture<Map<String, Object>> apply(State state, RunnableConfig config) {
+            if (streaming) {
+                return completedFuture(Map.of(nodeId, streamBranches(state, config)));
+            }
+            return evalBranches(state, config, getExecutor(config), null);
         }
     }
 
     public ParallelNode(String id, List<AsyncNodeActionWithConfig<State>> actions, Map<String, Channel<?>> channels) {
+        this(id, AsyncParallelNodeAction.indexIds(actions.size()), actions, channels);
+    }
+
+    public ParallelNode(String id, List<String> branchIds, List<AsyncNodeActionWithConfig<State>> actions, Map<String, Channel<?>> channels) {
         super(formatNodeId(id),
-                (config) -> new AsyncParallelNodeAction<>(formatNodeId(id), actions, channels));
+                (config) -> new AsyncParallelNodeAction<>(formatNodeId(id),
+                        branchIds,
+                        actions,
+                        channels,
+                        config.executor().orElse(null),
+                        config.streamParallelBranches()));
     }
 
     @Override
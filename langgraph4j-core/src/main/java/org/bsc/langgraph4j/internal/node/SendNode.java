@@ -0,0 +1,319 @@
+package org.bsc.langgraph4j.internal.node;
+
+import org.bsc.langgraph4j.GraphDefinition;
+import org.bsc.langgraph4j.GraphStateException;
+import org.bsc.langgraph4j.RunnableConfig;
+import org.bsc.langgraph4j.StateGraph;
+import org.bsc.langgraph4j.action.AsyncNodeActionWithConfig;
+import org.bsc.langgraph4j.action.AsyncSendAction;
+import org.bsc.langgraph4j.action.Send;
+import org.bsc.langgraph4j.state.AgentState;
+import org.bsc.langgraph4j.state.AgentStateFactory;
+import org.bsc.langgraph4j.state.Channel;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.CompletableFuture.failedFuture;
+
+/**
+ * Node that performs a dynamic fan-out ( map-reduce ): its {@link AsyncSendAction} returns a list of
+ * {@link Send}, each target node is executed on the state merged with the send input and the
+ * results are reduced, in send order, through the channels of the graph.
+ * <p>
+ * At most {@code maxConcurrency} sends are in flight at the same time. They are started on the executor of the
+ * {@link RunnableConfig}, if any, otherwise on the calling thread, and no thread is kept busy waiting for them.
+ * As soon as a send fails the others are cancelled and the sends not yet started are skipped.
+ * </p>
+ *
+ * @param <State> the type of the state
+ */
+public class SendNode<State extends AgentState> extends Node<State> {
+
+    public record AsyncSendNodeAction<State extends AgentState>(
+            String nodeId,
+            AsyncSendAction<State> sends,
+            int maxConcurrency,
+            Set<String> targets,
+            Function<String, AsyncNodeActionWithConfig<State>> resolver,
+            AgentStateFactory<State> stateFactory,
+            Map<String, Channel<?>> channels) implements AsyncNodeActionWithConfig<State> {
+
+        private AsyncNodeActionWithConfig<State> resolve(Send send) throws GraphStateException {
+            final var action = (targets.isEmpty() || targets.contains(send.node())) ? resolver.apply(send.node()) : null;
+            if (action == null) {
+                throw StateGraph.Errors.sendTargetNotExist.exception(nodeId, send.node());
+            }
+            return action;
+        }
+
+        private State itemState(State state, Send send) {
+            if (send.input().isEmpty()) {
+                return state;
+            }
+            final var data = new HashMap<>(state.data());
+            data.putAll(send.input());
+            return stateFactory.apply(data);
+        }
+
+        private static Throwable unwrap(Throwable ex) {
+            return (ex instanceof CompletionException && ex.getCause() != null) ? ex.getCause() : ex;
+        }
+
+        /**
+         * Schedules the sends, starting a new one each time one completes, without blocking any thread
+         */
+        private final class FanOut {
+            final List<Send> sends;
+            final List<AsyncNodeActionWithConfig<State>> actions;
+            final State state;
+            final RunnableConfig config;
+            final Optional<Executor> executor;
+            final AtomicReferenceArray<Map<String, Object>> results;
+            final AtomicReferenceArray<CompletableFuture<Map<String, Object>>> items;
+            final CompletableFuture<Void> outcome = new CompletableFuture<>();
+            final AtomicInteger wip = new AtomicInteger();
+            final AtomicInteger inFlight = new AtomicInteger();
+            final AtomicInteger completed = new AtomicInteger();
+            int next; // accessed only by the thread that owns the drain loop
+
+            FanOut(List<Send> sends, List<AsyncNodeActionWithConfig<State>> actions, State state, RunnableConfig config) {
+                this.sends = sends;
+                this.actions = actions;
+                this.state = state;
+                this.config = config;
+                this.executor = config.executor();
+                this.results = new AtomicReferenceArray<>(sends.size());
+                this.items = new AtomicReferenceArray<>(sends.size());
+
+                // fail fast: cancel the sends still running
+                outcome.whenComplete((value, ex) -> {
+                    if (ex != null) {
+                        for (int i = 0; i < items.length(); ++i) {
+                            final var item = items.get(i);
+                            if (item != null) {
+                                item.cancel(true);
+                            }
+                        }
+                    }
+                });
+            }
+
+            /**
+             * Starts the sends allowed by the concurrency limit. The loop is owned by a single thread at a time,
+             * so the sends completed on the calling thread don't recurse into it.
+             */
+            void drain() {
+                if (wip.getAndIncrement() != 0) {
+                    return;
+                }
+                do {
+                    while (!outcome.isDone() && next < sends.size() && inFlight.get() < maxConcurrency) {
+                        inFlight.incrementAndGet();
+                        start(next++);
+                    }
+                } while (wip.decrementAndGet() != 0);
+            }
+
+            void start(int index) {
+                final var item = executor
+                        .map(e -> evalSendAsync(index, e))
+                        .orElseGet(() -> evalSend(index));
+
+                items.set(index, item);
+                if (outcome.isCompletedExceptionally()) {
+                    item.cancel(true);
+                }
+
+                item.whenComplete((value, ex) -> {
+                    if (ex != null) {
+                        outcome.completeExceptionally(unwrap(ex));
+                        return;
+                    }
+                    results.set(index, value);
+                    inFlight.decrementAndGet();
+                    if (completed.incrementAndGet() == sends.size()) {
+                        outcome.complete(null);
+                    } else {
+                        drain();
+                    }
+                });
+            }
+
+            CompletableFuture<Map<String, Object>> evalSend(int index) {
+                final CompletableFuture<Map<String, Object>> result;
+                try {
+                    result = actions.get(index).apply(itemState(state, sends.get(index)), config);
+                } catch (Exception ex) {
+                    return failedFuture(ex);
+                }
+                return result;
+            }
+
+            /**
+             * Starts the send on the given executor. Cancelling the returned future before the send starts skips
+             * it, cancelling it later cancels the future returned by the target action.
+             */
+            CompletableFuture<Map<String, Object>> evalSendAsync(int index, Executor executor) {
+                final var result = new CompletableFuture<Map<String, Object>>();
+                try {
+                    executor.execute(() -> {
+                        if (result.isDone()) {
+                            return;
+                        }
+                        final var send = evalSend(index);
+                        result.whenComplete((value, ex) -> {
+                            if (result.isCancelled()) {
+                                send.cancel(true);
+                            }
+                        });
+                        send.whenComplete((value, ex) -> {
+                            if (ex != null) {
+                                result.completeExceptionally(unwrap(ex));
+                            } else {
+                                result.complete(value);
+                            }
+                        });
+                    });
+                } catch (RejectedExecutionException ex) {
+                    result.completeExceptionally(ex);
+                }
+                return result;
+            }
+
+            CompletableFuture<Map<String, Object>> run() {
+                drain();
+
+                final CompletableFuture<Map<String, Object>> result = outcome.thenApply(v -> {
+                    Map<String, Object> data = Map.of();
+                    for (int i = 0; i < results.length(); ++i) {
+                        data = AgentState.updateState(data, results.get(i), channels);
+                    }
+                    return data;
+                });
+                result.whenComplete((value, ex) -> {
+                    if (result.isCancelled()) {
+                        outcome.cancel(true);
+                    }
+                });
+                return result;
+            }
+        }
+
+        private CompletableFuture<Map<String, Object>> fanOut(List<Send> sends, State state, RunnableConfig config) {
+            if (sends == null || sends.isEmpty()) {
+                return completedFuture(Map.of());
+            }
+
+            // all the targets are resolved before starting any send
+            final var actions = new ArrayList<AsyncNodeActionWithConfig<State>>(sends.size());
+            try {
+                for (var send : sends) {
+                    actions.add(resolve(send));
+                }
+            } catch (Exception ex) {
+                return failedFuture(ex);
+            }
+
+            return new FanOut(sends, actions, state, config).run();
+        }
+
+        @Override
+        public CompletableFuture<Map<String, Object>> apply(State state, RunnableConfig config) {
+            return sends.apply(state, config).thenCompose(list -> fanOut(list, state, config));
+        }
+    }
+
+    private final AsyncSendAction<State> sends;
+    private final int maxConcurrency;
+    private final Set<String> targets;
+    private final AgentStateFactory<State> stateFactory;
+    private final Map<String, Channel<?>> channels;
+    private final Function<String, String> targetId;
+
+    public SendNode(String id,
+                    AsyncSendAction<State> sends,
+                    int maxConcurrency,
+                    Set<String> targets,
+                    AgentStateFactory<State> stateFactory,
+                    Map<String, Channel<?>> channels) {
+        this(id, sends, maxConcurrency, targets, stateFactory, channels, Function.identity());
+    }
+
+    private SendNode(String id,
+                     AsyncSendAction<State> sends,
+                     int maxConcurrency,
+                     Set<String> targets,
+                     AgentStateFactory<State> stateFactory,
+                     Map<String, Channel<?>> channels,
+                     Function<String, String> targetId) {
+        super(id);
+        this.sends = requireNonNull(sends, "sends cannot be null");
+        this.maxConcurrency = maxConcurrency;
+        this.targets = Set.copyOf(requireNonNull(targets, "targets cannot be null"));
+        this.stateFactory = requireNonNull(stateFactory, "stateFactory cannot be null");
+        this.channels = requireNonNull(channels, "channels cannot be null");
+        this.targetId = targetId;
+    }
+
+    public int maxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * The nodes allowed as targets of the sends, empty if any node of the graph is allowed
+     *
+     * @return the ids of the target nodes
+     */
+    public Set<String> targets() {
+        return targets;
+    }
+
+    /**
+     * Checks that the declared targets are nodes of the given graph
+     *
+     * @param nodes the nodes of the graph
+     * @throws GraphStateException if a declared target doesn't exist
+     */
+    public void validateTargets(GraphDefinition.Nodes<State> nodes) throws GraphStateException {
+        for (var target : targets) {
+            if (Objects.equals(target, id()) || !nodes.anyMatchById(target)) {
+                throw StateGraph.Errors.sendTargetNotExist.exception(id(), target);
+            }
+        }
+    }
+
+    /**
+     * Creates the node action. The targets of the sends are looked up at execution time, since they are
+     * known only when the sends are evaluated.
+     *
+     * @param nodes the resolver of the node actions by node id, it returns {@code null} for an unknown node
+     * @return the node action
+     */
+    public AsyncNodeActionWithConfig<State> action(Function<String, AsyncNodeActionWithConfig<State>> nodes) {
+        requireNonNull(nodes, "nodes cannot be null");
+        return new AsyncSendNodeAction<>(id(), sends, maxConcurrency, targets, targetId.andThen(nodes), stateFactory, channels);
+    }
+
+    /**
+     * When the node belongs to a subgraph merged into its parent also the targets of the sends are updated
+     */
+    @Override
+    public Node<State> withIdUpdated(Function<String, String> newId) {
+        return new SendNode<>(newId.apply(id()), sends, maxConcurrency, targets, stateFactory, channels, targetId.andThen(newId));
+    }
+}
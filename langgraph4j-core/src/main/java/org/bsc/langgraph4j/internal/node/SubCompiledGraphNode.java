@@ -21,4 +21,8 @@ public class SubCompiledGraphNode<State extends AgentState> extends Node<State>
     public StateGraph<State> subGraph() {
         return subGraph.stateGraph;
     }
+
+    public CompiledGraph<State> compiledSubGraph() {
+        return subGraph;
+    }
 }
@@ -0,0 +1,289 @@
+package org.bsc.langgraph4j.internal.plan;
+
+import org.bsc.langgraph4j.GraphPath;
+import org.bsc.langgraph4j.RunnableConfig;
+import org.bsc.langgraph4j.action.AsyncCommandAction;
+import org.bsc.langgraph4j.action.AsyncNodeActionWithConfig;
+import org.bsc.langgraph4j.internal.edge.EdgeValue;
+import org.bsc.langgraph4j.state.AgentState;
+
+import java.util.*;
+
+import static java.util.Objects.requireNonNull;
+import static org.bsc.langgraph4j.StateGraph.END;
+import static org.bsc.langgraph4j.StateGraph.START;
+
+/**
+ * Immutable execution plan of a compiled graph.
+ * <p>
+ * Each node is identified by an integer index, the targets of its outgoing edge ( including the ones of
+ * the conditional mappings ) are resolved at compile time and the interruptions are kept in bitsets,
+ * so stepping through the graph doesn't require any lookup by node id.
+ * </p>
+ *
+ * @param <State> the type of the state
+ */
+public final class ExecutionPlan<State extends AgentState> {
+
+    public static final int START_INDEX = -1;
+    public static final int END_INDEX = -2;
+    /**
+     * index of the targets that are not nodes of the plan ( e.g. the interrupt after marker )
+     */
+    public static final int UNKNOWN_INDEX = -3;
+
+    /**
+     * A transition target
+     *
+     * @param index the index of the target node, or a negative index if it is not a node
+     * @param id the id of the target
+     */
+    public record Target( int index, String id ) {
+
+        public Target {
+            requireNonNull( id, "id cannot be null" );
+        }
+
+        public boolean isNode() {
+            return index >= 0;
+        }
+
+        public boolean isStart() {
+            return index == START_INDEX;
+        }
+
+        public boolean isEnd() {
+            return index == END_INDEX;
+        }
+    }
+
+    /**
+     * The outgoing edge of a node with its targets already resolved
+     *
+     * @param target the target of a static edge, {@code null} for a conditional edge
+     * @param condition the action of a conditional edge, {@code null} for a static edge
+     * @param mappings the targets of a conditional edge by the labels returned by the condition
+     * @param <State> the type of the state
+     */
+    public record Route<State extends AgentState>( Target target,
+                                                   AsyncCommandAction<State> condition,
+                                                   Map<String,Target> mappings ) {
+
+        public boolean isConditional() {
+            return target == null;
+        }
+
+        /**
+         * Returns the target mapped to the given label of a conditional edge
+         *
+         * @param label the label returned by the condition
+         * @return the target, if mapped
+         */
+        public Optional<Target> resolve( String label ) {
+            return Optional.ofNullable( mappings.get( label ) );
+        }
+    }
+
+    /**
+     * A node of the plan
+     *
+     * @param target the node as transition target
+     * @param action the node action
+     * @param route the outgoing edge, {@code null} if the node has no outgoing edge
+     * @param metadata the metadata added to the configuration given to the node
+     * @param rootMetadata the metadata added to the configuration given to the node of a root graph
+     * @param <State> the type of the state
+     */
+    public record Step<State extends AgentState>( Target target,
+                                                  AsyncNodeActionWithConfig<State> action,
+                                                  Route<State> route,
+                                                  Map<String,Object> metadata,
+                                                  Map<String,Object> rootMetadata ) {
+
+        public int index() {
+            return target.index();
+        }
+
+        public String id() {
+            return target.id();
+        }
+
+        /**
+         * Returns the configuration given to the node action and to the condition of its outgoing edge
+         *
+         * @param config the configuration of the graph execution
+         * @return the configuration of the node
+         */
+        public RunnableConfig config( RunnableConfig config ) {
+            return config.updateMetadata( metadataFor( config ) );
+        }
+
+        /**
+         * Checks whether the given configuration already carries all the metadata of the node, node id, graph id
+         * and graph path, so it can be reused as the configuration of the node
+         *
+         * @param config the configuration to check
+         * @return true if the configuration is the one of the node
+         */
+        public boolean hasConfig( RunnableConfig config ) {
+            for( var entry : metadataFor( config ).entrySet() ) {
+                if( !Objects.equals( config.metadata( entry.getKey() ).orElse( null ), entry.getValue() ) ) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private Map<String,Object> metadataFor( RunnableConfig config ) {
+            return ( config.graphPath().isEmpty() ) ? rootMetadata : metadata;
+        }
+    }
+
+    private static final Target START_TARGET = new Target( START_INDEX, START );
+    private static final Target END_TARGET = new Target( END_INDEX, END );
+
+    private final List<Step<State>> steps;
+    private final Map<String, Target> targetsById;
+    private final Route<State> entryPoint;
+    private final BitSet interruptsBefore;
+    private final BitSet interruptsAfter;
+
+    /**
+     * Builds the execution plan
+     *
+     * @param nodes the node actions by node id
+     * @param edges the outgoing edges by source id, including {@link org.bsc.langgraph4j.StateGraph#START}
+     * @param interruptsBefore the ids of the nodes to interrupt before
+     * @param interruptsAfter the ids of the nodes to interrupt after
+     * @param graphId the id of the graph, if any
+     * @param <State> the type of the state
+     * @return the execution plan
+     */
+    public static <State extends AgentState> ExecutionPlan<State> of( Map<String, AsyncNodeActionWithConfig<State>> nodes,
+                                                                      Map<String, EdgeValue<State>> edges,
+                                                                      Set<String> interruptsBefore,
+                                                                      Set<String> interruptsAfter,
+                                                                      Optional<String> graphId ) {
+        return new ExecutionPlan<>( nodes, edges, interruptsBefore, interruptsAfter, graphId );
+    }
+
+    private ExecutionPlan( Map<String, AsyncNodeActionWithConfig<State>> nodes,
+                           Map<String, EdgeValue<State>> edges,
+                           Set<String> interruptsBefore,
+                           Set<String> interruptsAfter,
+                           Optional<String> graphId ) {
+
+        final var targets = new HashMap<String, Target>( nodes.size() + 2 );
+        targets.put( START, START_TARGET );
+        targets.put( END, END_TARGET );
+        int index = 0;
+        for( var nodeId : nodes.keySet() ) {
+            targets.put( nodeId, new Target( index++, nodeId ) );
+        }
+        this.targetsById = Map.copyOf( targets );
+
+        final var steps = new ArrayList<Step<State>>( nodes.size() );
+        for( var node : nodes.entrySet() ) {
+            final var target = targetsById.get( node.getKey() );
+
+            final var metadata = new HashMap<String,Object>(2);
+            metadata.put( RunnableConfig.NODE_ID, target.id() );
+            graphId.ifPresent( id -> metadata.put( RunnableConfig.GRAPH_ID, id ) );
+            final var rootMetadata = new HashMap<>( metadata );
+            // to avoid add graphId in subgraph cases
+            graphId.ifPresent( id -> rootMetadata.put( RunnableConfig.GRAPH_PATH, GraphPath.empty().append(id) ) );
+
+            steps.add( new Step<>( target,
+                                    node.getValue(),
+                                    route( edges.get( node.getKey() ) ),
+                                    Map.copyOf( metadata ),
+                                    Map.copyOf( rootMetadata ) ) );
+        }
+        this.steps = List.copyOf( steps );
+        this.entryPoint = route( edges.get( START ) );
+        this.interruptsBefore = bitSet( interruptsBefore );
+        this.interruptsAfter = bitSet( interruptsAfter );
+    }
+
+    private Route<State> route( EdgeValue<State> edge ) {
+        if( edge == null ) {
+            return null;
+        }
+        if( edge.id() != null ) {
+            return new Route<>( target( edge.id() ), null, Map.of() );
+        }
+        if( edge.value() != null ) {
+            final var mappings = new HashMap<String, Target>();
+            edge.value().mappings().forEach( ( label, id ) -> mappings.put( label, target( id ) ) );
+            return new Route<>( null, edge.value().action(), Map.copyOf( mappings ) );
+        }
+        return null;
+    }
+
+    private BitSet bitSet( Set<String> nodeIds ) {
+        final var result = new BitSet( steps.size() );
+        for( var nodeId : nodeIds ) {
+            final var target = target( nodeId );
+            if( target.isNode() ) {
+                result.set( target.index() );
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Resolves the given id. It performs a lookup, so it is meant to be used only when entering the plan
+     * ( e.g. resuming from a checkpoint ).
+     *
+     * @param id the id
+     * @return the target, with {@link #UNKNOWN_INDEX} if it is not a node of the plan
+     */
+    public Target target( String id ) {
+        requireNonNull( id, "id cannot be null" );
+        final var result = targetsById.get( id );
+        return ( result != null ) ? result : new Target( UNKNOWN_INDEX, id );
+    }
+
+    public Target start() {
+        return START_TARGET;
+    }
+
+    public Target end() {
+        return END_TARGET;
+    }
+
+    /**
+     * Returns the node identified by the given target
+     *
+     * @param target the target
+     * @return the node, if the target is a node of the plan
+     */
+    public Optional<Step<State>> step( Target target ) {
+        return ( target != null && target.isNode() ) ? Optional.of( steps.get( target.index() ) ) : Optional.empty();
+    }
+
+    /**
+     * Returns the outgoing edge of the given target
+     *
+     * @param target the target
+     * @return the route, {@code null} if there is no outgoing edge
+     */
+    public Route<State> route( Target target ) {
+        if( target.isStart() ) {
+            return entryPoint;
+        }
+        return step( target ).map( Step::route ).orElse( null );
+    }
+
+    public boolean isInterruptBefore( Target target ) {
+        return target.isNode() && interruptsBefore.get( target.index() );
+    }
+
+    public boolean isInterruptAfter( Target target ) {
+        return target.isNode() && interruptsAfter.get( target.index() );
+    }
+
+    public int size() {
+        return steps.size();
+    }
+}
@@ -0,0 +1,89 @@
+package org.bsc.langgraph4j.internal.state;
+
+import org.bsc.langgraph4j.serializer.StateSerializer;
+import org.bsc.langgraph4j.state.Channel;
+import org.bsc.langgraph4j.state.OpaqueValue;
+import org.bsc.langgraph4j.utils.PersistentMap;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
+
+/**
+ * Utility to take a snapshot of the state data without serializing the whole state.
+ * <p>
+ * Values are shared, unless their channel provides a copier or they are {@link OpaqueValue}s. The opaque
+ * values are cloned together, with a single round trip through the state serializer.
+ * Unchanged state data is returned as is, so a {@link PersistentMap} backend costs O(mutable values).
+ * </p>
+ */
+public final class StateSnapshots {
+
+    private StateSnapshots() {}
+
+    /**
+     * Takes a snapshot of the given state data
+     *
+     * @param data the state data
+     * @param channels the channels of the state schema
+     * @param serializer the serializer used to clone the opaque values
+     * @return the snapshot of the state data, the same instance if all values can be shared
+     * @throws IOException if an I/O error occurs during serialization
+     * @throws ClassNotFoundException if a class cannot be found during deserialization
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String,Object> structuralCopyOf( Map<String,Object> data,
+                                                       Map<String, Channel<?>> channels,
+                                                       StateSerializer<?> serializer ) throws IOException, ClassNotFoundException {
+        Map<String,Object> copies = null;
+        Map<String,Object> opaques = null;
+
+        for( var entry : data.entrySet() ) {
+            final var value = entry.getValue();
+            if( value == null ) {
+                continue;
+            }
+
+            final var channel = (Channel<Object>)channels.get( entry.getKey() );
+            final var copier = ( channel != null ) ? channel.getCopier() : Optional.<UnaryOperator<Object>>empty();
+
+            if( copier.isPresent() ) {
+                if( copies == null ) {
+                    copies = new HashMap<>();
+                }
+                copies.put( entry.getKey(), copier.get().apply(value) );
+            }
+            else if( value instanceof OpaqueValue ) {
+                if( opaques == null ) {
+                    opaques = new HashMap<>();
+                }
+                opaques.put( entry.getKey(), value );
+            }
+        }
+
+        if( opaques != null ) {
+            if( copies == null ) {
+                copies = new HashMap<>();
+            }
+            copies.putAll( serializer.cloneObject( opaques ).data() );
+        }
+
+        if( copies == null ) {
+            return data;
+        }
+
+        if( data instanceof PersistentMap<String,Object> persistent ) {
+            var result = persistent;
+            for( var copy : copies.entrySet() ) {
+                result = result.plus( copy.getKey(), copy.getValue() );
+            }
+            return result;
+        }
+
+        final var result = new HashMap<>(data);
+        result.putAll( copies );
+        return result;
+    }
+}
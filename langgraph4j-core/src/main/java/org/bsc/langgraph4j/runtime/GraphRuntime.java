@@ -0,0 +1,589 @@
+package org.bsc.langgraph4j.runtime;
+
+import org.bsc.langgraph4j.CompiledGraph;
+import org.bsc.langgraph4j.GraphInput;
+import org.bsc.langgraph4j.LG4JLoggable;
+import org.bsc.langgraph4j.RunnableConfig;
+import org.bsc.langgraph4j.state.AgentState;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Runtime that shares a pool of worker threads among the graph executions of many tenants.
+ * <p>
+ * The submitted runs are admitted up to a global and a per tenant concurrency limit, and only when a worker
+ * thread is free, the others wait in priority lanes. Within a lane the tenants are served by weighted fair
+ * queuing, so a bursty tenant can't starve the others. When the queue, or the queue of the tenant, is full the
+ * submission is rejected with a {@link RejectedExecutionException}. The runs sharing a thread id run on the same worker thread when it is free,
+ * so that the steps of a conversation stay on a warm cache, otherwise on another free worker.
+ * </p>
+ * <pre>
+ * try( var runtime = GraphRuntime.builder()
+ *                      .parallelism( 8 )
+ *                      .maxQueued( 1000 )
+ *                      .maxQueuedPerTenant( 100 )
+ *                      .tenant( "premium", 3, 8, 500 )
+ *                      .build() ) {
+ *
+ *     var state = runtime.invoke( "premium", GraphRuntime.Priority.HIGH, graph, input, config ).join();
+ * }
+ * </pre>
+ */
+public final class GraphRuntime implements AutoCloseable, LG4JLoggable {
+
+    /**
+     * The lanes of the queue, the runs of a lane are started only when the higher lanes are empty
+     */
+    public enum Priority {
+        HIGH,
+        NORMAL,
+        LOW
+    }
+
+    /**
+     * Metrics of a tenant
+     *
+     * @param running the number of running executions
+     * @param queued the number of executions waiting to start
+     * @param completed the number of completed executions
+     * @param rejected the number of rejected submissions
+     * @param averageWait the average time waited by the started executions, from the submission to the start on
+     *                    a worker thread
+     * @param maxWait the maximum time waited by the started executions, from the submission to the start on
+     *                a worker thread
+     */
+    public record TenantMetrics( int running, int queued, long completed, long rejected, Duration averageWait, Duration maxWait ) {}
+
+    /**
+     * Metrics of the runtime
+     *
+     * @param running the number of running executions
+     * @param queued the number of executions waiting to start
+     * @param rejected the number of rejected submissions
+     * @param tenants the metrics by tenant
+     */
+    public record Metrics( int running, int queued, long rejected, Map<String, TenantMetrics> tenants ) {}
+
+    /**
+     * A builder for {@link GraphRuntime}
+     */
+    public static class Builder {
+        private record TenantConfig( int weight, int maxConcurrency, Integer maxQueued ) {}
+
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+        private Integer maxConcurrency;
+        private int maxQueued = Integer.MAX_VALUE;
+        private int maxQueuedPerTenant = Integer.MAX_VALUE;
+        private String threadNamePrefix = "graph-runtime";
+        private final Map<String, TenantConfig> tenants = new HashMap<>();
+
+        private Builder() {}
+
+        /**
+         * Sets the number of worker threads (default: number of available processors).
+         *
+         * @param parallelism the number of worker threads
+         * @return this builder
+         */
+        public Builder parallelism( int parallelism ) {
+            if( parallelism <= 0 ) {
+                throw new IllegalArgumentException("parallelism must be > 0!");
+            }
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of executions running at the same time (default: the parallelism).
+         * Since each execution takes a worker thread, it is bounded by the parallelism anyway.
+         *
+         * @param maxConcurrency the maximum number of running executions
+         * @return this builder
+         */
+        public Builder maxConcurrency( int maxConcurrency ) {
+            if( maxConcurrency <= 0 ) {
+                throw new IllegalArgumentException("maxConcurrency must be > 0!");
+            }
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of executions waiting to start, beyond which the submissions are rejected
+         * (default: unbounded).
+         *
+         * @param maxQueued the maximum number of queued executions
+         * @return this builder
+         */
+        public Builder maxQueued( int maxQueued ) {
+            if( maxQueued < 0 ) {
+                throw new IllegalArgumentException("maxQueued must be >= 0!");
+            }
+            this.maxQueued = maxQueued;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of executions of a tenant waiting to start, beyond which the submissions of the
+         * tenant are rejected (default: unbounded). It applies to the tenants not configured by
+         * {@link #tenant(String, int, int, int)}, so that a bursty tenant can't fill the whole queue.
+         *
+         * @param maxQueuedPerTenant the maximum number of queued executions of a tenant
+         * @return this builder
+         */
+        public Builder maxQueuedPerTenant( int maxQueuedPerTenant ) {
+            if( maxQueuedPerTenant < 0 ) {
+                throw new IllegalArgumentException("maxQueuedPerTenant must be >= 0!");
+            }
+            this.maxQueuedPerTenant = maxQueuedPerTenant;
+            return this;
+        }
+
+        /**
+         * Sets the prefix of the names of the worker threads (default "graph-runtime").
+         *
+         * @param threadNamePrefix the prefix
+         * @return this builder
+         */
+        public Builder threadNamePrefix( String threadNamePrefix ) {
+            this.threadNamePrefix = requireNonNull( threadNamePrefix, "threadNamePrefix cannot be null" );
+            return this;
+        }
+
+        /**
+         * Configures a tenant, whose queued executions are bounded by {@link #maxQueuedPerTenant(int)}.
+         * The tenants not configured have weight 1 and the global concurrency limit.
+         *
+         * @param tenantId the id of the tenant
+         * @param weight the share of the tenant relative to the others when competing for the workers
+         * @param maxConcurrency the maximum number of executions of the tenant running at the same time
+         * @return this builder
+         */
+        public Builder tenant( String tenantId, int weight, int maxConcurrency ) {
+            return addTenant( tenantId, weight, maxConcurrency, null );
+        }
+
+        /**
+         * Configures a tenant. The tenants not configured have weight 1, the global concurrency limit and
+         * {@link #maxQueuedPerTenant(int)} queued executions.
+         *
+         * @param tenantId the id of the tenant
+         * @param weight the share of the tenant relative to the others when competing for the workers
+         * @param maxConcurrency the maximum number of executions of the tenant running at the same time
+         * @param maxQueued the maximum number of executions of the tenant waiting to start
+         * @return this builder
+         */
+        public Builder tenant( String tenantId, int weight, int maxConcurrency, int maxQueued ) {
+            if( maxQueued < 0 ) {
+                throw new IllegalArgumentException("maxQueued must be >= 0!");
+            }
+            return addTenant( tenantId, weight, maxConcurrency, maxQueued );
+        }
+
+        private Builder addTenant( String tenantId, int weight, int maxConcurrency, Integer maxQueued ) {
+            requireNonNull( tenantId, "tenantId cannot be null" );
+            if( weight <= 0 ) {
+                throw new IllegalArgumentException("weight must be > 0!");
+            }
+            if( maxConcurrency <= 0 ) {
+                throw new IllegalArgumentException("maxConcurrency must be > 0!");
+            }
+            tenants.put( tenantId, new TenantConfig( weight, maxConcurrency, maxQueued ) );
+            return this;
+        }
+
+        public GraphRuntime build() {
+            return new GraphRuntime( this );
+        }
+    }
+
+    /**
+     * Creates a new builder
+     *
+     * @return a new {@link Builder} instance
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private final class Run<T> {
+        final Tenant tenant;
+        final Priority priority;
+        final String affinityKey;
+        final Callable<T> task;
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        final long enqueuedNanos = System.nanoTime();
+        int worker;
+        Future<?> execution;
+
+        Run( Tenant tenant, Priority priority, String affinityKey, Callable<T> task ) {
+            this.tenant = tenant;
+            this.priority = priority;
+            this.affinityKey = affinityKey;
+            this.task = task;
+        }
+
+        void start( ExecutorService worker ) {
+            final var execution = new FutureTask<>( task ) {
+                @Override
+                public void run() {
+                    // the worker is run also when the task has been cancelled before starting. It holds the slot
+                    // until it leaves the task, even if cancelled while running, and releases it before completing
+                    // the result, so that the metrics are consistent with the completed results
+                    try {
+                        if( !isDone() ) {
+                            started( Run.this );
+                        }
+                        super.run();
+                    }
+                    finally {
+                        completed( Run.this );
+                        complete( this );
+                    }
+                }
+            };
+            this.execution = execution;
+            worker.execute( execution );
+        }
+
+        private void complete( FutureTask<T> execution ) {
+            try {
+                result.complete( execution.get() );
+            }
+            catch( CancellationException ex ) {
+                result.cancel( false );
+            }
+            catch( ExecutionException ex ) {
+                result.completeExceptionally( ex.getCause() );
+            }
+            catch( InterruptedException ex ) {
+                result.completeExceptionally( ex );
+            }
+        }
+    }
+
+    private static final class Tenant {
+        final String id;
+        final int weight;
+        final int maxConcurrency;
+        final int maxQueued;
+        final List<ArrayDeque<Run<?>>> lanes;
+        // the virtual time of the next run of the tenant, it advances by 1/weight at each run
+        double virtualTime;
+        int running;
+        int queued;
+        long completed;
+        long rejected;
+        long started;
+        long totalWaitNanos;
+        long maxWaitNanos;
+
+        Tenant( String id, int weight, int maxConcurrency, int maxQueued ) {
+            this.id = id;
+            this.weight = weight;
+            this.maxConcurrency = maxConcurrency;
+            this.maxQueued = maxQueued;
+            this.lanes = Stream.of( Priority.values() )
+                    .map( priority -> new ArrayDeque<Run<?>>() )
+                    .toList();
+        }
+
+        ArrayDeque<Run<?>> lane( Priority priority ) {
+            return lanes.get( priority.ordinal() );
+        }
+
+        TenantMetrics metrics() {
+            return new TenantMetrics( running,
+                    queued,
+                    completed,
+                    rejected,
+                    Duration.ofNanos( ( started == 0 ) ? 0 : totalWaitNanos / started ),
+                    Duration.ofNanos( maxWaitNanos ) );
+        }
+    }
+
+    private final Builder config;
+    private final int maxConcurrency;
+    private final ExecutorService[] workers;
+    private final boolean[] busyWorkers;
+    private int idleWorkers;
+    private final Map<String, Tenant> tenants = new LinkedHashMap<>();
+    // the virtual time of the last started run
+    private double virtualClock;
+    private int running;
+    private int queued;
+    private long rejected;
+    private boolean closed;
+
+    private GraphRuntime( Builder builder ) {
+        this.config = builder;
+        this.maxConcurrency = ( builder.maxConcurrency != null ) ? builder.maxConcurrency : builder.parallelism;
+        this.workers = new ExecutorService[builder.parallelism];
+        this.busyWorkers = new boolean[builder.parallelism];
+        this.idleWorkers = builder.parallelism;
+        for( int i = 0; i < workers.length; ++i ) {
+            final var name = "%s-%d".formatted( builder.threadNamePrefix, i );
+            workers[i] = Executors.newSingleThreadExecutor( runnable -> {
+                var thread = new Thread( runnable, name );
+                thread.setDaemon( true );
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Submits the execution of a graph. The thread id of the configuration, if any, is the affinity key of the
+     * execution.
+     *
+     * @param tenantId the id of the tenant
+     * @param priority the priority of the execution
+     * @param graph the graph to run
+     * @param input the input of the graph
+     * @param config the configuration of the execution
+     * @param <State> the type of the state
+     * @return a future of the final state, failed with {@link RejectedExecutionException} if the queue is full
+     */
+    public <State extends AgentState> CompletableFuture<Optional<State>> invoke( String tenantId,
+                                                                                Priority priority,
+                                                                                CompiledGraph<State> graph,
+                                                                                GraphInput input,
+                                                                                RunnableConfig config ) {
+        requireNonNull( graph, "graph cannot be null" );
+        requireNonNull( input, "input cannot be null" );
+        requireNonNull( config, "config cannot be null" );
+        return submit( tenantId, priority, config.threadId().orElse( null ), () -> graph.invoke( input, config ) );
+    }
+
+    /**
+     * Submits a task
+     *
+     * @param tenantId the id of the tenant
+     * @param priority the priority of the task
+     * @param affinityKey the key of the worker thread preferred by the task, if free, {@code null} if any
+     * @param task the task
+     * @param <T> the type of the result
+     * @return a future of the result, failed with {@link RejectedExecutionException} if the queue is full.
+     *         Cancelling it removes the task from the queue, or interrupts it if already started.
+     */
+    public <T> CompletableFuture<T> submit( String tenantId, Priority priority, String affinityKey, Callable<T> task ) {
+        requireNonNull( tenantId, "tenantId cannot be null" );
+        requireNonNull( priority, "priority cannot be null" );
+        requireNonNull( task, "task cannot be null" );
+
+        final Run<T> run;
+        synchronized( this ) {
+            final var tenant = tenant( tenantId );
+            if( closed ) {
+                return CompletableFuture.failedFuture( new RejectedExecutionException( "runtime is closed!" ) );
+            }
+            if( !canStart( tenant ) ) {
+                if( queued >= config.maxQueued ) {
+                    return rejected( tenant, "queue is full, %d executions are waiting!".formatted( queued ) );
+                }
+                if( tenant.queued >= tenant.maxQueued ) {
+                    return rejected( tenant, "queue of tenant '%s' is full, %d executions are waiting!"
+                            .formatted( tenant.id, tenant.queued ) );
+                }
+            }
+
+            run = new Run<>( tenant, priority, affinityKey, task );
+            if( tenant.queued == 0 ) {
+                // an idle tenant doesn't accumulate credit
+                tenant.virtualTime = Math.max( tenant.virtualTime, virtualClock );
+            }
+            tenant.lane( priority ).addLast( run );
+            ++tenant.queued;
+            ++queued;
+
+            dispatch();
+        }
+
+        run.result.whenComplete( ( value, ex ) -> {
+            if( run.result.isCancelled() ) {
+                cancelled( run );
+            }
+        });
+        return run.result;
+    }
+
+    private <T> CompletableFuture<T> rejected( Tenant tenant, String message ) {
+        ++rejected;
+        ++tenant.rejected;
+        return CompletableFuture.failedFuture( new RejectedExecutionException( message ) );
+    }
+
+    private Tenant tenant( String tenantId ) {
+        return tenants.computeIfAbsent( tenantId, id -> {
+            final var tenantConfig = config.tenants.get( id );
+            return ( tenantConfig != null ) ?
+                    new Tenant( id,
+                            tenantConfig.weight(),
+                            tenantConfig.maxConcurrency(),
+                            ( tenantConfig.maxQueued() != null ) ? tenantConfig.maxQueued() : config.maxQueuedPerTenant ) :
+                    new Tenant( id, 1, maxConcurrency, config.maxQueuedPerTenant );
+        });
+    }
+
+    private boolean canStart( Tenant tenant ) {
+        return running < maxConcurrency && idleWorkers > 0 && tenant.running < tenant.maxConcurrency;
+    }
+
+    /**
+     * Starts the queued runs while there is capacity and a free worker: the highest lane first, then the tenant
+     * with the lowest virtual time.
+     */
+    private void dispatch() {
+        while( running < maxConcurrency && idleWorkers > 0 && queued > 0 ) {
+            Tenant next = null;
+            for( int lane = 0; lane < Priority.values().length && next == null; ++lane ) {
+                for( var tenant : tenants.values() ) {
+                    if( tenant.lanes.get( lane ).isEmpty() || tenant.running >= tenant.maxConcurrency ) {
+                        continue;
+                    }
+                    if( next == null || tenant.virtualTime < next.virtualTime ) {
+                        next = tenant;
+                    }
+                }
+                if( next != null ) {
+                    start( next, next.lanes.get( lane ).pollFirst() );
+                }
+            }
+            if( next == null ) {
+                // the tenants with queued runs have reached their limit
+                return;
+            }
+        }
+    }
+
+    private void start( Tenant tenant, Run<?> run ) {
+        --tenant.queued;
+        --queued;
+
+        virtualClock = tenant.virtualTime;
+        tenant.virtualTime += 1.0 / tenant.weight;
+
+        ++running;
+        ++tenant.running;
+
+        run.worker = worker( run.affinityKey );
+        busyWorkers[run.worker] = true;
+        --idleWorkers;
+        try {
+            run.start( workers[run.worker] );
+        }
+        catch( RejectedExecutionException ex ) {
+            run.result.completeExceptionally( ex );
+            busyWorkers[run.worker] = false;
+            ++idleWorkers;
+            --running;
+            --tenant.running;
+        }
+    }
+
+    /**
+     * Returns a free worker: the one of the affinity key, if free, otherwise the first free one
+     */
+    private int worker( String affinityKey ) {
+        if( affinityKey != null ) {
+            final var preferred = Math.floorMod( affinityKey.hashCode(), workers.length );
+            if( !busyWorkers[preferred] ) {
+                return preferred;
+            }
+        }
+        for( int i = 0; i < busyWorkers.length; ++i ) {
+            if( !busyWorkers[i] ) {
+                return i;
+            }
+        }
+        throw new IllegalStateException( "no free worker!" );
+    }
+
+    /**
+     * Records the time waited by the run, until a worker thread starts it
+     */
+    private synchronized void started( Run<?> run ) {
+        final var wait = System.nanoTime() - run.enqueuedNanos;
+        ++run.tenant.started;
+        run.tenant.totalWaitNanos += wait;
+        run.tenant.maxWaitNanos = Math.max( run.tenant.maxWaitNanos, wait );
+    }
+
+    private synchronized void completed( Run<?> run ) {
+        busyWorkers[run.worker] = false;
+        ++idleWorkers;
+        --running;
+        --run.tenant.running;
+        ++run.tenant.completed;
+        if( !closed ) {
+            dispatch();
+        }
+    }
+
+    private synchronized void cancelled( Run<?> run ) {
+        if( run.execution != null ) {
+            run.execution.cancel( true );
+        }
+        else if( run.tenant.lane( run.priority ).remove( run ) ) {
+            --run.tenant.queued;
+            --queued;
+        }
+    }
+
+    /**
+     * Returns the current metrics
+     *
+     * @return the metrics
+     */
+    public synchronized Metrics metrics() {
+        final var result = new LinkedHashMap<String, TenantMetrics>();
+        tenants.forEach( ( id, tenant ) -> result.put( id, tenant.metrics() ) );
+        return new Metrics( running, queued, rejected, Collections.unmodifiableMap( result ) );
+    }
+
+    /**
+     * Cancels the queued executions and stops the worker threads once the running ones are completed
+     */
+    @Override
+    public void close() {
+        final var pending = new ArrayList<Run<?>>();
+        synchronized( this ) {
+            if( closed ) {
+                return;
+            }
+            closed = true;
+            for( var tenant : tenants.values() ) {
+                for( var lane : tenant.lanes ) {
+                    pending.addAll( lane );
+                    lane.clear();
+                }
+                tenant.queued = 0;
+            }
+            queued = 0;
+        }
+        pending.forEach( run -> run.result.completeExceptionally( new CancellationException( "runtime is closed!" ) ) );
+        for( var worker : workers ) {
+            worker.shutdown();
+        }
+        log.debug( "graph runtime closed, {} queued executions cancelled", pending.size() );
+    }
+}
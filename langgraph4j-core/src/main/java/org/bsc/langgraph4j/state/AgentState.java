@@ -1,6 +1,7 @@
 package org.bsc.langgraph4j.state;
 
 import org.bsc.langgraph4j.utils.CollectionsUtils;
+import org.bsc.langgraph4j.utils.PersistentMap;
 
 import java.util.*;
 import java.util.function.BinaryOperator;
@@ -23,11 +24,14 @@ public class AgentState {
 
     /**
      * Constructs an AgentState with the given initial data.
+     * If the initial data is a {@link PersistentMap} it is shared instead of copied.
      *
      * @param initData the initial data for the agent state
      */
     public AgentState(Map<String,Object> initData) {
-        this.data = new HashMap<>(initData);
+        this.data = ( initData instanceof PersistentMap<String,Object> persistentData ) ?
+                persistentData :
+                new HashMap<>(initData);
     }
 
     /**
@@ -36,6 +40,9 @@ public class AgentState {
      * @return an unmodifiable map of the data
      */
     public final java.util.Map<String,Object> data() {
+        if( data instanceof PersistentMap<String,Object> ) { // already immutable
+            return data;
+        }
         return unmodifiableMap(data);
     }
 
@@ -124,9 +131,43 @@ public class AgentState {
     }
 
 
+    /**
+     * Updates a persistent state touching only the keys contained in the partial state.
+     * All the other entries are shared with the given state.
+     *
+     * @param state the current persistent state
+     * @param partialState the partial state to update from
+     * @param channels the channels used to update the partial state if necessary
+     * @return the updated persistent state
+     */
+    private static Map<String,Object> updatePersistentState( PersistentMap<String,Object> state, Map<String,Object> partialState, Map<String, Channel<?>> channels ) {
+        var result = state;
+
+        for( var entry : partialState.entrySet() ) {
+            final var key = entry.getKey();
+            var value = entry.getValue();
+
+            final Channel<?> channel = ( channels != null ) ? channels.get(key) : null;
+            if (channel != null) {
+                value = channel.update( key, state.get(key), value );
+            }
+
+            if( value == null || value == MARK_FOR_RESET || value == MARK_FOR_REMOVAL) {
+                result = result.minus(key);
+            }
+            else {
+                result = result.plus(key, value);
+            }
+        }
+        return result;
+    }
+
     /**
      * Updates a state with the provided partial state.
      * The merge function is used to merge the current state value with the new value.
+     * <p>
+     * If the state is a {@link PersistentMap} the result is a {@link PersistentMap} too, and only the
+     * updated keys are touched.
      *
      * @param state the current state
      * @param partialState the partial state to update from
@@ -140,6 +181,10 @@ public class AgentState {
             return state;
         }
 
+        if( state instanceof PersistentMap<String,Object> persistentState ) {
+            return updatePersistentState( persistentState, partialState, channels );
+        }
+
         Map<String, Object> updatedPartialState = updatePartialStateFromSchema(state, partialState, channels);
 
         return  Stream.concat( state.entrySet().stream(), updatedPartialState.entrySet().stream())
@@ -1,10 +1,14 @@
 package org.bsc.langgraph4j.state;
 
 
+import org.bsc.langgraph4j.utils.PersistentMap;
+
 import java.util.Map;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import static java.util.Objects.requireNonNull;
+
 /**
  * A factory interface for creating instances of {@link AgentState}.
  *
@@ -32,4 +36,61 @@ public interface AgentStateFactory<State extends AgentState> extends Function<Ma
         return apply( initialDataFromSchema(schema) );
     }
 
-}
\ No newline at end of file
+    /**
+     * Converts the given state data in the map implementation used by the states created by this factory.
+     * The default implementation returns the given data as is.
+     *
+     * @param data the state data
+     * @return the state data in the map implementation used by this factory
+     */
+    default Map<String,Object> stateData( Map<String,Object> data ) {
+        return data;
+    }
+
+    /**
+     * Creates a factory whose states are backed by a {@link PersistentMap}.
+     * <p>
+     * With this backend {@link AgentState#updateState(Map, Map, Map)} costs O(changed keys) and the
+     * unchanged values are shared between successive states.
+     * </p>
+     * <pre>
+     * var workflow = new StateGraph&lt;&gt;( MyState.SCHEMA, AgentStateFactory.persistent( MyState::new ) );
+     * </pre>
+     *
+     * @param factory the factory used to create the state instances
+     * @param <State> the type of the agent state
+     * @return a factory that creates states backed by a persistent map
+     */
+    static <State extends AgentState> AgentStateFactory<State> persistent( AgentStateFactory<State> factory ) {
+        requireNonNull( factory, "factory cannot be null");
+        if( factory instanceof Persistent<State> ) {
+            return factory;
+        }
+        return new Persistent<>(factory);
+    }
+
+    /**
+     * Factory that creates states backed by a {@link PersistentMap}
+     *
+     * @param delegate the factory used to create the state instances
+     * @param <State> the type of the agent state
+     */
+    record Persistent<State extends AgentState>( AgentStateFactory<State> delegate ) implements AgentStateFactory<State> {
+
+        @Override
+        public State apply(Map<String, Object> data) {
+            return delegate.apply( stateData(data) );
+        }
+
+        @Override
+        public Map<String, Object> initialDataFromSchema(Map<String, Channel<?>> schema) {
+            return PersistentMap.copyOf( delegate.initialDataFromSchema(schema) );
+        }
+
+        @Override
+        public Map<String, Object> stateData(Map<String, Object> data) {
+            return PersistentMap.copyOf( data );
+        }
+    }
+
+}
@@ -2,6 +2,7 @@ package org.bsc.langgraph4j.state;
 
 import java.util.*;
 import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 
 import org.bsc.langgraph4j.LG4JLoggable;
 
@@ -55,9 +56,14 @@ public class AppenderChannel<T> implements Channel<List<T>>, LG4JLoggable {
             if (left == null) {
                 return right;
             }
+            // index the hashes of the current values once, instead of scanning them for each new value
+            final var hashes = new HashSet<Integer>( left.size() + right.size() );
+            for (T lValue : left) {
+                hashes.add( Objects.hash(lValue) );
+            }
             for (T rValue : right) {
                 // remove duplicate
-                if (left.stream().noneMatch(lValue -> Objects.hash(lValue) == Objects.hash(rValue))) {
+                if ( hashes.add( Objects.hash(rValue) ) ) {
                     left.add(rValue);
                 }
             }
@@ -107,6 +113,17 @@ public class AppenderChannel<T> implements Channel<List<T>>, LG4JLoggable {
         return ofNullable(defaultProvider);
     }
 
+    /**
+     * Returns a copier that shares the list through an unmodifiable view. The reducers append in place only
+     * to the copy returned by {@link #oldValuesToReduce(List)}, so the list in the state is never modified.
+     *
+     * @return an {@code Optional} containing the list copier
+     */
+    @Override
+    public Optional<UnaryOperator<List<T>>> getCopier() {
+        return Optional.of( Collections::unmodifiableList );
+    }
+
     /**
      * Constructs a new instance of {@code AppenderChannel} with the specified default provider.
      *
@@ -126,7 +143,7 @@ public class AppenderChannel<T> implements Channel<List<T>>, LG4JLoggable {
      * @param removeIdentifier An instance of {@link RemoveIdentifier} that defines how to identify elements for removal.
      * @return An unmodifiable view of the modified list with specified elements removed.
      */
-    private List<T> remove(List<T> list, RemoveIdentifier<T> removeIdentifier ) {
+    protected List<T> remove(List<T> list, RemoveIdentifier<T> removeIdentifier ) {
         var result = new ArrayList<>(list);
         removeFromList(result, removeIdentifier);
         return unmodifiableList(result);
@@ -153,19 +170,34 @@ public class AppenderChannel<T> implements Channel<List<T>>, LG4JLoggable {
         }
     }
 
+    /**
+     * Returns the list stored in the channel when all its values are replaced through {@link ReplaceAllWith}.
+     *
+     * @param newValues the new values
+     * @return an immutable copy of the new values
+     */
+    @SuppressWarnings("unchecked")
+    protected List<T> replaceAll(List<?> newValues ) {
+        return (List<T>)List.copyOf(newValues);
+    }
+
+    /**
+     * Returns the old values that will be passed to the reducer.
+     * Since the reducers of this channel append in place, a modifiable copy is returned.
+     *
+     * @param oldValues the old values
+     * @return a modifiable copy of the old values
+     */
+    protected List<T> oldValuesToReduce(List<T> oldValues ) {
+        return new ArrayList<>(oldValues);
+    }
+
     /**
      * Represents a record for data removal operations with generic types.
      * 
      * @param <T> the type of elements in the old values list
      */
-    record RemoveData<T>( List<T> oldValues, List<?> newValues) {
-
-        // copy constructor. make sure to copy the list to make them modifiable
-        public RemoveData {
-            oldValues = new ArrayList<>(oldValues);
-            newValues = new ArrayList<>(newValues);
-        }
-    };
+    record RemoveData<T>( List<T> oldValues, List<?> newValues) {};
 
     /**
      * Evaluates the removal of identifiers from the new values list and updates the RemoveData object accordingly.
@@ -177,17 +209,16 @@ public class AppenderChannel<T> implements Channel<List<T>>, LG4JLoggable {
     @SuppressWarnings("unchecked")
     private RemoveData<T> evaluateRemoval(List<T> oldValues, List<?> newValues ) {
 
-        final var result = new RemoveData<>( oldValues, newValues );
-
-        newValues.stream()
-                 .filter( value -> value instanceof RemoveIdentifier<?> )
-                 .forEach( value -> {
-                        result.newValues().remove( value );
-                        var removeIdentifier = (RemoveIdentifier<T>) value;
-                        removeFromList( result.oldValues(), removeIdentifier );
+        var resultOldValues = oldValues;
+        final var resultNewValues = new ArrayList<Object>(newValues);
 
-                });
-        return result;
+        for( var value : newValues ) {
+            if( value instanceof RemoveIdentifier<?> ) {
+                resultNewValues.remove( value );
+                resultOldValues = remove( resultOldValues, (RemoveIdentifier<T>) value );
+            }
+        }
+        return new RemoveData<>( oldValuesToReduce(resultOldValues), resultNewValues );
 
     }
 
@@ -222,7 +253,7 @@ public class AppenderChannel<T> implements Channel<List<T>>, LG4JLoggable {
 
         try {
             if( newValue instanceof ReplaceAllWith<?> replaceAll ) {
-                return List.copyOf(replaceAll.newValues());
+                return replaceAll(replaceAll.newValues());
             }
             if( oldValueIsList && newValue instanceof RemoveIdentifier<?> ) {
                 return remove( (List<T>)oldValue, (RemoveIdentifier<T>)newValue);
@@ -2,6 +2,7 @@ package org.bsc.langgraph4j.state;
 
 import java.util.Optional;
 import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 
 import static java.util.Optional.ofNullable;
 import static org.bsc.langgraph4j.state.AgentState.MARK_FOR_REMOVAL;
@@ -14,6 +15,7 @@ import static org.bsc.langgraph4j.state.AgentState.MARK_FOR_RESET;
 class BaseChannel<T> implements Channel<T> {
     final Supplier<T> defaultProvider;
     final Reducer<T> reducer;
+    final UnaryOperator<T> copier;
 
     /**
      * Constructs a new BaseChannel with the specified {@code reducer} and {@code defaultProvider}.
@@ -23,8 +25,20 @@ class BaseChannel<T> implements Channel<T> {
      * @throws NullPointerException if either the {@code reducer} or {@code defaultProvider} is null
      */
     BaseChannel(Reducer<T> reducer, Supplier<T> defaultProvider ) {
+        this(reducer, defaultProvider, null);
+    }
+
+    /**
+     * Constructs a new BaseChannel with the specified {@code reducer}, {@code defaultProvider} and {@code copier}.
+     *
+     * @param reducer the function to apply in the reduction process
+     * @param defaultProvider the supplier of default value for operations where no input is provided
+     * @param copier the function used to copy a mutable value when a state snapshot is taken
+     */
+    BaseChannel(Reducer<T> reducer, Supplier<T> defaultProvider, UnaryOperator<T> copier ) {
         this.defaultProvider = defaultProvider;
         this.reducer = reducer;
+        this.copier = copier;
     }
 
     /**
@@ -46,6 +60,15 @@ class BaseChannel<T> implements Channel<T> {
     public Optional<Reducer<T>> getReducer() {
         return ofNullable(reducer);
     }
+
+    /**
+     * Retrieves the copier wrapped in an {@link Optional}.
+     *
+     * @return An {@link Optional} containing the copier if it is non-null, or an empty {@link Optional} if it is null.
+     */
+    public Optional<UnaryOperator<T>> getCopier() {
+        return ofNullable(copier);
+    }
 }
 
 /**
@@ -87,6 +110,15 @@ public interface Channel<T> {
      */
     Optional<Supplier<T>> getDefault();
 
+    /**
+     * The copier, if provided, is used to take a snapshot of a mutable state property without serializing it.
+     * It is used by {@link org.bsc.langgraph4j.CompileConfig.SnapshotStrategy#STRUCTURAL}.
+     *
+     * @return an Optional containing the copier, empty if the channel doesn't provide one
+     */
+    default Optional<UnaryOperator<T>> getCopier() {
+        return Optional.empty();
+    }
 
     default boolean isMarkedForReset( Object value ) {
         return value == null || value == MARK_FOR_RESET ;
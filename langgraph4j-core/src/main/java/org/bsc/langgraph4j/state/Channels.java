@@ -1,7 +1,10 @@
 package org.bsc.langgraph4j.state;
 
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 
 public interface Channels {
 
@@ -13,6 +16,40 @@ public interface Channels {
         return new AppenderChannel<>( new AppenderChannel.ReducerAllowDuplicate<>(), defaultProvider );
     }
 
+    /**
+     * Creates an appender channel, allowing duplicates, whose values are accumulated in a
+     * {@link org.bsc.langgraph4j.utils.PersistentVector} so that each append costs amortized O(1).
+     *
+     * @param <T> the type of the values being accumulated
+     * @return the persistent appender channel
+     */
+    static <T> Channel<List<T>> persistentAppender() {
+        return new PersistentAppenderChannel<>( new PersistentAppenderChannel.ReducerAppend<>() );
+    }
+
+    /**
+     * Creates a persistent appender channel that rejects the values whose hash is already present,
+     * keeping an index of the hashes so the duplicate detection costs O(new values).
+     *
+     * @param <T> the type of the values being accumulated
+     * @return the indexed appender channel
+     */
+    static <T> Channel<List<T>> indexedAppender() {
+        return new IndexedAppenderChannel<T>( Objects::hash );
+    }
+
+    /**
+     * Creates a persistent appender channel that rejects the values whose identity key is already present,
+     * keeping an index of the keys so the duplicate detection costs O(new values).
+     *
+     * @param keyExtractor the function that extracts the identity key of a value ( e.g. the message id )
+     * @param <T> the type of the values being accumulated
+     * @return the indexed appender channel
+     */
+    static <T> Channel<List<T>> indexedAppender( Function<? super T, ?> keyExtractor ) {
+        return new IndexedAppenderChannel<>( keyExtractor );
+    }
+
     static <T>  Channel<T> base( Supplier<T> defaultProvider) {
         return new BaseChannel<>(null, defaultProvider);
     }
@@ -24,4 +61,8 @@ public interface Channels {
     static <T> Channel<T> base( Reducer<T> reducer, Supplier<T> defaultProvider ) {
         return new BaseChannel<>(reducer, defaultProvider);
     }
+
+    static <T> Channel<T> base( Reducer<T> reducer, Supplier<T> defaultProvider, UnaryOperator<T> copier ) {
+        return new BaseChannel<>(reducer, defaultProvider, copier);
+    }
 }
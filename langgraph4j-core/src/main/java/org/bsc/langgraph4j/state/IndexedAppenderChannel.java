@@ -0,0 +1,126 @@
+package org.bsc.langgraph4j.state;
+
+import org.bsc.langgraph4j.utils.PersistentMap;
+import org.bsc.langgraph4j.utils.PersistentVector;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * IndexedAppenderChannel is a {@link PersistentAppenderChannel} that rejects duplicates.
+ * <p>
+ * The accumulated values keep an incremental index of their identity keys, so the duplicate detection
+ * costs O(new values) per update. By default the identity key is the hash of the value ( as for
+ * {@link AppenderChannel.ReducerDisallowDuplicate} ), otherwise it is provided by a key extractor ( e.g. the message id ).
+ * </p>
+ *
+ * @param <T> the type of the values being accumulated
+ * @see Channels#indexedAppender()
+ * @see Channels#indexedAppender(Function)
+ */
+public class IndexedAppenderChannel<T> extends PersistentAppenderChannel<T> {
+
+    private static final Object NULL_KEY = new Object();
+
+    /**
+     * Immutable list of values along with the index of their identity keys
+     *
+     * @param <T> the type of elements
+     */
+    static final class IndexedList<T> extends AbstractList<T> implements RandomAccess {
+        final PersistentVector<T> values;
+        final PersistentMap<Object,Boolean> keys;
+        final Function<? super T, ?> keyExtractor;
+
+        private IndexedList(PersistentVector<T> values, PersistentMap<Object, Boolean> keys, Function<? super T, ?> keyExtractor) {
+            this.values = values;
+            this.keys = keys;
+            this.keyExtractor = keyExtractor;
+        }
+
+        static <T> IndexedList<T> of( List<T> values, Function<? super T, ?> keyExtractor ) {
+            if( values instanceof IndexedList<T> indexed && indexed.keyExtractor == keyExtractor ) {
+                return indexed;
+            }
+            return new IndexedList<T>( PersistentVector.empty(), PersistentMap.empty(), keyExtractor ).plusAll( values );
+        }
+
+        private Object keyOf( T value ) {
+            return Objects.requireNonNullElse( keyExtractor.apply(value), NULL_KEY );
+        }
+
+        IndexedList<T> plusAll( List<T> newValues ) {
+            var resultValues = values;
+            var resultKeys = keys;
+            for( T value : newValues ) {
+                final var key = keyOf(value);
+                if( !resultKeys.containsKey(key) ) {
+                    resultKeys = resultKeys.plus( key, Boolean.TRUE );
+                    resultValues = resultValues.plus( value );
+                }
+            }
+            return ( resultValues == values ) ? this : new IndexedList<>( resultValues, resultKeys, keyExtractor );
+        }
+
+        @Override
+        public T get(int index) {
+            return values.get(index);
+        }
+
+        @Override
+        public int size() {
+            return values.size();
+        }
+    }
+
+    /**
+     * Reducer that appends the new values not already present, using the index of the identity keys
+     *
+     * @param <T> the type of elements
+     */
+    public static class IndexedReducerDisallowDuplicate<T> implements Reducer<List<T>> {
+        private final Function<? super T, ?> keyExtractor;
+
+        /**
+         * Creates a reducer that uses the given function to extract the identity key of a value
+         *
+         * @param keyExtractor the identity key extractor
+         */
+        public IndexedReducerDisallowDuplicate( Function<? super T, ?> keyExtractor ) {
+            this.keyExtractor = requireNonNull( keyExtractor, "keyExtractor cannot be null" );
+        }
+
+        @Override
+        public List<T> apply(List<T> left, List<T> right) {
+            if (left == null) {
+                return IndexedList.of( right, keyExtractor );
+            }
+            return IndexedList.of( left, keyExtractor ).plusAll( right );
+        }
+    }
+
+    /**
+     * Constructs a new instance of {@code IndexedAppenderChannel} using the given identity key extractor.
+     *
+     * @param keyExtractor the function that extracts the identity key of a value
+     */
+    protected IndexedAppenderChannel( Function<? super T, ?> keyExtractor ) {
+        super( new IndexedReducerDisallowDuplicate<>( keyExtractor ) );
+    }
+
+    /**
+     * Returns the old values as they are, since the reducer doesn't modify them and reuses their index.
+     *
+     * @param oldValues the old values
+     * @return the old values
+     */
+    @Override
+    protected List<T> oldValuesToReduce(List<T> oldValues) {
+        return oldValues;
+    }
+}
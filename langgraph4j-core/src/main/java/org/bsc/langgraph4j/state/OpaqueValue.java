@@ -0,0 +1,11 @@
+package org.bsc.langgraph4j.state;
+
+/**
+ * Marker of the mutable state values that can be copied only through the state serializer.
+ * <p>
+ * The {@link org.bsc.langgraph4j.CompileConfig.SnapshotStrategy#STRUCTURAL} strategy shares the values that
+ * don't implement it, unless their channel provides a copier.
+ * </p>
+ */
+public interface OpaqueValue {
+}
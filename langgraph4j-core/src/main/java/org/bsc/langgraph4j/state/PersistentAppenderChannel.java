@@ -0,0 +1,78 @@
+package org.bsc.langgraph4j.state;
+
+import org.bsc.langgraph4j.utils.PersistentVector;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
+
+/**
+ * PersistentAppenderChannel is an {@link AppenderChannel} that accumulates the values in a {@link PersistentVector}.
+ * <p>
+ * Each append shares the structure with the previous version of the list, so it costs amortized O(1) instead of O(n),
+ * and the previous versions ( e.g. held by checkpoints ) remain valid without copying.
+ * {@link AppenderChannel.RemoveIdentifier} and {@link AppenderChannel.ReplaceAllWith} are supported.
+ * </p>
+ *
+ * @param <T> the type of the values being accumulated
+ * @see Channels#persistentAppender()
+ */
+public class PersistentAppenderChannel<T> extends AppenderChannel<T> {
+
+    /**
+     * Reducer that appends the new values to a persistent vector, allowing duplicates
+     *
+     * @param <T> the type of elements
+     */
+    public static class ReducerAppend<T> implements Reducer<List<T>> {
+
+        @Override
+        public List<T> apply(List<T> left, List<T> right) {
+            if (left == null) {
+                return PersistentVector.copyOf(right);
+            }
+            return PersistentVector.copyOf(left).plusAll(right);
+        }
+    }
+
+    /**
+     * Constructs a new instance of {@code PersistentAppenderChannel} with the specified reducer.
+     * The reducer must not modify the given lists.
+     *
+     * @param reducer a binary operator that is used to combine two lists into one
+     */
+    protected PersistentAppenderChannel( Reducer<List<T>> reducer ) {
+        super( reducer, PersistentVector::empty );
+    }
+
+    /**
+     * Returns the identity, since the values are immutable and can be shared by the snapshots.
+     *
+     * @return an {@code Optional} containing the identity function
+     */
+    @Override
+    public Optional<UnaryOperator<List<T>>> getCopier() {
+        return Optional.of( UnaryOperator.identity() );
+    }
+
+    @Override
+    protected List<T> remove(List<T> list, RemoveIdentifier<T> removeIdentifier) {
+        return PersistentVector.copyOf( super.remove(list, removeIdentifier) );
+    }
+
+    @Override
+    protected List<T> replaceAll(List<?> newValues) {
+        return PersistentVector.copyOf( super.replaceAll(newValues) );
+    }
+
+    /**
+     * Returns the old values as a {@link PersistentVector}, without copying them if they already are.
+     *
+     * @param oldValues the old values
+     * @return the old values as a persistent vector
+     */
+    @Override
+    protected List<T> oldValuesToReduce(List<T> oldValues) {
+        return PersistentVector.copyOf( oldValues );
+    }
+}
@@ -0,0 +1,43 @@
+package org.bsc.langgraph4j.streaming;
+
+import org.bsc.langgraph4j.NodeOutput;
+import org.bsc.langgraph4j.state.AgentState;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Output produced by a branch of a parallel node, emitted as soon as it is available when
+ * {@link org.bsc.langgraph4j.CompileConfig#streamParallelBranches()} is enabled.
+ *
+ * @param <State> the type of the state
+ */
+public class BranchOutput<State extends AgentState> extends NodeOutput<State> {
+
+    private final String branch;
+    private final NodeOutput<State> output;
+
+    public BranchOutput(String branch, NodeOutput<State> output) {
+        super(requireNonNull(output, "output cannot be null").node(), output.state());
+        this.branch = requireNonNull(branch, "branch cannot be null");
+        this.output = output;
+    }
+
+    /**
+     * @return the id of the node that starts the branch
+     */
+    public String branch() {
+        return branch;
+    }
+
+    /**
+     * @return the output as produced by the branch ( e.g. a {@link StreamingOutput} )
+     */
+    public NodeOutput<State> output() {
+        return output;
+    }
+
+    @Override
+    public String toString() {
+        return "%s{branch=%s, output=%s}".formatted(getClass().getSimpleName(), branch, output);
+    }
+}
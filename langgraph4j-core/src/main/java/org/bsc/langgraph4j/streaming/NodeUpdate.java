@@ -0,0 +1,51 @@
+package org.bsc.langgraph4j.streaming;
+
+import org.bsc.langgraph4j.LazyNodeOutput;
+import org.bsc.langgraph4j.state.AgentState;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Output emitted in {@link org.bsc.langgraph4j.CompiledGraph.StreamMode#UPDATES} mode.
+ * <p>
+ * It carries the values of the keys updated by the node ( and by the command of its outgoing edge ), as they are
+ * after the channel reduction, and the keys removed from the state. The full state is materialized only when
+ * {@link #state()} is called.
+ * </p>
+ *
+ * @param <State> the type of the state
+ */
+public class NodeUpdate<State extends AgentState> extends LazyNodeOutput<State> {
+
+    private final Map<String, Object> update;
+    private final Set<String> removed;
+
+    public NodeUpdate(String node, Map<String, Object> update, Set<String> removed, Supplier<State> stateSupplier) {
+        super(node, stateSupplier);
+        this.update = requireNonNull(update, "update cannot be null");
+        this.removed = requireNonNull(removed, "removed cannot be null");
+    }
+
+    /**
+     * @return the values updated by the node, by channel name
+     */
+    public Map<String, Object> update() {
+        return update;
+    }
+
+    /**
+     * @return the keys removed from the state by the node
+     */
+    public Set<String> removed() {
+        return removed;
+    }
+
+    @Override
+    public String toString() {
+        return "%s{node=%s, update=%s, removed=%s}".formatted(getClass().getSimpleName(), node(), update, removed);
+    }
+}
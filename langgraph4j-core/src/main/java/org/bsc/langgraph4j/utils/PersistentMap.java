@@ -0,0 +1,435 @@
+package org.bsc.langgraph4j.utils;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An immutable map based on a Hash Array Mapped Trie (HAMT).
+ * <p>
+ * Every update ({@link #plus(Object, Object)}, {@link #minus(Object)}) returns a new map that shares
+ * all the untouched branches with the previous one, so the cost of an update is O(log<sub>32</sub> n)
+ * and unchanged values are never copied.
+ * </p>
+ * Keys cannot be {@code null}, values can.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ */
+public final class PersistentMap<K,V> extends AbstractMap<K,V> {
+
+    private static final Object NOT_FOUND = new Object();
+    private static final int BITS = 5;
+    private static final int MASK = 0x1f;
+
+    private static final PersistentMap<?,?> EMPTY = new PersistentMap<>(BitmapNode.EMPTY, 0);
+
+    /**
+     * Returns the empty persistent map
+     *
+     * @param <K> the type of keys
+     * @param <V> the type of values
+     * @return the empty map
+     */
+    @SuppressWarnings("unchecked")
+    public static <K,V> PersistentMap<K,V> empty() {
+        return (PersistentMap<K,V>) EMPTY;
+    }
+
+    /**
+     * Returns a persistent map containing the entries of the given map.
+     * If the given map is already a {@code PersistentMap} it is returned as is.
+     *
+     * @param map the source map
+     * @param <K> the type of keys
+     * @param <V> the type of values
+     * @return a persistent map with the same entries
+     */
+    @SuppressWarnings("unchecked")
+    public static <K,V> PersistentMap<K,V> copyOf( Map<? extends K, ? extends V> map ) {
+        requireNonNull( map, "map cannot be null");
+        if( map instanceof PersistentMap<?,?> persistentMap ) {
+            return (PersistentMap<K,V>) persistentMap;
+        }
+        return PersistentMap.<K,V>empty().plusAll( map );
+    }
+
+    private final Node root;
+    private final int size;
+
+    private PersistentMap( Node root, int size ) {
+        this.root = root;
+        this.size = size;
+    }
+
+    private static int hash( Object key ) {
+        final int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns a new map with the given entry added (or replaced)
+     *
+     * @param key the key, cannot be null
+     * @param value the value
+     * @return a new map, or this map if the entry is already present with the same value
+     */
+    public PersistentMap<K,V> plus( K key, V value ) {
+        requireNonNull( key, "key cannot be null");
+        final var added = new boolean[1];
+        final var newRoot = root.put( key, value, hash(key), 0, added );
+        if( newRoot == root ) {
+            return this;
+        }
+        return new PersistentMap<>( newRoot, added[0] ? size + 1 : size );
+    }
+
+    /**
+     * Returns a new map with all the entries of the given map added (or replaced)
+     *
+     * @param map the entries to add
+     * @return a new map, or this map if nothing changed
+     */
+    public PersistentMap<K,V> plusAll( Map<? extends K, ? extends V> map ) {
+        var result = this;
+        for( var e : map.entrySet() ) {
+            result = result.plus( e.getKey(), e.getValue() );
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new map without the given key
+     *
+     * @param key the key to remove
+     * @return a new map, or this map if the key is not present
+     */
+    public PersistentMap<K,V> minus( Object key ) {
+        if( key == null ) {
+            return this;
+        }
+        final var newRoot = root.remove( key, hash(key), 0 );
+        if( newRoot == root ) {
+            return this;
+        }
+        return ( newRoot == null ) ? empty() : new PersistentMap<>( newRoot, size - 1 );
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey( Object key ) {
+        return key != null && root.find( key, hash(key), 0 ) != NOT_FOUND;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get( Object key ) {
+        if( key == null ) {
+            return null;
+        }
+        final var result = root.find( key, hash(key), 0 );
+        return ( result == NOT_FOUND ) ? null : (V)result;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V getOrDefault(Object key, V defaultValue) {
+        if( key == null ) {
+            return defaultValue;
+        }
+        final var result = root.find( key, hash(key), 0 );
+        return ( result == NOT_FOUND ) ? defaultValue : (V)result;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        requireNonNull( action, "action cannot be null");
+        root.forEach( (BiConsumer<Object,Object>) action );
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new EntryIterator<>(root);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Trie node
+     */
+    private sealed interface Node permits BitmapNode, CollisionNode {
+
+        Object find( Object key, int hash, int shift );
+
+        Node put( Object key, Object value, int hash, int shift, boolean[] added );
+
+        /**
+         * @return the updated node, this if key is not present, null if the node became empty
+         */
+        Node remove( Object key, int hash, int shift );
+
+        void forEach( BiConsumer<Object,Object> action );
+
+        /**
+         * @return key/value pairs, a null key means that the value is a sub node
+         */
+        Object[] array();
+    }
+
+    private static Node createNode( int shift, Object key1, Object value1, int hash2, Object key2, Object value2 ) {
+        final int hash1 = hash(key1);
+        if( hash1 == hash2 ) {
+            return new CollisionNode( hash1, new Object[] { key1, value1, key2, value2 } );
+        }
+        final var added = new boolean[1];
+        return BitmapNode.EMPTY
+                .put( key1, value1, hash1, shift, added )
+                .put( key2, value2, hash2, shift, added );
+    }
+
+    private record BitmapNode( int bitmap, Object[] array ) implements Node {
+
+        static final BitmapNode EMPTY = new BitmapNode( 0, new Object[0] );
+
+        static int bitpos( int hash, int shift ) {
+            return 1 << ((hash >>> shift) & MASK);
+        }
+
+        int index( int bit ) {
+            return Integer.bitCount( bitmap & (bit - 1) );
+        }
+
+        @Override
+        public Object find(Object key, int hash, int shift) {
+            final int bit = bitpos( hash, shift );
+            if( (bitmap & bit) == 0 ) {
+                return NOT_FOUND;
+            }
+            final int idx = index(bit);
+            final var k = array[ 2*idx ];
+            final var v = array[ 2*idx+1 ];
+            if( k == null ) {
+                return ((Node)v).find( key, hash, shift + BITS );
+            }
+            return key.equals(k) ? v : NOT_FOUND;
+        }
+
+        @Override
+        public Node put(Object key, Object value, int hash, int shift, boolean[] added) {
+            final int bit = bitpos( hash, shift );
+            final int idx = index(bit);
+
+            if( (bitmap & bit) == 0 ) {
+                final var newArray = new Object[ array.length + 2 ];
+                System.arraycopy( array, 0, newArray, 0, 2*idx );
+                newArray[2*idx] = key;
+                newArray[2*idx+1] = value;
+                System.arraycopy( array, 2*idx, newArray, 2*(idx+1), array.length - 2*idx );
+                added[0] = true;
+                return new BitmapNode( bitmap | bit, newArray );
+            }
+
+            final var k = array[ 2*idx ];
+            final var v = array[ 2*idx+1 ];
+
+            if( k == null ) {
+                final var child = (Node)v;
+                final var newChild = child.put( key, value, hash, shift + BITS, added );
+                return ( newChild == child ) ? this : withSlot( idx, null, newChild );
+            }
+            if( key.equals(k) ) {
+                return ( v == value ) ? this : withSlot( idx, k, value );
+            }
+            added[0] = true;
+            return withSlot( idx, null, createNode( shift + BITS, k, v, hash, key, value ) );
+        }
+
+        @Override
+        public Node remove(Object key, int hash, int shift) {
+            final int bit = bitpos( hash, shift );
+            if( (bitmap & bit) == 0 ) {
+                return this;
+            }
+            final int idx = index(bit);
+            final var k = array[ 2*idx ];
+            final var v = array[ 2*idx+1 ];
+
+            if( k == null ) {
+                final var child = (Node)v;
+                final var newChild = child.remove( key, hash, shift + BITS );
+                if( newChild == child ) {
+                    return this;
+                }
+                if( newChild != null ) {
+                    return withSlot( idx, null, newChild );
+                }
+            }
+            else if( !key.equals(k) ) {
+                return this;
+            }
+
+            if( bitmap == bit ) {
+                return null;
+            }
+            final var newArray = new Object[ array.length - 2 ];
+            System.arraycopy( array, 0, newArray, 0, 2*idx );
+            System.arraycopy( array, 2*(idx+1), newArray, 2*idx, newArray.length - 2*idx );
+            return new BitmapNode( bitmap ^ bit, newArray );
+        }
+
+        private BitmapNode withSlot( int idx, Object key, Object value ) {
+            final var newArray = array.clone();
+            newArray[ 2*idx ] = key;
+            newArray[ 2*idx+1 ] = value;
+            return new BitmapNode( bitmap, newArray );
+        }
+
+        @Override
+        public void forEach(BiConsumer<Object, Object> action) {
+            for( int i = 0; i < array.length; i += 2 ) {
+                if( array[i] == null ) {
+                    ((Node)array[i+1]).forEach(action);
+                }
+                else {
+                    action.accept( array[i], array[i+1] );
+                }
+            }
+        }
+    }
+
+    private record CollisionNode( int hash, Object[] array ) implements Node {
+
+        int indexOf( Object key ) {
+            for( int i = 0; i < array.length; i += 2 ) {
+                if( key.equals(array[i]) ) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public Object find(Object key, int hash, int shift) {
+            final int i = indexOf(key);
+            return ( i < 0 ) ? NOT_FOUND : array[i+1];
+        }
+
+        @Override
+        public Node put(Object key, Object value, int hash, int shift, boolean[] added) {
+            if( hash != this.hash ) {
+                // nest this collision node in a bitmap node and retry
+                final var node = new BitmapNode( BitmapNode.bitpos( this.hash, shift ), new Object[] { null, this } );
+                return node.put( key, value, hash, shift, added );
+            }
+            final int i = indexOf(key);
+            if( i >= 0 ) {
+                if( array[i+1] == value ) {
+                    return this;
+                }
+                final var newArray = array.clone();
+                newArray[i+1] = value;
+                return new CollisionNode( hash, newArray );
+            }
+            final var newArray = Arrays.copyOf( array, array.length + 2 );
+            newArray[ array.length ] = key;
+            newArray[ array.length + 1 ] = value;
+            added[0] = true;
+            return new CollisionNode( hash, newArray );
+        }
+
+        @Override
+        public Node remove(Object key, int hash, int shift) {
+            final int i = indexOf(key);
+            if( i < 0 ) {
+                return this;
+            }
+            if( array.length == 2 ) {
+                return null;
+            }
+            final var newArray = new Object[ array.length - 2 ];
+            System.arraycopy( array, 0, newArray, 0, i );
+            System.arraycopy( array, i + 2, newArray, i, newArray.length - i );
+            return new CollisionNode( hash, newArray );
+        }
+
+        @Override
+        public void forEach(BiConsumer<Object, Object> action) {
+            for( int i = 0; i < array.length; i += 2 ) {
+                action.accept( array[i], array[i+1] );
+            }
+        }
+    }
+
+    /**
+     * Depth-first iterator over the trie
+     */
+    private static final class EntryIterator<K,V> implements Iterator<Entry<K,V>> {
+        private final Deque<Object[]> arrays = new ArrayDeque<>();
+        private final Deque<Integer> positions = new ArrayDeque<>();
+        private Entry<K,V> nextEntry;
+
+        EntryIterator( Node root ) {
+            push( root );
+            advance();
+        }
+
+        private void push( Node node ) {
+            arrays.push( node.array() );
+            positions.push( 0 );
+        }
+
+        @SuppressWarnings("unchecked")
+        private void advance() {
+            nextEntry = null;
+            while( !arrays.isEmpty() ) {
+                final var array = arrays.peek();
+                final int pos = positions.pop();
+                if( pos >= array.length ) {
+                    arrays.pop();
+                    continue;
+                }
+                positions.push( pos + 2 );
+                if( array[pos] == null ) {
+                    push( (Node)array[pos+1] );
+                    continue;
+                }
+                nextEntry = CollectionsUtils.entryOf( (K)array[pos], (V)array[pos+1] );
+                return;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextEntry != null;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if( nextEntry == null ) {
+                throw new NoSuchElementException();
+            }
+            final var result = nextEntry;
+            advance();
+            return result;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package org.bsc.langgraph4j.utils;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Immutable list implemented as a persistent vector ( a 32-way trie plus a tail buffer ).
+ * <p>
+ * {@link #plus(Object)} returns a new version of the vector in amortized O(1), sharing the structure
+ * with the previous one that remains valid and unchanged. {@link #get(int)} is O(log32 n).
+ * The mutators inherited from {@link java.util.List} throw {@link UnsupportedOperationException}.
+ * </p>
+ *
+ * @param <T> the type of elements
+ */
+public final class PersistentVector<T> extends AbstractList<T> implements RandomAccess {
+
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    private static final PersistentVector<?> EMPTY = new PersistentVector<>( 0, BITS, new Object[WIDTH], new Object[0] );
+
+    /**
+     * Returns the empty vector
+     *
+     * @param <T> the type of elements
+     * @return the empty vector
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> PersistentVector<T> empty() {
+        return (PersistentVector<T>) EMPTY;
+    }
+
+    /**
+     * Returns a persistent vector containing the given values.
+     * If the values are already a {@link PersistentVector} they are returned as is.
+     *
+     * @param values the values
+     * @param <T> the type of elements
+     * @return the persistent vector
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> PersistentVector<T> copyOf( Collection<? extends T> values ) {
+        requireNonNull( values, "values cannot be null" );
+        if( values instanceof PersistentVector<?> vector ) {
+            return (PersistentVector<T>) vector;
+        }
+        return PersistentVector.<T>empty().plusAll( values );
+    }
+
+    private final int size;
+    private final int shift;
+    private final Object[] root;
+    private final Object[] tail;
+
+    private PersistentVector( int size, int shift, Object[] root, Object[] tail ) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+    }
+
+    private int tailOffset() {
+        return ( size < WIDTH ) ? 0 : ((size - 1) >>> BITS) << BITS;
+    }
+
+    private Object[] leafFor( int index ) {
+        if( index >= tailOffset() ) {
+            return tail;
+        }
+        var node = root;
+        for( int level = shift ; level > 0 ; level -= BITS ) {
+            node = (Object[]) node[ (index >>> level) & MASK ];
+        }
+        return node;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get( int index ) {
+        if( index < 0 || index >= size ) {
+            throw new IndexOutOfBoundsException( "Index: " + index + ", Size: " + size );
+        }
+        return (T) leafFor(index)[ index & MASK ];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a new vector with the given value appended
+     *
+     * @param value the value to append
+     * @return the new vector
+     */
+    public PersistentVector<T> plus( T value ) {
+        // room in tail ?
+        if( size - tailOffset() < WIDTH ) {
+            var newTail = Arrays.copyOf( tail, tail.length + 1 );
+            newTail[tail.length] = value;
+            return new PersistentVector<>( size + 1, shift, root, newTail );
+        }
+
+        // full tail, push it into the tree
+        Object[] newRoot;
+        int newShift = shift;
+        if( (size >>> BITS) > (1 << shift) ) { // root overflow
+            newRoot = new Object[WIDTH];
+            newRoot[0] = root;
+            newRoot[1] = newPath( shift, tail );
+            newShift += BITS;
+        }
+        else {
+            newRoot = pushTail( shift, root, tail );
+        }
+        return new PersistentVector<>( size + 1, newShift, newRoot, new Object[] { value } );
+    }
+
+    /**
+     * Returns a new vector with all the given values appended
+     *
+     * @param values the values to append
+     * @return the new vector
+     */
+    public PersistentVector<T> plusAll( Collection<? extends T> values ) {
+        requireNonNull( values, "values cannot be null" );
+        var result = this;
+        for( T value : values ) {
+            result = result.plus( value );
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether this vector has been obtained appending values to the given one, that is whether it shares
+     * the structure holding the values of the given vector. It is O(log32 n), the vectors with the same values
+     * built independently are not recognized.
+     *
+     * @param prefix the vector that may have been extended
+     * @return true if this vector starts with the values of the given one, sharing them
+     */
+    public boolean isExtensionOf( PersistentVector<?> prefix ) {
+        requireNonNull( prefix, "prefix cannot be null" );
+        if( prefix == this ) {
+            return true;
+        }
+        if( prefix.size > size || prefix.shift > shift ) {
+            return false;
+        }
+        final int prefixTailOffset = prefix.tailOffset();
+        if( prefixTailOffset > 0 ) {
+            // the values of the prefix are in the first subtree at the level of its root
+            var node = root;
+            for( int level = shift ; level > prefix.shift ; level -= BITS ) {
+                node = (Object[]) node[0];
+            }
+            if( !sharesLeaves( node, prefix.root, prefix.shift, prefixTailOffset - 1 ) ) {
+                return false;
+            }
+        }
+        // the tail of the prefix is copied when values are appended, not its values
+        for( int i = prefixTailOffset ; i < prefix.size ; ++i ) {
+            if( get( i ) != prefix.tail[ i - prefixTailOffset ] ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether the given nodes share the leaves up to the given index, the leaves are never copied while
+     * the nodes along the path of the last index are
+     */
+    private static boolean sharesLeaves( Object[] node, Object[] prefixNode, int level, int lastIndex ) {
+        if( node == prefixNode ) {
+            return true;
+        }
+        if( node == null || prefixNode == null || level == 0 ) {
+            return false;
+        }
+        final int subIndex = (lastIndex >>> level) & MASK;
+        for( int i = 0 ; i < subIndex ; ++i ) {
+            if( node[i] != prefixNode[i] ) {
+                return false;
+            }
+        }
+        return sharesLeaves( (Object[]) node[subIndex], (Object[]) prefixNode[subIndex], level - BITS, lastIndex );
+    }
+
+    private Object[] pushTail( int level, Object[] parent, Object[] tailNode ) {
+        final int subIndex = ((size - 1) >>> level) & MASK;
+        final var result = parent.clone();
+        final Object[] nodeToInsert;
+        if( level == BITS ) {
+            nodeToInsert = tailNode;
+        }
+        else {
+            var child = (Object[]) parent[subIndex];
+            nodeToInsert = ( child != null ) ?
+                    pushTail( level - BITS, child, tailNode ) :
+                    newPath( level - BITS, tailNode );
+        }
+        result[subIndex] = nodeToInsert;
+        return result;
+    }
+
+    private static Object[] newPath( int level, Object[] node ) {
+        if( level == 0 ) {
+            return node;
+        }
+        var result = new Object[WIDTH];
+        result[0] = newPath( level - BITS, node );
+        return result;
+    }
+
+}
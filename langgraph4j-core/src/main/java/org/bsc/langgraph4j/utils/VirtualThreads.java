@@ -0,0 +1,86 @@
+package org.bsc.langgraph4j.utils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Utility class to create executors backed by virtual threads.
+ * <p>
+ * The library targets Java 17, so virtual threads are looked up at runtime and are available only
+ * when running on Java 21 or later. On previous versions {@link #newThreadPerTaskExecutor(String)}
+ * falls back to an unbounded pool of platform daemon threads.
+ * </p>
+ * <pre>
+ * var compileConfig = CompileConfig.builder()
+ *          .executor( VirtualThreads.newThreadPerTaskExecutor( "graph-run" ) )
+ *          .build();
+ * </pre>
+ */
+public final class VirtualThreads {
+
+    private static final MethodHandle NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = lookupNewVirtualThreadPerTaskExecutor();
+
+    private static MethodHandle lookupNewVirtualThreadPerTaskExecutor() {
+        try {
+            return MethodHandles.publicLookup().findStatic( Executors.class,
+                    "newVirtualThreadPerTaskExecutor",
+                    MethodType.methodType(ExecutorService.class) );
+        }
+        catch( NoSuchMethodException | IllegalAccessException ex ) {
+            return null;
+        }
+    }
+
+    private VirtualThreads() {}
+
+    /**
+     * Checks whether the running JVM supports virtual threads
+     *
+     * @return true if virtual threads are available
+     */
+    public static boolean isSupported() {
+        return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * Creates an executor that starts a new virtual thread for each task
+     *
+     * @return the executor, or empty if virtual threads are not supported
+     */
+    public static Optional<ExecutorService> newVirtualThreadPerTaskExecutor() {
+        if( !isSupported() ) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of( (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invokeExact() );
+        }
+        catch( Throwable ex ) {
+            throw new IllegalStateException( "cannot create virtual thread executor", ex );
+        }
+    }
+
+    /**
+     * Creates an executor that runs each task on its own thread: a virtual thread if supported,
+     * otherwise a cached platform daemon thread named after the given prefix.
+     *
+     * @param namePrefix the prefix of the platform thread names
+     * @return the executor
+     */
+    public static ExecutorService newThreadPerTaskExecutor( String namePrefix ) {
+        return newVirtualThreadPerTaskExecutor().orElseGet( () -> {
+            final var counter = new AtomicLong();
+            final ThreadFactory factory = runnable -> {
+                final var thread = new Thread( runnable, namePrefix + "-" + counter.incrementAndGet() );
+                thread.setDaemon(true);
+                return thread;
+            };
+            return Executors.newCachedThreadPool( factory );
+        });
+    }
+}
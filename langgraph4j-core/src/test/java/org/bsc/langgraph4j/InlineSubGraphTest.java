@@ -0,0 +1,128 @@
+package org.bsc.langgraph4j;
+
+import org.bsc.langgraph4j.checkpoint.MemorySaver;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.bsc.langgraph4j.StateGraph.END;
+import static org.bsc.langgraph4j.StateGraph.START;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InlineSubGraphTest {
+
+    private StateGraph<StepsState> step( StateGraph<StepsState> graph, String id ) throws Exception {
+        return graph.addNode( id, StepsState.step( id ) );
+    }
+
+    /**
+     * parent: A -> child -> B, child: C1 -> grandchild -> C2, grandchild: G1
+     */
+    private StateGraph<StepsState> parentGraph( MemorySaver saver, CompileConfig.Builder childConfig ) throws Exception {
+        var grandchild = step( StepsState.graph(), "G1" )
+                .addEdge( START, "G1" )
+                .addEdge( "G1", END )
+                .compile( CompileConfig.builder().checkpointSaver( saver ).build() );
+
+        var child = step( step( StepsState.graph(), "C1" ), "C2" )
+                .addNode( "grandchild", grandchild )
+                .addEdge( START, "C1" )
+                .addEdge( "C1", "grandchild" )
+                .addEdge( "grandchild", "C2" )
+                .addEdge( "C2", END )
+                .compile( childConfig.checkpointSaver( saver ).build() );
+
+        return step( step( StepsState.graph(), "A" ), "B" )
+                .addNode( "child", child )
+                .addEdge( START, "A" )
+                .addEdge( "A", "child" )
+                .addEdge( "child", "B" )
+                .addEdge( "B", END );
+    }
+
+    @Test
+    public void compiledSubgraphsAreInlined() throws Exception {
+        final var saver = new MemorySaver();
+        var app = parentGraph( saver, CompileConfig.builder() )
+                .compile( CompileConfig.builder()
+                        .checkpointSaver( saver )
+                        .inlineCompiledSubgraphs( true )
+                        .build() );
+
+        var config = RunnableConfig.builder().threadId( "inline" ).build();
+
+        var nodes = app.stream( Map.of(), config ).stream()
+                .map( NodeOutput::node )
+                .toList();
+
+        final var grandchildId = SubGraphNode.formatId( "child", "grandchild" );
+        assertEquals( List.of( START, "A",
+                        SubGraphNode.formatId( "child", "C1" ),
+                        SubGraphNode.formatId( grandchildId, "G1" ),
+                        SubGraphNode.formatId( "child", "C2" ),
+                        "B", END ),
+                nodes );
+
+        assertEquals( List.of( "A", "C1", "G1", "C2", "B" ), app.getState( config ).state().steps() );
+
+        // one checkpoint per step, all in the thread of the parent
+        assertEquals( 6, app.getStateHistory( config ).size() );
+
+        // same result as the embedded execution
+        final var embeddedSaver = new MemorySaver();
+        var embedded = parentGraph( embeddedSaver, CompileConfig.builder() )
+                .compile( CompileConfig.builder().checkpointSaver( embeddedSaver ).build() );
+        assertEquals( embedded.invoke( Map.of(), RunnableConfig.builder().threadId( "embedded" ).build() ).orElseThrow().steps(),
+                app.invoke( Map.of(), RunnableConfig.builder().threadId( "inline-2" ).build() ).orElseThrow().steps() );
+    }
+
+    @Test
+    public void inlinedSubgraphKeepsItsInterruptions() throws Exception {
+        final var saver = new MemorySaver();
+        var app = parentGraph( saver, CompileConfig.builder().interruptBefore( "C2" ) )
+                .compile( CompileConfig.builder()
+                        .checkpointSaver( saver )
+                        .inlineCompiledSubgraphs( true )
+                        .build() );
+
+        var config = RunnableConfig.builder().threadId( "interrupt" ).build();
+
+        var result = app.invokeFinal( GraphInput.args( Map.of() ), config ).orElseThrow();
+        assertEquals( List.of( "A", "C1", "G1" ), result.state().steps() );
+
+        result = app.invokeFinal( GraphInput.resume(), config ).orElseThrow();
+        assertEquals( END, result.node() );
+        assertEquals( List.of( "A", "C1", "G1", "C2", "B" ), result.state().steps() );
+    }
+
+    @Test
+    public void compiledSubgraphWithHooksAndTimeoutsIsNotInlined() throws Exception {
+        final var saver = new MemorySaver();
+        var child = step( StepsState.graph(), "C1" )
+                .addEdge( START, "C1" )
+                .addEdge( "C1", END )
+                .addBeforeCallNodeHook( ( nodeId, state, config ) -> CompletableFuture.completedFuture( Map.of() ) )
+                .addNodeTimeout( "C1", Duration.ofSeconds( 10 ) )
+                .compile( CompileConfig.builder().checkpointSaver( saver ).build() );
+
+        var parent = step( StepsState.graph(), "A" )
+                .addNode( "child", child )
+                .addEdge( START, "A" )
+                .addEdge( "A", "child" )
+                .addEdge( "child", END );
+
+        var exception = assertThrows( GraphStateException.class, () -> parent.compile( CompileConfig.builder()
+                        .checkpointSaver( saver )
+                        .inlineCompiledSubgraphs( true )
+                        .build() ) );
+        assertEquals( "compiled subgraph 'child' cannot be inlined, it has node timeouts, node hooks!", exception.getMessage() );
+
+        // the embedded execution applies them
+        var app = parent.compile( CompileConfig.builder().checkpointSaver( saver ).build() );
+        assertEquals( List.of( "A", "C1" ),
+                app.invoke( Map.of(), RunnableConfig.builder().threadId( "embedded" ).build() ).orElseThrow().steps() );
+    }
+}
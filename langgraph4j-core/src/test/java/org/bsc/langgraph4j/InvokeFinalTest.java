@@ -0,0 +1,81 @@
+package org.bsc.langgraph4j;
+
+import org.bsc.langgraph4j.checkpoint.MemorySaver;
+import org.bsc.langgraph4j.serializer.std.ObjectStreamStateSerializer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.bsc.langgraph4j.StateGraph.END;
+import static org.bsc.langgraph4j.StateGraph.START;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InvokeFinalTest {
+
+    static class CountingSerializer extends ObjectStreamStateSerializer<StepsState> {
+        final AtomicInteger clones = new AtomicInteger();
+
+        CountingSerializer() {
+            super( StepsState::new );
+        }
+
+        @Override
+        public StepsState cloneObject( StepsState object ) throws IOException, ClassNotFoundException {
+            clones.incrementAndGet();
+            return super.cloneObject( object );
+        }
+    }
+
+    private StateGraph<StepsState> graph( CountingSerializer serializer ) throws Exception {
+        return new StateGraph<>( StepsState.SCHEMA, serializer )
+                .addNode( "A", StepsState.step( "A" ) )
+                .addNode( "B", StepsState.step( "B" ) )
+                .addNode( "C", StepsState.step( "C" ) )
+                .addEdge( START, "A" )
+                .addEdge( "A", "B" )
+                .addEdge( "B", "C" )
+                .addEdge( "C", END );
+    }
+
+    @Test
+    public void invokeMaterializesOnlyFinalState() throws Exception {
+        final var serializer = new CountingSerializer();
+        var app = graph( serializer ).compile();
+
+        var result = app.invokeFinal( GraphInput.args( Map.of() ), RunnableConfig.builder().build() ).orElseThrow();
+
+        assertEquals( END, result.node() );
+        assertEquals( List.of( "A", "B", "C" ), result.state().steps() );
+        // one copy of the state given to each node plus the final one
+        assertEquals( 3 + 1, serializer.clones.get() );
+
+        serializer.clones.set( 0 );
+        var outputs = app.stream( Map.of() ).stream().toList();
+        // one copy of the state given to each node plus one for each output
+        assertEquals( 3 + outputs.size(), serializer.clones.get() );
+        assertEquals( result.state().steps(), outputs.get( outputs.size() - 1 ).state().steps() );
+    }
+
+    @Test
+    public void invokeKeepsInterruptSemantics() throws Exception {
+        final var saver = new MemorySaver();
+        var app = graph( new CountingSerializer() ).compile( CompileConfig.builder()
+                .checkpointSaver( saver )
+                .interruptBefore( "C" )
+                .build() );
+
+        var config = RunnableConfig.builder().threadId( "interrupt" ).build();
+
+        var result = app.invokeFinal( GraphInput.args( Map.of() ), config ).orElseThrow();
+        assertEquals( "B", result.node() );
+        assertEquals( List.of( "A", "B" ), result.state().steps() );
+        assertEquals( List.of( "A", "B" ), app.getState( config ).state().steps() );
+
+        result = app.invokeFinal( GraphInput.resume(), config ).orElseThrow();
+        assertEquals( END, result.node() );
+        assertEquals( List.of( "A", "B", "C" ), result.state().steps() );
+    }
+}
@@ -0,0 +1,186 @@
+package org.bsc.langgraph4j;
+
+import org.bsc.langgraph4j.action.AsyncNodeAction;
+import org.bsc.langgraph4j.utils.ExceptionUtils;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.bsc.langgraph4j.StateGraph.END;
+import static org.bsc.langgraph4j.StateGraph.START;
+import static org.bsc.langgraph4j.action.AsyncNodeAction.node_async;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NodeTimeoutTest {
+
+    private StateGraph<StepsState> hungGraph( CompletableFuture<Map<String,Object>> hung ) throws Exception {
+        return StepsState.graph()
+                .addNode( "start", ( state, config ) -> completedFuture( Map.of( "steps", "start" ) ) )
+                .addNode( "llm", ( state, config ) -> hung )
+                .addNode( "fallback", ( state, config ) -> completedFuture( Map.of( "steps", "fallback" ) ) )
+                .addEdge( START, "start" )
+                .addEdge( "start", "llm" )
+                .addEdge( "llm", END )
+                .addEdge( "fallback", END );
+    }
+
+    @Test
+    public void nodeTimeoutTakesFallback() throws Exception {
+        final var hung = new CompletableFuture<Map<String,Object>>();
+
+        var app = hungGraph( hung )
+                .addNodeTimeout( "llm", Duration.ofMillis( 100 ), "fallback" )
+                .compile();
+
+        var result = app.invoke( Map.of() );
+
+        assertEquals( List.of( "start", "fallback" ), result.orElseThrow().steps() );
+        assertTrue( hung.isCancelled() );
+    }
+
+    @Test
+    public void nodeTimeoutWithoutFallbackFails() throws Exception {
+        final var hung = new CompletableFuture<Map<String,Object>>();
+
+        var app = hungGraph( hung )
+                .addNodeTimeout( "llm", Duration.ofMillis( 100 ) )
+                .compile();
+
+        var ex = assertThrows( Exception.class, () -> app.invoke( Map.of() ) );
+        var timeout = ExceptionUtils.findCauseByType( ex, NodeTimeoutException.class );
+        assertTrue( timeout.isPresent(), ex::toString );
+        assertEquals( "llm", ((NodeTimeoutException) timeout.get()).nodeId() );
+        assertTrue( hung.isCancelled() );
+    }
+
+    @Test
+    public void runDeadlineCancelsRunningNode() throws Exception {
+        final var hung = new CompletableFuture<Map<String,Object>>();
+
+        var app = hungGraph( hung ).compile();
+
+        var config = RunnableConfig.builder().timeout( Duration.ofMillis( 200 ) ).build();
+        assertEquals( config.deadline(), RunnableConfig.builder( config ).build().deadline() );
+
+        final var start = System.currentTimeMillis();
+        var ex = assertThrows( Exception.class, () -> app.invoke( Map.of(), config ) );
+        assertTrue( ExceptionUtils.findCauseByType( ex, NodeTimeoutException.class ).isPresent(), ex::toString );
+        assertTrue( System.currentTimeMillis() - start < 5_000 );
+        assertTrue( hung.isCancelled() );
+
+        // the deadline takes the fallback as well
+        var hung2 = new CompletableFuture<Map<String,Object>>();
+        var result = hungGraph( hung2 )
+                .addNodeTimeout( "llm", Duration.ofMinutes( 1 ), "fallback" )
+                .compile()
+                .invoke( Map.of(), RunnableConfig.builder().timeout( Duration.ofMillis( 200 ) ).build() );
+        assertEquals( List.of( "start", "fallback" ), result.orElseThrow().steps() );
+    }
+
+    @Test
+    public void blockingNodeIsInterrupted() throws Exception {
+        final var interrupted = new CountDownLatch( 2 );
+        final AsyncNodeAction<StepsState> blocking = node_async( state -> {
+            try {
+                Thread.sleep( Duration.ofMinutes( 1 ).toMillis() );
+            }
+            catch( InterruptedException ex ) {
+                interrupted.countDown();
+                Thread.currentThread().interrupt();
+            }
+            return Map.of( "steps", "llm" );
+        });
+
+        var result = StepsState.graph()
+                .addNode( "start", StepsState.step( "start" ) )
+                .addNode( "llm", blocking )
+                .addNode( "fallback", StepsState.step( "fallback" ) )
+                .addEdge( START, "start" )
+                .addEdge( "start", "llm" )
+                .addEdge( "llm", END )
+                .addEdge( "fallback", END )
+                .addNodeTimeout( "llm", Duration.ofMillis( 100 ), "fallback" )
+                .compile()
+                .invoke( Map.of() );
+        assertEquals( List.of( "start", "fallback" ), result.orElseThrow().steps() );
+
+        // the deadline of the execution bounds the blocking node as well
+        final var app = StepsState.graph()
+                .addNode( "llm", blocking )
+                .addEdge( START, "llm" )
+                .addEdge( "llm", END )
+                .compile();
+
+        final var start = System.currentTimeMillis();
+        var ex = assertThrows( Exception.class, () -> app.invoke( Map.of(), RunnableConfig.builder().timeout( Duration.ofMillis( 200 ) ).build() ) );
+        assertTrue( ExceptionUtils.findCauseByType( ex, NodeTimeoutException.class ).isPresent(), ex::toString );
+        assertTrue( System.currentTimeMillis() - start < 5_000 );
+
+        assertTrue( interrupted.await( 5, TimeUnit.SECONDS ) );
+    }
+
+    @Test
+    public void timeoutOnMissingNodeIsRejected() throws Exception {
+        assertThrows( GraphStateException.class, () -> hungGraph( new CompletableFuture<>() )
+                .addNodeTimeout( "unknown", Duration.ofSeconds( 1 ) )
+                .compile() );
+        assertThrows( GraphStateException.class, () -> hungGraph( new CompletableFuture<>() )
+                .addNodeTimeout( "llm", Duration.ofSeconds( 1 ), "unknown" )
+                .compile() );
+    }
+
+    @Test
+    public void timeoutOnSubgraphNodeIsRejected() throws Exception {
+        var subgraph = StepsState.graph()
+                .addNode( "sub", StepsState.step( "sub" ) )
+                .addEdge( START, "sub" )
+                .addEdge( "sub", END );
+
+        var ex = assertThrows( GraphStateException.class, () -> hungGraph( new CompletableFuture<>() )
+                .addNode( "subgraph", subgraph.compile() )
+                .addEdge( "subgraph", END )
+                .addNodeTimeout( "subgraph", Duration.ofSeconds( 1 ) )
+                .compile() );
+        assertEquals( "node 'subgraph' configured with a timeout is a subgraph, a timeout can only be set on its nodes!", ex.getMessage() );
+
+        assertThrows( GraphStateException.class, () -> hungGraph( new CompletableFuture<>() )
+                .addNode( "subgraph", subgraph )
+                .addEdge( "subgraph", END )
+                .addNodeTimeout( "subgraph", Duration.ofSeconds( 1 ) )
+                .compile() );
+    }
+
+    @Test
+    public void deadlineDoesntNeedAThreadOfTheExecutor() throws Exception {
+        final var runs = 2;
+        final var executor = Executors.newFixedThreadPool( runs );
+        try {
+            var app = StepsState.graph()
+                    .addNode( "llm", node_async( state -> Map.of( "steps", "llm" ) ) )
+                    .addEdge( START, "llm" )
+                    .addEdge( "llm", END )
+                    .compile( CompileConfig.builder().executor( executor ).build() );
+
+            // each execution holds a thread of the executor while its node action is running
+            var results = IntStream.range( 0, runs )
+                    .mapToObj( i -> app.invokeAsync( GraphInput.args( Map.of() ),
+                            RunnableConfig.builder().timeout( Duration.ofMinutes( 1 ) ).build() ) )
+                    .toList();
+
+            for( var result : results ) {
+                assertEquals( List.of( "llm" ), result.get( 5, TimeUnit.SECONDS ).orElseThrow().steps() );
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+}
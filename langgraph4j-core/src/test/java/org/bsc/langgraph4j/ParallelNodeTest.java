@@ -1,11 +1,14 @@
 package org.bsc.langgraph4j;
 
 
+import org.bsc.async.AsyncGenerator;
+import org.bsc.async.AsyncGeneratorQueue;
 import org.bsc.langgraph4j.action.AsyncNodeActionWithConfig;
 import org.bsc.langgraph4j.internal.node.ParallelNode;
 import org.bsc.langgraph4j.state.AgentState;
 import org.bsc.langgraph4j.state.Channel;
 import org.bsc.langgraph4j.state.Channels;
+import org.bsc.langgraph4j.streaming.BranchOutput;
 import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
@@ -215,4 +218,146 @@ public class ParallelNodeTest {
 
     }
 
+    @Test
+    public void parallelNodeDoesNotBlockExecutorThreads() throws Exception {
+        var executor = Executors.newSingleThreadExecutor();
+        try {
+            var delay = Duration.ofMillis(300);
+            var actions = IntStream.range(0, 4)
+                    .mapToObj(i -> (AsyncNodeActionWithConfig<State>) ( state, config ) ->
+                            CompletableFuture.supplyAsync(() -> Map.<String,Object>of("task", "TASK " + i),
+                                    CompletableFuture.delayedExecutor(delay.toMillis(), TimeUnit.MILLISECONDS)))
+                    .toList();
+
+            var parallelNode = new ParallelNode<>("parallelNodeTest", actions, State.SCHEMA);
+
+            // executor given by the compile config
+            var parallelNodeAction = parallelNode.actionFactory().apply(CompileConfig.builder().executor(executor).build());
+
+            var start = Instant.now();
+            var result = parallelNodeAction.apply(new State(Map.of()), RunnableConfig.builder().build()).join();
+            var elapsed = Duration.between(start, Instant.now());
+
+            assertEquals(4, new State(result).completedTasks().size());
+            // a single thread waiting on each branch would take at least 4 * delay
+            assertTrue(elapsed.compareTo(delay.multipliedBy(3)) < 0, elapsed::toString);
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void parallelNodeCancelsSiblingsOnFailure() throws Exception {
+        var executor = Executors.newSingleThreadExecutor();
+        try {
+            var running = new CompletableFuture<Map<String,Object>>();
+            var started = new CopyOnWriteArrayList<String>();
+
+            List<AsyncNodeActionWithConfig<State>> actions = List.of(
+                    ( state, config ) -> {
+                        started.add("running");
+                        return running;
+                    },
+                    ( state, config ) -> {
+                        started.add("failing");
+                        return CompletableFuture.failedFuture(new IllegalStateException("branch failed"));
+                    },
+                    ( state, config ) -> {
+                        started.add("skipped");
+                        return completedFuture(Map.of("task", "skipped"));
+                    });
+
+            var parallelNode = new ParallelNode<>("parallelNodeTest", actions, State.SCHEMA);
+
+            var parallelNodeAction = parallelNode.actionFactory().apply(CompileConfig.builder().build());
+
+            // without executor the branches are started on the calling thread
+            var exception = assertThrows(CompletionException.class,
+                    () -> parallelNodeAction.apply(new State(Map.of()), RunnableConfig.builder().build()).join());
+
+            assertInstanceOf(IllegalStateException.class, exception.getCause());
+            assertTrue(running.isCancelled());
+            assertEquals(List.of("running", "failing"), started);
+
+            // on executor, the cancellation is propagated to the running branch
+            var running2 = new CompletableFuture<Map<String,Object>>();
+            List<AsyncNodeActionWithConfig<State>> actions2 = List.of(
+                    ( state, config ) -> running2,
+                    ( state, config ) -> CompletableFuture.failedFuture(new IllegalStateException("branch failed")));
+
+            var parallelNodeAction2 = new ParallelNode<>("parallelNodeTest", actions2, State.SCHEMA)
+                    .actionFactory().apply(CompileConfig.builder().executor(executor).build());
+
+            assertThrows(CompletionException.class,
+                    () -> parallelNodeAction2.apply(new State(Map.of()), RunnableConfig.builder().build()).join());
+            executor.submit(() -> {}).get();
+            assertTrue(running2.isCancelled());
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    private static AsyncNodeActionWithConfig<State> createStreamingAction(String name, int steps, Duration delay) {
+        return ( state, config ) -> completedFuture( Map.of( "_stream_" + name,
+                AsyncGeneratorQueue.of( new LinkedBlockingQueue<AsyncGenerator.Data<NodeOutput<State>>>(), queue -> {
+                    for( int i = 0 ; i < steps ; ++i ) {
+                        try {
+                            Thread.sleep( delay.toMillis() );
+                        } catch (InterruptedException e) {
+                            throw new CompletionException(e);
+                        }
+                        queue.add( AsyncGenerator.Data.of( NodeOutput.of( name + "-" + i,
+                                new State( Map.of( "task", name + "-" + i ) ) ) ) );
+                    }
+                })));
+    }
+
+    @Test
+    public void parallelNodeStreamsBranchOutputs() throws Exception {
+        var workflow = new StateGraph<>( State.SCHEMA, State::new )
+                .addNode( "fast", createStreamingAction( "fast", 3, Duration.ofMillis(20) ) )
+                .addNode( "slow", createStreamingAction( "slow", 1, Duration.ofMillis(500) ) )
+                .addNode( "join", ( state, config ) -> completedFuture( Map.of( "task", "join" ) ) )
+                .addEdge( StateGraph.START, "fast" )
+                .addEdge( StateGraph.START, "slow" )
+                .addEdge( "fast", "join" )
+                .addEdge( "slow", "join" )
+                .addEdge( "join", StateGraph.END );
+
+        var app = workflow.compile( CompileConfig.builder().streamParallelBranches( true ).build() );
+
+        var outputs = new ArrayList<NodeOutput<State>>();
+        var elapsed = new ArrayList<Duration>();
+        var start = Instant.now();
+        for( var output : app.stream( Map.of() ) ) {
+            outputs.add( output );
+            elapsed.add( Duration.between( start, Instant.now() ) );
+        }
+
+        var branchOutputs = outputs.stream()
+                .filter( output -> output instanceof BranchOutput<State> )
+                .map( output -> (BranchOutput<State>) output )
+                .toList();
+
+        assertEquals( List.of( "fast", "fast", "fast", "slow" ),
+                branchOutputs.stream().map( BranchOutput::branch ).toList() );
+        assertEquals( List.of( "fast-0", "fast-1", "fast-2", "slow-0" ),
+                branchOutputs.stream().map( NodeOutput::node ).toList() );
+
+        // the outputs of the fast branch are emitted before the slow branch completes
+        var firstOutput = elapsed.get( outputs.indexOf( branchOutputs.get(0) ) );
+        assertTrue( firstOutput.toMillis() < 500, firstOutput::toString );
+
+        var last = outputs.get( outputs.size() - 1 );
+        assertTrue( last.isEND() );
+        assertEquals( List.of( "fast-0", "fast-1", "fast-2", "slow-0", "join" ), last.state().completedTasks() );
+
+        // without streaming the branch outputs are only folded
+        var result = workflow.compile().invoke( Map.of() );
+        assertEquals( List.of( "fast-0", "fast-1", "fast-2", "slow-0", "join" ), result.orElseThrow().completedTasks() );
+        assertTrue( workflow.compile().stream( Map.of() ).stream().noneMatch( output -> output instanceof BranchOutput<State> ) );
+    }
+
 }
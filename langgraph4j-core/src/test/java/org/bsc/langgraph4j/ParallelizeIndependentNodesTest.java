@@ -0,0 +1,196 @@
+package org.bsc.langgraph4j;
+
+import org.bsc.langgraph4j.action.SubCompiledGraphNodeAction;
+import org.bsc.langgraph4j.internal.node.ParallelNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.bsc.langgraph4j.StateGraph.END;
+import static org.bsc.langgraph4j.StateGraph.START;
+import static org.bsc.langgraph4j.action.AsyncEdgeAction.edge_async;
+import static org.bsc.langgraph4j.action.AsyncNodeAction.node_async;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelizeIndependentNodesTest {
+
+    /**
+     * START -> A -> B -> C -> D -> END, where C reads the value written by A and D the one written by B
+     */
+    private StateGraph<StepsState> graph( CyclicBarrier barrier ) throws Exception {
+        return StepsState.graph()
+                .addNode( "A", node_async( state -> {
+                    barrier.await( 5, TimeUnit.SECONDS );
+                    return Map.of( "steps", "A", "a", 1 );
+                }), Set.of(), Set.of( "steps", "a" ) )
+                .addNode( "B", node_async( state -> {
+                    barrier.await( 5, TimeUnit.SECONDS );
+                    return Map.of( "steps", "B", "b", 2 );
+                }), Set.of(), Set.of( "steps", "b" ) )
+                .addNode( "C", node_async( state ->
+                    Map.of( "steps", "C", "c", state.<Integer>value( "a" ).orElseThrow() * 10 )
+                ), Set.of( "a" ), Set.of( "steps", "c" ) )
+                .addNode( "D", node_async( state ->
+                    Map.of( "steps", "D", "d", state.<Integer>value( "b" ).orElseThrow() * 10 )
+                ), Set.of( "b" ), Set.of( "steps", "d" ) )
+                .addEdge( START, "A" )
+                .addEdge( "A", "B" )
+                .addEdge( "B", "C" )
+                .addEdge( "C", "D" )
+                .addEdge( "D", END );
+    }
+
+    @Test
+    public void independentNodesRunConcurrently() throws Exception {
+        final var executor = Executors.newFixedThreadPool( 2 );
+        try {
+            // A and B can pass the barrier only if they run at the same time
+            var app = graph( new CyclicBarrier( 2 ) ).compile( CompileConfig.builder()
+                    .executor( executor )
+                    .parallelizeIndependentNodes( true )
+                    .build() );
+
+            var nodes = app.stream( Map.of() ).stream()
+                    .map( NodeOutput::node )
+                    .toList();
+
+            assertEquals( List.of( START,
+                            ParallelNode.formatNodeId( "A,B" ),
+                            ParallelNode.formatNodeId( "C,D" ),
+                            END ),
+                    nodes );
+
+            var state = app.invoke( Map.of() ).orElseThrow();
+
+            // the results are reduced in path order, as in the sequential execution
+            assertEquals( List.of( "A", "B", "C", "D" ), state.steps() );
+            assertEquals( 10, state.<Integer>value( "c" ).orElseThrow() );
+            assertEquals( 20, state.<Integer>value( "d" ).orElseThrow() );
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void nodesRunSequentiallyByDefault() throws Exception {
+        var app = graph( new CyclicBarrier( 1 ) ).compile();
+
+        var nodes = app.stream( Map.of() ).stream()
+                .map( NodeOutput::node )
+                .toList();
+
+        assertEquals( List.of( START, "A", "B", "C", "D", END ), nodes );
+    }
+
+    @Test
+    public void nodeWithEdgeHooksIsNotGrouped() throws Exception {
+        final var hookedSources = new ArrayList<String>();
+
+        // A -> B is a candidate group, but the hooks of the edge from B would be dropped by it
+        var app = StepsState.graph()
+                .addNode( "A", StepsState.step( "A" ), Set.of(), Set.of( "steps" ) )
+                .addNode( "B", StepsState.step( "B" ), Set.of(), Set.of( "steps" ) )
+                .addAfterCallEdgeHook( "B", ( sourceId, state, config, lastResult ) -> {
+                    hookedSources.add( sourceId );
+                    return completedFuture( lastResult );
+                })
+                .addEdge( START, "A" )
+                .addEdge( "A", "B" )
+                .addConditionalEdges( "B", edge_async( state -> END ), Map.of( END, END ) )
+                .compile( CompileConfig.builder()
+                        .parallelizeIndependentNodes( true )
+                        .build() );
+
+        var nodes = app.stream( Map.of() ).stream()
+                .map( NodeOutput::node )
+                .toList();
+
+        assertEquals( List.of( START, "A", "B", END ), nodes );
+        assertEquals( List.of( "B" ), hookedSources );
+    }
+
+    @Test
+    public void nullPartialStateIsAccepted() throws Exception {
+        var app = StepsState.graph()
+                .addNode( "A", ( state, config ) -> completedFuture( null ), Set.of(), Set.of( "steps" ) )
+                .addNode( "B", StepsState.step( "B" ), Set.of(), Set.of( "steps" ) )
+                .addEdge( START, "A" )
+                .addEdge( "A", "B" )
+                .addEdge( "B", END )
+                .compile( CompileConfig.builder()
+                        .parallelizeIndependentNodes( true )
+                        .build() );
+
+        var state = app.invoke( Map.of() ).orElseThrow();
+
+        assertEquals( List.of( "B" ), state.steps() );
+    }
+
+    @Test
+    public void undeclaredWriteFails() throws Exception {
+        var app = StepsState.graph()
+                .addNode( "A", node_async( state -> Map.of( "a", 1, "b", 2 ) ), Set.of(), Set.of( "a" ) )
+                .addEdge( START, "A" )
+                .addEdge( "A", END )
+                .compile();
+
+        var ex = assertThrows( Exception.class, () -> app.invoke( Map.of() ) );
+        assertTrue( ex.getMessage().contains( "channel 'b' not declared" ), ex::getMessage );
+    }
+
+    @Test
+    public void blankChannelIsRejected() {
+        var graph = StepsState.graph();
+
+        assertThrows( GraphStateException.class, () ->
+                graph.addNode( "A", node_async( state -> Map.of() ), Set.of( " " ), Set.of() ) );
+    }
+
+    @Test
+    public void globalNodeHooksAreCalledOncePerGroup() throws Exception {
+        final var hookedNodes = new ArrayList<String>();
+
+        var app = StepsState.graph()
+                .addNode( "A", StepsState.step( "A" ), Set.of(), Set.of( "steps" ) )
+                .addNode( "B", StepsState.step( "B" ), Set.of(), Set.of( "steps" ) )
+                .addBeforeCallNodeHook( ( nodeId, state, config ) -> {
+                    hookedNodes.add( nodeId );
+                    return completedFuture( Map.of() );
+                })
+                .addEdge( START, "A" )
+                .addEdge( "A", "B" )
+                .addEdge( "B", END )
+                .compile( CompileConfig.builder()
+                        .parallelizeIndependentNodes( true )
+                        .build() );
+
+        var state = app.invoke( Map.of() ).orElseThrow();
+
+        assertEquals( List.of( "A", "B" ), state.steps() );
+        assertEquals( List.of( ParallelNode.formatNodeId( "A,B" ) ), hookedNodes );
+    }
+
+    @Test
+    public void subgraphCannotDeclareItsChannels() throws Exception {
+        var subgraph = StepsState.graph()
+                .addNode( "S", StepsState.step( "S" ) )
+                .addEdge( START, "S" )
+                .addEdge( "S", END )
+                .compile();
+
+        var graph = StepsState.graph();
+
+        var ex = assertThrows( GraphStateException.class, () -> graph.addNode( "subgraph",
+                new SubCompiledGraphNodeAction<>( "subgraph", CompileConfig.builder().build(), subgraph ),
+                Set.of(), Set.of( "steps" ) ) );
+        assertTrue( ex.getMessage().contains( "subgraph node 'subgraph' cannot declare its channels" ), ex::getMessage );
+    }
+}
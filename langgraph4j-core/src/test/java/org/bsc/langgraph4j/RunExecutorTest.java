@@ -0,0 +1,198 @@
+package org.bsc.langgraph4j;
+
+import org.bsc.langgraph4j.checkpoint.MemorySaver;
+import org.bsc.langgraph4j.utils.VirtualThreads;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.bsc.langgraph4j.StateGraph.END;
+import static org.bsc.langgraph4j.StateGraph.START;
+import static org.bsc.langgraph4j.action.AsyncNodeAction.node_async;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RunExecutorTest implements LG4JLoggable {
+
+    private static ExecutorService namedExecutor( String prefix ) {
+        final var counter = new AtomicLong();
+        return Executors.newCachedThreadPool( runnable -> {
+            var thread = new Thread( runnable, prefix + "-" + counter.incrementAndGet() );
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static StateGraph<StepsState> recordThreadGraph( long sleepMillis ) throws Exception {
+        return StepsState.graph()
+                .addNode( "A", node_async( state -> {
+                    Thread.sleep( sleepMillis );
+                    return Map.of( "steps", Thread.currentThread().getName() );
+                }))
+                .addEdge( START, "A" )
+                .addEdge( "A", END );
+    }
+
+    @Test
+    public void invokeAsyncRunsOnConfiguredExecutor() throws Exception {
+        final var compileExecutor = namedExecutor( "compile" );
+        final var runExecutor = namedExecutor( "run" );
+        try {
+            var app = recordThreadGraph( 0 ).compile( CompileConfig.builder()
+                    .executor( compileExecutor )
+                    .build() );
+
+            var result = app.invokeAsync( Map.of(), RunnableConfig.builder().build() ).join();
+            assertTrue( result.orElseThrow().steps().get(0).startsWith( "compile-" ) );
+
+            result = app.invokeAsync( Map.of(), RunnableConfig.builder().executor( runExecutor ).build() ).join();
+            assertTrue( result.orElseThrow().steps().get(0).startsWith( "run-" ) );
+        }
+        finally {
+            compileExecutor.shutdown();
+            runExecutor.shutdown();
+        }
+    }
+
+    @Test
+    public void parallelBranchesUseRunExecutor() throws Exception {
+        final var executor = namedExecutor( "branch" );
+        try {
+            var workflow = StepsState.graph()
+                    .addNode( "A1", node_async( state -> Map.of( "steps", Thread.currentThread().getName() + ":A1" ) ))
+                    .addNode( "A2", node_async( state -> Map.of( "steps", Thread.currentThread().getName() + ":A2" ) ))
+                    .addEdge( START, "A1" )
+                    .addEdge( START, "A2" )
+                    .addEdge( "A1", END )
+                    .addEdge( "A2", END );
+
+            var app = workflow.compile( CompileConfig.builder().executor( executor ).build() );
+
+            var result = app.invoke( Map.of(), RunnableConfig.builder().build() );
+
+            var threads = result.orElseThrow().steps();
+            assertEquals( 2, threads.size() );
+            assertTrue( threads.stream().allMatch( name -> name.startsWith( "branch-" ) ), threads::toString );
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    private long runConcurrently( CompiledGraph<StepsState> app, ExecutorService executor, int runs ) {
+        final var start = System.currentTimeMillis();
+        final var config = RunnableConfig.builder().executor( executor ).build();
+
+        @SuppressWarnings("unchecked")
+        final CompletableFuture<Optional<StepsState>>[] futures = new CompletableFuture[runs];
+        for( int i = 0 ; i < runs ; ++i ) {
+            futures[i] = app.invokeAsync( Map.of(), config );
+        }
+        CompletableFuture.allOf( futures ).join();
+
+        return System.currentTimeMillis() - start;
+    }
+
+    /**
+     * Compares the time needed to complete many concurrent executions of a graph whose node blocks,
+     * running them on a bounded pool of platform threads and on a thread per task ( virtual if supported ).
+     * It's a benchmark, enabled only by {@code -Dbenchmark=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty( named = "benchmark", matches = "true" )
+    public void concurrentRunsCapacity() throws Exception {
+        final int runs = 400;
+        final long blockingMillis = 20;
+        final var app = recordThreadGraph( blockingMillis ).compile();
+
+        final var boundedExecutor = Executors.newFixedThreadPool( 16 );
+        final var perTaskExecutor = VirtualThreads.newThreadPerTaskExecutor( "graph-run" );
+        try {
+            // warm up
+            runConcurrently( app, perTaskExecutor, 16 );
+
+            final var boundedElapsed = runConcurrently( app, boundedExecutor, runs );
+            final var perTaskElapsed = runConcurrently( app, perTaskExecutor, runs );
+
+            log.info( "{} concurrent runs blocking {}ms: bounded(16) {}ms, thread per task (virtual={}) {}ms",
+                    runs, blockingMillis, boundedElapsed, VirtualThreads.isSupported(), perTaskElapsed );
+
+            // the bounded pool needs at least runs / pool size sequential waves
+            assertTrue( boundedElapsed >= ( runs / 16 ) * blockingMillis );
+        }
+        finally {
+            boundedExecutor.shutdown();
+            perTaskExecutor.shutdown();
+        }
+    }
+
+    @Test
+    public void batchKeepsInputOrderAndBoundsConcurrency() throws Exception {
+        final var inFlight = new AtomicInteger();
+        final var maxInFlight = new AtomicInteger();
+        final var saver = new MemorySaver();
+
+        var workflow = StepsState.graph()
+                .addNode( "A", node_async( state -> {
+                    maxInFlight.accumulateAndGet( inFlight.incrementAndGet(), Math::max );
+                    try {
+                        Thread.sleep( 10 );
+                        var input = state.<String>value( "input" ).orElseThrow();
+                        if( input.equals( "input-5" ) ) {
+                            throw new IllegalArgumentException( input );
+                        }
+                        return Map.of( "steps", input );
+                    }
+                    finally {
+                        inFlight.decrementAndGet();
+                    }
+                }))
+                .addEdge( START, "A" )
+                .addEdge( "A", END );
+
+        var app = workflow.compile( CompileConfig.builder().checkpointSaver( saver ).build() );
+
+        var inputs = IntStream.range( 0, 20 )
+                .mapToObj( i -> GraphInput.args( Map.of( "input", "input-" + i ) ) )
+                .toList();
+
+        var results = app.batch( inputs,
+                RunnableConfig.builder().threadId( "batch" ).build(),
+                BatchOptions.builder().maxConcurrency( 3 ).build() );
+
+        assertEquals( 20, results.size() );
+        assertTrue( maxInFlight.get() <= 3 );
+
+        for( int i = 0 ; i < results.size() ; ++i ) {
+            var result = results.get(i);
+            assertEquals( "batch-" + i, result.config().threadId().orElseThrow() );
+            if( i == 5 ) {
+                assertTrue( result.isError() );
+                assertTrue( result.state().isEmpty() );
+            }
+            else {
+                assertFalse( result.isError(), () -> String.valueOf( result.error() ) );
+                assertEquals( List.of( "input-" + i ), result.state().orElseThrow().steps() );
+                assertTrue( saver.get( result.config() ).isPresent() );
+            }
+        }
+
+        // fail fast skips the inputs not yet started
+        results = app.batch( inputs,
+                RunnableConfig.builder().build(),
+                BatchOptions.builder().maxConcurrency( 1 ).failFast( true ).build() );
+
+        assertFalse( results.get(4).isError() );
+        assertTrue( results.get(5).isError() );
+        assertInstanceOf( CancellationException.class, results.get(6).error() );
+    }
+}
@@ -3,9 +3,11 @@ package org.bsc.langgraph4j;
 import org.junit.jupiter.api.Test;
 
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class RunnableConfigTest {
 
@@ -28,4 +30,90 @@ public class RunnableConfigTest {
         assertTrue( config.metadata("graphPath").isPresent() );
         assertEquals( "test1/test2", config.metadata("graphPath").get() );
     }
+
+    @Test
+    public void runnableConfigLayeredMetadataTest() {
+        final var path = GraphPath.empty().append( "graph" );
+        final var root = RunnableConfig.builder()
+                .threadId( "thread" )
+                .addMetadata( "user", "u1" )
+                .addMetadata( "tenant", "t1" )
+                .build();
+
+        var config = root.updateMetadata( Map.of( RunnableConfig.NODE_ID, "A",
+                RunnableConfig.GRAPH_ID, "graph",
+                RunnableConfig.GRAPH_PATH, path ) );
+
+        assertEquals( "A", config.nodeId() );
+        assertEquals( Optional.of( "graph" ), config.graphId() );
+        assertEquals( path, config.graphPath() );
+        assertEquals( Optional.of( "A" ), config.metadata( RunnableConfig.NODE_ID ) );
+        assertEquals( Optional.of( "thread" ), config.threadId() );
+        assertEquals( Set.of( "user", "tenant", RunnableConfig.NODE_ID, RunnableConfig.GRAPH_ID, RunnableConfig.GRAPH_PATH ),
+                config.metadataKeys() );
+        // the original configuration is unchanged
+        assertThrows( NoSuchElementException.class, root::nodeId );
+        assertTrue( root.graphPath().isEmpty() );
+
+        // the builder derives from the layers
+        var derived = RunnableConfig.builder( config )
+                .removeMetadata( "user" )
+                .putMetadata( "tenant", "t2" )
+                .addMetadata( "user", "u2" )
+                .removeMetadata( RunnableConfig.NODE_ID )
+                .build();
+
+        assertEquals( Optional.of( "u2" ), derived.metadata( "user" ) );
+        assertEquals( Optional.of( "t2" ), derived.metadata( "tenant" ) );
+        assertTrue( derived.metadata( RunnableConfig.NODE_ID ).isEmpty() );
+        assertEquals( path, derived.graphPath() );
+        assertEquals( Optional.of( "t1" ), config.metadata( "tenant" ) );
+
+        final var builder = RunnableConfig.builder( derived );
+        assertThrows( IllegalArgumentException.class, () -> builder.addMetadata( "tenant", "t3" ) );
+
+        derived = RunnableConfig.builder( derived ).removeMetadata( "user" ).build();
+        assertTrue( derived.metadata( "user" ).isEmpty() );
+        assertFalse( derived.metadataKeys().contains( "user" ) );
+
+        // deep derivations keep every value
+        var deep = root;
+        for( int i = 0; i < 20; ++i ) {
+            deep = deep.updateMetadata( Map.of( "key" + i, i ) );
+        }
+        for( int i = 0; i < 20; ++i ) {
+            assertEquals( Optional.of( i ), deep.metadata( "key" + i ) );
+        }
+        assertEquals( Optional.of( "u1" ), deep.metadata( "user" ) );
+    }
+
+    @Test
+    public void builderMetadataIsTheMergedView() {
+        final var path = GraphPath.empty().append( "graph" );
+        final var config = RunnableConfig.builder()
+                .addMetadata( "user", "u1" )
+                .addMetadata( "tenant", "t1" )
+                .build()
+                .updateMetadata( Map.of( RunnableConfig.NODE_ID, "A", RunnableConfig.GRAPH_PATH, path ) );
+
+        var builder = RunnableConfig.builder( config )
+                .removeMetadata( "user" )
+                .putMetadata( "tenant", "t2" )
+                .addMetadata( "session", "s1" );
+
+        assertEquals( Map.of( "tenant", "t2",
+                        "session", "s1",
+                        RunnableConfig.NODE_ID, "A",
+                        RunnableConfig.GRAPH_PATH, path ),
+                builder.metadata() );
+        assertThrows( UnsupportedOperationException.class, () -> builder.metadata().put( "user", "u2" ) );
+
+        // the removed key can be added again
+        builder.addMetadata( "user", "u2" );
+        assertEquals( "u2", builder.metadata().get( "user" ) );
+
+        final var derived = builder.build();
+        assertEquals( builder.metadata().keySet(), derived.metadataKeys() );
+        assertEquals( Optional.of( "t2" ), derived.metadata( "tenant" ) );
+    }
 }
@@ -0,0 +1,208 @@
+package org.bsc.langgraph4j;
+
+import org.bsc.langgraph4j.action.Send;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.bsc.langgraph4j.StateGraph.END;
+import static org.bsc.langgraph4j.StateGraph.START;
+import static org.bsc.langgraph4j.action.AsyncNodeAction.node_async;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SendNodeTest {
+
+    private StateGraph<StepsState> mapReduceGraph( int items, int maxConcurrency, AtomicInteger maxInFlight ) throws Exception {
+        final var inFlight = new AtomicInteger();
+
+        return StepsState.graph()
+                .addSendNode( "map", ( state, config ) -> completedFuture(
+                        IntStream.range( 0, items )
+                                .mapToObj( i -> new Send( "worker", Map.of( "item", "item-" + i ) ) )
+                                .toList() ), maxConcurrency )
+                .addNode( "worker", node_async( state -> {
+                    maxInFlight.accumulateAndGet( inFlight.incrementAndGet(), Math::max );
+                    try {
+                        Thread.sleep( 10 );
+                        return Map.of( "steps", state.<String>value( "item" ).orElseThrow() );
+                    }
+                    finally {
+                        inFlight.decrementAndGet();
+                    }
+                }))
+                .addNode( "reduce", node_async( state -> Map.of( "steps", "reduced-" + state.steps().size() ) ))
+                .addEdge( START, "map" )
+                .addEdge( "map", "reduce" )
+                .addEdge( "reduce", END );
+    }
+
+    @Test
+    public void fanOutIsBoundedAndReducedInSendOrder() throws Exception {
+        final var maxInFlight = new AtomicInteger();
+        final var executor = Executors.newCachedThreadPool();
+        try {
+            var app = mapReduceGraph( 10, 3, maxInFlight ).compile();
+
+            var result = app.invoke( Map.of(), RunnableConfig.builder().executor( executor ).build() );
+
+            var expected = new ArrayList<String>();
+            IntStream.range( 0, 10 ).forEach( i -> expected.add( "item-" + i ) );
+            expected.add( "reduced-10" );
+
+            assertEquals( expected, result.orElseThrow().steps() );
+            assertTrue( maxInFlight.get() <= 3, () -> "max in flight " + maxInFlight.get() );
+            assertTrue( maxInFlight.get() > 1, () -> "max in flight " + maxInFlight.get() );
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void fanOutWithoutExecutorRunsSequentially() throws Exception {
+        final var maxInFlight = new AtomicInteger();
+
+        var app = mapReduceGraph( 5, 3, maxInFlight ).compile();
+
+        var result = app.invoke( Map.of() );
+
+        assertEquals( List.of( "item-0", "item-1", "item-2", "item-3", "item-4", "reduced-5" ),
+                result.orElseThrow().steps() );
+        assertEquals( 1, maxInFlight.get() );
+    }
+
+    @Test
+    public void sendToUndefinedNodeFails() throws Exception {
+        var app = StepsState.graph()
+                .addSendNode( "map", ( state, config ) -> completedFuture( List.of( new Send( "missing" ) ) ) )
+                .addEdge( START, "map" )
+                .addEdge( "map", END )
+                .compile();
+
+        var ex = assertThrows( Exception.class, () -> app.invoke( Map.of() ) );
+        assertTrue( ex.getMessage().contains( "missing" ), ex::getMessage );
+    }
+
+    @Test
+    public void sendTargetsRunWithTheirHooksAndMetadata() throws Exception {
+        final var calls = new CopyOnWriteArrayList<String>();
+
+        var app = StepsState.graph()
+                .addSendNode( "map", ( state, config ) -> completedFuture(
+                        List.of( new Send( "worker", Map.of( "item", "a" ) ), new Send( "worker", Map.of( "item", "b" ) ) ) ) )
+                .addNode( "worker", ( state, config ) -> completedFuture(
+                        Map.of( "steps", config.nodeId() + ":" + state.<String>value( "item" ).orElseThrow() ) ) )
+                .addWrapCallNodeHook( "worker", ( nodeId, state, config, action ) -> {
+                    calls.add( nodeId );
+                    return action.apply( state, config );
+                })
+                .addEdge( START, "map" )
+                .addEdge( "map", END )
+                .compile();
+
+        var result = app.invoke( Map.of() );
+
+        assertEquals( List.of( "worker:a", "worker:b" ), result.orElseThrow().steps() );
+        assertEquals( List.of( "worker", "worker" ), calls );
+    }
+
+    @Test
+    public void sendsDontBlockTheExecutorThreads() throws Exception {
+        // the first send completes only when the second one starts, on the same single thread
+        final var secondStarted = new CompletableFuture<Map<String, Object>>();
+        final var executor = Executors.newSingleThreadExecutor();
+        try {
+            var app = StepsState.graph()
+                    .addSendNode( "map", ( state, config ) -> completedFuture(
+                            List.of( new Send( "first" ), new Send( "second" ) ) ), 2 )
+                    .addNode( "first", ( state, config ) -> secondStarted )
+                    .addNode( "second", ( state, config ) -> {
+                        secondStarted.complete( Map.of( "steps", "first" ) );
+                        return completedFuture( Map.of( "steps", "second" ) );
+                    })
+                    .addEdge( START, "map" )
+                    .addEdge( "map", END )
+                    .compile();
+
+            var result = CompletableFuture.supplyAsync( () -> app.invoke( Map.of(), RunnableConfig.builder().executor( executor ).build() ) )
+                    .get( 5, TimeUnit.SECONDS );
+
+            assertEquals( List.of( "first", "second" ), result.orElseThrow().steps() );
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void failingSendCancelsTheOthers() throws Exception {
+        final var pending = new CompletableFuture<Map<String, Object>>();
+        final var pendingStarted = new CompletableFuture<Void>();
+        final var executor = Executors.newCachedThreadPool();
+        try {
+            var app = StepsState.graph()
+                    .addSendNode( "map", ( state, config ) -> completedFuture(
+                            List.of( new Send( "pending" ), new Send( "failing" ), new Send( "skipped" ) ) ), 2 )
+                    .addNode( "pending", ( state, config ) -> {
+                        pendingStarted.complete( null );
+                        return pending;
+                    })
+                    .addNode( "failing", ( state, config ) -> pendingStarted.thenCompose( v ->
+                            CompletableFuture.<Map<String, Object>>failedFuture( new IllegalStateException( "send failed" ) ) ) )
+                    .addNode( "skipped", node_async( state -> fail( "send not expected to start" ) ) )
+                    .addEdge( START, "map" )
+                    .addEdge( "map", END )
+                    .compile();
+
+            var ex = assertThrows( Exception.class, () -> app.invoke( Map.of(), RunnableConfig.builder().executor( executor ).build() ) );
+            assertTrue( ex.getMessage().contains( "send failed" ), ex::getMessage );
+            // the running send is cancelled by the thread that observes the failure
+            assertThrows( CancellationException.class, () -> pending.get( 5, TimeUnit.SECONDS ) );
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void declaredSendTargetsAreValidated() throws Exception {
+        var workflow = StepsState.graph()
+                .addSendNode( "map", ( state, config ) -> completedFuture( List.of( new Send( "other" ) ) ), 1, Set.of( "missing" ) )
+                .addNode( "other", StepsState.step( "other" ) )
+                .addEdge( START, "map" )
+                .addEdge( "map", END );
+
+        var ex = assertThrows( GraphStateException.class, workflow::compile );
+        assertEquals( "send node 'map' refers to a not existent target node 'missing'!", ex.getMessage() );
+
+        var app = StepsState.graph()
+                .addSendNode( "map", ( state, config ) -> completedFuture( List.of( new Send( "other" ) ) ), 1, Set.of( "worker" ) )
+                .addNode( "worker", StepsState.step( "worker" ) )
+                .addNode( "other", StepsState.step( "other" ) )
+                .addEdge( START, "map" )
+                .addEdge( "map", END )
+                .compile();
+
+        var runtimeEx = assertThrows( Exception.class, () -> app.invoke( Map.of() ) );
+        assertTrue( runtimeEx.getMessage().contains( "send node 'map' refers to a not existent target node 'other'!" ), runtimeEx::getMessage );
+    }
+
+    @Test
+    public void maxConcurrencyMustBePositive() {
+        var workflow = StepsState.graph();
+
+        assertThrows( GraphStateException.class,
+                () -> workflow.addSendNode( "map", ( state, config ) -> completedFuture( List.of() ), 0 ) );
+    }
+}
@@ -0,0 +1,46 @@
+package org.bsc.langgraph4j;
+
+import org.bsc.langgraph4j.action.AsyncNodeAction;
+import org.bsc.langgraph4j.state.AgentState;
+import org.bsc.langgraph4j.state.Channel;
+import org.bsc.langgraph4j.state.Channels;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.bsc.langgraph4j.action.AsyncNodeAction.node_async;
+
+/**
+ * Test state that appends the values written by the nodes to the "steps" channel
+ */
+public class StepsState extends AgentState {
+
+    public static final Map<String, Channel<?>> SCHEMA = Map.of(
+            "steps", Channels.appender(ArrayList::new)
+    );
+
+    public StepsState( Map<String, Object> initData ) {
+        super( initData );
+    }
+
+    public List<String> steps() {
+        return this.<List<String>>value("steps")
+                .orElseGet( List::of);
+    }
+
+    /**
+     * @return a new graph of this state
+     */
+    public static StateGraph<StepsState> graph() {
+        return new StateGraph<>( SCHEMA, StepsState::new );
+    }
+
+    /**
+     * @param value the value to append
+     * @return an action that appends the given value to the steps
+     */
+    public static AsyncNodeAction<StepsState> step( String value ) {
+        return node_async( state -> Map.of( "steps", value ) );
+    }
+}
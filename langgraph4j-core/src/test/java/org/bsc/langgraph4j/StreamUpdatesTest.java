@@ -0,0 +1,90 @@
+package org.bsc.langgraph4j;
+
+import org.bsc.langgraph4j.state.AgentState;
+import org.bsc.langgraph4j.streaming.NodeUpdate;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.bsc.langgraph4j.StateGraph.END;
+import static org.bsc.langgraph4j.StateGraph.START;
+import static org.bsc.langgraph4j.action.AsyncNodeAction.node_async;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StreamUpdatesTest {
+
+    private CompiledGraph<StepsState> graph() throws Exception {
+        return StepsState.graph()
+                .addNode( "A", StepsState.step( "A" ) )
+                .addNode( "B", node_async( state -> Map.of( "count", 1 ) ) )
+                .addEdge( START, "A" )
+                .addEdge( "A", "B" )
+                .addEdge( "B", END )
+                .compile();
+    }
+
+    @Test
+    public void updatesCarryOnlyChangedValues() throws Exception {
+        var app = graph();
+
+        var outputs = app.stream( Map.of( "input", "hello" ),
+                        RunnableConfig.builder().streamMode( CompiledGraph.StreamMode.UPDATES ).build() )
+                .stream()
+                .map( output -> assertInstanceOf( NodeUpdate.class, output ) )
+                .toList();
+
+        assertEquals( List.of( START, "A", "B", END ), outputs.stream().map( NodeOutput::node ).toList() );
+
+        // the first output carries the initial state
+        assertEquals( Map.of( "input", "hello", "steps", List.of() ), outputs.get(0).update() );
+        // the update is the value after the channel reduction
+        assertEquals( Map.of( "steps", List.of( "A" ) ), outputs.get(1).update() );
+        assertEquals( Map.of( "count", 1 ), outputs.get(2).update() );
+        assertEquals( Map.of(), outputs.get(3).update() );
+
+        // the state is materialized on demand
+        var state = (StepsState) outputs.get(2).state();
+        assertEquals( List.of( "A" ), state.steps() );
+        assertEquals( 1, state.<Integer>value( "count" ).orElseThrow() );
+        assertSame( state, outputs.get(2).state() );
+    }
+
+    @Test
+    public void updatesCarryRewrittenAndRemovedKeys() throws Exception {
+        var app = StepsState.graph()
+                .addNode( "A", node_async( state -> Map.of( "count", 1 ) ) )
+                .addNode( "B", node_async( state -> Map.of( "count", 1, "input", AgentState.MARK_FOR_REMOVAL ) ) )
+                .addEdge( START, "A" )
+                .addEdge( "A", "B" )
+                .addEdge( "B", END )
+                .compile();
+
+        var outputs = app.stream( Map.of( "input", "hello" ),
+                        RunnableConfig.builder().streamMode( CompiledGraph.StreamMode.UPDATES ).build() )
+                .stream()
+                .map( output -> assertInstanceOf( NodeUpdate.class, output ) )
+                .toList();
+
+        assertEquals( Map.of( "count", 1 ), outputs.get(1).update() );
+        assertEquals( Set.of(), outputs.get(1).removed() );
+        // the same value written again is still an update of the node
+        assertEquals( Map.of( "count", 1 ), outputs.get(2).update() );
+        assertEquals( Set.of( "input" ), outputs.get(2).removed() );
+        assertFalse( outputs.get(2).state().value( "input" ).isPresent() );
+    }
+
+    @Test
+    public void invokeWithUpdatesReturnsFullState() throws Exception {
+        var app = graph();
+
+        var state = app.invoke( Map.of( "input", "hello" ),
+                        RunnableConfig.builder().streamMode( CompiledGraph.StreamMode.UPDATES ).build() )
+                .orElseThrow();
+
+        assertEquals( "hello", state.<String>value( "input" ).orElseThrow() );
+        assertEquals( List.of( "A" ), state.steps() );
+        assertEquals( 1, state.<Integer>value( "count" ).orElseThrow() );
+    }
+}
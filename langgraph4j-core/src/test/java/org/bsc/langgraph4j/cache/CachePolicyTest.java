@@ -0,0 +1,102 @@
+package org.bsc.langgraph4j.cache;
+
+import org.bsc.langgraph4j.StateGraph;
+import org.bsc.langgraph4j.StepsState;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.bsc.langgraph4j.StateGraph.END;
+import static org.bsc.langgraph4j.StateGraph.START;
+import static org.bsc.langgraph4j.action.AsyncNodeAction.node_async;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CachePolicyTest {
+
+    private StateGraph<StepsState> retrieveGraph( AtomicInteger calls, CachePolicy<StepsState> policy ) throws Exception {
+        return StepsState.graph()
+                .addNode( "retrieve", node_async( state -> {
+                    calls.incrementAndGet();
+                    return Map.of( "steps", "doc for " + state.value( "question" ).orElseThrow() );
+                }), policy )
+                .addEdge( START, "retrieve" )
+                .addEdge( "retrieve", END );
+    }
+
+    @Test
+    public void cachedResultIsAppliedThroughChannels() throws Exception {
+        final var calls = new AtomicInteger();
+        final var policy = CachePolicy.<StepsState>builder( "question" ).build();
+
+        var app = retrieveGraph( calls, policy ).compile();
+
+        var result = app.invoke( Map.of( "question", "q1" ) );
+        assertEquals( List.of( "doc for q1" ), result.orElseThrow().steps() );
+
+        result = app.invoke( Map.of( "question", "q1" ) );
+        assertEquals( List.of( "doc for q1" ), result.orElseThrow().steps() );
+
+        result = app.invoke( Map.of( "question", "q2" ) );
+        assertEquals( List.of( "doc for q2" ), result.orElseThrow().steps() );
+
+        assertEquals( 2, calls.get() );
+        assertEquals( new CachePolicy.Stats( 1, 2 ), policy.stats() );
+        assertEquals( 1.0 / 3, policy.stats().hitRate(), 0.0001 );
+    }
+
+    @Test
+    public void entriesExpireAndAreEvicted() throws Exception {
+        final var calls = new AtomicInteger();
+        final var cache = new InMemoryNodeCache( 2 );
+        final var policy = CachePolicy.<StepsState>builder( state -> state.value( "question" ).orElse( null ) )
+                .ttl( Duration.ofMillis( 100 ) )
+                .cache( cache )
+                .build();
+
+        var app = retrieveGraph( calls, policy ).compile();
+
+        app.invoke( Map.of( "question", "q1" ) );
+        app.invoke( Map.of( "question", "q1" ) );
+        assertEquals( 1, calls.get() );
+
+        Thread.sleep( 150 );
+        app.invoke( Map.of( "question", "q1" ) );
+        assertEquals( 2, calls.get() );
+
+        app.invoke( Map.of( "question", "q2" ) );
+        app.invoke( Map.of( "question", "q3" ) );
+        assertEquals( 2, cache.size() );
+
+        // q1 has been evicted
+        app.invoke( Map.of( "question", "q1" ) );
+        assertEquals( 5, calls.get() );
+    }
+
+    @Test
+    public void keysOfDifferentValuesDontCollide() throws Exception {
+        final var calls = new AtomicInteger();
+        final var policy = CachePolicy.<StepsState>builder( "a", "b" ).build();
+
+        var app = StepsState.graph()
+                .addNode( "join", node_async( state -> {
+                    calls.incrementAndGet();
+                    return Map.of( "steps", state.value( "a" ).orElseThrow() + "|" + state.value( "b" ).orElseThrow() );
+                }), policy )
+                .addEdge( START, "join" )
+                .addEdge( "join", END )
+                .compile();
+
+        // both pairs have the same string representation [x, y, z]
+        var result = app.invoke( Map.of( "a", "x, y", "b", "z" ) );
+        assertEquals( List.of( "x, y|z" ), result.orElseThrow().steps() );
+
+        result = app.invoke( Map.of( "a", "x", "b", "y, z" ) );
+        assertEquals( List.of( "x|y, z" ), result.orElseThrow().steps() );
+
+        assertEquals( 2, calls.get() );
+        assertEquals( new CachePolicy.Stats( 0, 2 ), policy.stats() );
+    }
+}
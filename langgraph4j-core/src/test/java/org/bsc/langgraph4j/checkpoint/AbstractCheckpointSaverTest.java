@@ -0,0 +1,159 @@
+package org.bsc.langgraph4j.checkpoint;
+
+import org.bsc.langgraph4j.RunnableConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AbstractCheckpointSaverTest {
+
+    /**
+     * Saver whose insert waits until all the expected threads are inserting at the same time
+     */
+    static class BarrierSaver extends AbstractCheckpointSaver {
+        final Map<String, LinkedList<Checkpoint>> checkpointsByThread = new ConcurrentHashMap<>();
+        final CountDownLatch inserting;
+
+        BarrierSaver( int threads ) {
+            inserting = new CountDownLatch(threads);
+        }
+
+        @Override
+        protected LinkedList<Checkpoint> loadCheckpoints(RunnableConfig config) {
+            return checkpointsByThread.computeIfAbsent( threadId(config), k -> new LinkedList<>() );
+        }
+
+        @Override
+        protected void insertedCheckpoint(RunnableConfig config, LinkedList<Checkpoint> checkpoints, Checkpoint checkpoint) throws Exception {
+            inserting.countDown();
+            if( !inserting.await( 5, TimeUnit.SECONDS ) ) {
+                throw new IllegalStateException( "inserts are not running in parallel" );
+            }
+        }
+
+        @Override
+        protected void updatedCheckpoint(RunnableConfig config, LinkedList<Checkpoint> checkpoints, Checkpoint checkpoint) {
+        }
+
+        @Override
+        protected Tag releaseCheckpoints(RunnableConfig config, LinkedList<Checkpoint> checkpoints) {
+            return new Tag( threadId(config), checkpointsByThread.remove( threadId(config) ) );
+        }
+    }
+
+    @Test
+    public void putOnDifferentThreadsRunInParallel() throws Exception {
+        final int threads = 4;
+        final var saver = new BarrierSaver( threads );
+
+        final var executor = Executors.newFixedThreadPool( threads );
+        try {
+            var futures = new LinkedList<Future<RunnableConfig>>();
+            for( int i = 0 ; i < threads ; ++i ) {
+                final var config = RunnableConfig.builder().threadId( "T" + i ).build();
+                futures.add( executor.submit( () -> saver.put( config, Checkpoint.builder()
+                        .nodeId( "node" )
+                        .nextNodeId( "next" )
+                        .state( Map.of( "step", 1 ) )
+                        .build() ) ) );
+            }
+            for( var future : futures ) {
+                assertTrue( future.get( 10, TimeUnit.SECONDS ).checkPointId().isPresent() );
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+
+        for( int i = 0 ; i < threads ; ++i ) {
+            assertEquals( 1, saver.list( RunnableConfig.builder().threadId( "T" + i ).build() ).size() );
+        }
+    }
+
+    @Test
+    public void threadLocksAreEvicted() throws Exception {
+        final var locks = new ThreadLocks();
+
+        var result = locks.withLock( "T1", threadId -> {
+            assertEquals( 1, locks.size() );
+            return locks.withLock( "T1", id -> id + locks.size() );
+        });
+
+        assertEquals( "T11", result );
+        assertEquals( 0, locks.size() );
+    }
+
+    /**
+     * Saver that keeps track of the number of checkpoints loaded
+     */
+    static class CountingSaver extends AbstractCheckpointSaver {
+        final LinkedList<Checkpoint> stored = new LinkedList<>();
+        int loaded = 0;
+
+        CountingSaver( int keyframeInterval ) {
+            super( keyframeInterval );
+        }
+
+        @Override
+        protected LinkedList<Checkpoint> loadCheckpoints(RunnableConfig config) {
+            loaded += stored.size();
+            return new LinkedList<>(stored);
+        }
+
+        @Override
+        protected LinkedList<Checkpoint> loadLatestCheckpoints(RunnableConfig config, int limit) {
+            var result = new LinkedList<>( stored.subList( 0, Math.min( limit, stored.size() ) ) );
+            loaded += result.size();
+            return result;
+        }
+
+        @Override
+        protected void insertedCheckpoint(RunnableConfig config, LinkedList<Checkpoint> checkpoints, Checkpoint checkpoint) {
+            stored.push( checkpoint );
+        }
+
+        @Override
+        protected void updatedCheckpoint(RunnableConfig config, LinkedList<Checkpoint> checkpoints, Checkpoint checkpoint) {
+            stored.clear();
+            stored.addAll( checkpoints );
+        }
+
+        @Override
+        protected Tag releaseCheckpoints(RunnableConfig config, LinkedList<Checkpoint> checkpoints) {
+            return new Tag( threadId(config), checkpoints );
+        }
+    }
+
+    @Test
+    public void appendDoesNotLoadHistory() throws Exception {
+        final var saver = new CountingSaver( 3 );
+        final var config = RunnableConfig.builder().threadId( "T1" ).build();
+
+        for( int i = 0 ; i < 100 ; ++i ) {
+            saver.put( config, Checkpoint.builder()
+                    .nodeId( "node" )
+                    .nextNodeId( "next" )
+                    .state( Map.of( "step", i ) )
+                    .build() );
+        }
+        // at most 'keyframeInterval' checkpoints are loaded for each step
+        assertTrue( saver.loaded <= 3 * 100 );
+
+        saver.loaded = 0;
+        var last = saver.get( config ).orElseThrow();
+        assertEquals( 99, last.getState().get("step") );
+        assertTrue( saver.loaded <= 3 );
+
+        var all = saver.list( config );
+        assertEquals( 100, all.size() );
+        assertEquals( 0, all.stream().reduce( (first, second) -> second ).orElseThrow().getState().get("step") );
+    }
+}
@@ -0,0 +1,101 @@
+package org.bsc.langgraph4j.checkpoint;
+
+import org.bsc.langgraph4j.RunnableConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CachingCheckpointSaverTest {
+
+    /**
+     * Saver that keeps track of the reads
+     */
+    static class CountingSaver implements BaseCheckpointSaver {
+        final MemorySaver saver = new MemorySaver();
+        int reads = 0;
+
+        @Override
+        public Optional<Checkpoint> get(RunnableConfig config) {
+            ++reads;
+            return saver.get(config);
+        }
+
+        @Override
+        public Collection<Checkpoint> list(RunnableConfig config) {
+            ++reads;
+            return saver.list(config);
+        }
+
+        @Override
+        public RunnableConfig put(RunnableConfig config, Checkpoint checkpoint) throws Exception {
+            return saver.put(config, checkpoint);
+        }
+
+        @Override
+        public Tag release(RunnableConfig config) throws Exception {
+            return saver.release(config);
+        }
+    }
+
+    private Checkpoint checkpoint( int step ) {
+        return Checkpoint.builder()
+                .nodeId( "node" )
+                .nextNodeId( "next" )
+                .state( Map.of( "step", step ) )
+                .build();
+    }
+
+    @Test
+    public void readsAreServedByCache() throws Exception {
+        final var delegate = new CountingSaver();
+        final var saver = CachingCheckpointSaver.builder( delegate ).build();
+        final var config = RunnableConfig.builder().threadId( "T1" ).build();
+
+        saver.put( config, checkpoint(1) );
+        var lastConfig = saver.put( config, checkpoint(2) );
+
+        // latest checkpoint cached by the append
+        assertEquals( 2, saver.get( config ).orElseThrow().getState().get("step") );
+        assertEquals( 2, saver.get( lastConfig ).orElseThrow().getState().get("step") );
+        assertEquals( 0, delegate.reads );
+
+        assertEquals( 2, saver.list( config ).size() );
+        assertEquals( 2, saver.list( config ).size() );
+        assertEquals( 1, delegate.reads );
+        assertEquals( new CachingCheckpointSaver.Stats( 3, 1, 0 ), saver.stats() );
+
+        // replacement invalidates the thread
+        var last = saver.get( config ).orElseThrow();
+        saver.put( lastConfig, last.updateState( Map.of( "step", 3 ), Map.of() ) );
+        assertEquals( 3, saver.get( config ).orElseThrow().getState().get("step") );
+        assertEquals( List.of( 3, 1 ), saver.list( config ).stream().map( cp -> cp.getState().get("step") ).toList() );
+        assertEquals( 3, delegate.reads );
+
+        saver.release( config );
+        assertEquals( 0, saver.cachedThreads() );
+        assertTrue( saver.get( config ).isEmpty() );
+    }
+
+    @Test
+    public void leastRecentlyUsedThreadIsEvicted() throws Exception {
+        final var delegate = new CountingSaver();
+        final var saver = CachingCheckpointSaver.builder( delegate ).maxThreads( 2 ).build();
+
+        for( int i = 0 ; i < 3 ; ++i ) {
+            saver.put( RunnableConfig.builder().threadId( "T" + i ).build(), checkpoint(i) );
+        }
+        assertEquals( 2, saver.cachedThreads() );
+        assertEquals( 1, saver.stats().evictions() );
+
+        assertEquals( 0, saver.get( RunnableConfig.builder().threadId( "T0" ).build() ).orElseThrow().getState().get("step") );
+        assertEquals( 1, delegate.reads );
+        assertEquals( 2, saver.get( RunnableConfig.builder().threadId( "T2" ).build() ).orElseThrow().getState().get("step") );
+        assertEquals( 1, delegate.reads );
+        assertEquals( 0.5, saver.stats().hitRate() );
+    }
+}
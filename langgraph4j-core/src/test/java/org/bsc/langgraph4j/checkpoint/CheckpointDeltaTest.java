@@ -0,0 +1,170 @@
+package org.bsc.langgraph4j.checkpoint;
+
+import org.bsc.langgraph4j.CompileConfig;
+import org.bsc.langgraph4j.RunnableConfig;
+import org.bsc.langgraph4j.StateGraph;
+import org.bsc.langgraph4j.prebuilt.MessagesState;
+import org.bsc.langgraph4j.state.StateSnapshot;
+import org.bsc.langgraph4j.utils.PersistentVector;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.bsc.langgraph4j.StateGraph.END;
+import static org.bsc.langgraph4j.StateGraph.START;
+import static org.bsc.langgraph4j.action.AsyncNodeAction.node_async;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CheckpointDeltaTest {
+
+    private StateGraph<MessagesState<String>> workflow() throws Exception {
+        var workflow = new StateGraph<>( MessagesState.SCHEMA, MessagesState<String>::new );
+
+        String previous = START;
+        for( int i = 1 ; i <= 7 ; ++i ) {
+            final var step = i;
+            final var nodeId = "agent_" + i;
+            workflow.addNode( nodeId, node_async( state -> ( step == 4 ) ?
+                    Map.of( "messages", "m" + step ) :
+                    Map.of( "messages", "m" + step, "step", step ) ));
+            workflow.addEdge( previous, nodeId );
+            previous = nodeId;
+        }
+        return workflow.addEdge( previous, END );
+    }
+
+    private List<Map<String,Object>> history( BaseCheckpointSaver saver ) throws Exception {
+        var app = workflow().compile( CompileConfig.builder().checkpointSaver(saver).build() );
+        var config = RunnableConfig.builder().threadId("T1").build();
+
+        app.invoke( Map.of( "messages", "m0" ), config );
+
+        return app.getStateHistory( config ).stream()
+                .map( StateSnapshot::state )
+                .map( MessagesState::data )
+                .toList();
+    }
+
+    @Test
+    public void deltaCheckpointsTest() throws Exception {
+
+        var saver = new MemorySaver( 3 );
+
+        var expected = history( new MemorySaver() );
+        var result = history( saver );
+
+        assertEquals( expected, result );
+
+        var stored = saver.cache().get("T1");
+        assertEquals( expected.size(), stored.size() );
+        // oldest checkpoint is always a keyframe, then one keyframe every 3 checkpoints
+        assertFalse( CheckpointDelta.isDelta( stored.getLast() ) );
+        assertEquals( (stored.size() + 2) / 3, stored.stream().filter( cp -> !CheckpointDelta.isDelta(cp) ).count() );
+
+        var delta = stored.stream().filter( CheckpointDelta::isDelta ).findFirst().orElseThrow();
+        var appended = (List<?>) delta.getState().get( "messages" );
+        assertEquals( 1, appended.size() );
+
+        // last state
+        var last = saver.get( RunnableConfig.builder().threadId("T1").build() ).orElseThrow();
+        assertEquals( expected.get(0), last.getState() );
+    }
+
+    @Test
+    public void replaceDeltaParentTest() throws Exception {
+
+        var saver = new MemorySaver( 10 );
+        var app = workflow().compile( CompileConfig.builder().checkpointSaver(saver).build() );
+        var config = RunnableConfig.builder().threadId("T1").build();
+
+        app.invoke( Map.of( "messages", "m0" ), config );
+
+        var history = List.copyOf( app.getStateHistory( config ) );
+        var middle = history.get( history.size() / 2 );
+        var next = history.get( history.size() / 2 - 1 );
+
+        // replaces a checkpoint that is the parent of a delta checkpoint
+        app.updateState( middle.config(), Map.of( "messages", "updated" ) );
+
+        var newHistory = List.copyOf( app.getStateHistory( config ) );
+        assertEquals( history.size(), newHistory.size() );
+        assertEquals( next.state().data(), newHistory.get( history.size() / 2 - 1 ).state().data() );
+        assertEquals( "updated", newHistory.get( history.size() / 2 ).state().lastMessage().orElseThrow() );
+        assertEquals( history.get(0).state().data(), newHistory.get(0).state().data() );
+    }
+
+    @Test
+    public void stateMayUseAnyPropertyTest() throws Exception {
+
+        var saver = new MemorySaver( 3 );
+        var config = RunnableConfig.builder().threadId("T1").build();
+
+        for( int i = 1 ; i <= 3 ; ++i ) {
+            saver.put( config, Checkpoint.builder()
+                    .nodeId( "agent_" + i )
+                    .nextNodeId( END )
+                    .state( Map.of( "$delta", "user value " + i, "appended", List.of( "step" ) ) )
+                    .build() );
+        }
+
+        var stored = saver.cache().get("T1");
+        assertTrue( CheckpointDelta.isDelta( stored.getFirst() ) );
+        assertEquals( Map.of( "$delta", "user value 3" ), stored.getFirst().getState() );
+
+        assertEquals( List.of( "user value 3", "user value 2", "user value 1" ),
+                saver.list( config ).stream().map( cp -> cp.getState().get( "$delta" ) ).toList() );
+        assertTrue( saver.list( config ).stream().allMatch( cp -> cp.getState().get( "appended" ).equals( List.of( "step" ) ) ) );
+    }
+
+    @Test
+    public void fileSystemDeltaCheckpointsTest( @TempDir Path folder ) throws Exception {
+
+        var serializer = workflow().getStateSerializer();
+
+        var expected = history( new MemorySaver() );
+        var result = history( new FileSystemSaver( folder, serializer, 3 ) );
+
+        assertEquals( expected, result );
+
+        // the changes of the delta checkpoints are read back from the file
+        var config = RunnableConfig.builder().threadId("T1").build();
+        var saver = new FileSystemSaver( folder, serializer, 3 );
+        assertEquals( expected, saver.list( config ).stream().map( Checkpoint::getState ).toList() );
+    }
+
+    @Test
+    public void appendedValuesOfPersistentVectorTest() {
+
+        var parentMessages = PersistentVector.<String>empty().plusAll( List.of( "m0", "m1" ) );
+        var parent = Checkpoint.builder()
+                .nodeId( "agent_1" )
+                .nextNodeId( "agent_2" )
+                .state( Map.of( "messages", parentMessages ) )
+                .build();
+
+        var checkpoint = Checkpoint.builder()
+                .nodeId( "agent_2" )
+                .nextNodeId( END )
+                .state( Map.of( "messages", parentMessages.plus( "m2" ) ) )
+                .build();
+
+        var delta = CheckpointDelta.diff( parent, checkpoint );
+        assertEquals( new CheckpointDelta.Changes( Set.of( "messages" ), Set.of() ), delta.getDelta().orElseThrow() );
+        assertEquals( List.of( "m2" ), delta.getState().get( "messages" ) );
+        assertEquals( checkpoint.getState(), CheckpointDelta.apply( parent, delta ).getState() );
+
+        // a vector with a different prefix is stored as a whole
+        var replaced = Checkpoint.builder()
+                .nodeId( "agent_2" )
+                .nextNodeId( END )
+                .state( Map.of( "messages", PersistentVector.<String>empty().plusAll( List.of( "m0", "updated", "m2" ) ) ) )
+                .build();
+        delta = CheckpointDelta.diff( parent, replaced );
+        assertTrue( delta.getDelta().orElseThrow().appended().isEmpty() );
+        assertEquals( replaced.getState(), CheckpointDelta.apply( parent, delta ).getState() );
+    }
+}
@@ -0,0 +1,329 @@
+package org.bsc.langgraph4j.checkpoint;
+
+import org.bsc.langgraph4j.CompileConfig;
+import org.bsc.langgraph4j.GraphInput;
+import org.bsc.langgraph4j.RunnableConfig;
+import org.bsc.langgraph4j.StateGraph;
+import org.bsc.langgraph4j.action.InterruptableAction;
+import org.bsc.langgraph4j.action.InterruptionMetadata;
+import org.bsc.langgraph4j.action.NodeAction;
+import org.bsc.langgraph4j.prebuilt.MessagesState;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.bsc.langgraph4j.StateGraph.END;
+import static org.bsc.langgraph4j.StateGraph.START;
+import static org.bsc.langgraph4j.action.AsyncNodeAction.node_async;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WriteBehindCheckpointSaverTest {
+
+    private Checkpoint checkpoint( int step ) {
+        return Checkpoint.builder()
+                .nodeId( "node" )
+                .nextNodeId( "next" )
+                .state( Map.of( "step", step ) )
+                .build();
+    }
+
+    @Test
+    public void readThroughPendingCheckpoints() throws Exception {
+        final var delegate = new MemorySaver();
+        final var config = RunnableConfig.builder().threadId( "T1" ).build();
+
+        try( var saver = WriteBehindCheckpointSaver.builder( delegate )
+                                .flushInterval( Duration.ZERO )
+                                .coalesceAppends( false )
+                                .build() ) {
+
+            saver.put( config, checkpoint(1) );
+            saver.flush( config );
+            var lastConfig = saver.put( config, checkpoint(2) );
+            saver.put( config, checkpoint(3) );
+
+            assertEquals( 2, saver.pendingCheckpoints() );
+            assertEquals( 1, delegate.list( config ).size() );
+            assertEquals( 3, saver.list( config ).size() );
+            assertEquals( 3, saver.get( config ).orElseThrow().getState().get("step") );
+            assertEquals( 2, saver.get( lastConfig ).orElseThrow().getState().get("step") );
+
+            // replacement of the last pending checkpoint is coalesced
+            var last = saver.get( config ).orElseThrow();
+            saver.put( RunnableConfig.builder(config).checkPointId( last.getId() ).build(),
+                    last.updateState( Map.of( "step", 4 ), Map.of() ) );
+
+            assertEquals( 2, saver.pendingCheckpoints() );
+            assertEquals( List.of( 4, 2, 1 ), saver.list( config ).stream().map( cp -> cp.getState().get("step") ).toList() );
+
+            saver.flush( config );
+
+            assertEquals( 0, saver.pendingCheckpoints() );
+            assertEquals( List.of( 4, 2, 1 ), delegate.list( config ).stream().map( cp -> cp.getState().get("step") ).toList() );
+
+            saver.put( config, checkpoint(5) );
+            var tag = saver.release( config );
+            assertEquals( 4, tag.checkpoints().size() );
+        }
+    }
+
+    @Test
+    public void consecutiveAppendsAreCoalescedAndWrittenInOneBatch() throws Exception {
+        final var batches = new ArrayList<List<BaseCheckpointSaver.Put>>();
+        final var delegate = new MemorySaver() {
+            @Override
+            public void putAll( List<Put> puts ) throws Exception {
+                batches.add( puts );
+                super.putAll( puts );
+            }
+        };
+        final var config = RunnableConfig.builder().threadId( "T1" ).build();
+
+        try( var saver = WriteBehindCheckpointSaver.builder( delegate )
+                .flushInterval( Duration.ZERO )
+                .build() ) {
+
+            var firstConfig = saver.put( config, checkpoint(1) );
+            saver.put( config, checkpoint(2) );
+            saver.put( config, checkpoint(3) );
+
+            assertEquals( 1, saver.pendingCheckpoints() );
+            assertEquals( List.of( 3 ), saver.list( config ).stream().map( cp -> cp.getState().get("step") ).toList() );
+            // the id of a coalesced checkpoint refers to the newest one until the flush
+            var last = saver.get( firstConfig ).orElseThrow();
+            assertEquals( 3, last.getState().get("step") );
+
+            saver.put( firstConfig, last.updateState( Map.of( "step", 4 ), Map.of() ) );
+            assertEquals( 1, saver.pendingCheckpoints() );
+
+            saver.flush( config );
+
+            assertEquals( 1, batches.size() );
+            assertEquals( List.of( 4 ), delegate.list( config ).stream().map( cp -> cp.getState().get("step") ).toList() );
+
+            saver.put( config, checkpoint(5) );
+            saver.put( config, checkpoint(6) );
+            saver.flush( config );
+
+            assertEquals( 2, batches.size() );
+            assertEquals( 1, batches.get(1).size() );
+            assertEquals( List.of( 6, 4 ), delegate.list( config ).stream().map( cp -> cp.getState().get("step") ).toList() );
+        }
+    }
+
+    @Test
+    public void failedBatchIsRetriedWithoutDuplicates() throws Exception {
+        final var failures = new AtomicInteger( 1 );
+        final var delegate = new MemorySaver() {
+            @Override
+            public void putAll( List<Put> puts ) throws Exception {
+                // the first put of the batch is written, the second one fails
+                put( puts.get(0).config(), puts.get(0).checkpoint() );
+                if( failures.getAndDecrement() > 0 ) {
+                    throw new IOException( "storage not available" );
+                }
+                super.putAll( puts.subList( 1, puts.size() ) );
+            }
+        };
+        final var config = RunnableConfig.builder().threadId( "T1" ).build();
+
+        try( var saver = WriteBehindCheckpointSaver.builder( delegate )
+                .flushInterval( Duration.ZERO )
+                .coalesceAppends( false )
+                .build() ) {
+
+            saver.put( config, checkpoint(1) );
+            saver.put( config, checkpoint(2) );
+
+            assertThrows( IOException.class, () -> saver.flush( config ) );
+            assertEquals( 2, saver.pendingCheckpoints() );
+
+            saver.flush( config );
+
+            assertEquals( 0, saver.pendingCheckpoints() );
+            assertEquals( List.of( 2, 1 ), delegate.list( config ).stream().map( cp -> cp.getState().get("step") ).toList() );
+        }
+    }
+
+    @Test
+    public void flushOnMaxPendingAndInterval() throws Exception {
+        final var delegate = new MemorySaver();
+        final var config = RunnableConfig.builder().threadId( "T1" ).build();
+
+        try( var saver = WriteBehindCheckpointSaver.builder( delegate )
+                .flushInterval( Duration.ZERO )
+                .maxPendingCheckpoints( 2 )
+                .coalesceAppends( false )
+                .build() ) {
+
+            for( int i = 0 ; i < 3 ; ++i ) {
+                saver.put( config, checkpoint(i) );
+            }
+            assertEquals( 0, saver.pendingCheckpoints() );
+            assertEquals( 3, delegate.list( config ).size() );
+        }
+
+        try( var saver = WriteBehindCheckpointSaver.builder( delegate )
+                .flushInterval( Duration.ofMillis(10) )
+                .build() ) {
+
+            saver.put( config, checkpoint(3) );
+
+            long timeout = System.currentTimeMillis() + 5_000;
+            while( saver.pendingCheckpoints() > 0 && System.currentTimeMillis() < timeout ) {
+                Thread.sleep( 10 );
+            }
+            assertEquals( 0, saver.pendingCheckpoints() );
+            assertEquals( 4, delegate.list( config ).size() );
+        }
+    }
+
+    @Test
+    public void flushOnInterrupt() throws Exception {
+        final var delegate = new MemorySaver();
+
+        try( var saver = WriteBehindCheckpointSaver.builder( delegate )
+                .flushInterval( Duration.ZERO )
+                .build() ) {
+
+            var workflow = new StateGraph<>( MessagesState.SCHEMA, MessagesState<String>::new )
+                    .addNode( "agent_1", node_async( state -> Map.of( "messages", "m1" ) ))
+                    .addNode( "agent_2", node_async( state -> Map.of( "messages", "m2" ) ))
+                    .addEdge( START, "agent_1" )
+                    .addEdge( "agent_1", "agent_2" )
+                    .addEdge( "agent_2", END );
+
+            var app = workflow.compile( CompileConfig.builder()
+                    .checkpointSaver( saver )
+                    .interruptBefore( "agent_2" )
+                    .build() );
+
+            var config = RunnableConfig.builder().threadId( "T1" ).build();
+
+            app.invoke( Map.of( "messages", "m0" ), config );
+
+            assertEquals( 0, saver.pendingCheckpoints() );
+            assertIterableEquals( List.of( "m0", "m1" ),
+                    (List<?>) delegate.get( config ).orElseThrow().getState().get( "messages" ) );
+
+            var result = app.invoke( GraphInput.resume(), config );
+            assertTrue( result.isPresent() );
+            assertIterableEquals( List.of( "m0", "m1", "m2" ), result.get().messages() );
+        }
+    }
+
+    static class ApprovalAction implements NodeAction<MessagesState<String>>, InterruptableAction<MessagesState<String>> {
+
+        @Override
+        public Map<String, Object> apply( MessagesState<String> state ) {
+            return Map.of( "messages", "approved" );
+        }
+
+        @Override
+        public Optional<InterruptionMetadata<MessagesState<String>>> interrupt( String nodeId, MessagesState<String> state, RunnableConfig config ) {
+            return Optional.of( InterruptionMetadata.builder( nodeId, state ).build() );
+        }
+    }
+
+    @Test
+    public void flushOnInterruptableAction() throws Exception {
+        final var delegate = new MemorySaver();
+
+        try( var saver = WriteBehindCheckpointSaver.builder( delegate )
+                .flushInterval( Duration.ZERO )
+                .flushOnInterrupt( true )
+                .build() ) {
+
+            var workflow = new StateGraph<>( MessagesState.SCHEMA, MessagesState<String>::new )
+                    .addNode( "agent_1", node_async( state -> Map.of( "messages", "m1" ) ))
+                    .addNode( "approval", node_async( new ApprovalAction() ))
+                    .addEdge( START, "agent_1" )
+                    .addEdge( "agent_1", "approval" )
+                    .addEdge( "approval", END );
+
+            var app = workflow.compile( CompileConfig.builder()
+                    .checkpointSaver( saver )
+                    .build() );
+
+            var config = RunnableConfig.builder().threadId( "T1" ).build();
+
+            app.invoke( Map.of( "messages", "m0" ), config );
+
+            // the checkpoints are written before waiting for the human input
+            assertEquals( 0, saver.pendingCheckpoints() );
+            assertIterableEquals( List.of( "m0", "m1" ),
+                    (List<?>) delegate.get( config ).orElseThrow().getState().get( "messages" ) );
+        }
+    }
+
+    @Test
+    public void backgroundFlushFailureIsRaisedOnItsThread() throws Exception {
+        final var available = new AtomicBoolean( false );
+        final var storage = new MemorySaver();
+        final var delegate = new BaseCheckpointSaver() {
+            @Override
+            public Collection<Checkpoint> list( RunnableConfig config ) {
+                return storage.list( config );
+            }
+
+            @Override
+            public Optional<Checkpoint> get( RunnableConfig config ) {
+                return storage.get( config );
+            }
+
+            @Override
+            public RunnableConfig put( RunnableConfig config, Checkpoint checkpoint ) throws Exception {
+                if( !available.get() && threadId( config ).equals( "T1" ) ) {
+                    throw new IOException( "storage not available" );
+                }
+                return storage.put( config, checkpoint );
+            }
+
+            @Override
+            public Tag release( RunnableConfig config ) throws Exception {
+                return storage.release( config );
+            }
+        };
+        final var config = RunnableConfig.builder().threadId( "T1" ).build();
+        final var otherConfig = RunnableConfig.builder().threadId( "T2" ).build();
+
+        try( var saver = WriteBehindCheckpointSaver.builder( delegate )
+                .flushInterval( Duration.ofMillis(10) )
+                .build() ) {
+
+            saver.put( config, checkpoint(1) );
+            saver.put( otherConfig, checkpoint(1) );
+
+            long timeout = System.currentTimeMillis() + 5_000;
+            IllegalStateException failure = null;
+            while( ( failure == null || delegate.list( otherConfig ).isEmpty() ) && System.currentTimeMillis() < timeout ) {
+                Thread.sleep( 10 );
+                // the failure of a thread is not raised on the others
+                saver.get( otherConfig );
+                try {
+                    saver.get( config );
+                }
+                catch( IllegalStateException ex ) {
+                    failure = ex;
+                }
+            }
+            assertNotNull( failure );
+            assertInstanceOf( IOException.class, failure.getCause() );
+            assertEquals( 1, delegate.list( otherConfig ).size() );
+
+            // the failure is raised once, the checkpoint is written by the next flush
+            available.set( true );
+            saver.flush( config );
+            assertEquals( 0, saver.pendingCheckpoints() );
+            assertEquals( 1, delegate.list( config ).size() );
+        }
+    }
+}
@@ -13,6 +13,7 @@ import org.bsc.langgraph4j.state.Channel;
 import org.bsc.langgraph4j.state.Reducer;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -247,4 +248,43 @@ public class HookTest implements LG4JLoggable {
         assertIterableEquals( List.of( "level2", "level1"),  (Iterable<?>) hooksValueMap.get("node_1") );
     }
 
+
+    @Test
+    public void testFusedHooksFollowRegistrations() throws Exception {
+        final var calls = new ArrayList<String>();
+
+        var action = NodeActionBuilder.of().nodeId("node_1").buildAction(CompileConfig.builder().build());
+        var state = stateFactory().apply(Map.of());
+        var config = RunnableConfig.builder().putMetadata(RunnableConfig.NODE_ID, "node_1").build();
+
+        var hooks = new NodeHooks<State>();
+
+        hooks.wrapCalls.add( (nodeId, s, c, a) -> { calls.add("global:" + nodeId); return a.apply(s, c); } );
+        hooks.wrapCalls.add( "node_1", (nodeId, s, c, a) -> { calls.add("node_1"); return a.apply(s, c); } );
+        hooks.compile( List.of( "node_1", "node_2" ) );
+
+        hooks.wrapCalls.apply( "node_1", state, config, action ).join();
+        hooks.wrapCalls.apply( "node_1", state, config, action ).join();
+        assertIterableEquals( List.of( "node_1", "global:node_1", "node_1", "global:node_1" ), calls );
+
+        calls.clear();
+        hooks.wrapCalls.apply( "node_2", state, config, action ).join();
+        assertIterableEquals( List.of( "global:node_2" ), calls );
+
+        // a hook added after the fusion is applied as well
+        calls.clear();
+        hooks.wrapCalls.add( (nodeId, s, c, a) -> { calls.add("late:" + nodeId); return a.apply(s, c); } );
+        hooks.wrapCalls.apply( "node_1", state, config, action ).join();
+        assertIterableEquals( List.of( "node_1", "late:node_1", "global:node_1" ), calls );
+
+        // the chain doesn't depend on the action, decorated on each step by the deadline of the execution
+        calls.clear();
+        AsyncNodeActionWithConfig<State> decorated = (s, c) -> {
+            calls.add("action");
+            return action.apply(s, c);
+        };
+        hooks.wrapCalls.apply( "node_1", state, config, decorated ).join();
+        assertIterableEquals( List.of( "node_1", "late:node_1", "global:node_1", "action" ), calls );
+    }
+
 }
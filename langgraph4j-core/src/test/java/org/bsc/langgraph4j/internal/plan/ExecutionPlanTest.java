@@ -0,0 +1,90 @@
+package org.bsc.langgraph4j.internal.plan;
+
+import org.bsc.langgraph4j.RunnableConfig;
+import org.bsc.langgraph4j.action.AsyncNodeActionWithConfig;
+import org.bsc.langgraph4j.action.Command;
+import org.bsc.langgraph4j.internal.edge.EdgeCondition;
+import org.bsc.langgraph4j.internal.edge.EdgeValue;
+import org.bsc.langgraph4j.state.AgentState;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.bsc.langgraph4j.StateGraph.END;
+import static org.bsc.langgraph4j.StateGraph.START;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExecutionPlanTest {
+
+    @Test
+    public void targetsAreResolvedAtCompileTime() {
+        final AsyncNodeActionWithConfig<AgentState> noop = AsyncNodeActionWithConfig.noop();
+
+        final var nodes = new LinkedHashMap<String, AsyncNodeActionWithConfig<AgentState>>();
+        nodes.put( "A", noop );
+        nodes.put( "B", noop );
+
+        final var edges = new LinkedHashMap<String, EdgeValue<AgentState>>();
+        edges.put( START, new EdgeValue<>( "A" ) );
+        edges.put( "A", new EdgeValue<>( new EdgeCondition<>( ( state, config ) -> completedFuture( new Command( "next" ) ),
+                Map.of( "next", "B", "end", END ) ) ) );
+        edges.put( "B", new EdgeValue<>( END ) );
+
+        final var plan = ExecutionPlan.of( nodes, edges, Set.of( "B" ), Set.of(), Optional.of( "graph" ) );
+
+        assertEquals( 2, plan.size() );
+
+        final var a = plan.route( plan.start() ).target();
+        assertEquals( "A", a.id() );
+        assertTrue( a.isNode() );
+
+        final var route = plan.route( a );
+        assertTrue( route.isConditional() );
+        final var b = route.resolve( "next" ).orElseThrow();
+        assertEquals( plan.target( "B" ), b );
+        assertTrue( route.resolve( "end" ).orElseThrow().isEnd() );
+        assertTrue( route.resolve( "missing" ).isEmpty() );
+
+        assertTrue( plan.isInterruptBefore( b ) );
+        assertFalse( plan.isInterruptBefore( a ) );
+        assertFalse( plan.isInterruptAfter( b ) );
+
+        assertFalse( plan.target( "unknown" ).isNode() );
+        assertTrue( plan.step( plan.target( "unknown" ) ).isEmpty() );
+
+        final var config = plan.step( b ).orElseThrow().config( RunnableConfig.builder().build() );
+        assertEquals( "B", config.nodeId() );
+        assertEquals( Optional.of( "graph" ), config.graphId() );
+        assertFalse( config.graphPath().isEmpty() );
+    }
+
+    @Test
+    public void configIsReusedOnlyWithAllNodeMetadata() {
+        final AsyncNodeActionWithConfig<AgentState> noop = AsyncNodeActionWithConfig.noop();
+
+        final var nodes = new LinkedHashMap<String, AsyncNodeActionWithConfig<AgentState>>();
+        nodes.put( "A", noop );
+
+        final var edges = new LinkedHashMap<String, EdgeValue<AgentState>>();
+        edges.put( START, new EdgeValue<>( "A" ) );
+        edges.put( "A", new EdgeValue<>( END ) );
+
+        final var plan = ExecutionPlan.of( nodes, edges, Set.of(), Set.of(), Optional.of( "subgraph" ) );
+        final var step = plan.step( plan.target( "A" ) ).orElseThrow();
+
+        // the configuration of a node with the same id in the parent graph
+        final var parentConfig = RunnableConfig.builder()
+                .build()
+                .updateMetadata( Map.of( RunnableConfig.NODE_ID, "A", RunnableConfig.GRAPH_ID, "parent" ) );
+
+        assertFalse( step.hasConfig( parentConfig ) );
+
+        final var config = step.config( parentConfig );
+        assertTrue( step.hasConfig( config ) );
+        assertEquals( Optional.of( "subgraph" ), config.graphId() );
+    }
+}
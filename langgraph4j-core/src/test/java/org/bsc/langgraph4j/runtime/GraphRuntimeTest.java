@@ -0,0 +1,293 @@
+package org.bsc.langgraph4j.runtime;
+
+import org.bsc.langgraph4j.GraphInput;
+import org.bsc.langgraph4j.RunnableConfig;
+import org.bsc.langgraph4j.StateGraph;
+import org.bsc.langgraph4j.StepsState;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.bsc.langgraph4j.StateGraph.END;
+import static org.bsc.langgraph4j.StateGraph.START;
+import static org.bsc.langgraph4j.action.AsyncNodeAction.node_async;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GraphRuntimeTest {
+
+    /**
+     * Occupies the only slot of the runtime until the returned latch is released
+     */
+    private CountDownLatch block( GraphRuntime runtime, String tenantId ) throws Exception {
+        final var started = new CountDownLatch( 1 );
+        final var release = new CountDownLatch( 1 );
+        runtime.submit( tenantId, GraphRuntime.Priority.NORMAL, null, () -> {
+            started.countDown();
+            return release.await( 10, TimeUnit.SECONDS );
+        });
+        assertTrue( started.await( 10, TimeUnit.SECONDS ) );
+        return release;
+    }
+
+    @Test
+    public void invokeGraph() throws Exception {
+        var graph = StepsState.graph()
+                .addNode( "A", StepsState.step( "A" ) )
+                .addNode( "B", node_async( state -> Map.of( "steps", Thread.currentThread().getName() ) ) )
+                .addEdge( START, "A" )
+                .addEdge( "A", "B" )
+                .addEdge( "B", END )
+                .compile();
+
+        try( var runtime = GraphRuntime.builder().parallelism( 4 ).threadNamePrefix( "test-runtime" ).build() ) {
+            var config = RunnableConfig.builder().threadId( "conversation-1" ).build();
+
+            var first = runtime.invoke( "tenant", GraphRuntime.Priority.NORMAL, graph, GraphInput.args( Map.of() ), config )
+                    .get( 10, TimeUnit.SECONDS ).orElseThrow();
+            var second = runtime.invoke( "tenant", GraphRuntime.Priority.NORMAL, graph, GraphInput.args( Map.of() ), config )
+                    .get( 10, TimeUnit.SECONDS ).orElseThrow();
+
+            assertEquals( "A", first.steps().get(0) );
+            assertTrue( first.steps().get(1).startsWith( "test-runtime-" ) );
+            // same thread id, same worker thread
+            assertEquals( first.steps().get(1), second.steps().get(1) );
+
+            var metrics = runtime.metrics();
+            assertEquals( 0, metrics.running() );
+            assertEquals( 0, metrics.queued() );
+            assertEquals( 2, metrics.tenants().get( "tenant" ).completed() );
+        }
+    }
+
+    @Test
+    public void fairQueuingAcrossTenants() throws Exception {
+        try( var runtime = GraphRuntime.builder()
+                .parallelism( 1 )
+                .tenant( "quiet", 1, 1 )
+                .build() ) {
+
+            final var release = block( runtime, "bursty" );
+
+            final var order = Collections.synchronizedList( new ArrayList<String>() );
+            final var futures = new ArrayList<CompletableFuture<Boolean>>();
+            for( int i = 0; i < 5; ++i ) {
+                futures.add( runtime.submit( "bursty", GraphRuntime.Priority.NORMAL, null, () -> order.add( "bursty" ) ) );
+            }
+            futures.add( runtime.submit( "quiet", GraphRuntime.Priority.NORMAL, null, () -> order.add( "quiet" ) ) );
+
+            assertEquals( 6, runtime.metrics().queued() );
+
+            release.countDown();
+            CompletableFuture.allOf( futures.toArray( CompletableFuture[]::new ) ).get( 10, TimeUnit.SECONDS );
+
+            // the quiet tenant doesn't wait for the whole burst
+            assertTrue( order.indexOf( "quiet" ) <= 1, () -> "unexpected order " + order );
+        }
+    }
+
+    @Test
+    public void priorityLanes() throws Exception {
+        try( var runtime = GraphRuntime.builder().parallelism( 1 ).build() ) {
+
+            final var release = block( runtime, "tenant" );
+
+            final var order = Collections.synchronizedList( new ArrayList<String>() );
+            var low = runtime.submit( "tenant", GraphRuntime.Priority.LOW, null, () -> order.add( "low" ) );
+            var normal = runtime.submit( "tenant", GraphRuntime.Priority.NORMAL, null, () -> order.add( "normal" ) );
+            var high = runtime.submit( "tenant", GraphRuntime.Priority.HIGH, null, () -> order.add( "high" ) );
+
+            release.countDown();
+            CompletableFuture.allOf( low, normal, high ).get( 10, TimeUnit.SECONDS );
+
+            assertEquals( List.of( "high", "normal", "low" ), order );
+        }
+    }
+
+    @Test
+    public void tenantConcurrencyCap() throws Exception {
+        try( var runtime = GraphRuntime.builder()
+                .parallelism( 4 )
+                .tenant( "capped", 1, 1 )
+                .build() ) {
+
+            final var release = block( runtime, "capped" );
+
+            var queued = runtime.submit( "capped", GraphRuntime.Priority.NORMAL, null, () -> "capped" );
+            var other = runtime.submit( "other", GraphRuntime.Priority.NORMAL, null, () -> "other" );
+
+            // the other tenant is not held back by the capped one
+            assertEquals( "other", other.get( 10, TimeUnit.SECONDS ) );
+            assertFalse( queued.isDone() );
+
+            var metrics = runtime.metrics().tenants().get( "capped" );
+            assertEquals( 1, metrics.running() );
+            assertEquals( 1, metrics.queued() );
+
+            release.countDown();
+            assertEquals( "capped", queued.get( 10, TimeUnit.SECONDS ) );
+        }
+    }
+
+    @Test
+    public void rejectAndCancelOnOverload() throws Exception {
+        try( var runtime = GraphRuntime.builder()
+                .parallelism( 1 )
+                .maxQueued( 1 )
+                .build() ) {
+
+            final var release = block( runtime, "tenant" );
+
+            var queued = runtime.submit( "tenant", GraphRuntime.Priority.NORMAL, null, () -> "queued" );
+            var rejected = runtime.submit( "tenant", GraphRuntime.Priority.NORMAL, null, () -> "rejected" );
+
+            var ex = assertThrows( CompletionException.class, rejected::join );
+            assertInstanceOf( RejectedExecutionException.class, ex.getCause() );
+
+            var metrics = runtime.metrics();
+            assertEquals( 1, metrics.queued() );
+            assertEquals( 1, metrics.rejected() );
+            assertEquals( 1, metrics.tenants().get( "tenant" ).rejected() );
+
+            // cancelling a queued execution frees its place
+            assertTrue( queued.cancel( true ) );
+            assertEquals( 0, runtime.metrics().queued() );
+
+            var accepted = runtime.submit( "tenant", GraphRuntime.Priority.NORMAL, null, () -> "accepted" );
+            release.countDown();
+            assertEquals( "accepted", accepted.get( 10, TimeUnit.SECONDS ) );
+
+            assertTrue( runtime.metrics().tenants().get( "tenant" ).maxWait().toNanos() > 0 );
+        }
+    }
+
+    @Test
+    public void affinityCollisionDoesntQueueBehindBusyWorker() throws Exception {
+        // "a" and "c" prefer the same worker out of two
+        assertEquals( Math.floorMod( "a".hashCode(), 2 ), Math.floorMod( "c".hashCode(), 2 ) );
+
+        try( var runtime = GraphRuntime.builder().parallelism( 2 ).threadNamePrefix( "test-runtime" ).build() ) {
+            final var started = new CountDownLatch( 1 );
+            final var release = new CountDownLatch( 1 );
+            final var blocked = runtime.submit( "tenant", GraphRuntime.Priority.NORMAL, "a", () -> {
+                started.countDown();
+                release.await( 10, TimeUnit.SECONDS );
+                return Thread.currentThread().getName();
+            });
+            assertTrue( started.await( 10, TimeUnit.SECONDS ) );
+
+            // the preferred worker is busy, the run starts on the other one instead of waiting for it
+            var other = runtime.submit( "tenant", GraphRuntime.Priority.NORMAL, "c", () -> Thread.currentThread().getName() )
+                    .get( 10, TimeUnit.SECONDS );
+
+            var metrics = runtime.metrics();
+            assertEquals( 1, metrics.running() );
+            assertEquals( 0, metrics.queued() );
+
+            release.countDown();
+            assertNotEquals( blocked.get( 10, TimeUnit.SECONDS ), other );
+
+            // once free, the preferred worker is taken again
+            assertEquals( blocked.get(), runtime.submit( "tenant", GraphRuntime.Priority.NORMAL, "c", () -> Thread.currentThread().getName() )
+                    .get( 10, TimeUnit.SECONDS ) );
+        }
+    }
+
+    @Test
+    public void runsWaitForAFreeWorker() throws Exception {
+        try( var runtime = GraphRuntime.builder().parallelism( 1 ).maxConcurrency( 4 ).build() ) {
+            var release = block( runtime, "tenant" );
+
+            var queued = runtime.submit( "tenant", GraphRuntime.Priority.NORMAL, null, () -> "done" );
+
+            // the run is not admitted while the only worker is busy, so it is counted as queued
+            var metrics = runtime.metrics();
+            assertEquals( 1, metrics.running() );
+            assertEquals( 1, metrics.queued() );
+
+            Thread.sleep( 50 );
+            release.countDown();
+            assertEquals( "done", queued.get( 10, TimeUnit.SECONDS ) );
+            // the wait until the worker starts the run is measured
+            assertTrue( runtime.metrics().tenants().get( "tenant" ).maxWait().toMillis() >= 50 );
+        }
+    }
+
+    @Test
+    public void burstyTenantDoesntFillTheQueue() throws Exception {
+        try( var runtime = GraphRuntime.builder()
+                .parallelism( 1 )
+                .maxQueued( 10 )
+                .maxQueuedPerTenant( 5 )
+                .tenant( "bursty", 1, 1, 2 )
+                .build() ) {
+
+            final var release = block( runtime, "bursty" );
+
+            var accepted = List.of(
+                    runtime.submit( "bursty", GraphRuntime.Priority.NORMAL, null, () -> "bursty" ),
+                    runtime.submit( "bursty", GraphRuntime.Priority.NORMAL, null, () -> "bursty" ) );
+            var rejected = runtime.submit( "bursty", GraphRuntime.Priority.NORMAL, null, () -> "rejected" );
+
+            var ex = assertThrows( CompletionException.class, rejected::join );
+            assertInstanceOf( RejectedExecutionException.class, ex.getCause() );
+
+            // the other tenants still have room in the queue
+            var other = runtime.submit( "other", GraphRuntime.Priority.NORMAL, null, () -> "other" );
+
+            var metrics = runtime.metrics();
+            assertEquals( 3, metrics.queued() );
+            assertEquals( 1, metrics.tenants().get( "bursty" ).rejected() );
+            assertEquals( 0, metrics.tenants().get( "other" ).rejected() );
+
+            release.countDown();
+            assertEquals( "other", other.get( 10, TimeUnit.SECONDS ) );
+            for( var run : accepted ) {
+                assertEquals( "bursty", run.get( 10, TimeUnit.SECONDS ) );
+            }
+        }
+    }
+
+    @Test
+    public void cancelledRunHoldsTheWorkerUntilItLeaves() throws Exception {
+        try( var runtime = GraphRuntime.builder().parallelism( 1 ).build() ) {
+            final var started = new CountDownLatch( 1 );
+            final var release = new CountDownLatch( 1 );
+            var running = runtime.submit( "tenant", GraphRuntime.Priority.NORMAL, null, () -> {
+                started.countDown();
+                // ignores the interruption, as a graph blocked in a not interruptible call
+                while( true ) {
+                    try {
+                        if( release.await( 10, TimeUnit.SECONDS ) ) {
+                            return "released";
+                        }
+                    }
+                    catch( InterruptedException ex ) {
+                        // keep waiting
+                    }
+                }
+            });
+            assertTrue( started.await( 10, TimeUnit.SECONDS ) );
+
+            assertTrue( running.cancel( true ) );
+            var next = runtime.submit( "tenant", GraphRuntime.Priority.NORMAL, null, () -> "next" );
+
+            // the worker is still busy with the cancelled run, so the next one is queued
+            var metrics = runtime.metrics();
+            assertEquals( 1, metrics.running() );
+            assertEquals( 1, metrics.queued() );
+
+            Thread.sleep( 50 );
+            release.countDown();
+            assertEquals( "next", next.get( 10, TimeUnit.SECONDS ) );
+            assertTrue( runtime.metrics().tenants().get( "tenant" ).maxWait().toMillis() >= 50 );
+        }
+    }
+}
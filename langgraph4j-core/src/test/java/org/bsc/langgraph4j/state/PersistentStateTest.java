@@ -0,0 +1,281 @@
+package org.bsc.langgraph4j.state;
+
+import org.bsc.langgraph4j.CompileConfig;
+import org.bsc.langgraph4j.StateGraph;
+import org.bsc.langgraph4j.internal.state.StateSnapshots;
+import org.bsc.langgraph4j.prebuilt.MessagesState;
+import org.bsc.langgraph4j.serializer.std.ObjectStreamStateSerializer;
+import org.bsc.langgraph4j.utils.PersistentMap;
+import org.bsc.langgraph4j.utils.PersistentVector;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.bsc.langgraph4j.StateGraph.END;
+import static org.bsc.langgraph4j.StateGraph.START;
+import static org.bsc.langgraph4j.action.AsyncNodeAction.node_async;
+import static org.bsc.langgraph4j.utils.CollectionsUtils.mapOf;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PersistentStateTest {
+
+    record Key( String name, int hash ) {
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    @Test
+    public void persistentMapTest() {
+
+        PersistentMap<Object,Object> map = PersistentMap.empty();
+        var expected = new HashMap<Object,Object>();
+
+        for( int i = 0 ; i < 5000 ; ++i ) {
+            map = map.plus( "key" + i, i );
+            expected.put( "key" + i, i );
+        }
+        // hash collisions
+        for( int i = 0 ; i < 10 ; ++i ) {
+            map = map.plus( new Key( "c" + i, 42 ), i );
+            expected.put( new Key( "c" + i, 42 ), i );
+        }
+
+        assertEquals( expected.size(), map.size() );
+        assertEquals( expected, map );
+        assertEquals( expected, new HashMap<>(map) );
+
+        var previous = map;
+        for( int i = 0 ; i < 5000 ; i += 2 ) {
+            map = map.minus( "key" + i );
+            expected.remove( "key" + i );
+        }
+        map = map.minus( new Key( "c3", 42 ) );
+        expected.remove( new Key( "c3", 42 ) );
+
+        assertEquals( expected.size(), map.size() );
+        assertEquals( expected, map );
+        // previous version is untouched
+        assertEquals( 5010, previous.size() );
+        assertEquals( 0, previous.get("key0") );
+        assertNull( map.get("key0") );
+
+        assertSame( map, map.minus("not-present") );
+        assertSame( map, map.plus( "key1", map.get("key1") ) );
+        assertThrows( UnsupportedOperationException.class, () -> previous.put("x", "y") );
+    }
+
+    @Test
+    public void updatePersistentStateTest() {
+
+        AgentStateFactory<MessagesState<String>> sf = AgentStateFactory.persistent( MessagesState::new );
+
+        var state = sf.applyFromSchema( MessagesState.SCHEMA );
+
+        assertInstanceOf( PersistentMap.class, state.data() );
+        assertTrue( state.messages().isEmpty() );
+
+        var data = AgentState.updateState( state, Map.of( "messages", List.of("v1", "v2"), "attr1", "a1"), MessagesState.SCHEMA);
+
+        assertInstanceOf( PersistentMap.class, data );
+        assertEquals( 2, data.size() );
+        assertIterableEquals( List.of("v1", "v2"), sf.apply(data).messages() );
+
+        var newData = AgentState.updateState( data, mapOf( "attr1", null, "attr2", "a2"), MessagesState.SCHEMA);
+
+        assertEquals( 2, newData.size() );
+        assertFalse( newData.containsKey("attr1"));
+        assertEquals( "a2", newData.get("attr2") );
+        // unchanged values are shared
+        assertSame( data.get("messages"), newData.get("messages") );
+    }
+
+    @Test
+    public void graphWithPersistentStateTest() throws Exception {
+
+        var workflow = new StateGraph<>( MessagesState.SCHEMA, AgentStateFactory.persistent( MessagesState<String>::new ) )
+                .addNode( "agent_1", node_async( state -> Map.of( "messages", "m1", "steps", 1 ) ))
+                .addNode( "agent_2", node_async( state -> Map.of( "messages", "m2", "steps", 2 ) ))
+                .addEdge( START, "agent_1" )
+                .addEdge( "agent_1", "agent_2" )
+                .addEdge( "agent_2", END );
+
+        var result = workflow.compile().invoke( Map.of( "messages", "m0" ) );
+
+        assertTrue( result.isPresent() );
+        assertIterableEquals( List.of("m0", "m1", "m2"), result.get().messages() );
+        assertEquals( 2, result.get().<Integer>value("steps").orElse(0) );
+        assertInstanceOf( PersistentMap.class, result.get().data() );
+    }
+
+    record Opaque( String value ) implements OpaqueValue, Serializable {}
+
+    @Test
+    public void structuralSnapshotTest() throws Exception {
+
+        var data = new HashMap<String,Object>();
+        data.put( "messages", new ArrayList<>(List.of("m0")) );
+        data.put( "name", "test" );
+        data.put( "steps", 1 );
+        data.put( "shared", new ArrayList<>(List.of("s0")) );
+        data.put( "opaque1", new Opaque( "o1" ) );
+        data.put( "opaque2", new Opaque( "o2" ) );
+
+        var clones = new AtomicInteger();
+        var serializer = new ObjectStreamStateSerializer<>( MessagesState<String>::new ) {
+            @Override
+            public MessagesState<String> cloneObject( MessagesState<String> object ) throws IOException, ClassNotFoundException {
+                clones.incrementAndGet();
+                return super.cloneObject( object );
+            }
+        };
+
+        var snapshot = StateSnapshots.structuralCopyOf( data, MessagesState.SCHEMA, serializer );
+
+        assertEquals( data, snapshot );
+        // the appended values are shared through an unmodifiable view, not copied
+        @SuppressWarnings("unchecked")
+        var snapshotMessages = (List<Object>) snapshot.get("messages");
+        assertNotSame( data.get("messages"), snapshotMessages );
+        assertThrows( UnsupportedOperationException.class, () -> snapshotMessages.add( "m1" ) );
+        var updatedMessages = MessagesState.SCHEMA.get("messages").update( "messages", data.get("messages"), "m1" );
+        assertEquals( List.of("m0", "m1"), updatedMessages );
+        assertEquals( List.of("m0"), snapshotMessages );
+        assertSame( data.get("name"), snapshot.get("name") );
+        // only the values declared opaque are cloned, all together
+        assertSame( data.get("shared"), snapshot.get("shared") );
+        assertNotSame( data.get("opaque1"), snapshot.get("opaque1") );
+        assertNotSame( data.get("opaque2"), snapshot.get("opaque2") );
+        assertEquals( 1, clones.get() );
+
+        var persistentData = PersistentMap.copyOf( Map.<String,Object>of( "name", "test", "steps", 1 ) );
+        assertSame( persistentData, StateSnapshots.structuralCopyOf( persistentData, MessagesState.SCHEMA, serializer ) );
+
+        var workflow = new StateGraph<>( MessagesState.SCHEMA, AgentStateFactory.persistent( MessagesState<String>::new ) )
+                .addNode( "agent_1", node_async( state -> Map.of( "messages", "m1" ) ))
+                .addNode( "agent_2", node_async( state -> Map.of( "messages", "m2" ) ))
+                .addEdge( START, "agent_1" )
+                .addEdge( "agent_1", "agent_2" )
+                .addEdge( "agent_2", END );
+
+        var compileConfig = CompileConfig.builder()
+                .snapshotStrategy( CompileConfig.SnapshotStrategy.STRUCTURAL )
+                .build();
+
+        var outputs = workflow.compile( compileConfig ).stream( Map.of( "messages", "m0" ) ).stream().toList();
+
+        assertEquals( 4, outputs.size() );
+        assertIterableEquals( List.of("m0"), outputs.get(0).state().messages() );
+        assertIterableEquals( List.of("m0", "m1"), outputs.get(1).state().messages() );
+        assertIterableEquals( List.of("m0", "m1", "m2"), outputs.get(3).state().messages() );
+    }
+
+    @Test
+    public void persistentVectorTest() {
+
+        PersistentVector<Integer> vector = PersistentVector.empty();
+        var versions = new ArrayList<PersistentVector<Integer>>();
+
+        for( int i = 0 ; i < 40_000 ; ++i ) {
+            vector = vector.plus( i );
+            if( i % 1000 == 0 ) {
+                versions.add( vector );
+            }
+        }
+
+        assertEquals( 40_000, vector.size() );
+        for( int i = 0 ; i < vector.size() ; ++i ) {
+            assertEquals( i, vector.get(i) );
+        }
+        // previous versions are untouched
+        for( int v = 0 ; v < versions.size() ; ++v ) {
+            assertEquals( v * 1000 + 1, versions.get(v).size() );
+            assertEquals( v * 1000, versions.get(v).get( v * 1000 ) );
+        }
+        assertEquals( IntStream.range(0, 40_000).boxed().toList(), vector );
+        // each version extends the previous ones, sharing their structure
+        for( int v = 1 ; v < versions.size() ; ++v ) {
+            assertTrue( versions.get(v).isExtensionOf( versions.get(v - 1) ) );
+            assertTrue( vector.isExtensionOf( versions.get(v) ) );
+            assertFalse( versions.get(v - 1).isExtensionOf( versions.get(v) ) );
+        }
+        assertTrue( vector.isExtensionOf( PersistentVector.empty() ) );
+        // equal values built independently don't share the structure
+        var copy = PersistentVector.<Integer>empty().plusAll( versions.get(5) );
+        assertEquals( versions.get(5), copy );
+        assertFalse( vector.isExtensionOf( copy ) );
+        assertFalse( versions.get(5).plus( -1 ).isExtensionOf( versions.get(5).plus( -2 ) ) );
+        assertThrows( IndexOutOfBoundsException.class, () -> PersistentVector.empty().get(0) );
+        assertThrows( UnsupportedOperationException.class, () -> versions.get(0).add(1) );
+    }
+
+    @Test
+    public void persistentAppenderTest() {
+
+        var schema = Map.<String,Channel<?>>of( "messages", Channels.persistentAppender() );
+
+        AgentStateFactory<MessagesState<String>> sf = MessagesState::new;
+
+        var data = AgentState.updateState( sf.applyFromSchema(schema), Map.of( "messages", List.of("v1", "v2")), schema);
+        assertInstanceOf( PersistentVector.class, data.get("messages") );
+
+        var newData = AgentState.updateState( data, Map.of( "messages", "v3"), schema);
+        assertIterableEquals( List.of("v1", "v2", "v3"), sf.apply(newData).messages() );
+        // previous version is still valid
+        assertIterableEquals( List.of("v1", "v2"), sf.apply(data).messages() );
+
+        newData = AgentState.updateState( newData, Map.of( "messages", List.of(
+                (AppenderChannel.RemoveIdentifier<String>) ( element, atIndex ) -> element.compareTo("v2"),
+                "v4")), schema);
+        assertInstanceOf( PersistentVector.class, newData.get("messages") );
+        assertIterableEquals( List.of("v1", "v3", "v4"), sf.apply(newData).messages() );
+
+        newData = AgentState.updateState( newData, Map.of( "messages", AppenderChannel.ReplaceAllWith.of( List.of("a1", "a2"))), schema);
+        assertInstanceOf( PersistentVector.class, newData.get("messages") );
+        assertIterableEquals( List.of("a1", "a2"), sf.apply(newData).messages() );
+
+        newData = AgentState.updateState( newData, mapOf( "messages", null), schema);
+        assertTrue( sf.apply(newData).messages().isEmpty() );
+    }
+
+    record Message( String id, String text ) {}
+
+    @Test
+    public void indexedAppenderTest() {
+
+        AgentStateFactory<MessagesState<Object>> sf = MessagesState::new;
+
+        var schema = Map.<String,Channel<?>>of( "messages", Channels.indexedAppender() );
+
+        var data = AgentState.updateState( sf.applyFromSchema(schema), Map.of( "messages", List.of("v1", "v2", "v1")), schema);
+        assertIterableEquals( List.of("v1", "v2"), sf.apply(data).messages() );
+
+        data = AgentState.updateState( data, Map.of( "messages", List.of("v2", "v3")), schema);
+        assertIterableEquals( List.of("v1", "v2", "v3"), sf.apply(data).messages() );
+
+        // index rebuilt from a plain list ( e.g. restored from a checkpoint )
+        data = AgentState.updateState( Map.of( "messages", new ArrayList<>(List.of("v1", "v2")) ), Map.of( "messages", List.of("v2", "v4")), schema);
+        assertIterableEquals( List.of("v1", "v2", "v4"), sf.apply(data).messages() );
+
+        var schemaById = Map.<String,Channel<?>>of( "messages", Channels.<Message>indexedAppender( Message::id ) );
+
+        data = AgentState.updateState( sf.applyFromSchema(schemaById), Map.of( "messages", List.of( new Message("1", "a"), new Message("2", "b") )), schemaById);
+        data = AgentState.updateState( data, Map.of( "messages", List.of( new Message("1", "a changed"), new Message("3", "c") )), schemaById);
+
+        assertIterableEquals( List.of( new Message("1", "a"), new Message("2", "b"), new Message("3", "c") ), sf.apply(data).messages() );
+
+        data = AgentState.updateState( data, Map.of( "messages",
+                (AppenderChannel.RemoveIdentifier<Message>) ( element, atIndex ) -> element.id().compareTo("1")), schemaById);
+        data = AgentState.updateState( data, Map.of( "messages", new Message("1", "a again") ), schemaById);
+
+        assertIterableEquals( List.of( new Message("2", "b"), new Message("3", "c"), new Message("1", "a again") ), sf.apply(data).messages() );
+    }
+}
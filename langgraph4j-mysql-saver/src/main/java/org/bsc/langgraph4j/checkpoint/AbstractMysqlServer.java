@@ -1,5 +1,6 @@
 package org.bsc.langgraph4j.checkpoint;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.bsc.langgraph4j.RunnableConfig;
 import org.bsc.langgraph4j.utils.TryFunction;
@@ -78,6 +79,8 @@ public abstract class AbstractMysqlServer extends AbstractCheckpointSaver {
             ORDER BY c.saved_at DESC, c.id DESC
             """;
 
+    private static final String SELECT_LATEST_CHECKPOINTS = SELECT_CHECKPOINTS + "LIMIT ?\n";
+
     private static final String DELETE_CHECKPOINTS = """
                 DELETE FROM LANGRAPH4J_CHECKPOINT WHERE checkpoint_id = ?
             """;
@@ -92,6 +95,7 @@ public abstract class AbstractMysqlServer extends AbstractCheckpointSaver {
     protected static class AbstractBuilder<B extends AbstractBuilder<B>> {
         protected DataSource dataSource;
         protected CreateOption createOption = CreateOption.CREATE_IF_NOT_EXISTS;
+        protected int keyframeInterval = 1;
 
         @SuppressWarnings("unchecked")
         private B this$() {
@@ -119,6 +123,19 @@ public abstract class AbstractMysqlServer extends AbstractCheckpointSaver {
             return this$();
         }
 
+        /**
+         * Sets the number of checkpoints between two keyframes (default 1, each checkpoint stores the full state).
+         * In between keyframes only the changes since the previous checkpoint are stored.
+         *
+         * @param keyframeInterval the number of checkpoints between two keyframes
+         * @return this builder
+         * @see CheckpointDelta
+         */
+        public B keyframeInterval(int keyframeInterval) {
+            this.keyframeInterval = keyframeInterval;
+            return this$();
+        }
+
     }
 
     // Configuration
@@ -133,6 +150,7 @@ public abstract class AbstractMysqlServer extends AbstractCheckpointSaver {
      * @param builder   Builder instance
      */
     protected AbstractMysqlServer(AbstractBuilder<? > builder) {
+        super(builder.keyframeInterval);
         this.dataSource = builder.dataSource;
         this.createOption = builder.createOption;
         this.objectMapper = new ObjectMapper();
@@ -150,24 +168,42 @@ public abstract class AbstractMysqlServer extends AbstractCheckpointSaver {
      */
     @Override
     protected LinkedList<Checkpoint> loadCheckpoints(RunnableConfig config) throws Exception {
+        return loadCheckpoints(config, 0);
+    }
+
+    /**
+     * Loads only the most recent checkpoints from the database, so appending a checkpoint
+     * doesn't read the whole thread history.
+     *
+     * @param config the configuration
+     * @param limit  the maximum number of checkpoints needed
+     * @return the most recent checkpoints
+     * @throws Exception if an error occurs while the checkpoints are being
+     *                   loaded from the database.
+     */
+    @Override
+    protected LinkedList<Checkpoint> loadLatestCheckpoints(RunnableConfig config, int limit) throws Exception {
+        return loadCheckpoints(config, limit);
+    }
+
+    private LinkedList<Checkpoint> loadCheckpoints(RunnableConfig config, int limit) throws Exception {
 
         final var checkpoints = new LinkedList<Checkpoint>();
         final var threadName = threadId(config);
 
         try (Connection connection = dataSource.getConnection();
-             PreparedStatement preparedStatement = connection.prepareStatement(SELECT_CHECKPOINTS)) {
+             PreparedStatement preparedStatement = connection.prepareStatement( (limit > 0) ? SELECT_LATEST_CHECKPOINTS : SELECT_CHECKPOINTS )) {
 
             preparedStatement.setString(1, threadName);
+            if (limit > 0) {
+                preparedStatement.setInt(2, limit);
+            }
             try (ResultSet resultSet = preparedStatement.executeQuery()) {
                 while (resultSet.next()) {
-                    String jsonString = resultSet.getString(4);
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> state = objectMapper.readValue(jsonString, Map.class);
-                    Checkpoint checkpoint = Checkpoint.builder()
+                    Checkpoint checkpoint = readStateData(resultSet.getString(4), Checkpoint.builder()
                             .id(resultSet.getString(1))
                             .nodeId(resultSet.getString(2))
-                            .nextNodeId(resultSet.getString(3))
-                            .state(state)
+                            .nextNodeId(resultSet.getString(3)))
                             .build();
                     checkpoints.add(checkpoint);
                 }
@@ -178,6 +214,41 @@ public abstract class AbstractMysqlServer extends AbstractCheckpointSaver {
         return checkpoints;
     }
 
+    /**
+     * Returns the JSON stored in the state_data column. A delta checkpoint is stored as an array holding its
+     * changes and its state, that can't be confused with a state, always stored as an object.
+     *
+     * @param checkpoint the checkpoint
+     * @return the JSON of the state data
+     * @throws JsonProcessingException if the state cannot be serialized
+     * @see CheckpointDelta
+     */
+    private String stateData(Checkpoint checkpoint) throws JsonProcessingException {
+        if (checkpoint.getDelta().isPresent()) {
+            return objectMapper.writeValueAsString(List.of(checkpoint.getDelta().get().toMap(), checkpoint.getState()));
+        }
+        return objectMapper.writeValueAsString(checkpoint.getState());
+    }
+
+    /**
+     * Sets the state, and the delta changes if any, read from the JSON stored in the state_data column.
+     *
+     * @param jsonString the JSON of the state data
+     * @param builder the checkpoint builder
+     * @return the checkpoint builder
+     * @throws JsonProcessingException if the state cannot be deserialized
+     * @see #stateData(Checkpoint)
+     */
+    @SuppressWarnings("unchecked")
+    private Checkpoint.Builder readStateData(String jsonString, Checkpoint.Builder builder) throws JsonProcessingException {
+        final var stateData = objectMapper.readTree(jsonString);
+        if (stateData.isArray()) {
+            return builder.delta(CheckpointDelta.Changes.fromMap(objectMapper.treeToValue(stateData.get(0), Map.class)))
+                    .state((Map<String, Object>) objectMapper.treeToValue(stateData.get(1), Map.class));
+        }
+        return builder.state((Map<String, Object>) objectMapper.treeToValue(stateData, Map.class));
+    }
+
     /**
      * Inserts a checkpoint to the database
      *
@@ -203,7 +274,7 @@ public abstract class AbstractMysqlServer extends AbstractCheckpointSaver {
             insertCheckpointStatement.setString(1, checkpoint.getId());
             insertCheckpointStatement.setString(2, checkpoint.getNodeId());
             insertCheckpointStatement.setString(3, checkpoint.getNextNodeId());
-            insertCheckpointStatement.setString(4, objectMapper.writeValueAsString(checkpoint.getState()));
+            insertCheckpointStatement.setString(4, stateData(checkpoint));
             insertCheckpointStatement.setString(5, threadName);
 
             insertCheckpointStatement.execute();
@@ -254,7 +325,7 @@ public abstract class AbstractMysqlServer extends AbstractCheckpointSaver {
                 preparedStatement.setString(1, checkpoint.getId());
                 preparedStatement.setString(2, checkpoint.getNodeId());
                 preparedStatement.setString(3, checkpoint.getNextNodeId());
-                preparedStatement.setString(4, objectMapper.writeValueAsString(checkpoint.getState()));
+                preparedStatement.setString(4, stateData(checkpoint));
                 preparedStatement.setString(5, config.checkPointId().get());
                 preparedStatement.execute();
             } catch (SQLException sqlException) {
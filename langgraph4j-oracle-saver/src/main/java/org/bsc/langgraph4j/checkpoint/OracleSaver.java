@@ -2,6 +2,7 @@ package org.bsc.langgraph4j.checkpoint;
 
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import oracle.jdbc.OracleStatement;
 import oracle.jdbc.OracleType;
@@ -139,6 +140,8 @@ public class OracleSaver extends AbstractCheckpointSaver {
             ORDER BY c.saved_at DESC
             """;
 
+    private static final String SELECT_LATEST_CHECKPOINTS = SELECT_CHECKPOINTS + "FETCH FIRST ? ROWS ONLY\n";
+
     private static final String DELETE_CHECKPOINTS = """
                 DELETE FROM LANGRAPH4J_CHECKPOINT WHERE checkpoint_id = ?
             """;
@@ -154,6 +157,7 @@ public class OracleSaver extends AbstractCheckpointSaver {
     public static class Builder {
         private DataSource dataSource;
         private CreateOption createOption = CreateOption.CREATE_IF_NOT_EXISTS;
+        private int keyframeInterval = 1;
 
         /**
          * Sets the datasource
@@ -177,6 +181,19 @@ public class OracleSaver extends AbstractCheckpointSaver {
             return this;
         }
 
+        /**
+         * Sets the number of checkpoints between two keyframes (default 1, each checkpoint stores the full state).
+         * In between keyframes only the changes since the previous checkpoint are stored.
+         *
+         * @param keyframeInterval the number of checkpoints between two keyframes
+         * @return this builder
+         * @see CheckpointDelta
+         */
+        public Builder keyframeInterval(int keyframeInterval) {
+            this.keyframeInterval = keyframeInterval;
+            return this;
+        }
+
         /**
          * Creates a new instance of OracleSaver
          *
@@ -210,6 +227,7 @@ public class OracleSaver extends AbstractCheckpointSaver {
      * @param builder Builder instance
      */
     private OracleSaver(Builder builder) {
+        super(builder.keyframeInterval);
         this.dataSource = builder.dataSource;
         this.createOption = builder.createOption;
         initTables();
@@ -226,13 +244,32 @@ public class OracleSaver extends AbstractCheckpointSaver {
 
     @Override
     protected LinkedList<Checkpoint> loadCheckpoints(RunnableConfig config) throws Exception {
+        return loadCheckpoints(config, 0);
+    }
+
+    /**
+     * Loads only the most recent checkpoints from the database, so appending a checkpoint
+     * doesn't read the whole thread history.
+     *
+     * @param config the configuration
+     * @param limit  the maximum number of checkpoints needed
+     * @return the most recent checkpoints
+     * @throws Exception if an error occurs while the checkpoints are being
+     *                   loaded from the database.
+     */
+    @Override
+    protected LinkedList<Checkpoint> loadLatestCheckpoints(RunnableConfig config, int limit) throws Exception {
+        return loadCheckpoints(config, limit);
+    }
+
+    private LinkedList<Checkpoint> loadCheckpoints(RunnableConfig config, int limit) throws Exception {
         final var checkpoints = new LinkedList<Checkpoint>();
         final String threadName = threadId(config);
         JsonFactory osonFactory = new OsonFactory();
         ObjectMapper objectMapper = new ObjectMapper(osonFactory);
 
         try (Connection connection = dataSource.getConnection();
-                PreparedStatement preparedStatement = connection.prepareStatement(SELECT_CHECKPOINTS)) {
+                PreparedStatement preparedStatement = connection.prepareStatement( (limit > 0) ? SELECT_LATEST_CHECKPOINTS : SELECT_CHECKPOINTS )) {
 
             // Calls to defineColumnType reduce the number of network requests. When Oracle
             // JDBC knows that it is
@@ -252,16 +289,26 @@ public class OracleSaver extends AbstractCheckpointSaver {
             oracleStatement.setLobPrefetchSize(Integer.MAX_VALUE); // Workaround for Oracle JDBC bug 37030121
 
             preparedStatement.setString(1, threadName);
+            if (limit > 0) {
+                preparedStatement.setInt(2, limit);
+            }
             try (ResultSet resultSet = preparedStatement.executeQuery()) {
                 while (resultSet.next()) {
                     byte[] osonBytes = resultSet.getObject(4, OracleJsonDatum.class).shareBytes();
-                    Checkpoint checkpoint = Checkpoint.builder()
+                    Checkpoint.Builder builder = Checkpoint.builder()
                             .id(resultSet.getString(1))
                             .nodeId(resultSet.getString(2))
-                            .nextNodeId(resultSet.getString(3))
-                            .state(objectMapper.readValue(osonBytes, new TypeReference<Map<String, Object>>() {}))
-                            .build();
-                    checkpoints.add(checkpoint);
+                            .nextNodeId(resultSet.getString(3));
+                    JsonNode stateData = objectMapper.readTree(osonBytes);
+                    if (stateData.isArray()) {
+                        // delta checkpoint, see stateData(Checkpoint)
+                        builder.delta(CheckpointDelta.Changes.fromMap(objectMapper.convertValue(stateData.get(0), new TypeReference<Map<String, Object>>() {})))
+                                .state(objectMapper.convertValue(stateData.get(1), new TypeReference<Map<String, Object>>() {}));
+                    }
+                    else {
+                        builder.state(objectMapper.convertValue(stateData, new TypeReference<Map<String, Object>>() {}));
+                    }
+                    checkpoints.add(builder.build());
                 }
             }
         } catch (SQLException sqlException) {
@@ -270,6 +317,21 @@ public class OracleSaver extends AbstractCheckpointSaver {
         return checkpoints;
     }
 
+    /**
+     * Returns the value stored in the state_data column. A delta checkpoint is stored as an array holding its
+     * changes and its state, that can't be confused with a state, always stored as an object.
+     *
+     * @param checkpoint the checkpoint
+     * @return the value of the state data
+     * @see CheckpointDelta
+     */
+    private Object stateData(Checkpoint checkpoint) {
+        if (checkpoint.getDelta().isPresent()) {
+            return List.of(checkpoint.getDelta().get().toMap(), checkpoint.getState());
+        }
+        return checkpoint.getState();
+    }
+
     /**
      * Inserts a checkpoint to the database
      *
@@ -295,7 +357,7 @@ public class OracleSaver extends AbstractCheckpointSaver {
             insertCheckpointStatement.setString(1, checkpoint.getId());
             insertCheckpointStatement.setString(2, checkpoint.getNodeId());
             insertCheckpointStatement.setString(3, checkpoint.getNextNodeId());
-            insertCheckpointStatement.setObject(4, checkpoint.getState(), OracleType.JSON);
+            insertCheckpointStatement.setObject(4, stateData(checkpoint), OracleType.JSON);
             insertCheckpointStatement.setString(5, threadName);
 
             insertCheckpointStatement.execute();
@@ -348,7 +410,7 @@ public class OracleSaver extends AbstractCheckpointSaver {
                 preparedStatement.setString(1, checkpoint.getId());
                 preparedStatement.setString(2, checkpoint.getNodeId());
                 preparedStatement.setString(3, checkpoint.getNextNodeId());
-                preparedStatement.setObject(4, checkpoint.getState(), OracleType.JSON);
+                preparedStatement.setObject(4, stateData(checkpoint), OracleType.JSON);
                 preparedStatement.setString(5, config.checkPointId().get());
                 preparedStatement.execute();
             } catch (SQLException sqlException) {
@@ -32,6 +32,7 @@ public class PostgresSaver extends AbstractCheckpointSaver {
         private boolean dropTablesFirst;
         private DataSource datasource;
         private boolean plainTextStateSerializerLegacyMode = false;
+        private int keyframeInterval = 1;
 
         public <State extends AgentState> Builder stateSerializer(StateSerializer<State> stateSerializer) {
             this.stateSerializer = stateSerializer;
@@ -90,6 +91,19 @@ public class PostgresSaver extends AbstractCheckpointSaver {
             return this;
         }
 
+        /**
+         * Sets the number of checkpoints between two keyframes (default 1, each checkpoint stores the full state).
+         * In between keyframes only the changes since the previous checkpoint are stored.
+         *
+         * @param keyframeInterval the number of checkpoints between two keyframes
+         * @return this builder
+         * @see CheckpointDelta
+         */
+        public Builder keyframeInterval(int keyframeInterval) {
+            this.keyframeInterval = keyframeInterval;
+            return this;
+        }
+
         private String requireNotBlank( String value, String name ) {
             if( requireNonNull(value, format("'%s' cannot be null", name) ).isBlank() ) {
                 throw new IllegalArgumentException(format("'%s' cannot be blank", name));
@@ -132,6 +146,7 @@ public class PostgresSaver extends AbstractCheckpointSaver {
     private final boolean plainTextStateSerializerLegacyMode;
 
     protected PostgresSaver( Builder builder ) throws SQLException {
+        super( builder.keyframeInterval );
         this.datasource = builder.datasource;
         this.stateSerializer =  builder.stateSerializer;
         this.plainTextStateSerializerLegacyMode = builder.plainTextStateSerializerLegacyMode;
@@ -155,7 +170,7 @@ public class PostgresSaver extends AbstractCheckpointSaver {
         }
     }
 
-    private String encodeState( Map<String,Object> data ) throws IOException {
+    private String encodeData( Map<String,Object> data ) throws IOException {
         final byte[] binaryData;
 
         if( plainTextStateSerializerLegacyMode && stateSerializer instanceof PlainTextStateSerializer<?> ser ) {
@@ -164,7 +179,19 @@ public class PostgresSaver extends AbstractCheckpointSaver {
         else {
             binaryData = stateSerializer.dataToBytes(data);
         }
-        final var base64Data = Base64.getEncoder().encodeToString(binaryData);
+        return Base64.getEncoder().encodeToString(binaryData);
+    }
+
+    /**
+     * Encodes the state of the checkpoint and, for a delta checkpoint, its changes in a separate property
+     */
+    private String encodeState( Checkpoint checkpoint ) throws IOException {
+        final var base64Data = encodeData( checkpoint.getState() );
+        if( checkpoint.getDelta().isPresent() ) {
+            return """
+                {"binaryPayload": "%s", "deltaPayload": "%s"}
+                """.formatted(base64Data, encodeData( checkpoint.getDelta().get().toMap() ));
+        }
         return """
                 {"binaryPayload": "%s"}
                 """.formatted(base64Data);
@@ -186,6 +213,10 @@ public class PostgresSaver extends AbstractCheckpointSaver {
         return stateSerializer.dataFromBytes( bytes );
     }
 
+    private CheckpointDelta.Changes decodeDelta( byte[] deltaPayload, String contentType ) throws IOException, ClassNotFoundException {
+        return ( deltaPayload != null ) ? CheckpointDelta.Changes.fromMap( decodeState( deltaPayload, contentType ) ) : null;
+    }
+
     protected void initTable(boolean dropTablesFirst, boolean createTables) throws SQLException {
         var sqlDropTables = """
         DROP TABLE IF EXISTS LG4JCheckpoint CASCADE;
@@ -243,6 +274,19 @@ public class PostgresSaver extends AbstractCheckpointSaver {
 
     @Override
     protected LinkedList<Checkpoint> loadCheckpoints(RunnableConfig config) throws Exception {
+        return loadCheckpoints(config, 0);
+    }
+
+    /**
+     * Loads only the most recent checkpoints of the thread, so appending a checkpoint
+     * doesn't read and decode the whole thread history.
+     */
+    @Override
+    protected LinkedList<Checkpoint> loadLatestCheckpoints(RunnableConfig config, int limit) throws Exception {
+        return loadCheckpoints(config, limit);
+    }
+
+    private LinkedList<Checkpoint> loadCheckpoints(RunnableConfig config, int limit) throws Exception {
 
         final var checkpoints = new LinkedList<Checkpoint>();
 
@@ -264,11 +308,12 @@ public class PostgresSaver extends AbstractCheckpointSaver {
                         c.next_node_id,
                         c.state_data->>'binaryPayload' AS base64_data,
                         c.state_content_type,
-                        c.parent_checkpoint_id
+                        c.parent_checkpoint_id,
+                        c.state_data->>'deltaPayload' AS base64_delta
                 FROM matched_thread t
                 JOIN LG4JCheckpoint c ON c.thread_id = t.thread_id
                 ORDER BY c.saved_at DESC
-                """;
+                """ + (( limit > 0 ) ? "LIMIT ?\n" : "");
         try( Connection conn = getConnection() ) {
 
             try( PreparedStatement ps = conn.prepareStatement(sqlCheckThread) ) {
@@ -288,6 +333,9 @@ public class PostgresSaver extends AbstractCheckpointSaver {
             log.trace( "Executing select checkpoints:\n---\n{}---", sqlQueryCheckpoints);
             try( PreparedStatement ps = conn.prepareStatement(sqlQueryCheckpoints) ) {
                 ps.setString(1, threadId);
+                if( limit > 0 ) {
+                    ps.setInt(2, limit);
+                }
                 var rs = ps.executeQuery();
                 while( rs.next() ) {
                     var checkpoint = Checkpoint.builder()
@@ -295,6 +343,7 @@ public class PostgresSaver extends AbstractCheckpointSaver {
                             .nodeId( rs.getString(2) )
                             .nextNodeId( rs.getString(3) )
                             .state( decodeState( rs.getBytes(4), rs.getString( 5) ) )
+                            .delta( decodeDelta( rs.getBytes(7), rs.getString( 5) ) )
                             .build();
                     checkpoints.add( checkpoint );
                 }
@@ -373,7 +422,7 @@ public class PostgresSaver extends AbstractCheckpointSaver {
             // next_node_id
             ps.setString(++field, checkpoint.getNextNodeId());
             // state_data
-            ps.setString(++field, encodeState(checkpoint.getState()));
+            ps.setString(++field, encodeState(checkpoint));
             // state_content_type
             ps.setString(++field, stateSerializer.contentType());
 
@@ -5,7 +5,7 @@ import org.bsc.langgraph4j.RunnableConfig;
 import org.bsc.langgraph4j.utils.TryFunction;
 import org.redisson.Redisson;
 import org.redisson.api.RBatch;
-import org.redisson.api.RMap;
+import org.redisson.api.RFuture;
 import org.redisson.api.RScoredSortedSet;
 import org.redisson.api.RedissonClient;
 import org.redisson.client.codec.StringCodec;
@@ -73,6 +73,7 @@ public class RedisSaver extends AbstractCheckpointSaver {
     private static final String NODE_ID_FIELD = "node_id";
     private static final String NEXT_NODE_ID_FIELD = "next_node_id";
     private static final String STATE_DATA_FIELD = "state_data";
+    private static final String STATE_DELTA_FIELD = "state_delta";
     private static final String SAVED_AT_FIELD = "saved_at";
 
     // Configuration
@@ -106,6 +107,7 @@ public class RedisSaver extends AbstractCheckpointSaver {
         private KeyNamingStrategy keyNamingStrategy = null;
         private long ttl = -1;
         private TimeUnit ttlUnit = TimeUnit.MINUTES;
+        private int keyframeInterval = 1;
 
         /**
          * Sets the Redis host.
@@ -228,6 +230,19 @@ public class RedisSaver extends AbstractCheckpointSaver {
             return this;
         }
 
+        /**
+         * Sets the number of checkpoints between two keyframes (default 1, each checkpoint stores the full state).
+         * In between keyframes only the changes since the previous checkpoint are stored.
+         *
+         * @param keyframeInterval the number of checkpoints between two keyframes
+         * @return this builder
+         * @see CheckpointDelta
+         */
+        public Builder keyframeInterval(int keyframeInterval) {
+            this.keyframeInterval = keyframeInterval;
+            return this;
+        }
+
         /**
          * Sets the RedissonClient to reuse.
          * <p>
@@ -292,6 +307,7 @@ public class RedisSaver extends AbstractCheckpointSaver {
      * @param builder     Builder instance
      */
     private RedisSaver(Builder builder) {
+        super(builder.keyframeInterval);
         this.redissonClient = Objects.requireNonNull(builder.redissonClient, "redissonClient cannot be null");
         this.keyNamingStrategy = builder.keyNamingStrategy != null ? builder.keyNamingStrategy : new DefaultKeyNamingStrategy();
         this.objectMapper = new ObjectMapper();
@@ -301,6 +317,27 @@ public class RedisSaver extends AbstractCheckpointSaver {
 
     @Override
     protected LinkedList<Checkpoint> loadCheckpoints(RunnableConfig config) throws Exception {
+        return loadCheckpoints(config, 0);
+    }
+
+    /**
+     * Loads only the most recent checkpoints of the thread, so appending a checkpoint
+     * doesn't read the whole thread history.
+     */
+    @Override
+    protected LinkedList<Checkpoint> loadLatestCheckpoints(RunnableConfig config, int limit) throws Exception {
+        return loadCheckpoints(config, limit);
+    }
+
+    /**
+     * Loads the checkpoints of the thread with a constant number of round trips, whatever the number of checkpoints:
+     * the active thread lookup, a pipelined read of the released flag and the checkpoint ids, and a pipelined read
+     * of all the checkpoint hashes.
+     *
+     * @param config the configuration
+     * @param limit the maximum number of checkpoints to load ( most recent first ), 0 means all
+     */
+    private LinkedList<Checkpoint> loadCheckpoints(RunnableConfig config, int limit) throws Exception {
 
         final var checkpoints = new LinkedList<Checkpoint>();
         final var threadName = threadId(config);
@@ -313,48 +350,60 @@ public class RedisSaver extends AbstractCheckpointSaver {
             return checkpoints; // No active thread
         }
 
-        // Check if thread is released
+        // Check if thread is released and get checkpoint IDs (ordered by timestamp descending) in one round trip
         final var threadKey = keyNamingStrategy.threadKey(threadId);
-        RMap<String, String> threadMap = redissonClient.getMap(threadKey, StringCodec.INSTANCE);
-        final var isReleased = threadMap.get(IS_RELEASED_FIELD);
+        final var checkpointsKey = keyNamingStrategy.checkpointsKey(threadId);
+
+        final RBatch idsBatch = redissonClient.createBatch();
+        final var isReleasedFuture = idsBatch.<String, String>getMap(threadKey, StringCodec.INSTANCE)
+                                            .getAsync(IS_RELEASED_FIELD);
+        final var scoredEntriesFuture = idsBatch.<String>getScoredSortedSet(checkpointsKey, StringCodec.INSTANCE)
+                                            .entryRangeReversedAsync(0, (limit > 0) ? limit - 1 : -1);
+        idsBatch.execute();
 
-        if ("1".equals(isReleased)) {
+        if ("1".equals(isReleasedFuture.toCompletableFuture().join())) {
             return checkpoints; // Thread is released
         }
 
-        // Get checkpoint IDs from sorted set (ordered by timestamp descending)
-        final var checkpointsKey = keyNamingStrategy.checkpointsKey(threadId);
-        RScoredSortedSet<String> checkpointsSet = redissonClient.getScoredSortedSet(checkpointsKey, StringCodec.INSTANCE);
-
-        // Get checkpoints in descending order by score (timestamp)
-        Collection<ScoredEntry<String>> scoredEntries = checkpointsSet.entryRangeReversed(0, -1);
-
-        if (scoredEntries != null) {
-            for (ScoredEntry<String> entry : scoredEntries) {
-                String checkpointId = entry.getValue();
-                String checkpointKey = keyNamingStrategy.checkpointKey(checkpointId);
-                RMap<String, String> checkpointMap = redissonClient.getMap(checkpointKey, StringCodec.INSTANCE);
+        final Collection<ScoredEntry<String>> scoredEntries = scoredEntriesFuture.toCompletableFuture().join();
 
-                if (!checkpointMap.isExists()) {
-                    continue; // Checkpoint was deleted
-                }
+        if (scoredEntries == null || scoredEntries.isEmpty()) {
+            return checkpoints;
+        }
 
-                String stateJson = checkpointMap.get(STATE_DATA_FIELD);
-                if (stateJson == null) {
-                    continue;
-                }
+        // Read all checkpoint hashes in one round trip
+        final RBatch checkpointsBatch = redissonClient.createBatch();
+        final var checkpointFutures = new ArrayList<RFuture<Map<String, String>>>(scoredEntries.size());
+        for (ScoredEntry<String> entry : scoredEntries) {
+            String checkpointKey = keyNamingStrategy.checkpointKey(entry.getValue());
+            checkpointFutures.add(checkpointsBatch.<String, String>getMap(checkpointKey, StringCodec.INSTANCE).readAllMapAsync());
+        }
+        checkpointsBatch.execute();
 
-                @SuppressWarnings("unchecked")
-                Map<String, Object> state = objectMapper.readValue(stateJson, Map.class);
+        for (var future : checkpointFutures) {
+            final Map<String, String> checkpointMap = future.toCompletableFuture().join();
 
-                Checkpoint checkpoint = Checkpoint.builder()
-                        .id(checkpointMap.get(CHECKPOINT_ID_FIELD))
-                        .nodeId(checkpointMap.get(NODE_ID_FIELD))
-                        .nextNodeId(checkpointMap.get(NEXT_NODE_ID_FIELD))
-                        .state(state)
-                        .build();
-                checkpoints.add(checkpoint);
+            String stateJson = checkpointMap.get(STATE_DATA_FIELD);
+            if (stateJson == null) {
+                continue; // Checkpoint was deleted
             }
+
+            @SuppressWarnings("unchecked")
+            Map<String, Object> state = objectMapper.readValue(stateJson, Map.class);
+
+            // the changes of a delta checkpoint, absent for a keyframe
+            String deltaJson = checkpointMap.get(STATE_DELTA_FIELD);
+            @SuppressWarnings("unchecked")
+            Map<String, Object> delta = (deltaJson != null) ? objectMapper.readValue(deltaJson, Map.class) : null;
+
+            Checkpoint checkpoint = Checkpoint.builder()
+                    .id(checkpointMap.get(CHECKPOINT_ID_FIELD))
+                    .nodeId(checkpointMap.get(NODE_ID_FIELD))
+                    .nextNodeId(checkpointMap.get(NEXT_NODE_ID_FIELD))
+                    .state(state)
+                    .delta(delta != null ? CheckpointDelta.Changes.fromMap(delta) : null)
+                    .build();
+            checkpoints.add(checkpoint);
         }
 
         return checkpoints;
@@ -394,6 +443,9 @@ public class RedisSaver extends AbstractCheckpointSaver {
         batch.getMap(checkpointKey, StringCodec.INSTANCE).fastPutAsync(NODE_ID_FIELD, checkpoint.getNodeId() != null ? checkpoint.getNodeId() : "");
         batch.getMap(checkpointKey, StringCodec.INSTANCE).fastPutAsync(NEXT_NODE_ID_FIELD, checkpoint.getNextNodeId() != null ? checkpoint.getNextNodeId() : "");
         batch.getMap(checkpointKey, StringCodec.INSTANCE).fastPutAsync(STATE_DATA_FIELD, stateJson);
+        if (checkpoint.getDelta().isPresent()) {
+            batch.getMap(checkpointKey, StringCodec.INSTANCE).fastPutAsync(STATE_DELTA_FIELD, objectMapper.writeValueAsString(checkpoint.getDelta().get().toMap()));
+        }
         batch.getMap(checkpointKey, StringCodec.INSTANCE).fastPutAsync(SAVED_AT_FIELD, String.valueOf(timestamp));
 
         // Add to sorted set with timestamp as score
@@ -449,6 +501,9 @@ public class RedisSaver extends AbstractCheckpointSaver {
             batch.getMap(newCheckpointKey, StringCodec.INSTANCE).fastPutAsync(NODE_ID_FIELD, checkpoint.getNodeId() != null ? checkpoint.getNodeId() : "");
             batch.getMap(newCheckpointKey, StringCodec.INSTANCE).fastPutAsync(NEXT_NODE_ID_FIELD, checkpoint.getNextNodeId() != null ? checkpoint.getNextNodeId() : "");
             batch.getMap(newCheckpointKey, StringCodec.INSTANCE).fastPutAsync(STATE_DATA_FIELD, stateJson);
+            if (checkpoint.getDelta().isPresent()) {
+                batch.getMap(newCheckpointKey, StringCodec.INSTANCE).fastPutAsync(STATE_DELTA_FIELD, objectMapper.writeValueAsString(checkpoint.getDelta().get().toMap()));
+            }
             batch.getMap(newCheckpointKey, StringCodec.INSTANCE).fastPutAsync(SAVED_AT_FIELD, String.valueOf(timestamp));
 
             // Add to sorted set with new timestamp